@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration
+/**
+ * This is a config file for the database connections, which sends read-only transactions to a replica database if one is specified
+ * The primary database is defined by the spring.datasource properties, while the replica is defined by the app.datasource.replica properties
+ * This is spring managed
+ */
+public class DataSourceConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSourceConfig.class.getName());
+
+    /**
+     * This creates the data source which routes each connection to the primary or the replica database
+     * @param properties the spring.datasource properties of the primary database
+     * @param replicaUrl the url of the replica database, if this is blank every transaction uses the primary database
+     * @param replicaUsername the username for the replica database, if this is blank the username of the primary database is used
+     * @param replicaPassword the password for the replica database, if this is blank the password of the primary database is used
+     * @return the routing data source, which is closed when the application is shut down
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties,
+        @Value("${app.datasource.replica.url:}") String replicaUrl,
+        @Value("${app.datasource.replica.username:}") String replicaUsername,
+        @Value("${app.datasource.replica.password:}") String replicaPassword) {
+
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+        DataSource replica = null;
+        if (!replicaUrl.isBlank()) {
+            replica = DataSourceBuilder.create()
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(replicaUsername.isBlank() ? properties.determineUsername() : replicaUsername)
+                .password(replicaPassword.isBlank() ? properties.determinePassword() : replicaPassword)
+                .build();
+            LOGGER.info("Read-only transactions will use the replica database at (`{}`)",replicaUrl);
+        }
+        else {
+            LOGGER.info("No replica database was specified, every transaction will use the primary database");
+        }
+        return new ReadWriteRoutingDataSource(primary, replica);
+    }
+
+    /**
+     * This creates the data source used by the application, which only creates a connection once the first statement is executed.
+     * This is required for the routing, since the transaction is only marked as read-only after it has begun
+     * @param routingDataSource the routing data source
+     * @return the data source used by the application
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This data source sends the connections of read-only transactions to a replica database, while every other connection uses the primary database.
+ * If no replica is specified, or a connection to the replica can not be created, the primary is used instead, where the replica is then skipped for REPLICA_RETRY_DELAY_MILLIS
+ * so that read-only transactions do not wait for the replica to time out every time.
+ * Since the read-only flag of a transaction is only known once the transaction has begun, this must be wrapped in a LazyConnectionDataSourceProxy, see DataSourceConfig.java
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    //The keys of the two target data sources
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    //How long the replica is skipped after a connection to it could not be created
+    static final long REPLICA_RETRY_DELAY_MILLIS = 30000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final LongSupplier clock;
+    private volatile long replicaRetryAt = 0;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class.getName());
+
+    /**
+     * Constructs a new instance of the ReadWriteRoutingDataSource
+     *
+     * @param primary the data source used for every transaction which is not read-only
+     * @param replica the data source used for read-only transactions, or null if every transaction should use the primary
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        this(primary, replica, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a new instance of the ReadWriteRoutingDataSource with a specific clock, this is used for testing
+     *
+     * @param primary the data source used for every transaction which is not read-only
+     * @param replica the data source used for read-only transactions, or null if every transaction should use the primary
+     * @param clock the clock used to decide when to retry the replica, in milliseconds
+     */
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, LongSupplier clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.clock = clock;
+
+        Map<Object, Object> targets = new HashMap<Object, Object>();
+        targets.put(PRIMARY, primary);
+        if (replica!=null) {
+            targets.put(REPLICA, replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * This function decides which database the current connection should use, which is the replica only for read-only transactions while the replica is available
+     * @return the key of the data source to use
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replica!=null && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && clock.getAsLong()>=replicaRetryAt) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * This function creates a connection to the database chosen by determineCurrentLookupKey, falling back to the primary if the replica can not be reached
+     * @return the connection
+     * @throws SQLException this is thrown if a connection to the primary can not be created
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replicaRetryAt = clock.getAsLong()+REPLICA_RETRY_DELAY_MILLIS;
+                LOGGER.error("Failed to connect to the replica database, read-only transactions will use the primary database for (`{}`) ms : (`{}`)",REPLICA_RETRY_DELAY_MILLIS,e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * This function creates a connection with specific credentials to the database chosen by determineCurrentLookupKey, falling back to the primary if the replica can not be reached
+     * @param username the username to connect with
+     * @param password the password to connect with
+     * @return the connection
+     * @throws SQLException this is thrown if a connection to the primary can not be created
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                replicaRetryAt = clock.getAsLong()+REPLICA_RETRY_DELAY_MILLIS;
+                LOGGER.error("Failed to connect to the replica database, read-only transactions will use the primary database for (`{}`) ms : (`{}`)",REPLICA_RETRY_DELAY_MILLIS,e.getMessage());
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * This closes the connection pools of both databases when the application is shut down
+     * @throws IOException this is thrown if a pool could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : new DataSource[] {replica, primary}) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.PasswordHashingBusyException;
+
+/**
+ * This authentication provider verifies usernames and passwords in the same way as DaoAuthenticationProvider, and hashes the password again after a successful login if its hash should be upgraded.
+ * Unlike DaoAuthenticationProvider, a failure to hash or store the password again does not fail the login, since the password has already been verified,
+ * so a login is not rejected with a 503 response just because every hashing thread became busy after the password was verified. The old hash is then kept until the next login
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RehashingAuthenticationProvider.class.getName());
+
+    /**
+     * Constructs a new instance of the RehashingAuthenticationProvider
+     *
+     * @param userDetailsService the service used to load users
+     * @param passwordEncoder the encoder used to verify passwords, and to hash them again
+     * @param userDetailsPasswordService the service used to store passwords which were hashed again
+     */
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder, UserDetailsPasswordService userDetailsPasswordService) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+    }
+
+    /**
+     * This creates the authentication of a user whose password has been verified, after hashing the password again if its hash should be upgraded
+     *
+     * @param principal the principal of the authentication
+     * @param authentication the authentication request, which contains the password
+     * @param user the user whose password was verified
+     * @return the successful authentication
+     */
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                user = userDetailsPasswordService.updatePassword(user, passwordEncoder.encode(authentication.getCredentials().toString()));
+            } catch (PasswordHashingBusyException | CustomDatabaseException e) {
+                LOGGER.error("Failed to hash the password of user (`{}`) again after a login, so the old hash is kept : (`{}`)", user.getUsername(), e.getMessage());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -2,12 +2,19 @@ package com.example.demo.config;
 
 
 import com.example.demo.filter.JwtAuthFilter;
+import com.example.demo.service.AdaptiveBCryptPasswordEncoder;
+import com.example.demo.service.BoundedPasswordEncoder;
 import com.example.demo.service.PersonService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -15,12 +22,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -36,11 +44,28 @@ public class SecurityConfig {
 
     /**
      * Provides a password encoder for hashing user passwords.
-     * @return BCryptPasswordEncoder instance.
+     * The passwords are hashed using BCrypt on a bounded pool of hashing threads, so a burst of logins can not occupy every request thread.
+     * If app.password-hashing.calibrate is true the BCrypt strength is calibrated at startup so a hash takes at most app.password-hashing.target-millis,
+     * otherwise app.password-hashing.strength is used
+     * @param meterRegistry the registry the hashing metrics are published to.
+     * @param calibrate if the strength should be calibrated.
+     * @param targetMillis the longest time a hash should take if the strength is calibrated.
+     * @param strength the strength used if it is not calibrated.
+     * @return BoundedPasswordEncoder instance.
      */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+      @Value("${app.password-hashing.calibrate:false}") boolean calibrate,
+      @Value("${app.password-hashing.target-millis:250}") long targetMillis,
+      @Value("${app.password-hashing.strength:10}") int strength) {
+        AdaptiveBCryptPasswordEncoder bcrypt;
+        if (calibrate) {
+            bcrypt = AdaptiveBCryptPasswordEncoder.Calibrate(Duration.ofMillis(targetMillis), meterRegistry);
+        }
+        else {
+            bcrypt = new AdaptiveBCryptPasswordEncoder(strength, meterRegistry);
+        }
+        return new BoundedPasswordEncoder(bcrypt, meterRegistry);
     }
 
     /**
@@ -55,15 +80,15 @@ public class SecurityConfig {
 
     /**
      * Configures the authentication provider using DAO-based authentication.
+     * The PersonService is also used to store passwords which were hashed again after a login.
      * @param personService the service responsible for retrieving user details.
+     * @param passwordEncoder the encoder used to verify passwords.
      * @return an instance of AuthenticationProvider.
      */
     @Bean
-    public AuthenticationProvider authenticationProvider(PersonService personService){
-        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
-        authenticationProvider.setUserDetailsService(personService);
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
-        return authenticationProvider;
+    public AuthenticationProvider authenticationProvider(PersonService personService, PasswordEncoder passwordEncoder){
+        //This hashes the password again after a successful login if its hash uses a different strength than new hashes, without failing the login if that is not possible
+        return new RehashingAuthenticationProvider(personService, passwordEncoder, personService);
     }
 
     /**
@@ -92,9 +117,11 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())  // New way to disable CSRF in Spring Security 6.1+
             .authorizeHttpRequests(auth -> auth
                 //.anyRequest().permitAll()  // Allows all endpoints without authentication (for testing)
-                .requestMatchers("/person/register", "/person/updateApplicant", "/auth/generateToken**","/person/requestApplicantReset","/translation/**").permitAll()
+                //Streamed responses (ex /review/streamApplications) finish in an async dispatch, the original request was already authorized so this should not be checked again
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/person/register", "/person/updateApplicant", "/auth/generateToken**","/auth/refresh","/person/requestApplicantReset","/translation/**").permitAll()
                 .requestMatchers("/application/**").hasAuthority("applicant")
-                .requestMatchers("/review/**", "/person/updateReviwer", "/person/find", "/person/findPerson").hasAuthority("recruiter")
+                .requestMatchers("/review/**", "/person/updateReviwer", "/person/find", "/person/findPerson", "/actuator/**").hasAuthority("recruiter")
                 .anyRequest().authenticated() 
             )
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -3,18 +3,34 @@ package com.example.demo.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import jakarta.annotation.PreDestroy;
+
 @Configuration
 /**
- * This is a config file for the website, includes for example config for cross-origin access
+ * This is a config file for the website, includes for example config for cross-origin access and the threads and timeout used by streamed responses
  * This is spring managed
  */
 public class WebConfig implements WebMvcConfigurer {
 
     @Value("${ALLOWED_ORIGINS:http://localhost:3000}") // Reads allowed origins from environment variables, defaulting to localhost:3000
     private String allowedOrigins;
+
+    //The time a streamed response, such as an application export, may take before it is cut off. Without this the servlet container default of 30 seconds is used
+    @Value("${app.streaming.timeout-millis:1800000}")
+    private long streamingTimeoutMillis;
+
+    //The number of responses which can be streamed at once, and the number which can wait for a thread, any further request is rejected with a 503 response
+    @Value("${app.streaming.max-threads:8}")
+    private int streamingThreads;
+    @Value("${app.streaming.queue-capacity:8}")
+    private int streamingQueueCapacity;
+
+    private ThreadPoolTaskExecutor streamingExecutor;
     
     @Override
     /**
@@ -33,5 +49,35 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")  // Allow all headers
                 .allowCredentials(true);  // Allow credentials (e.g., cookies, authorization headers)
     }
-}
 
+    @Override
+    /**
+     * Configures the timeout of asynchronous responses, which includes streamed responses such as StreamApplications and ExportApplications,
+     * and the bounded pool of threads which write the streamed responses, so a long export is not cut off by the servlet container default timeout and many exports can not use an unbounded number of threads.
+     * Note that server-sent event subscriptions specify their own timeout, and are not written by these threads
+     *
+     * @param configurer the configurer used to configure asynchronous responses
+     */
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        if (streamingExecutor==null) {
+            streamingExecutor = new ThreadPoolTaskExecutor();
+            streamingExecutor.setCorePoolSize(streamingThreads);
+            streamingExecutor.setMaxPoolSize(streamingThreads);
+            streamingExecutor.setQueueCapacity(streamingQueueCapacity);
+            streamingExecutor.setThreadNamePrefix("response-streaming-");
+            streamingExecutor.initialize();
+        }
+        configurer.setTaskExecutor(streamingExecutor);
+        configurer.setDefaultTimeout(streamingTimeoutMillis);
+    }
+
+    /**
+     * This stops the streaming threads when the application is shut down
+     */
+    @PreDestroy
+    public void Shutdown() {
+        if (streamingExecutor!=null) {
+            streamingExecutor.shutdown();
+        }
+    }
+}
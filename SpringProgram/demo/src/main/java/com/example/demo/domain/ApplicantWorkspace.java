@@ -0,0 +1,97 @@
+package com.example.demo.domain;
+
+import java.util.List;
+
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+import com.example.demo.domain.dto.AvailabilityDTO;
+import com.example.demo.domain.dto.CompetenceDTO;
+import com.example.demo.domain.dto.CompetenceProfileDTO;
+import com.example.demo.domain.dto.CompetenceTranslationDTO;
+import com.example.demo.domain.dto.LanguageDTO;
+
+/**
+ * Represents everything the applicant page needs when it is loaded, which is the competence profiles, availability periods and submitted applications of the applicant,
+ * along with the competences, the supported languages and the competence translations for the selected language
+ */
+public class ApplicantWorkspace {
+    private final List<? extends CompetenceProfileDTO> competenceProfiles;
+    private final List<? extends AvailabilityDTO> availabilityPeriods;
+    private final List<ApplicationSummaryDTO> applications;
+    private final List<? extends CompetenceDTO> competences;
+    private final List<? extends LanguageDTO> languages;
+    private final List<? extends CompetenceTranslationDTO> competenceTranslations;
+
+    /**
+     * This is a complete constructor for ApplicantWorkspace
+     * @param competenceProfiles the competence profiles of the applicant
+     * @param availabilityPeriods the availability periods of the applicant, ordered by start date
+     * @param applications the applications submitted by the applicant, ordered by application id
+     * @param competences the competences which competence profiles can be created for
+     * @param languages the languages which competence translations exist for
+     * @param competenceTranslations the competence translations for the selected language, or an empty list if no language was selected
+     */
+    public ApplicantWorkspace(List<? extends CompetenceProfileDTO> competenceProfiles, List<? extends AvailabilityDTO> availabilityPeriods, List<ApplicationSummaryDTO> applications,
+        List<? extends CompetenceDTO> competences, List<? extends LanguageDTO> languages, List<? extends CompetenceTranslationDTO> competenceTranslations)
+    {
+        this.competenceProfiles=competenceProfiles;
+        this.availabilityPeriods=availabilityPeriods;
+        this.applications=applications;
+        this.competences=competences;
+        this.languages=languages;
+        this.competenceTranslations=competenceTranslations;
+    }
+
+    /**
+     * This is a getter for the competence profiles
+     * @return the competence profiles of the applicant
+     */
+    public List<? extends CompetenceProfileDTO> getCompetenceProfiles()
+    {
+        return this.competenceProfiles;
+    }
+
+    /**
+     * This is a getter for the availability periods
+     * @return the availability periods of the applicant, ordered by start date
+     */
+    public List<? extends AvailabilityDTO> getAvailabilityPeriods()
+    {
+        return this.availabilityPeriods;
+    }
+
+    /**
+     * This is a getter for the applications
+     * @return the applications submitted by the applicant, ordered by application id
+     */
+    public List<ApplicationSummaryDTO> getApplications()
+    {
+        return this.applications;
+    }
+
+    /**
+     * This is a getter for the competences
+     * @return the competences which competence profiles can be created for
+     */
+    public List<? extends CompetenceDTO> getCompetences()
+    {
+        return this.competences;
+    }
+
+    /**
+     * This is a getter for the languages
+     * @return the languages which competence translations exist for
+     */
+    public List<? extends LanguageDTO> getLanguages()
+    {
+        return this.languages;
+    }
+
+    /**
+     * This is a getter for the competence translations
+     * @return the competence translations for the selected language, or an empty list if no language was selected
+     */
+    public List<? extends CompetenceTranslationDTO> getCompetenceTranslations()
+    {
+        return this.competenceTranslations;
+    }
+}
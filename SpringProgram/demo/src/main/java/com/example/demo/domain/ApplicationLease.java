@@ -0,0 +1,52 @@
+package com.example.demo.domain;
+
+import java.time.Instant;
+
+/**
+ * Represents a lease a reviewer holds on an unchecked application, which means no other reviewer can claim the application until the lease expires or is released
+ */
+public class ApplicationLease {
+    private final Integer applicationId;
+    private final Integer leaseHolderId;
+    private final Instant leaseExpiresAt;
+
+    /**
+     * This is a complete constructor for ApplicationLease
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer holding the lease
+     * @param leaseExpiresAt the time the lease expires, unless it is renewed
+     */
+    public ApplicationLease(Integer applicationId, Integer leaseHolderId, Instant leaseExpiresAt)
+    {
+        this.applicationId=applicationId;
+        this.leaseHolderId=leaseHolderId;
+        this.leaseExpiresAt=leaseExpiresAt;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the id of the leased application
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the lease holder id
+     * @return the person id of the reviewer holding the lease
+     */
+    public Integer getLeaseHolderId()
+    {
+        return this.leaseHolderId;
+    }
+
+    /**
+     * This is a getter for the lease expiry time
+     * @return the time the lease expires, unless it is renewed
+     */
+    public Instant getLeaseExpiresAt()
+    {
+        return this.leaseExpiresAt;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.domain;
+
+import java.util.List;
+
+/**
+ * Represents one page of a keyset (cursor) paginated list.
+ * The next cursor is an opaque continuation token which should be sent back unchanged to retrive the following page,
+ * and is null if this is the last page
+ * @param <T> the type of the elements on the page
+ */
+public class ApplicationPage<T> {
+    private final List<? extends T> content;
+    private final String nextCursor;
+
+    /**
+     * This is a complete constructor for ApplicationPage
+     * @param content the elements on this page
+     * @param nextCursor the continuation token for the next page, or null if there is no next page
+     */
+    public ApplicationPage(List<? extends T> content, String nextCursor)
+    {
+        this.content=content;
+        this.nextCursor=nextCursor;
+    }
+
+    /**
+     * This is a getter for the elements on this page
+     * @return the elements on this page
+     */
+    public List<? extends T> getContent()
+    {
+        return this.content;
+    }
+
+    /**
+     * This is a getter for the continuation token
+     * @return the continuation token for the next page, or null if this is the last page
+     */
+    public String getNextCursor()
+    {
+        return this.nextCursor;
+    }
+
+    /**
+     * This is a getter for if there exists another page after this one
+     * @return true if there is a next page, otherwise false
+     */
+    public boolean isHasNext()
+    {
+        return this.nextCursor!=null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.domain;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Represents the specification of an open position, which applications are ranked against.
+ * Only applications including every required competence with at least the minimum years of experience, and which are available for some part of the period, are ranked
+ */
+public class ApplicationRankingQuery {
+    private final ApplicationStatus status;
+    private final List<CompetenceRequirement> competenceRequirements;
+    private final LocalDate availableFrom;
+    private final LocalDate availableTo;
+
+    /**
+     * This is a complete constructor for ApplicationRankingQuery
+     * @param status the application status ranked applications must have, or null for any status
+     * @param competenceRequirements the required competences, along with their minimum years of experience and weights
+     * @param availableFrom the first day of the position
+     * @param availableTo the last day of the position
+     */
+    public ApplicationRankingQuery(ApplicationStatus status, List<CompetenceRequirement> competenceRequirements, LocalDate availableFrom, LocalDate availableTo)
+    {
+        this.status=status;
+        this.competenceRequirements=competenceRequirements;
+        this.availableFrom=availableFrom;
+        this.availableTo=availableTo;
+    }
+
+    /**
+     * This is a getter for the application status
+     * @return the application status ranked applications must have, or null for any status
+     */
+    public ApplicationStatus getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * This is a getter for the competence requirements
+     * @return the required competences, along with their minimum years of experience and weights
+     */
+    public List<CompetenceRequirement> getCompetenceRequirements()
+    {
+        return this.competenceRequirements;
+    }
+
+    /**
+     * This is a getter for the start of the position
+     * @return the first day of the position
+     */
+    public LocalDate getAvailableFrom()
+    {
+        return this.availableFrom;
+    }
+
+    /**
+     * This is a getter for the end of the position
+     * @return the last day of the position
+     */
+    public LocalDate getAvailableTo()
+    {
+        return this.availableTo;
+    }
+}
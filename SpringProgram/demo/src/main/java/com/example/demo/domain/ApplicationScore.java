@@ -0,0 +1,64 @@
+package com.example.demo.domain;
+
+/**
+ * Represents how well an application matches an open position.
+ * The experience is the weighted mean of the years of experience in the required competences, and the coverage is the fraction of the days of the position
+ * the applicant is available for. The score is the experience multiplied by the coverage, so an applicant only available for half the position gets half the score
+ */
+public class ApplicationScore {
+    private final Integer applicationId;
+    private final double score;
+    private final double experience;
+    private final double coverage;
+
+    /**
+     * This is a complete constructor for ApplicationScore
+     * @param applicationId the id of the scored application
+     * @param score the combined score
+     * @param experience the weighted mean years of experience in the required competences
+     * @param coverage the fraction of the days of the position the applicant is available for, between 0 and 1
+     */
+    public ApplicationScore(Integer applicationId, double score, double experience, double coverage)
+    {
+        this.applicationId=applicationId;
+        this.score=score;
+        this.experience=experience;
+        this.coverage=coverage;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the id of the scored application
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the score
+     * @return the combined score
+     */
+    public double getScore()
+    {
+        return this.score;
+    }
+
+    /**
+     * This is a getter for the experience
+     * @return the weighted mean years of experience in the required competences
+     */
+    public double getExperience()
+    {
+        return this.experience;
+    }
+
+    /**
+     * This is a getter for the coverage
+     * @return the fraction of the days of the position the applicant is available for, between 0 and 1
+     */
+    public double getCoverage()
+    {
+        return this.coverage;
+    }
+}
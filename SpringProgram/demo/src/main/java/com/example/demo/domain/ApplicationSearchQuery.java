@@ -0,0 +1,78 @@
+package com.example.demo.domain;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Represents a search for applications, where every specified predicate must be fulfilled by a matching application.
+ * A null status or availability period, or an empty list of competence requirements, means that predicate is not used
+ */
+public class ApplicationSearchQuery {
+    private final ApplicationStatus status;
+    private final List<CompetenceRequirement> competenceRequirements;
+    private final LocalDate availableFrom;
+    private final LocalDate availableTo;
+    private final ApplicationSearchSort sort;
+
+    /**
+     * This is a complete constructor for ApplicationSearchQuery
+     * @param status the application status matching applications must have, or null for any status
+     * @param competenceRequirements the competences matching applications must include with at least the specified years of experience
+     * @param availableFrom the first day of the period the applicant must be available for, or null if availability is not used
+     * @param availableTo the last day of the period the applicant must be available for, or null if availability is not used
+     * @param sort the order of the results
+     */
+    public ApplicationSearchQuery(ApplicationStatus status, List<CompetenceRequirement> competenceRequirements, LocalDate availableFrom, LocalDate availableTo, ApplicationSearchSort sort)
+    {
+        this.status=status;
+        this.competenceRequirements=competenceRequirements;
+        this.availableFrom=availableFrom;
+        this.availableTo=availableTo;
+        this.sort=sort;
+    }
+
+    /**
+     * This is a getter for the application status
+     * @return the application status matching applications must have, or null for any status
+     */
+    public ApplicationStatus getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * This is a getter for the competence requirements
+     * @return the competences matching applications must include with at least the specified years of experience
+     */
+    public List<CompetenceRequirement> getCompetenceRequirements()
+    {
+        return this.competenceRequirements;
+    }
+
+    /**
+     * This is a getter for the start of the availability period
+     * @return the first day of the period the applicant must be available for, or null if availability is not used
+     */
+    public LocalDate getAvailableFrom()
+    {
+        return this.availableFrom;
+    }
+
+    /**
+     * This is a getter for the end of the availability period
+     * @return the last day of the period the applicant must be available for, or null if availability is not used
+     */
+    public LocalDate getAvailableTo()
+    {
+        return this.availableTo;
+    }
+
+    /**
+     * This is a getter for the sort order
+     * @return the order of the results
+     */
+    public ApplicationSearchSort getSort()
+    {
+        return this.sort;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.domain;
+
+/**
+ * Enum representing the possible orderings of application search results.
+ * applicationId orders by ascending application id, applicationDate orders by the newest application first,
+ * and experience orders by the most years of experience in the first required competence first
+ */
+public enum ApplicationSearchSort{
+    applicationId,applicationDate,experience
+}
@@ -0,0 +1,52 @@
+package com.example.demo.domain;
+
+/**
+ * Represents the status and version number of an application, used as the result of a status update.
+ * The version number is the version after the update, and should be used the next time the status of the application is updated
+ * This is also used to represent a requested status update, in which case the version number is the version the application must currently have
+ */
+public class ApplicationStatusChange {
+    private final Integer applicationId;
+    private final ApplicationStatus applicationStatus;
+    private final long versionNumber;
+
+    /**
+     * This is a complete constructor for ApplicationStatusChange, note that this is also used by ApplicationRepository queries
+     * @param applicationId the id of the application
+     * @param applicationStatus the status of the application
+     * @param versionNumber the version number of the application
+     */
+    public ApplicationStatusChange(Integer applicationId, ApplicationStatus applicationStatus, long versionNumber)
+    {
+        this.applicationId=applicationId;
+        this.applicationStatus=applicationStatus;
+        this.versionNumber=versionNumber;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the application id
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the application status
+     * @return the application status
+     */
+    public ApplicationStatus getApplicationStatus()
+    {
+        return this.applicationStatus;
+    }
+
+    /**
+     * This is a getter for the version number
+     * @return the version number
+     */
+    public long getVersionNumber()
+    {
+        return this.versionNumber;
+    }
+}
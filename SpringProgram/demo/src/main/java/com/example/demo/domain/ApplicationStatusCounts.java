@@ -0,0 +1,54 @@
+package com.example.demo.domain;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Represents the number of applications with each status, either for every application or for the applications submitted on a specific day
+ */
+public class ApplicationStatusCounts {
+    private final LocalDate date;
+    private final Map<ApplicationStatus, Long> counts;
+
+    /**
+     * This is a complete constructor for ApplicationStatusCounts
+     * @param date the day the counted applications were submitted, or null if every application is counted
+     * @param counts the number of applications with each status, which includes every status
+     */
+    public ApplicationStatusCounts(LocalDate date, Map<ApplicationStatus, Long> counts)
+    {
+        this.date=date;
+        this.counts=counts;
+    }
+
+    /**
+     * This is a getter for the date
+     * @return the day the counted applications were submitted, or null if every application is counted
+     */
+    public LocalDate getDate()
+    {
+        return this.date;
+    }
+
+    /**
+     * This is a getter for the counts
+     * @return the number of applications with each status
+     */
+    public Map<ApplicationStatus, Long> getCounts()
+    {
+        return this.counts;
+    }
+
+    /**
+     * This is a getter for the total
+     * @return the number of counted applications, regardless of status
+     */
+    public long getTotal()
+    {
+        long total=0;
+        for (Long count : counts.values()) {
+            total+=count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.domain;
+
+/**
+ * Enum representing the possible outcomes of a single status update in a batch of status updates.
+ * applied means the status was updated, the other values correspond to the reasons SetApplicationStatus can fail
+ */
+public enum ApplicationStatusUpdateOutcome{
+    applied,version_conflict,not_found,unchanged
+}
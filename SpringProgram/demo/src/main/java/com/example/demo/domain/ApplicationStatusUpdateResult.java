@@ -0,0 +1,74 @@
+package com.example.demo.domain;
+
+/**
+ * Represents the result of a single status update in a batch of status updates
+ */
+public class ApplicationStatusUpdateResult {
+    private final Integer applicationId;
+    private final ApplicationStatus applicationStatus;
+    private final Long versionNumber;
+    private final ApplicationStatusUpdateOutcome outcome;
+    private final String message;
+
+    /**
+     * This is a complete constructor for ApplicationStatusUpdateResult
+     * @param applicationId the id of the application
+     * @param applicationStatus the current status of the application, or null if the application does not exist
+     * @param versionNumber the current version number of the application, or null if the application does not exist
+     * @param outcome the outcome of the update
+     * @param message a description of why the update failed, or null if it was applied
+     */
+    public ApplicationStatusUpdateResult(Integer applicationId, ApplicationStatus applicationStatus, Long versionNumber, ApplicationStatusUpdateOutcome outcome, String message)
+    {
+        this.applicationId=applicationId;
+        this.applicationStatus=applicationStatus;
+        this.versionNumber=versionNumber;
+        this.outcome=outcome;
+        this.message=message;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the application id
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the current application status
+     * @return the current application status, or null if the application does not exist
+     */
+    public ApplicationStatus getApplicationStatus()
+    {
+        return this.applicationStatus;
+    }
+
+    /**
+     * This is a getter for the current version number, which should be used the next time the status of the application is updated
+     * @return the current version number, or null if the application does not exist
+     */
+    public Long getVersionNumber()
+    {
+        return this.versionNumber;
+    }
+
+    /**
+     * This is a getter for the outcome of the update
+     * @return the outcome of the update
+     */
+    public ApplicationStatusUpdateOutcome getOutcome()
+    {
+        return this.outcome;
+    }
+
+    /**
+     * This is a getter for the description of why the update failed
+     * @return the description of why the update failed, or null if it was applied
+     */
+    public String getMessage()
+    {
+        return this.message;
+    }
+}
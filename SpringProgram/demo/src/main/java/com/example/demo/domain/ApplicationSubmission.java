@@ -0,0 +1,64 @@
+package com.example.demo.domain;
+
+import java.util.List;
+
+/**
+ * Represents an application submission which was queued for asynchronous processing
+ */
+public class ApplicationSubmission {
+    private final String submissionId;
+    private final Integer personId;
+    private final List<Integer> availabilityIds;
+    private final List<Integer> competenceProfileIds;
+
+    /**
+     * This is a complete constructor for ApplicationSubmission
+     * @param submissionId the id used to retrive the state of the submission
+     * @param personId the id of the person submitting the application
+     * @param availabilityIds the ids of the availability periods to include in the application
+     * @param competenceProfileIds the ids of the competence profiles to include in the application
+     */
+    public ApplicationSubmission(String submissionId, Integer personId, List<Integer> availabilityIds, List<Integer> competenceProfileIds)
+    {
+        this.submissionId=submissionId;
+        this.personId=personId;
+        this.availabilityIds=List.copyOf(availabilityIds);
+        this.competenceProfileIds=List.copyOf(competenceProfileIds);
+    }
+
+    /**
+     * This is a getter for the submission id
+     * @return the submission id
+     */
+    public String getSubmissionId()
+    {
+        return this.submissionId;
+    }
+
+    /**
+     * This is a getter for the person id
+     * @return the id of the person submitting the application
+     */
+    public Integer getPersonId()
+    {
+        return this.personId;
+    }
+
+    /**
+     * This is a getter for the availability ids
+     * @return the ids of the availability periods to include in the application
+     */
+    public List<Integer> getAvailabilityIds()
+    {
+        return this.availabilityIds;
+    }
+
+    /**
+     * This is a getter for the competence profile ids
+     * @return the ids of the competence profiles to include in the application
+     */
+    public List<Integer> getCompetenceProfileIds()
+    {
+        return this.competenceProfileIds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.domain;
+
+/**
+ * Enum representing the state of an application submission which was queued for asynchronous processing.
+ * queued means it has not been processed yet, submitted means the application was created and rejected means it could not be created
+ */
+public enum ApplicationSubmissionState{
+    queued,submitted,rejected
+}
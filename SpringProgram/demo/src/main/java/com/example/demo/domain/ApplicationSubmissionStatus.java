@@ -0,0 +1,62 @@
+package com.example.demo.domain;
+
+/**
+ * Represents the current state of an application submission which was queued for asynchronous processing
+ */
+public class ApplicationSubmissionStatus {
+    private final String submissionId;
+    private final ApplicationSubmissionState state;
+    private final Integer applicationId;
+    private final String message;
+
+    /**
+     * This is a complete constructor for ApplicationSubmissionStatus
+     * @param submissionId the id of the submission
+     * @param state the current state of the submission
+     * @param applicationId the id of the created application, or null if it has not been created
+     * @param message a description of why the application could not be created, or null if it was not rejected
+     */
+    public ApplicationSubmissionStatus(String submissionId, ApplicationSubmissionState state, Integer applicationId, String message)
+    {
+        this.submissionId=submissionId;
+        this.state=state;
+        this.applicationId=applicationId;
+        this.message=message;
+    }
+
+    /**
+     * This is a getter for the submission id
+     * @return the submission id
+     */
+    public String getSubmissionId()
+    {
+        return this.submissionId;
+    }
+
+    /**
+     * This is a getter for the state of the submission
+     * @return the current state of the submission
+     */
+    public ApplicationSubmissionState getState()
+    {
+        return this.state;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the id of the created application, or null if it has not been created
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the description of why the submission was rejected
+     * @return the description of why the application could not be created, or null if it was not rejected
+     */
+    public String getMessage()
+    {
+        return this.message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.domain;
+
+import java.sql.Date;
+
+/**
+ * Represents a requested availability period, which has not yet been stored, used when several periods are submitted at once
+ */
+public class AvailabilityPeriod {
+    private final Date fromDate;
+    private final Date toDate;
+
+    /**
+     * This is a complete constructor for AvailabilityPeriod
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     */
+    public AvailabilityPeriod(Date fromDate, Date toDate)
+    {
+        this.fromDate=fromDate;
+        this.toDate=toDate;
+    }
+
+    /**
+     * This is a getter for the start date
+     * @return the first day of the period
+     */
+    public Date getFromDate()
+    {
+        return this.fromDate;
+    }
+
+    /**
+     * This is a getter for the end date
+     * @return the last day of the period
+     */
+    public Date getToDate()
+    {
+        return this.toDate;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the number of people who are available on a specific day, according to their availability periods
+ */
+public class AvailableDayCount {
+    private final LocalDate date;
+    private final int availablePersons;
+
+    /**
+     * This is a complete constructor for AvailableDayCount
+     * @param date the day
+     * @param availablePersons the number of people who are available for the whole day
+     */
+    public AvailableDayCount(LocalDate date, int availablePersons)
+    {
+        this.date=date;
+        this.availablePersons=availablePersons;
+    }
+
+    /**
+     * This is a getter for the date
+     * @return the day
+     */
+    public LocalDate getDate()
+    {
+        return this.date;
+    }
+
+    /**
+     * This is a getter for the number of available people
+     * @return the number of people who are available for the whole day
+     */
+    public int getAvailablePersons()
+    {
+        return this.availablePersons;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.domain;
+
+/**
+ * Represents a requirement in an application search or ranking, that the applicant must have at least a number of years of experience in a specific competence.
+ * The weight is only used when ranking applications, where it decides how much the experience in this competence counts compared to the other competences
+ */
+public class CompetenceRequirement {
+    private final Integer competenceId;
+    private final double minimumYearsOfExperience;
+    private final double weight;
+
+    /**
+     * This is a constructor for CompetenceRequirement with a weight of 1
+     * @param competenceId the id of the required competence
+     * @param minimumYearsOfExperience the minimum years of experience in the competence
+     */
+    public CompetenceRequirement(Integer competenceId, double minimumYearsOfExperience)
+    {
+        this(competenceId, minimumYearsOfExperience, 1.0);
+    }
+
+    /**
+     * This is a complete constructor for CompetenceRequirement
+     * @param competenceId the id of the required competence
+     * @param minimumYearsOfExperience the minimum years of experience in the competence
+     * @param weight the weight of the competence when ranking applications
+     */
+    public CompetenceRequirement(Integer competenceId, double minimumYearsOfExperience, double weight)
+    {
+        this.competenceId=competenceId;
+        this.minimumYearsOfExperience=minimumYearsOfExperience;
+        this.weight=weight;
+    }
+
+    /**
+     * This is a getter for the competence id
+     * @return the id of the required competence
+     */
+    public Integer getCompetenceId()
+    {
+        return this.competenceId;
+    }
+
+    /**
+     * This is a getter for the minimum years of experience
+     * @return the minimum years of experience in the competence
+     */
+    public double getMinimumYearsOfExperience()
+    {
+        return this.minimumYearsOfExperience;
+    }
+
+    /**
+     * This is a getter for the weight
+     * @return the weight of the competence when ranking applications
+     */
+    public double getWeight()
+    {
+        return this.weight;
+    }
+}
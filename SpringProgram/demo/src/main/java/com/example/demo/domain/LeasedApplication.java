@@ -0,0 +1,40 @@
+package com.example.demo.domain;
+
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+
+/**
+ * Represents a single application claimed by a reviewer, which is the summary of the application along with the lease the reviewer now holds on it
+ */
+public class LeasedApplication {
+    private final ApplicationSummaryDTO application;
+    private final ApplicationLease lease;
+
+    /**
+     * This is a complete constructor for LeasedApplication
+     * @param application the summary of the claimed application
+     * @param lease the lease on the application
+     */
+    public LeasedApplication(ApplicationSummaryDTO application, ApplicationLease lease)
+    {
+        this.application=application;
+        this.lease=lease;
+    }
+
+    /**
+     * This is a getter for the application summary
+     * @return the summary of the claimed application
+     */
+    public ApplicationSummaryDTO getApplication()
+    {
+        return this.application;
+    }
+
+    /**
+     * This is a getter for the lease
+     * @return the lease on the application
+     */
+    public ApplicationLease getLease()
+    {
+        return this.lease;
+    }
+}
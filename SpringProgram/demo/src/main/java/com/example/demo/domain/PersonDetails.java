@@ -11,9 +11,15 @@ import java.util.List;
 /**
  * PersonDetails is a custom implementation of UserDetails that is used for Spring Security authentication.
  * It provides the details of a Person entity for authentication purposes.
+ * It is either backed by a Person entity, which is used when logging in since the password is needed,
+ * or is an immutable snapshot of the id, username, role and token version, which is used to authenticate requests with a JWT token and can therefore be cached
  */
 public class PersonDetails implements UserDetails{
     private final Person person;
+    private final Integer personId;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    private final int tokenVersion;
 
     /**
      * Constructs a PersonDetails object with the given Person entity.
@@ -21,6 +27,25 @@ public class PersonDetails implements UserDetails{
      */
     public PersonDetails(Person person){
         this.person = person;
+        this.personId = null;
+        this.username = null;
+        this.authorities = null;
+        this.tokenVersion = 0;
+    }
+
+    /**
+     * Constructs an immutable PersonDetails snapshot, which does not contain a password
+     * @param personId the id of the person
+     * @param username the username of the person
+     * @param roleName the name of the role of the person
+     * @param tokenVersion the token version of the person
+     */
+    public PersonDetails(Integer personId, String username, String roleName, int tokenVersion){
+        this.person = null;
+        this.personId = personId;
+        this.username = username;
+        this.authorities = List.of(new SimpleGrantedAuthority(roleName));
+        this.tokenVersion = tokenVersion;
     }
 
     /**
@@ -29,6 +54,9 @@ public class PersonDetails implements UserDetails{
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities(){
+        if (person==null) {
+            return authorities;
+        }
         return List.of(new SimpleGrantedAuthority(person.getRole().getName()));
     }
 
@@ -38,15 +66,21 @@ public class PersonDetails implements UserDetails{
      */
     @Override
     public String getUsername(){
+        if (person==null) {
+            return username;
+        }
         return person.getUsername();
     }
 
     /**
-     * Returns the password of the person.
+     * Returns the password of the person, which is null for a snapshot
      * @return the password
      */
     @Override
     public String getPassword(){
+        if (person==null) {
+            return null;
+        }
         return person.getPassword();
     }
 
@@ -56,7 +90,21 @@ public class PersonDetails implements UserDetails{
      * @return The person id for the person this request is for
      */
     public Integer getPersonId(){
+        if (person==null) {
+            return personId;
+        }
         return person.getId();
     }
-    
+
+    /**
+     * This is a getter for the token version
+     * @return The token version of the person, which is increased every time the password is reset
+     */
+    public int getTokenVersion(){
+        if (person==null) {
+            return tokenVersion;
+        }
+        return person.getTokenVersion();
+    }
+
 }
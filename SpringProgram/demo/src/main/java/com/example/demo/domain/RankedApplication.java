@@ -0,0 +1,40 @@
+package com.example.demo.domain;
+
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+
+/**
+ * Represents a single result of ranking applications against an open position, which is the summary of the application along with its score
+ */
+public class RankedApplication {
+    private final ApplicationSummaryDTO application;
+    private final ApplicationScore score;
+
+    /**
+     * This is a complete constructor for RankedApplication
+     * @param application the summary of the ranked application
+     * @param score the score of the application
+     */
+    public RankedApplication(ApplicationSummaryDTO application, ApplicationScore score)
+    {
+        this.application=application;
+        this.score=score;
+    }
+
+    /**
+     * This is a getter for the application summary
+     * @return the summary of the ranked application
+     */
+    public ApplicationSummaryDTO getApplication()
+    {
+        return this.application;
+    }
+
+    /**
+     * This is a getter for the score
+     * @return the score of the application
+     */
+    public ApplicationScore getScore()
+    {
+        return this.score;
+    }
+}
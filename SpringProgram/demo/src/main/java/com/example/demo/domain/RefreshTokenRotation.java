@@ -0,0 +1,38 @@
+package com.example.demo.domain;
+
+/**
+ * Represents the result of using a refresh token, which is the user the new token should be generated for along with the refresh token replacing the used one
+ */
+public class RefreshTokenRotation {
+    private final PersonDetails user;
+    private final String refreshToken;
+
+    /**
+     * This is a complete constructor for RefreshTokenRotation
+     * @param user a snapshot of the user the refresh token was issued to
+     * @param refreshToken the new refresh token, which replaces the used one
+     */
+    public RefreshTokenRotation(PersonDetails user, String refreshToken)
+    {
+        this.user=user;
+        this.refreshToken=refreshToken;
+    }
+
+    /**
+     * This is a getter for the user
+     * @return a snapshot of the user the refresh token was issued to
+     */
+    public PersonDetails getUser()
+    {
+        return this.user;
+    }
+
+    /**
+     * This is a getter for the refresh token
+     * @return the new refresh token
+     */
+    public String getRefreshToken()
+    {
+        return this.refreshToken;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Represents the revision of the translation catalog, meaning the languages and competence translations.
+ * It is an MD5 hash of every language and translation row, so it changes whenever any language or translation is added, removed or changed in any way
+ * It is used to generate entity tags for the translation endpoints, so clients can validate their cached copies without the catalog being loaded
+ */
+public class TranslationCatalogRevision {
+    private final String tag;
+
+    /**
+     * This is a complete constructor for TranslationCatalogRevision, which hashes the rows of the catalog
+     * @param translationRows every competence translation as a single string, ordered by id, as returned by CompetenceTranslationRepository.findCatalogTranslationRows
+     * @param languageRows every language as a single string, ordered by id, as returned by LanguageRepository.findCatalogLanguageRows
+     */
+    public TranslationCatalogRevision(List<String> translationRows, List<String> languageRows)
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            //Every java platform is requiered to support MD5, so this can not happen
+            throw new IllegalStateException(e);
+        }
+        //Each row is prefixed by its length, and each list by its size, so no two different catalogs are hashed as the same bytes
+        for (List<String> rows : List.of(translationRows, languageRows)) {
+            digest.update((rows.size()+";").getBytes(StandardCharsets.UTF_8));
+            for (String row : rows) {
+                byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+                digest.update((bytes.length+":").getBytes(StandardCharsets.UTF_8));
+                digest.update(bytes);
+            }
+        }
+        this.tag = HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * This returns the revision as a string, which is the same for two revisions if they represent the same catalog state
+     * @return the revision as a string
+     */
+    public String getTag()
+    {
+        return tag;
+    }
+}
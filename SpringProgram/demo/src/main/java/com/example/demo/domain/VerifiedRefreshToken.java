@@ -0,0 +1,50 @@
+package com.example.demo.domain;
+
+/**
+ * Represents the claims of a refresh token whose signature has been verified, see JwtService.VerifyRefreshToken
+ */
+public class VerifiedRefreshToken {
+    private final String subject;
+    private final String familyId;
+    private final int generation;
+
+    /**
+     * This is a complete constructor for VerifiedRefreshToken
+     * @param subject the username of the person the token was issued to
+     * @param familyId the id of the refresh token family the token belongs to
+     * @param generation the generation of the token within its family
+     */
+    public VerifiedRefreshToken(String subject, String familyId, int generation)
+    {
+        this.subject=subject;
+        this.familyId=familyId;
+        this.generation=generation;
+    }
+
+    /**
+     * This is a getter for the subject
+     * @return the username of the person the token was issued to
+     */
+    public String getSubject()
+    {
+        return this.subject;
+    }
+
+    /**
+     * This is a getter for the family id
+     * @return the id of the refresh token family the token belongs to
+     */
+    public String getFamilyId()
+    {
+        return this.familyId;
+    }
+
+    /**
+     * This is a getter for the generation
+     * @return the generation of the token within its family
+     */
+    public int getGeneration()
+    {
+        return this.generation;
+    }
+}
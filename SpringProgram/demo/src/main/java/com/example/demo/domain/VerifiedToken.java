@@ -0,0 +1,122 @@
+package com.example.demo.domain;
+
+import java.util.Date;
+
+/**
+ * Represents the claims of a JWT token whose signature has been verified, see JwtService.VerifyToken
+ * This is immutable, so the same instance can be returned every time the same token is verified
+ * A self-contained token also contains the id, role and token version of the person, so a request can be authenticated without retriving the person
+ */
+public class VerifiedToken {
+    private final String subject;
+    private final long issuedAt;
+    private final long expiration;
+    private final Long randomNumber;
+    private final Integer personId;
+    private final String role;
+    private final Integer tokenVersion;
+
+    /**
+     * This is a constructor for a VerifiedToken which is not self-contained
+     * @param subject the subject of the token, which is a username or for reset tokens an email
+     * @param expiration the expiration date of the token
+     * @param randomNumber the random number of a reset token, or null for any other token
+     */
+    public VerifiedToken(String subject, Date expiration, Long randomNumber)
+    {
+        this(subject, null, expiration, randomNumber, null, null, null);
+    }
+
+    /**
+     * This is a complete constructor for VerifiedToken
+     * @param subject the subject of the token, which is a username or for reset tokens an email
+     * @param issuedAt the date the token was issued, or null if it is not known
+     * @param expiration the expiration date of the token
+     * @param randomNumber the random number of a reset token, or null for any other token
+     * @param personId the id of the person, or null if the token is not self-contained
+     * @param role the name of the role of the person, or null if the token is not self-contained
+     * @param tokenVersion the token version of the person when the token was issued, or null if the token is not self-contained
+     */
+    public VerifiedToken(String subject, Date issuedAt, Date expiration, Long randomNumber, Integer personId, String role, Integer tokenVersion)
+    {
+        this.subject=subject;
+        this.issuedAt=issuedAt==null ? 0 : issuedAt.getTime();
+        this.expiration=expiration.getTime();
+        this.randomNumber=randomNumber;
+        this.personId=personId;
+        this.role=role;
+        this.tokenVersion=tokenVersion;
+    }
+
+    /**
+     * This is a getter for the subject
+     * @return the subject of the token
+     */
+    public String getSubject()
+    {
+        return this.subject;
+    }
+
+    /**
+     * This is a getter for the issue date, where a new Date is returned since Date is mutable
+     * @return the date the token was issued, or the start of 1970 if it is not known
+     */
+    public Date getIssuedAt()
+    {
+        return new Date(this.issuedAt);
+    }
+
+    /**
+     * This is a getter for the expiration date, where a new Date is returned since Date is mutable
+     * @return the expiration date of the token
+     */
+    public Date getExpiration()
+    {
+        return new Date(this.expiration);
+    }
+
+    /**
+     * This is a getter for the random number
+     * @return the random number of a reset token, or null for any other token
+     */
+    public Long getRandomNumber()
+    {
+        return this.randomNumber;
+    }
+
+    /**
+     * This checks if the token contains the id, role and token version of the person
+     * @return true if the token is self-contained, false otherwise
+     */
+    public boolean isSelfContained()
+    {
+        return this.personId!=null && this.role!=null && this.tokenVersion!=null;
+    }
+
+    /**
+     * This is a getter for the person id
+     * @return the id of the person, or null if the token is not self-contained
+     */
+    public Integer getPersonId()
+    {
+        return this.personId;
+    }
+
+    /**
+     * This is a getter for the role
+     * @return the name of the role of the person, or null if the token is not self-contained
+     */
+    public String getRole()
+    {
+        return this.role;
+    }
+
+    /**
+     * This is a getter for the token version
+     * @return the token version of the person when the token was issued, or null if the token is not self-contained
+     */
+    public Integer getTokenVersion()
+    {
+        return this.tokenVersion;
+    }
+}
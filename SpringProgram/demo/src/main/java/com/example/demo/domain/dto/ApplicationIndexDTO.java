@@ -0,0 +1,34 @@
+package com.example.demo.domain.dto;
+
+import java.sql.Date;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * The ApplicationIndexDTO interface provides a data transfer interface for the application columns used to build the application search index
+*/
+public interface ApplicationIndexDTO {
+    /** Interface function for retriving the application id
+     *
+     * @return the application id
+     */
+    public Integer getApplicationId();
+
+    /** Interface function for retriving the application status for this application
+     *
+     * @return the application status for this application
+     */
+    public ApplicationStatus getApplicationStatus();
+
+    /** Interface function for retriving the version number for this application
+     *
+     * @return the version number for this application
+     */
+    public long getVersionNumber();
+
+    /**
+     * Interface function for retriving application date for this application
+     * @return the date the application was sent
+     */
+    public Date getApplicationDate();
+}
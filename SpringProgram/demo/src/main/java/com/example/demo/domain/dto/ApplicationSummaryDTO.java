@@ -0,0 +1,60 @@
+package com.example.demo.domain.dto;
+
+import java.sql.Date;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * The ApplicationSummaryDTO interface provides a data transfer interface for a summary of an application, used in list views.
+ * Unlike ApplicationDTO it does not contain the applicant, availability periods or competence profiles, only the number of periods and profiles,
+ * which allows it to be retrived using a single query without loading the application entities
+*/
+public interface ApplicationSummaryDTO {
+    /** Interface function for retriving the application id
+     *
+     * @return the application id
+     */
+    public Integer getApplicationId();
+
+    /** Interface function for retriving the application status for this application
+     *
+     * @return the application status for this application
+     */
+    public ApplicationStatus getApplicationStatus();
+
+    /** Interface function for retriving the version number for this application
+     *
+     * @return the version number for this application
+     */
+    public long getVersionNumber();
+
+    /**
+     * Interface function for retriving application date for this application
+     * @return the date the application was sent
+     */
+    public Date getApplicationDate();
+
+    /** Interface function for retriving the first name of the applicant
+     *
+     * @return the applicant's first name
+     */
+    public String getApplicantName();
+
+    /** Interface function for retriving the last name of the applicant
+     *
+     * @return the applicant's last name
+     */
+    public String getApplicantSurname();
+
+    /** Interface function for retriving the number of availability periods included in this application
+     *
+     * @return the number of availability periods
+     */
+    public Integer getAvailabilityPeriodCount();
+
+    /** Interface function for retriving the number of competence profiles included in this application
+     *
+     * @return the number of competence profiles
+     */
+    public Integer getCompetenceProfileCount();
+}
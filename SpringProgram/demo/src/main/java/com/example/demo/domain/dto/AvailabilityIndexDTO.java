@@ -0,0 +1,26 @@
+package com.example.demo.domain.dto;
+
+import java.sql.Date;
+
+/**
+ * The AvailabilityIndexDTO interface provides a data transfer interface for a single availability period included in an application, used to build the application search index
+*/
+public interface AvailabilityIndexDTO {
+    /** Interface function for retriving the id of the application the availability period is included in
+     *
+     * @return the application id
+     */
+    public Integer getApplicationId();
+
+    /** Interface function for retriving the start date of the period
+     *
+     * @return the start date of the period
+     */
+    public Date getFromDate();
+
+    /** Interface function for retriving the end date of the period
+     *
+     * @return the end date of the period
+     */
+    public Date getToDate();
+}
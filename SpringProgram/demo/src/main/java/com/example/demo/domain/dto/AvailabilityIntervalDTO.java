@@ -0,0 +1,32 @@
+package com.example.demo.domain.dto;
+
+import java.sql.Date;
+
+/**
+ * The AvailabilityIntervalDTO interface provides a data transfer interface for a single availability period of a person, used to build the availability interval index
+*/
+public interface AvailabilityIntervalDTO {
+    /** Interface function for retriving the id of the availability period
+     *
+     * @return the availability id
+     */
+    public Integer getAvailabilityId();
+
+    /** Interface function for retriving the id of the person the availability period belongs to
+     *
+     * @return the person id
+     */
+    public Integer getPersonId();
+
+    /** Interface function for retriving the start date of the period
+     *
+     * @return the start date of the period
+     */
+    public Date getFromDate();
+
+    /** Interface function for retriving the end date of the period
+     *
+     * @return the end date of the period
+     */
+    public Date getToDate();
+}
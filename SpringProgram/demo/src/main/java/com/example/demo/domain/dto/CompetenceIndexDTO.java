@@ -0,0 +1,24 @@
+package com.example.demo.domain.dto;
+
+/**
+ * The CompetenceIndexDTO interface provides a data transfer interface for a single competence profile included in an application, used to build the application search index
+*/
+public interface CompetenceIndexDTO {
+    /** Interface function for retriving the id of the application the competence profile is included in
+     *
+     * @return the application id
+     */
+    public Integer getApplicationId();
+
+    /** Interface function for retriving the id of the competence
+     *
+     * @return the competence id
+     */
+    public Integer getCompetenceId();
+
+    /** Interface function for retriving the years of experience in the competence
+     *
+     * @return the years of experience
+     */
+    public Double getYearsOfExperience();
+}
@@ -1,6 +1,7 @@
 package com.example.demo.domain.entity;
 
 import java.sql.Date;
+import java.sql.Timestamp;
 import java.util.List;
 
 import org.hibernate.validator.constraints.UniqueElements;
@@ -78,6 +79,13 @@ public class Application implements ApplicationDTO{
     @PastOrPresent(message = "Application date should never be in the future!")
     private Date applicationDate;
 
+    //The lease columns are only written by the claim, renew and release queries in ApplicationRepositoryCustomImpl, and are therefore never written by JPA
+    @Column(name="lease_holder_id", insertable = false, updatable = false)
+    private Integer leaseHolderId;
+
+    @Column(name="lease_expires_at", insertable = false, updatable = false)
+    private Timestamp leaseExpiresAt;
+
     /** 
      * This is the default constructor for Application
     */
@@ -66,6 +66,11 @@ public class Person implements PersonDTO{
     @NotBlank(message="Username can not be an empty string")
     private String username;
 
+    //This is increased every time the password is reset, which revokes every self-contained token issued before the reset, see TokenRevocationService.java
+    //Note that this is null for people created before the column existed, which is treated as 0
+    @Column(name="token_version")
+    private Integer tokenVersion;
+
     /**
      * Default constructor.
      */
@@ -216,4 +221,24 @@ public class Person implements PersonDTO{
         this.username = username;
     }
 
+    /**
+     * Getter for the token version, which is included in self-contained tokens
+     * @return the person's token version
+     */
+    @JsonIgnore
+    public int getTokenVersion() {
+        if (this.tokenVersion==null) {
+            return 0;
+        }
+        return this.tokenVersion;
+    }
+
+    /**
+     * Setter for the token version attribute
+     * @param tokenVersion the new token version
+     */
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
 }
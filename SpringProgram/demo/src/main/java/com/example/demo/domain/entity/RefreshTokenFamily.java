@@ -0,0 +1,146 @@
+package com.example.demo.domain.entity;
+
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.validation.constraints.NotNull;
+
+@Entity
+/**
+ * This represents a chain of refresh tokens which all originate from a single login, where each refresh token can only be used once and is replaced by the next generation.
+ * Only the current generation is stored, so any older refresh token being used means it has been stolen, in which case the whole family is revoked.
+ * Note this does not implement a DTO, since it should NEVER leave the service layer and be returned to a user
+ */
+public class RefreshTokenFamily {
+    @Id
+    @Basic(optional = false)
+    @Column(name = "family_id")
+    private String familyId;
+
+    @JoinColumn(name = "person_id", referencedColumnName = "person_id")
+    @ManyToOne
+    @NotNull(message="Each refresh token family must be for a specific person")
+    private Person person;
+
+    //The generation of the only refresh token in this family which can currently be used
+    @Column(name = "generation")
+    private int generation;
+
+    //The token version of the person when they logged in, so a password reset also revokes the family
+    @Column(name = "token_version")
+    private int tokenVersion;
+
+    //The time the current refresh token expires, in milliseconds since 1970, after which the family can be removed
+    @Column(name = "expires_at")
+    private long expiresAt;
+
+    @Column(name = "revoked")
+    private boolean revoked;
+
+    /**
+     * This is a constructor for RefreshTokenFamily
+     */
+    public RefreshTokenFamily()
+    {}
+
+    /**
+     * This is a full ags constructor for a new RefreshTokenFamily, which starts at generation 0 and is not revoked
+     * @param familyId the unique id of the family
+     * @param person the person who logged in
+     * @param tokenVersion the token version of the person when they logged in
+     * @param expiresAt the time the first refresh token expires, in milliseconds since 1970
+     */
+    public RefreshTokenFamily(String familyId, Person person, int tokenVersion, long expiresAt)
+    {
+        this.familyId=familyId;
+        this.person=person;
+        this.generation=0;
+        this.tokenVersion=tokenVersion;
+        this.expiresAt=expiresAt;
+        this.revoked=false;
+    }
+
+    /**
+     * This is a getter for the family id attribute
+     * @return this instances id
+     */
+    public String getFamilyId()
+    {
+        return this.familyId;
+    }
+
+    /**
+     * This is a getter for the person attribute
+     * @return The instances person
+     */
+    public Person getPerson()
+    {
+        return this.person;
+    }
+
+    /**
+     * This is a getter for the generation attribute
+     * @return The generation of the refresh token which can currently be used
+     */
+    public int getGeneration()
+    {
+        return this.generation;
+    }
+
+    /**
+     * This is a setter for the generation attribute
+     * @param newGeneration the new generation
+     */
+    public void setGeneration(int newGeneration)
+    {
+        this.generation=newGeneration;
+    }
+
+    /**
+     * This is a getter for the tokenVersion attribute
+     * @return The token version of the person when they logged in
+     */
+    public int getTokenVersion()
+    {
+        return this.tokenVersion;
+    }
+
+    /**
+     * This is a getter for the expiresAt attribute
+     * @return The time the current refresh token expires, in milliseconds since 1970
+     */
+    public long getExpiresAt()
+    {
+        return this.expiresAt;
+    }
+
+    /**
+     * This is a setter for the expiresAt attribute
+     * @param newExpiresAt the new expiration time, in milliseconds since 1970
+     */
+    public void setExpiresAt(long newExpiresAt)
+    {
+        this.expiresAt=newExpiresAt;
+    }
+
+    /**
+     * This is a getter for the revoked attribute
+     * @return If the family has been revoked
+     */
+    public boolean isRevoked()
+    {
+        return this.revoked;
+    }
+
+    /**
+     * This is a setter for the revoked attribute
+     * @param newRevoked if the family has been revoked
+     */
+    public void setRevoked(boolean newRevoked)
+    {
+        this.revoked=newRevoked;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.domain.event;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * Represents a change to an application, which is published once the transaction which performed the change has been committed.
+ * This contains the status and version number of the application after the change, which is all a reviewer needs to update an outdated view
+ */
+public abstract class ApplicationChangeEvent {
+    private final Integer applicationId;
+    private final ApplicationStatus applicationStatus;
+    private final long versionNumber;
+
+    /**
+     * This is a complete constructor for ApplicationChangeEvent
+     * @param applicationId the id of the changed application
+     * @param applicationStatus the status of the application after the change
+     * @param versionNumber the version number of the application after the change
+     */
+    protected ApplicationChangeEvent(Integer applicationId, ApplicationStatus applicationStatus, long versionNumber)
+    {
+        this.applicationId=applicationId;
+        this.applicationStatus=applicationStatus;
+        this.versionNumber=versionNumber;
+    }
+
+    /**
+     * This is a getter for the type of change, which is used as the event name when the event is sent to reviewers
+     * @return the type of change
+     */
+    public abstract String getType();
+
+    /**
+     * This is a getter for the application id
+     * @return the id of the changed application
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the application status
+     * @return the status of the application after the change
+     */
+    public ApplicationStatus getApplicationStatus()
+    {
+        return this.applicationStatus;
+    }
+
+    /**
+     * This is a getter for the version number
+     * @return the version number of the application after the change
+     */
+    public long getVersionNumber()
+    {
+        return this.versionNumber;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.domain.event;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * This event is published when a reviewer has changed the status of an application
+ */
+public class ApplicationStatusChangedEvent extends ApplicationChangeEvent {
+    /**
+     * This is a complete constructor for ApplicationStatusChangedEvent
+     * @param applicationId the id of the changed application
+     * @param applicationStatus the new status of the application
+     * @param versionNumber the new version number of the application
+     */
+    public ApplicationStatusChangedEvent(Integer applicationId, ApplicationStatus applicationStatus, long versionNumber)
+    {
+        super(applicationId, applicationStatus, versionNumber);
+    }
+
+    /**
+     * This is a getter for the type of change
+     * @return always "statusChanged"
+     */
+    @Override
+    public String getType()
+    {
+        return "statusChanged";
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.domain.event;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * This event is published when an applicant has submitted a new application
+ */
+public class ApplicationSubmittedEvent extends ApplicationChangeEvent {
+    /**
+     * This is a complete constructor for ApplicationSubmittedEvent
+     * @param applicationId the id of the new application
+     * @param applicationStatus the status of the new application
+     * @param versionNumber the version number of the new application
+     */
+    public ApplicationSubmittedEvent(Integer applicationId, ApplicationStatus applicationStatus, long versionNumber)
+    {
+        super(applicationId, applicationStatus, versionNumber);
+    }
+
+    /**
+     * This is a getter for the type of change
+     * @return always "submitted"
+     */
+    @Override
+    public String getType()
+    {
+        return "submitted";
+    }
+}
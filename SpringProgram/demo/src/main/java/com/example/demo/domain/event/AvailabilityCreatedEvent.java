@@ -0,0 +1,64 @@
+package com.example.demo.domain.event;
+
+import java.sql.Date;
+
+/**
+ * This event is published when a person has created a new availability period, and is used to keep the availability interval index up to date
+ */
+public class AvailabilityCreatedEvent {
+    private final Integer availabilityId;
+    private final Integer personId;
+    private final Date fromDate;
+    private final Date toDate;
+
+    /**
+     * This is a complete constructor for AvailabilityCreatedEvent
+     * @param availabilityId the id of the new availability period
+     * @param personId the id of the person the availability period belongs to
+     * @param fromDate the start date of the period
+     * @param toDate the end date of the period
+     */
+    public AvailabilityCreatedEvent(Integer availabilityId, Integer personId, Date fromDate, Date toDate)
+    {
+        this.availabilityId=availabilityId;
+        this.personId=personId;
+        this.fromDate=fromDate;
+        this.toDate=toDate;
+    }
+
+    /**
+     * This is a getter for the availability id
+     * @return the id of the new availability period
+     */
+    public Integer getAvailabilityId()
+    {
+        return this.availabilityId;
+    }
+
+    /**
+     * This is a getter for the person id
+     * @return the id of the person the availability period belongs to
+     */
+    public Integer getPersonId()
+    {
+        return this.personId;
+    }
+
+    /**
+     * This is a getter for the from date
+     * @return the start date of the period
+     */
+    public Date getFromDate()
+    {
+        return this.fromDate;
+    }
+
+    /**
+     * This is a getter for the to date
+     * @return the end date of the period
+     */
+    public Date getToDate()
+    {
+        return this.toDate;
+    }
+}
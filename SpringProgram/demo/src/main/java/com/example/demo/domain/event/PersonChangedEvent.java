@@ -0,0 +1,27 @@
+package com.example.demo.domain.event;
+
+/**
+ * This event is published when a person has been registered or updated, which means any cached details for that username may be outdated.
+ * It is handled once the transaction which performed the change has been committed
+ */
+public class PersonChangedEvent {
+    private final String username;
+
+    /**
+     * This is a complete constructor for PersonChangedEvent
+     * @param username the username whose details have changed
+     */
+    public PersonChangedEvent(String username)
+    {
+        this.username=username;
+    }
+
+    /**
+     * This is a getter for the username
+     * @return the username whose details have changed
+     */
+    public String getUsername()
+    {
+        return this.username;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.domain.event;
+
+/**
+ * This event is published when the token version of a person has been increased, which revokes every self-contained token issued with an older version.
+ * It is handled once the transaction which performed the change has been committed
+ */
+public class TokensRevokedEvent {
+    private final Integer personId;
+    private final int tokenVersion;
+
+    /**
+     * This is a complete constructor for TokensRevokedEvent
+     * @param personId the id of the person whose tokens were revoked
+     * @param tokenVersion the new token version of the person, where every token with an older version is revoked
+     */
+    public TokensRevokedEvent(Integer personId, int tokenVersion)
+    {
+        this.personId=personId;
+        this.tokenVersion=tokenVersion;
+    }
+
+    /**
+     * This is a getter for the person id
+     * @return the id of the person whose tokens were revoked
+     */
+    public Integer getPersonId()
+    {
+        return this.personId;
+    }
+
+    /**
+     * This is a getter for the token version
+     * @return the new token version of the person
+     */
+    public int getTokenVersion()
+    {
+        return this.tokenVersion;
+    }
+}
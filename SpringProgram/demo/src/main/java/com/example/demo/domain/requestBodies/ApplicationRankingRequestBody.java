@@ -0,0 +1,77 @@
+package com.example.demo.domain.requestBodies;
+
+import java.util.List;
+
+/**
+ * This class defines the request body for the endpoint rankApplications, where the status and the competence weights are optional
+ * Below is an example of a valid json body which could be parsed into this class:
+ * {
+    "status":"unchecked",
+    "competences":[{"competenceId":1,"minimumYearsOfExperience":2.0,"weight":2.0},{"competenceId":2}],
+    "availableFrom":"2026-06-01",
+    "availableTo":"2026-08-31"
+    }
+ */
+public class ApplicationRankingRequestBody {
+    private String status;
+    private List<CompetenceRequirementRequestBody> competences;
+    private String availableFrom;
+    private String availableTo;
+
+    /**
+     * This is the default constructor
+     */
+    public ApplicationRankingRequestBody()
+    {}
+
+    /**
+     * This is a complete constructor
+     * @param status the application status of the ranked applications
+     * @param competences the competences ranked applications must include
+     * @param availableFrom the first day of the position, formated as yyyy-mm-dd
+     * @param availableTo the last day of the position, formated as yyyy-mm-dd
+     */
+    public ApplicationRankingRequestBody(String status, List<CompetenceRequirementRequestBody> competences, String availableFrom, String availableTo)
+    {
+        this.status=status;
+        this.competences=competences;
+        this.availableFrom=availableFrom;
+        this.availableTo=availableTo;
+    }
+
+    /**
+     * This is a getter for the application status
+     * @return the application status of the ranked applications
+     */
+    public String getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * This is a getter for the competence requirements
+     * @return the competences ranked applications must include
+     */
+    public List<CompetenceRequirementRequestBody> getCompetences()
+    {
+        return this.competences;
+    }
+
+    /**
+     * This is a getter for the start of the position
+     * @return the first day of the position
+     */
+    public String getAvailableFrom()
+    {
+        return this.availableFrom;
+    }
+
+    /**
+     * This is a getter for the end of the position
+     * @return the last day of the position
+     */
+    public String getAvailableTo()
+    {
+        return this.availableTo;
+    }
+}
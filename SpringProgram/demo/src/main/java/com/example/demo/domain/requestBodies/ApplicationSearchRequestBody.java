@@ -0,0 +1,90 @@
+package com.example.demo.domain.requestBodies;
+
+import java.util.List;
+
+/**
+ * This class defines the request body for the endpoint searchApplications, where every field is optional
+ * Below is an example of a valid json body which could be parsed into this class:
+ * {
+    "status":"unchecked",
+    "competences":[{"competenceId":1,"minimumYearsOfExperience":2.0}],
+    "availableFrom":"2026-06-01",
+    "availableTo":"2026-08-31",
+    "sort":"experience"
+    }
+ */
+public class ApplicationSearchRequestBody {
+    private String status;
+    private List<CompetenceRequirementRequestBody> competences;
+    private String availableFrom;
+    private String availableTo;
+    private String sort;
+
+    /**
+     * This is the default constructor
+     */
+    public ApplicationSearchRequestBody()
+    {}
+
+    /**
+     * This is a complete constructor
+     * @param status the application status to search for
+     * @param competences the competences matching applications must include
+     * @param availableFrom the first day of the period the applicant must be available for, formated as yyyy-mm-dd
+     * @param availableTo the last day of the period the applicant must be available for, formated as yyyy-mm-dd
+     * @param sort the order of the results
+     */
+    public ApplicationSearchRequestBody(String status, List<CompetenceRequirementRequestBody> competences, String availableFrom, String availableTo, String sort)
+    {
+        this.status=status;
+        this.competences=competences;
+        this.availableFrom=availableFrom;
+        this.availableTo=availableTo;
+        this.sort=sort;
+    }
+
+    /**
+     * This is a getter for the application status
+     * @return the application status to search for
+     */
+    public String getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * This is a getter for the competence requirements
+     * @return the competences matching applications must include
+     */
+    public List<CompetenceRequirementRequestBody> getCompetences()
+    {
+        return this.competences;
+    }
+
+    /**
+     * This is a getter for the start of the availability period
+     * @return the first day of the period the applicant must be available for
+     */
+    public String getAvailableFrom()
+    {
+        return this.availableFrom;
+    }
+
+    /**
+     * This is a getter for the end of the availability period
+     * @return the last day of the period the applicant must be available for
+     */
+    public String getAvailableTo()
+    {
+        return this.availableTo;
+    }
+
+    /**
+     * This is a getter for the sort order
+     * @return the order of the results
+     */
+    public String getSort()
+    {
+        return this.sort;
+    }
+}
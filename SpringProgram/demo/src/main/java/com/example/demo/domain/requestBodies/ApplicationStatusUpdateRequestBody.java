@@ -0,0 +1,61 @@
+package com.example.demo.domain.requestBodies;
+
+/**
+ * This class defines a single status update in the request body for the endpoint updateApplicationStatuses, which accepts a list of these
+ * Below is an example of a valid json body which could be parsed into a list of this class:
+ * [
+    {"applicationId":1,"status":"accepted","versionNumber":0},
+    {"applicationId":2,"status":"denied","versionNumber":3}
+    ]
+ */
+public class ApplicationStatusUpdateRequestBody {
+    private Integer applicationId;
+    private String status;
+    private Integer versionNumber;
+
+    /**
+     * This is the default constructor
+     */
+    public ApplicationStatusUpdateRequestBody()
+    {}
+
+    /**
+     * This is a complete constructor
+     * @param applicationId the id of the application to update
+     * @param status the new application status
+     * @param versionNumber the version number of the application which was reviewed
+     */
+    public ApplicationStatusUpdateRequestBody(Integer applicationId, String status, Integer versionNumber)
+    {
+        this.applicationId=applicationId;
+        this.status=status;
+        this.versionNumber=versionNumber;
+    }
+
+    /**
+     * This is a getter for the application id
+     * @return the id of the application to update
+     */
+    public Integer getApplicationId()
+    {
+        return this.applicationId;
+    }
+
+    /**
+     * This is a getter for the new status
+     * @return the new application status, as it was specified in the request
+     */
+    public String getStatus()
+    {
+        return this.status;
+    }
+
+    /**
+     * This is a getter for the version number
+     * @return the version number of the application which was reviewed
+     */
+    public Integer getVersionNumber()
+    {
+        return this.versionNumber;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.domain.requestBodies;
+
+/**
+ * This class defines a single availability period in the request body for the endpoint createAvailabilities, where the dates use the same format as createAvailability
+ * Below is an example of a valid json object which could be parsed into this class:
+ * {"fromDate":"2026-06-01","toDate":"2026-06-30"}
+ */
+public class AvailabilityPeriodRequestBody {
+    private String fromDate;
+    private String toDate;
+
+    /**
+     * This is the default constructor
+     */
+    public AvailabilityPeriodRequestBody()
+    {}
+
+    /**
+     * This is a complete constructor
+     * @param fromDate the start of the period, formated as yyyy-mm-dd
+     * @param toDate the end of the period, formated as yyyy-mm-dd
+     */
+    public AvailabilityPeriodRequestBody(String fromDate, String toDate)
+    {
+        this.fromDate=fromDate;
+        this.toDate=toDate;
+    }
+
+    /**
+     * This is a getter for the start date
+     * @return the start of the period, formated as yyyy-mm-dd
+     */
+    public String getFromDate()
+    {
+        return this.fromDate;
+    }
+
+    /**
+     * This is a getter for the end date
+     * @return the end of the period, formated as yyyy-mm-dd
+     */
+    public String getToDate()
+    {
+        return this.toDate;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.domain.requestBodies;
+
+/**
+ * This class defines a single competence requirement in the request body for the endpoints searchApplications and rankApplications, where the weight is only used by rankApplications
+ * Below is an example of a valid json object which could be parsed into this class:
+ * {"competenceId":1,"minimumYearsOfExperience":2.0,"weight":1.5}
+ */
+public class CompetenceRequirementRequestBody {
+    private Integer competenceId;
+    private Double minimumYearsOfExperience;
+    private Double weight;
+
+    /**
+     * This is the default constructor
+     */
+    public CompetenceRequirementRequestBody()
+    {}
+
+    /**
+     * This is a constructor without a weight
+     * @param competenceId the id of the required competence
+     * @param minimumYearsOfExperience the minimum years of experience in the competence, or null for any amount of experience
+     */
+    public CompetenceRequirementRequestBody(Integer competenceId, Double minimumYearsOfExperience)
+    {
+        this(competenceId, minimumYearsOfExperience, null);
+    }
+
+    /**
+     * This is a complete constructor
+     * @param competenceId the id of the required competence
+     * @param minimumYearsOfExperience the minimum years of experience in the competence, or null for any amount of experience
+     * @param weight the weight of the competence when ranking applications, or null for a weight of 1
+     */
+    public CompetenceRequirementRequestBody(Integer competenceId, Double minimumYearsOfExperience, Double weight)
+    {
+        this.competenceId=competenceId;
+        this.minimumYearsOfExperience=minimumYearsOfExperience;
+        this.weight=weight;
+    }
+
+    /**
+     * This is a getter for the competence id
+     * @return the id of the required competence
+     */
+    public Integer getCompetenceId()
+    {
+        return this.competenceId;
+    }
+
+    /**
+     * This is a getter for the minimum years of experience
+     * @return the minimum years of experience in the competence, or null for any amount of experience
+     */
+    public Double getMinimumYearsOfExperience()
+    {
+        return this.minimumYearsOfExperience;
+    }
+
+    /**
+     * This is a getter for the weight
+     * @return the weight of the competence when ranking applications, or null for a weight of 1
+     */
+    public Double getWeight()
+    {
+        return this.weight;
+    }
+}
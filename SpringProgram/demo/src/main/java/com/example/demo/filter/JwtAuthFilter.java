@@ -1,5 +1,8 @@
 package com.example.demo.filter;
-import com.example.demo.service.PersonService;
+import com.example.demo.service.TokenRevocationService;
+import com.example.demo.service.UserDetailsCache;
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedToken;
 
 import io.jsonwebtoken.ExpiredJwtException;
 
@@ -26,6 +29,8 @@ import java.io.IOException;
  * JwtAuthFilter is a custom filter used in the authentication process.
  * It intercepts incoming requests to extract the JWT token from the request's "Authorization" header, 
  * validates the token, and sets the authentication in the security context if the token is valid.
+ * The id, username and role of the user are retrived using the UserDetailsCache,
+ * unless the token is self-contained in which case they are read from the token, after checking that the token has not been revoked using the TokenRevocationService.
  */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter{
@@ -34,14 +39,17 @@ public class JwtAuthFilter extends OncePerRequestFilter{
     private JwtService jwtService;
 
     @Autowired
-    private PersonService personService;
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     //This excludes specific urls from the filtering, to allow access without a JWT token
     //Link: https://www.baeldung.com/spring-exclude-filter 
     @Override
     /**
      * Specifies which requests should not be filtered.
-     * The endpoint "/auth/generateToken" is excluded from authentication checks.
+     * The endpoints "/auth/generateToken" and "/auth/refresh" are excluded from authentication checks.
      *
      * @param request the incoming HTTP request.
      * @throws ServletException if an error occurs.
@@ -50,7 +58,7 @@ public class JwtAuthFilter extends OncePerRequestFilter{
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request)
       throws ServletException {
         String path = request.getRequestURI();
-        return "/auth/generateToken".equals(path);
+        return "/auth/generateToken".equals(path) || "/auth/refresh".equals(path);
     }
 
     /**
@@ -67,18 +75,33 @@ public class JwtAuthFilter extends OncePerRequestFilter{
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,@NonNull FilterChain filterChain) throws ServletException, IOException{
         String authHeader = request.getHeader("Authorization");
-        String token = null;
+        VerifiedToken token = null;
         String username = null;
 
         try {
             
         if(authHeader != null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractSubject(token);
+            //The token is verified once, and the verified claims are used for every check below
+            token = jwtService.VerifyToken(authHeader.substring(7));
+            username = token.getSubject();
         }
 
         if(username != null && (SecurityContextHolder.getContext().getAuthentication()==null||SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString().equals("anonymousUser"))){
-            UserDetails userDetails = personService.loadUserByUsername(username);
+            UserDetails userDetails;
+            if (token.isSelfContained()) {
+                //The user is read from the token, unless the token has been revoked by resetting the password
+                if (tokenRevocationService.IsRevoked(token)) {
+                    response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                    response.getWriter().write("{\"error\":\"JWT token revoked, please log in again\"}");
+                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    return;
+                }
+                userDetails = new PersonDetails(token.getPersonId(), username, token.getRole(), token.getTokenVersion());
+            }
+            else {
+                //The user is retrived from the cache, so a request from a recently authenticated user does not query the database
+                userDetails = userDetailsCache.LoadUser(username);
+            }
             if(jwtService.validateToken(token, userDetails)){
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -10,9 +10,12 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.example.demo.presentation.restException.FromDateAfterToDateException;
+import com.example.demo.presentation.restException.IdempotencyKeyReusedException;
 import com.example.demo.presentation.restException.PeriodAlreadyCoveredException;
+import com.example.demo.presentation.restException.SubmissionQueueFullException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.AvailabilityInvalidException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.CompetenceProfileInvalidException;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.SubmissionNotFoundException;
 
 /**
  * This class is responsible for defining the error for ApplicationService.java, such as being unable to create a competence profile
@@ -69,6 +72,39 @@ public class ApplicationRestAdvice {
     return ex.getMessage();
   }
 
+  /**
+   * This function is responsible for handeling the IdempotencyKeyReusedException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 422 error message with the IdempotencyKeyReusedException error message as the text
+   */
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+  String IdempotencyKeyReusedHandler(IdempotencyKeyReusedException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the SubmissionQueueFullException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 429 error message with the SubmissionQueueFullException error message as the text
+   */
+  @ExceptionHandler(SubmissionQueueFullException.class)
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  String SubmissionQueueFullHandler(SubmissionQueueFullException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the SubmissionNotFoundException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 404 error message with the SubmissionNotFoundException error message as the text
+   */
+  @ExceptionHandler(SubmissionNotFoundException.class)
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  String SubmissionNotFoundHandler(SubmissionNotFoundException ex) {
+    return ex.getMessage();
+  }
+
   /**
    * This function is responsible for handeling the HttpMessageNotReadableException error
    * @param ex the error which was thrown to active this handler
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -15,6 +16,8 @@ import com.example.demo.presentation.restException.AlreadyExistsException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.InvalidJWTException;
 import com.example.demo.presentation.restException.InvalidParameterException;
+import com.example.demo.presentation.restException.InvalidRefreshTokenException;
+import com.example.demo.presentation.restException.PasswordHashingBusyException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.InvalidPersonException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.PersonNotFoundException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.SpecificCompetenceNotFoundException;
@@ -130,6 +133,40 @@ public class GeneralRestAdvice {
     return ex.getMessage();
   }
 
+  /**
+   * This function is responsible for handeling the InvalidRefreshTokenException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 401 status code with the InvalidRefreshTokenException error message as the text, since the user must log in again
+   */
+  @ExceptionHandler(InvalidRefreshTokenException.class)
+  @ResponseStatus(HttpStatus.UNAUTHORIZED)
+  String InvalidRefreshTokenExceptionHandler(InvalidRefreshTokenException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the PasswordHashingBusyException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 503 status code with the PasswordHashingBusyException error message as the text, so the client can retry later
+   */
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  String PasswordHashingBusyExceptionHandler(PasswordHashingBusyException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the TaskRejectedException error, which is thrown when every thread streaming responses is busy and the queue is full
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 503 status code, so the client can retry later
+   */
+  @ExceptionHandler(TaskRejectedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  String TaskRejectedExceptionHandler(TaskRejectedException ex) {
+    LOGGER.error("Rejected a streamed response since too many responses are being streamed : (`{}`)",ex.getMessage());
+    return "Too many downloads are in progress, please try again later";
+  }
+
   /**
    * This function is responsible for handeling the UsernameNotFoundException error
    * @param ex the error which was thrown to active this handler
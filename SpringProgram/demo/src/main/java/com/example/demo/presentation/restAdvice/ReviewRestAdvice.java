@@ -6,7 +6,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.example.demo.presentation.restException.ApplicationLeaseNotHeldException;
 import com.example.demo.presentation.restException.ApplicationNotUpdatedException;
+import com.example.demo.presentation.restException.AvailabilityIndexNotReadyException;
+import com.example.demo.presentation.restException.SearchIndexNotReadyException;
+import com.example.demo.presentation.restException.SubscriberLimitReachedException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.ApplicationNotFoundException;
 
 @RestControllerAdvice
@@ -38,4 +42,48 @@ public class ReviewRestAdvice {
     return ex.getMessage();
   }
 
+  /**
+   * This function is responsible for handeling the SubscriberLimitReachedException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 503 error message with the SubscriberLimitReachedException error message as the text
+   */
+  @ExceptionHandler(SubscriberLimitReachedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  String SubscriberLimitReachedExceptionHandler(SubscriberLimitReachedException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the SearchIndexNotReadyException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 503 error message with the SearchIndexNotReadyException error message as the text
+   */
+  @ExceptionHandler(SearchIndexNotReadyException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  String SearchIndexNotReadyExceptionHandler(SearchIndexNotReadyException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the AvailabilityIndexNotReadyException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 503 error message with the AvailabilityIndexNotReadyException error message as the text
+   */
+  @ExceptionHandler(AvailabilityIndexNotReadyException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  String AvailabilityIndexNotReadyExceptionHandler(AvailabilityIndexNotReadyException ex) {
+    return ex.getMessage();
+  }
+
+  /**
+   * This function is responsible for handeling the ApplicationLeaseNotHeldException error
+   * @param ex the error which was thrown to active this handler
+   * @return this sends a http 409 error message with the ApplicationLeaseNotHeldException error message as the text
+   */
+  @ExceptionHandler(ApplicationLeaseNotHeldException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  String ApplicationLeaseNotHeldExceptionHandler(ApplicationLeaseNotHeldException ex) {
+    return ex.getMessage();
+  }
+
 }
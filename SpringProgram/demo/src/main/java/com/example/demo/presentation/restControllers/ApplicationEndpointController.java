@@ -1,28 +1,38 @@
 package com.example.demo.presentation.restControllers;
 
+import java.net.URI;
 import java.sql.Date;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.domain.ApplicantWorkspace;
+import com.example.demo.domain.ApplicationSubmissionStatus;
+import com.example.demo.domain.AvailabilityPeriod;
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
 import com.example.demo.domain.requestBodies.ApplicationSubmissionRequestBody;
+import com.example.demo.domain.requestBodies.AvailabilityPeriodRequestBody;
 import com.example.demo.presentation.restException.InvalidParameterException;
 import com.example.demo.service.ApplicationService;
+import com.example.demo.service.ApplicationSubmissionQueue;
+import com.example.demo.service.IdempotencyService;
 
 @RestController
 @RequestMapping("/application")
@@ -36,15 +46,31 @@ public class ApplicationEndpointController {
     @Autowired
     private final ApplicationService applicationService;
 
+    @Autowired
+    private final IdempotencyService idempotencyService;
+
+    @Autowired
+    private final ApplicationSubmissionQueue submissionQueue;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewerEndpointController.class.getName()); 
 
+    //The maximum number of availability periods which can be added using a single request
+    static final int MAX_AVAILABILITY_PERIODS = 100;
+
+    //The maximum length of an idempotency key
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     /**
      * Constructs a new instance of the ApplicationEndpointController (this is Spring boot managed).
      * 
      * @param applicationService The service used to handle application related manners.
+     * @param idempotencyService The service used to replay the responses of retried requests.
+     * @param submissionQueue The queue used to submit applications asynchronously.
      */
-    public ApplicationEndpointController(ApplicationService applicationService) {
+    public ApplicationEndpointController(ApplicationService applicationService, IdempotencyService idempotencyService, ApplicationSubmissionQueue submissionQueue) {
         this.applicationService = applicationService;
+        this.idempotencyService = idempotencyService;
+        this.submissionQueue = submissionQueue;
     }
 
     /**
@@ -65,10 +91,11 @@ public class ApplicationEndpointController {
      * 
      * @param competenceId This is the competence this profile was created for
      * @param yearsOfExperience This is the number of years of experience the person claims to have
+     * @param idempotencyKey This is an optional key chosen by the client, where a retried request with the same key returns the original response instead of creating another profile
      * @return If no exception is thrown, this will return the newly create competence profile as an object
      */
     @PostMapping("/createCompetenceProfile")
-    public CompetenceProfileDTO CreateCompetenceProfile(@RequestParam String competenceId,@RequestParam String yearsOfExperience)
+    public CompetenceProfileDTO CreateCompetenceProfile(@RequestParam String competenceId,@RequestParam String yearsOfExperience, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
     {
         PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
         LOGGER.info("Creation of competence profile for user with id (`{}`) for competence with id (`{}`) with (`{}`) years of experience requested by user ('{}')",userAuthentication.getPersonId(),competenceId,yearsOfExperience,userAuthentication.getUsername()); 
@@ -97,10 +124,29 @@ public class ApplicationEndpointController {
             throw new InvalidParameterException("Unknown cause, but double check formating of request, specifically for the yearsOfExperience parameter");
         }
 
-        return applicationService.CreateCompetenceProfile(parsedCompetenceId, userAuthentication.getPersonId(), parsedYearsOfExperience);
+        CheckIdempotencyKey(idempotencyKey, userAuthentication.getPersonId());
+        Integer finalCompetenceId=parsedCompetenceId;
+        Double finalYearsOfExperience=parsedYearsOfExperience;
+        return idempotencyService.Execute(userAuthentication.getPersonId(), "createCompetenceProfile", idempotencyKey, parsedCompetenceId+":"+parsedYearsOfExperience,
+            () -> applicationService.CreateCompetenceProfile(finalCompetenceId, userAuthentication.getPersonId(), finalYearsOfExperience));
     }
 
 
+    /**
+     * This function returns everything the applicant page needs when it is loaded in a single response,
+     * which is the person's competence profiles, availability periods and submitted applications, along with the competences, languages and competence translations
+     * @param language the name of the language to return competence translations for, if not specified no translations are returned
+     * @return If no exception is thrown, the workspace of the person
+     */
+    @GetMapping("/workspace")
+    public ApplicantWorkspace GetWorkspace(@RequestParam(required = false) String language)
+    {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Workspace for person (`{}`) with translations for (`{}`) requested by user ('{}')",userAuthentication.getPersonId(),language,userAuthentication.getUsername());
+
+        return applicationService.GetWorkspace(userAuthentication.getPersonId(), language);
+    }
+
     /**
      * This function returns a list of a person's availability periods
      * @return If no exception is thrown, a list of availability periods for that person is returned
@@ -118,10 +164,11 @@ public class ApplicationEndpointController {
      * This function creates a new availability period for a specific person
      * @param fromDate The start of this availability period
      * @param toDate The end of this availability period
+     * @param idempotencyKey This is an optional key chosen by the client, where a retried request with the same key returns the original response instead of failing as a duplicate
      * @return If no exception is thrown, the newly created availability period is returned
      */
     @PostMapping("/createAvailability")
-    public AvailabilityDTO CreateAvailability(@RequestParam String fromDate,@RequestParam String toDate)
+    public AvailabilityDTO CreateAvailability(@RequestParam String fromDate,@RequestParam String toDate, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
     {
         PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
         LOGGER.info("Creation of availability period for person (`{}`) from (`{}`) to (`{}`) requested by user ('{}')",userAuthentication.getPersonId(),fromDate,toDate, userAuthentication.getUsername()); 
@@ -152,7 +199,60 @@ public class ApplicationEndpointController {
             throw new InvalidParameterException("Unknown cause, but double check formating of request, specifically for the to date parameter");
         }
 
-        return applicationService.CreateAvailability(userAuthentication.getPersonId(), parsedFromDate, parsedToDate);
+        CheckIdempotencyKey(idempotencyKey, userAuthentication.getPersonId());
+        Date finalFromDate=parsedFromDate;
+        Date finalToDate=parsedToDate;
+        return idempotencyService.Execute(userAuthentication.getPersonId(), "createAvailability", idempotencyKey, parsedFromDate+":"+parsedToDate,
+            () -> applicationService.CreateAvailability(userAuthentication.getPersonId(), finalFromDate, finalToDate));
+    }
+
+    /**
+     * This function adds several availability periods for a specific person at once, where the periods are merged with each other and the existing periods of the person
+     * @param requestBody the periods to add, of which there must be between 1 and 100
+     * To give an example of the request body, the following is a basic example of how it could look:
+     * <p>[
+     *   {"fromDate":"2026-06-01","toDate":"2026-06-15"},
+     *   {"fromDate":"2026-06-10","toDate":"2026-06-30"}
+     *   ]<p>
+     * @return If no exception is thrown, every availability period of the person after the merge is returned
+     */
+    @PostMapping("/createAvailabilities")
+    public List<? extends AvailabilityDTO> CreateAvailabilities(@RequestBody List<AvailabilityPeriodRequestBody> requestBody)
+    {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Creation of (`{}`) availability periods for person (`{}`) requested by user ('{}')",requestBody==null ? 0 : requestBody.size(),userAuthentication.getPersonId(), userAuthentication.getUsername());
+
+        if (requestBody==null || requestBody.isEmpty() || requestBody.size()>MAX_AVAILABILITY_PERIODS) {
+            LOGGER.error("Failed to create availability periods for person (`{}`) since the number of periods is not between 1 and (`{}`)",userAuthentication.getPersonId(),MAX_AVAILABILITY_PERIODS);
+            throw new InvalidParameterException("Between 1 and "+MAX_AVAILABILITY_PERIODS+" availability periods must be specified");
+        }
+
+        List<AvailabilityPeriod> periods=new ArrayList<AvailabilityPeriod>();
+        for (AvailabilityPeriodRequestBody period : requestBody) {
+            periods.add(new AvailabilityPeriod(ParseDate(period.getFromDate(), userAuthentication.getPersonId()), ParseDate(period.getToDate(), userAuthentication.getPersonId())));
+        }
+
+        return applicationService.CreateAvailabilities(userAuthentication.getPersonId(), periods);
+    }
+
+    /**
+     * This function parses a date of a requested availability period
+     * @param date the date, formated as yyyy-(m)m-(d)d
+     * @param personId the id of the person the period is for, used for logging
+     * @return the parsed date
+     */
+    private Date ParseDate(String date, Integer personId)
+    {
+        if (date==null) {
+            LOGGER.error("Failed to create availability for person (`{}`) since a date is missing",personId);
+            throw new InvalidParameterException("Every availability period must specify both a fromDate and a toDate");
+        }
+        try {
+            return Date.valueOf(date);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to create availability for person (`{}`) since (`{}`) is not a date",personId,date);
+            throw new InvalidParameterException("Provided value ("+date+") could not be parsed as a valid date, please use the yyyy-(m)m-(d)d format, with the (m) and (d) specifying that these can be 0 or ignored" );
+        }
     }
 
     /**
@@ -163,14 +263,69 @@ public class ApplicationEndpointController {
      *   "availabilityIds":[20872],
      *   "competenceProfileIds":[6488]
      *   }<p>
+     * @param idempotencyKey This is an optional key chosen by the client, where a retried request with the same key returns the original application instead of submitting another one
      * @return If it does not throw an exception, the newly created application is returned
      */
     @PostMapping("/submitApplication")
-    public ApplicationDTO SubmitApplication(@RequestBody ApplicationSubmissionRequestBody requestBody)
+    public ApplicationDTO SubmitApplication(@RequestBody ApplicationSubmissionRequestBody requestBody, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
     {
         PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
         String currentUser = userAuthentication.getUsername();
         LOGGER.info("Creation of application for person (`{}`) requested by user ('{}')" ,userAuthentication.getPersonId(), currentUser); 
-        return applicationService.SubmitApplication(userAuthentication.getPersonId(),requestBody.getAvailabilityIds(),requestBody.getCompetenceProfileIds());
+        CheckIdempotencyKey(idempotencyKey, userAuthentication.getPersonId());
+        return idempotencyService.Execute(userAuthentication.getPersonId(), "submitApplication", idempotencyKey, requestBody.getAvailabilityIds()+":"+requestBody.getCompetenceProfileIds(),
+            () -> applicationService.SubmitApplication(userAuthentication.getPersonId(),requestBody.getAvailabilityIds(),requestBody.getCompetenceProfileIds()));
+    }
+
+    /**
+     * This function queues an application submission instead of creating the application directly, and returns as soon as it has been queued.
+     * The submission is validated fully once it is processed, and its status can then be retrived using the url in the Location header
+     * @param requestBody the availability periods and competence profiles to include in the application, in the same format as for submitApplication
+     * @param idempotencyKey This is an optional key chosen by the client, where a retried request with the same key returns the original submission instead of queuing another one
+     * @return If it does not throw an exception, a 202 response containing the status of the queued submission
+     */
+    @PostMapping("/submitApplicationAsync")
+    public ResponseEntity<ApplicationSubmissionStatus> SubmitApplicationAsync(@RequestBody ApplicationSubmissionRequestBody requestBody, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+    {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Queued creation of application for person (`{}`) requested by user ('{}')" ,userAuthentication.getPersonId(), userAuthentication.getUsername());
+        CheckIdempotencyKey(idempotencyKey, userAuthentication.getPersonId());
+
+        //Only the cheap checks are done here, the ids are validated once the submission is processed
+        if (requestBody.getAvailabilityIds()==null || requestBody.getAvailabilityIds().isEmpty() || requestBody.getCompetenceProfileIds()==null || requestBody.getCompetenceProfileIds().isEmpty()) {
+            LOGGER.error("Failed to queue application for person (`{}`) since no availability periods or competence profiles were specified",userAuthentication.getPersonId());
+            throw new InvalidParameterException("At least one availability period and one competence profile must be specified");
+        }
+
+        ApplicationSubmissionStatus status=idempotencyService.Execute(userAuthentication.getPersonId(), "submitApplicationAsync", idempotencyKey, requestBody.getAvailabilityIds()+":"+requestBody.getCompetenceProfileIds(),
+            () -> submissionQueue.Enqueue(userAuthentication.getPersonId(),requestBody.getAvailabilityIds(),requestBody.getCompetenceProfileIds()));
+        return ResponseEntity.accepted().location(URI.create("/application/submissionStatus?submissionId="+status.getSubmissionId())).body(status);
+    }
+
+    /**
+     * This function returns the current status of an application submission which was queued using submitApplicationAsync
+     * @param submissionId the id of the submission
+     * @return If it does not throw an exception, the current status of the submission
+     */
+    @GetMapping("/submissionStatus")
+    public ApplicationSubmissionStatus GetSubmissionStatus(@RequestParam String submissionId)
+    {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Status of application submission (`{}`) requested by user ('{}')",submissionId,userAuthentication.getUsername());
+
+        return submissionQueue.GetStatus(userAuthentication.getPersonId(), submissionId);
+    }
+
+    /**
+     * This function checks that an idempotency key, if one was sent, is not blank and not too long
+     * @param idempotencyKey the key, or null if none was sent
+     * @param personId the id of the person sending the request, used for logging
+     */
+    private void CheckIdempotencyKey(String idempotencyKey, Integer personId)
+    {
+        if (idempotencyKey!=null && (idempotencyKey.isBlank() || idempotencyKey.length()>MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            LOGGER.error("Rejected request from person (`{}`) since the idempotency key is blank or longer than (`{}`) characters",personId,MAX_IDEMPOTENCY_KEY_LENGTH);
+            throw new InvalidParameterException("The Idempotency-Key header must be between 1 and "+MAX_IDEMPOTENCY_KEY_LENGTH+" characters long");
+        }
     }
 }
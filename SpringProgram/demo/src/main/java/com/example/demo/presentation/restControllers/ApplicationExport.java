@@ -0,0 +1,114 @@
+package com.example.demo.presentation.restControllers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.AvailabilityDTO;
+import com.example.demo.domain.dto.CompetenceProfileDTO;
+import com.example.demo.domain.dto.PersonDTO;
+
+/**
+ * This class contains the functions used by the export endpoint to flatten applications into rows, where each application is one row
+ * and its competence profiles and availability periods are joined into a single column each.
+ * The same columns are used for both the csv and the newline delimited json format
+ */
+final class ApplicationExport {
+    //The names of the columns, in column order, which must match the order of the columns in Flatten
+    static final List<String> COLUMNS = List.of("applicationId", "applicationDate", "applicationStatus", "versionNumber",
+        "applicantId", "applicantName", "applicantSurname", "applicantEmail", "applicantPnr", "competences", "availability");
+
+    //The separator between the competences and availability periods within a column
+    private static final String LIST_SEPARATOR = ";";
+
+    /**
+     * This class only contains static functions, and should therefore not be instantiated
+     */
+    private ApplicationExport() {
+    }
+
+    /**
+     * This flattens an application into a single row, where the competences are formated as name:years and the availability periods as from/to
+     * @param application the application, with its applicant, competence profiles and availability periods loaded
+     * @return the columns of the row by name, in column order
+     */
+    static Map<String, Object> Flatten(ApplicationDTO application) {
+        Map<String, Object> row=new LinkedHashMap<String, Object>();
+        PersonDTO applicant=application.getApplicant();
+        row.put("applicationId", application.getApplicationId());
+        row.put("applicationDate", application.getApplicationDate()==null ? null : application.getApplicationDate().toString());
+        row.put("applicationStatus", application.getApplicationStatus()==null ? null : application.getApplicationStatus().name());
+        row.put("versionNumber", application.getVersionNumber());
+        row.put("applicantId", applicant==null ? null : applicant.getId());
+        row.put("applicantName", applicant==null ? null : applicant.getName());
+        row.put("applicantSurname", applicant==null ? null : applicant.getSurname());
+        row.put("applicantEmail", applicant==null ? null : applicant.getEmail());
+        row.put("applicantPnr", applicant==null ? null : applicant.getPnr());
+
+        StringBuilder competences=new StringBuilder();
+        if (application.getCompetenceProfilesForApplication()!=null) {
+            for (CompetenceProfileDTO profile : application.getCompetenceProfilesForApplication()) {
+                if (competences.length()>0) {
+                    competences.append(LIST_SEPARATOR);
+                }
+                competences.append(profile.getCompetenceDTO().getName()).append(':').append(profile.getYearsOfExperience());
+            }
+        }
+        row.put("competences", competences.toString());
+
+        StringBuilder availability=new StringBuilder();
+        if (application.getAvailabilityPeriodsForApplication()!=null) {
+            for (AvailabilityDTO period : application.getAvailabilityPeriodsForApplication()) {
+                if (availability.length()>0) {
+                    availability.append(LIST_SEPARATOR);
+                }
+                availability.append(period.getFromDate()).append('/').append(period.getToDate());
+            }
+        }
+        row.put("availability", availability.toString());
+        return row;
+    }
+
+    /**
+     * This creates the header line of the csv format
+     * @return the column names, separated by commas and ending with a line break
+     */
+    static String CsvHeader() {
+        return String.join(",", COLUMNS)+"\r\n";
+    }
+
+    /**
+     * This creates the csv line for an application
+     * @param application the application, with its applicant, competence profiles and availability periods loaded
+     * @return the values of the row, separated by commas and ending with a line break
+     */
+    static String CsvRow(ApplicationDTO application) {
+        StringBuilder line=new StringBuilder();
+        boolean first=true;
+        for (Object value : Flatten(application).values()) {
+            if (!first) {
+                line.append(',');
+            }
+            first=false;
+            line.append(EscapeCsv(value==null ? "" : value.toString()));
+        }
+        return line.append("\r\n").toString();
+    }
+
+    /**
+     * This escapes a csv value, where values containing a comma, quote or line break are quoted with any quotes doubled.
+     * Values starting with a character a spreadsheet would treat as the start of a formula are prefixed with a quote, so user input is never evaluated when the file is opened
+     * @param value the value to escape
+     * @return the escaped value
+     */
+    static String EscapeCsv(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0))>=0) {
+            value="'"+value;
+        }
+        if (value.indexOf(',')>=0 || value.indexOf('"')>=0 || value.indexOf('\n')>=0 || value.indexOf('\r')>=0) {
+            return "\""+value.replace("\"", "\"\"")+"\"";
+        }
+        return value;
+    }
+}
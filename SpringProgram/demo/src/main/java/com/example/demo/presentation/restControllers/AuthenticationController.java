@@ -4,6 +4,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -11,12 +12,17 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.RefreshTokenRotation;
 import com.example.demo.domain.dto.PersonDTO;
 import com.example.demo.service.JwtService;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import com.example.demo.service.PersonService;
+import com.example.demo.service.RefreshTokenService;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.InvalidRefreshTokenException;
 
 
 @RestController
@@ -25,6 +31,8 @@ import com.example.demo.service.PersonService;
 /**
  * This endpoint ontroller is responsible for handling authentication-related requests.
  * Provides an endpoint for user authentication and JWT token generation.
+ * If app.jwt.self-contained-tokens is true the generated tokens are self-contained, meaning they also contain the id, role and token version of the user
+ * Each login also returns a refresh token, which can be used once to get a new token and refresh token without sending the password again
  */
 public class AuthenticationController {
     
@@ -39,15 +47,24 @@ public class AuthenticationController {
     @Autowired
     private PersonService personService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    //This decides if the generated tokens are self-contained, which allows requests to be authenticated without any database queries
+    @Value("${app.jwt.self-contained-tokens:false}")
+    private boolean selfContainedTokens;
+
     /**
      * Constructs an instance of AuthenticationController.
      *
      * @param jwtService            The service responsible for generating JWT tokens.
      * @param authenticationManager The Spring Security authentication manager.
+     * @param refreshTokenService   The service responsible for issuing and rotating refresh tokens.
      */
-    public AuthenticationController(JwtService jwtService, AuthenticationManager authenticationManager){
+    public AuthenticationController(JwtService jwtService, AuthenticationManager authenticationManager, RefreshTokenService refreshTokenService){
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -73,12 +90,50 @@ public class AuthenticationController {
 
         if(authentication.isAuthenticated()){
             LOGGER.info("authenticateAndGetToken success for user (`{}`), returning token",username);
-            //This returns a json in the format {"token":[tokenHere],"role":[roleHere, ex "recruiter"]}
-            return "{\"token\":\""+jwtService.generateToken(username)+"\" , \"role\":\""+authentication.getAuthorities().iterator().next().toString()+"\"}";
+            String token;
+            if (selfContainedTokens && authentication.getPrincipal() instanceof PersonDetails) {
+                token = jwtService.generateToken((PersonDetails)authentication.getPrincipal());
+            }
+            else {
+                token = jwtService.generateToken(username);
+            }
+            //A refresh token can only be issued for a person, so the field is left out if the user is not one
+            String refreshTokenField = "";
+            if (authentication.getPrincipal() instanceof PersonDetails) {
+                refreshTokenField = "\"refreshToken\":\""+refreshTokenService.IssueRefreshToken((PersonDetails)authentication.getPrincipal())+"\" , ";
+            }
+            //This returns a json in the format {"token":[tokenHere],"refreshToken":[refreshTokenHere],"role":[roleHere, ex "recruiter"]}
+            return "{\"token\":\""+token+"\" , "+refreshTokenField+"\"role\":\""+authentication.getAuthorities().iterator().next().toString()+"\"}";
         }
         else{
             throw new UsernameNotFoundException("INVALID USER REQUEST");
         }
     }
 
+    /**
+     * Uses a refresh token to generate a new JWT token and refresh token, without hashing the password of the user.
+     * The used refresh token can not be used again, and using it again logs out every session started by the same login
+     *
+     * @param refreshToken The refresh token returned by the last login or refresh.
+     * @throws InvalidRefreshTokenException If the refresh token is invalid, has expired, has already been used or has been revoked.
+     * @throws CustomDatabaseException If the refresh token could not be used due to a database error.
+     * @return A new JWT token and refresh token as a json string.
+     */
+    @PostMapping("/refresh")
+    public String refreshToken(@RequestParam String refreshToken) throws InvalidRefreshTokenException, CustomDatabaseException {
+        LOGGER.info("refreshToken requested");
+        RefreshTokenRotation rotation = refreshTokenService.Refresh(refreshToken);
+        PersonDetails user = rotation.getUser();
+        LOGGER.info("refreshToken success for user (`{}`), returning token",user.getUsername());
+        String token;
+        if (selfContainedTokens) {
+            token = jwtService.generateToken(user);
+        }
+        else {
+            token = jwtService.generateToken(user.getUsername());
+        }
+        //This returns a json in the same format as authenticateAndGetToken
+        return "{\"token\":\""+token+"\" , \"refreshToken\":\""+rotation.getRefreshToken()+"\" , \"role\":\""+user.getAuthorities().iterator().next().toString()+"\"}";
+    }
+
 }
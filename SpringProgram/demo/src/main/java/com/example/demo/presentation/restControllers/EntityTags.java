@@ -0,0 +1,46 @@
+package com.example.demo.presentation.restControllers;
+
+/**
+ * This class contains the functions used by the endpoint controllers to create entity tags (ETags),
+ * and to compare them to the If-None-Match header of conditional requests before any entity is retrived
+ */
+final class EntityTags {
+
+    /**
+     * This class only contains static functions, and should therefore not be instantiated
+     */
+    private EntityTags() {
+    }
+
+    /**
+     * This creates a strong entity tag from a value
+     * @param value the value the tag is based on, which should only contain characters allowed in an entity tag
+     * @return the quoted entity tag
+     */
+    static String Create(String value) {
+        return "\""+value+"\"";
+    }
+
+    /**
+     * This checks if the If-None-Match header of a request matches an entity tag, meaning the client already has the current representation.
+     * Note that If-None-Match uses weak comparison, so a weak tag sent by the client matches a strong tag with the same value
+     * @param ifNoneMatch the If-None-Match header of the request, or null if it was not sent
+     * @param entityTag the quoted entity tag of the current representation
+     * @return true if the client already has the current representation, otherwise false
+     */
+    static boolean Matches(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch==null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate=candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate=candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
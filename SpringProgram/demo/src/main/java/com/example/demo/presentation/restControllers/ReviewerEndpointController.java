@@ -1,23 +1,58 @@
 package com.example.demo.presentation.restControllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.domain.ApplicationLease;
+import com.example.demo.domain.ApplicationPage;
+import com.example.demo.domain.ApplicationRankingQuery;
+import com.example.demo.domain.ApplicationSearchQuery;
+import com.example.demo.domain.ApplicationSearchSort;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusChange;
+import com.example.demo.domain.ApplicationStatusCounts;
+import com.example.demo.domain.ApplicationStatusUpdateResult;
+import com.example.demo.domain.AvailableDayCount;
+import com.example.demo.domain.CompetenceRequirement;
+import com.example.demo.domain.LeasedApplication;
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.RankedApplication;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+import com.example.demo.domain.requestBodies.ApplicationRankingRequestBody;
+import com.example.demo.domain.requestBodies.ApplicationSearchRequestBody;
+import com.example.demo.domain.requestBodies.ApplicationStatusUpdateRequestBody;
+import com.example.demo.domain.requestBodies.CompetenceRequirementRequestBody;
 import com.example.demo.presentation.restException.InvalidParameterException;
+import com.example.demo.service.ApplicationEventService;
 import com.example.demo.service.ReviewService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -36,6 +71,39 @@ public class ReviewerEndpointController {
     @Autowired
     private final ReviewService reviewService;
 
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventService applicationEventService;
+
+    //The page size used if none is specified, and the largest allowed page size
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    //The largest allowed number of status updates in a single request
+    private static final int MAX_STATUS_UPDATES = 500;
+
+    //The largest allowed number of competences in a single search or ranking
+    private static final int MAX_SEARCH_COMPETENCES = 20;
+
+    //The longest period the daily availability or daily status counts can be retrived for in a single request
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+
+    //The default and maximum number of applications claimed at once, which is kept low since claimed applications can not be claimed by anyone else
+    private static final int DEFAULT_CLAIM_COUNT = 10;
+    private static final int MAX_CLAIM_COUNT = 50;
+
+    //The time after which an application event subscription is closed, after which the user has to subscribe again
+    private static final long EVENT_SUBSCRIPTION_TIMEOUT_MS = 30*60*1000L;
+
+    //Applications may only be cached by the reviewers browser, and must be validated using the entity tag before each use
+    private static final CacheControl APPLICATION_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    //This is the media type for newline delimited json, where each line is one json object
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    //This is the media type for exported csv files
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewerEndpointController.class.getName()); 
 
 
@@ -44,9 +112,13 @@ public class ReviewerEndpointController {
      * Spring boot managed).
      * 
      * @param reviewService The service used to handle review related manners.
+     * @param objectMapper The object mapper used to write streamed applications as json
+     * @param applicationEventService The service used to send application change events to subscribed users
      */
-    public ReviewerEndpointController(ReviewService reviewService) {
+    public ReviewerEndpointController(ReviewService reviewService, ObjectMapper objectMapper, ApplicationEventService applicationEventService) {
         this.reviewService = reviewService;
+        this.objectMapper = objectMapper;
+        this.applicationEventService = applicationEventService;
     }
 
     /**
@@ -62,6 +134,308 @@ public class ReviewerEndpointController {
         return applications;
     }
 
+    /**
+     * This function returns one page of applications, ordered by application id
+     * 
+     * @param cursor the nextCursor value of the previous page, or nothing to retrive the first page
+     * @param size the maximum number of applications on the page, between 1 and 500, defaults to 50
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of applications, along with the cursor for the next page, as a json object to the user
+     */
+    @GetMapping("/getApplicationsPage")
+    public ApplicationPage<ApplicationDTO> GetApplicationsPage(@RequestParam(required = false) String cursor, @RequestParam(required = false) String size) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Page of applications after cursor (`{}`) with size (`{}`) requested by (`{}`)",cursor,size,currentUser);
+
+        Integer parsedSize=ParsePageSize(size);
+
+        return reviewService.GetApplicationsPage(cursor, parsedSize);
+    }
+
+    /**
+     * This function returns one page of application summaries, ordered by application id.
+     * A summary contains the application id, status, version number, date, applicant name and the number of availability periods and competence profiles,
+     * and should be used for list views instead of the full applications
+     * 
+     * @param cursor the nextCursor value of the previous page, or nothing to retrive the first page
+     * @param size the maximum number of summaries on the page, between 1 and 500, defaults to 50
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of application summaries, along with the cursor for the next page, as a json object to the user
+     */
+    @GetMapping("/getApplicationSummaries")
+    public ApplicationPage<ApplicationSummaryDTO> GetApplicationSummaries(@RequestParam(required = false) String cursor, @RequestParam(required = false) String size) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Page of application summaries after cursor (`{}`) with size (`{}`) requested by (`{}`)",cursor,size,currentUser);
+
+        Integer parsedSize=ParsePageSize(size);
+
+        return reviewService.GetApplicationSummariesPage(null, cursor, parsedSize);
+    }
+
+    /**
+     * This function returns one page of application summaries with a specific status, ordered by application id
+     * 
+     * @param status the application status to find application summaries for
+     * @param cursor the nextCursor value of the previous page, or nothing to retrive the first page
+     * @param size the maximum number of summaries on the page, between 1 and 500, defaults to 50
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of application summaries with the matching status, along with the cursor for the next page, as a json object to the user
+     */
+    @GetMapping("/getApplicationSummariesByStatus/{status}")
+    public ApplicationPage<ApplicationSummaryDTO> GetApplicationSummariesByStatus(@PathVariable String status, @RequestParam(required = false) String cursor, @RequestParam(required = false) String size) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Page of application summaries with status (`{}`) after cursor (`{}`) with size (`{}`) requested by (`{}`)",status,cursor,size,currentUser);
+
+        ApplicationStatus parsedApplicationStatus=null;
+        try {
+            parsedApplicationStatus=ApplicationStatus.valueOf(status.toLowerCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Failed to retrive application summaries with status (`{}`) since that is invalid application status",status);
+            throw new InvalidParameterException("Provided value ("+status+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+        }
+        catch(NullPointerException e) {
+            LOGGER.error("Failed to retrive application summaries with status (`{}`) since that is null",status);
+            throw new InvalidParameterException("Provided status value is null, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+        }
+
+        Integer parsedSize=ParsePageSize(size);
+
+        return reviewService.GetApplicationSummariesPage(parsedApplicationStatus, cursor, parsedSize);
+    }
+
+    /**
+     * This function returns one page of summaries of the applications matching a search, for example unchecked applications with at least 2 years of experience
+     * in a specific competence, where the applicant is available for a specific period. Every part of the search is optional
+     * 
+     * @param requestBody the search, see ApplicationSearchRequestBody for the format
+     * @param cursor the nextCursor value of the previous page, or nothing to retrive the first page
+     * @param size the maximum number of summaries on the page, between 1 and 500, defaults to 50
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the page of matching application summaries, along with the cursor for the next page, as a json object to the user
+     */
+    @PostMapping("/searchApplications")
+    public ApplicationPage<ApplicationSummaryDTO> SearchApplications(@RequestBody(required = false) ApplicationSearchRequestBody requestBody, @RequestParam(required = false) String cursor, @RequestParam(required = false) String size) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Application search after cursor (`{}`) with size (`{}`) requested by (`{}`)",cursor,size,currentUser);
+
+        ApplicationSearchQuery query=ParseSearchQuery(requestBody==null ? new ApplicationSearchRequestBody() : requestBody);
+        Integer parsedSize=ParsePageSize(size);
+
+        return reviewService.SearchApplications(query, cursor, parsedSize);
+    }
+
+    /**
+     * This function returns the applications best matching an open position, best match first, along with their scores.
+     * Applications must include every required competence with at least the minimum years of experience, and be available for some part of the position.
+     * They are then scored by their weighted mean years of experience in the required competences, multiplied by the fraction of the position they are available for
+     * 
+     * @param requestBody the position, see ApplicationRankingRequestBody for the format
+     * @param size the maximum number of applications to return, between 1 and 500, defaults to 50
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the best matching applications as a json object to the user
+     */
+    @PostMapping("/rankApplications")
+    public List<RankedApplication> RankApplications(@RequestBody(required = false) ApplicationRankingRequestBody requestBody, @RequestParam(required = false) String size) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Application ranking with size (`{}`) requested by (`{}`)",size,currentUser);
+
+        ApplicationRankingQuery query=ParseRankingQuery(requestBody==null ? new ApplicationRankingRequestBody() : requestBody);
+        Integer parsedSize=ParsePageSize(size);
+
+        return reviewService.RankApplications(query, parsedSize);
+    }
+
+    /**
+     * This function returns the number of applications with each status, which is kept up to date as applications are submitted and reviewed
+     * 
+     * @return This function will return the number of applications with each status, along with the total number of applications, as a json object to the user
+     */
+    @GetMapping("/getApplicationStatusCounts")
+    public ApplicationStatusCounts GetApplicationStatusCounts() {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Application status counts requested by (`{}`)",currentUser);
+
+        return reviewService.GetApplicationStatusCounts();
+    }
+
+    /**
+     * This function returns the number of applications with each status for each day of a period, based on the day the applications were submitted.
+     * The period may be at most MAX_AVAILABILITY_DAYS days long
+     * 
+     * @param from the first day of the period, formated as yyyy-mm-dd
+     * @param to the last day of the period, formated as yyyy-mm-dd
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the number of applications with each status for each day as a json object to the user
+     */
+    @GetMapping("/getDailyApplicationStatusCounts")
+    public List<ApplicationStatusCounts> GetDailyApplicationStatusCounts(@RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Daily application status counts from (`{}`) to (`{}`) requested by (`{}`)",from,to,currentUser);
+
+        LocalDate[] period=ParsePeriod(from, to);
+        if (!period[0].plusDays(MAX_AVAILABILITY_DAYS).isAfter(period[1])) {
+            LOGGER.error("Failed to retrive daily application status counts since the period from (`{}`) to (`{}`) is too long",from,to);
+            throw new InvalidParameterException("Provided period must be at most "+MAX_AVAILABILITY_DAYS+" days long");
+        }
+
+        return reviewService.GetDailyApplicationStatusCounts(period[0], period[1]);
+    }
+
+    /**
+     * This function returns the ids of the people who are available during a period, either for some part of it or for all of it.
+     * A single day can be queried by using the same from and to date
+     * 
+     * @param from the first day of the period, formated as yyyy-mm-dd
+     * @param to the last day of the period, formated as yyyy-mm-dd
+     * @param covering "true" if the people must be available for every day of the period, "false" or nothing if some day of the period is enough
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the ids of the available people as a json object to the user
+     */
+    @GetMapping("/getAvailablePersons")
+    public List<Integer> GetAvailablePersons(@RequestParam(required = false) String from, @RequestParam(required = false) String to, @RequestParam(required = false) String covering) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("People available from (`{}`) to (`{}`) with covering (`{}`) requested by (`{}`)",from,to,covering,currentUser);
+
+        LocalDate[] period=ParsePeriod(from, to);
+        boolean parsedCovering=false;
+        if (covering!=null) {
+            if (!covering.equalsIgnoreCase("true") && !covering.equalsIgnoreCase("false")) {
+                LOGGER.error("Failed to retrive available people since covering (`{}`) is not a valid boolean",covering);
+                throw new InvalidParameterException("Provided value ("+covering+") is not valid value for covering, please specify as \"true\" or \"false\"");
+            }
+            parsedCovering=Boolean.parseBoolean(covering);
+        }
+
+        return reviewService.GetAvailablePersons(period[0], period[1], parsedCovering);
+    }
+
+    /**
+     * This function returns the number of people who are available on each day of a period, which may be at most MAX_AVAILABILITY_DAYS days long
+     * 
+     * @param from the first day of the period, formated as yyyy-mm-dd
+     * @param to the last day of the period, formated as yyyy-mm-dd
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the number of available people for each day as a json object to the user
+     */
+    @GetMapping("/getDailyAvailability")
+    public List<AvailableDayCount> GetDailyAvailability(@RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Daily availability from (`{}`) to (`{}`) requested by (`{}`)",from,to,currentUser);
+
+        LocalDate[] period=ParsePeriod(from, to);
+        if (!period[0].plusDays(MAX_AVAILABILITY_DAYS).isAfter(period[1])) {
+            LOGGER.error("Failed to retrive daily availability since the period from (`{}`) to (`{}`) is too long",from,to);
+            throw new InvalidParameterException("Provided period must be at most "+MAX_AVAILABILITY_DAYS+" days long");
+        }
+
+        return reviewService.GetDailyAvailability(period[0], period[1]);
+    }
+
+    /**
+     * This function streams every application to the user as newline delimited json (one application per line).
+     * The applications are written as they are read from the database, so the first application is sent without waiting for the rest
+     * 
+     * @return This function will return a streaming response body which writes all applications to the user
+     */
+    @GetMapping(value = "/streamApplications", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> StreamApplications() {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Stream of all applications requested by (`{}`)",currentUser);
+
+        StreamingResponseBody body = outputStream -> {
+            boolean[] firstWritten = {false};
+            reviewService.ForEachApplication(application -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(application));
+                    outputStream.write('\n');
+                    //We flush the first line directly, so the user does not have to wait for the buffer to fill before getting a response
+                    if (!firstWritten[0]) {
+                        outputStream.flush();
+                        firstWritten[0]=true;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * This function exports the applications submitted during a period as a file, either as csv or as newline delimited json, ordered by application date.
+     * Each application is one row, where the applicant is flattened into separate columns, and the competences and availability periods are each joined into a single column,
+     * see ApplicationExport for the columns. The rows are written as they are read from the database, so memory use does not depend on the number of applications
+     * 
+     * @param from the first application date to export, formated as yyyy-mm-dd
+     * @param to the last application date to export, formated as yyyy-mm-dd
+     * @param format the format of the file, either "csv" or "ndjson", defaults to csv
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return a streaming response body which writes the exported applications to the user as an attachment
+     */
+    @GetMapping("/exportApplications")
+    public ResponseEntity<StreamingResponseBody> ExportApplications(@RequestParam(required = false) String from, @RequestParam(required = false) String to, @RequestParam(required = false) String format) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Export of applications from (`{}`) to (`{}`) as (`{}`) requested by (`{}`)",from,to,format,currentUser);
+
+        LocalDate[] period=ParsePeriod(from, to);
+        boolean csv=format==null || format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            LOGGER.error("Failed to export applications since format (`{}`) is invalid",format);
+            throw new InvalidParameterException("Provided value ("+format+") is not valid value for format, please specify as \"csv\" or \"ndjson\"");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            if (csv) {
+                outputStream.write(ApplicationExport.CsvHeader().getBytes(StandardCharsets.UTF_8));
+            }
+            boolean[] firstWritten = {false};
+            reviewService.ForEachApplicationInPeriod(period[0], period[1], application -> {
+                try {
+                    if (csv) {
+                        outputStream.write(ApplicationExport.CsvRow(application).getBytes(StandardCharsets.UTF_8));
+                    }
+                    else {
+                        outputStream.write(objectMapper.writeValueAsBytes(ApplicationExport.Flatten(application)));
+                        outputStream.write('\n');
+                    }
+                    //We flush the first row directly, so the user does not have to wait for the buffer to fill before the download starts
+                    if (!firstWritten[0]) {
+                        outputStream.flush();
+                        firstWritten[0]=true;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        String fileName="applications-"+period[0]+"-"+period[1]+(csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+            .contentType(csv ? CSV : NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+            .body(body);
+    }
+
+    /**
+     * This function subscribes the user to application change events, which are sent as server-sent events.
+     * A "submitted" or "statusChanged" event containing the application id, status and version number is sent whenever an application is created or reviewed,
+     * and a "resync" event is sent if the user did not receive events fast enough and some were dropped, in which case the applications should be retrived again
+     * 
+     * @return This function will return an emitter which sends the events to the user, until the subscription times out
+     */
+    @GetMapping(value = "/applicationEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter SubscribeToApplicationEvents() {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        LOGGER.info("Subscription to application events requested by (`{}`)",currentUser);
+
+        SseEmitter emitter = new SseEmitter(EVENT_SUBSCRIPTION_TIMEOUT_MS);
+        applicationEventService.Subscribe(emitter);
+        return emitter;
+    }
+
     /**
      * This function returns the existing standard competences
      * 
@@ -95,14 +469,17 @@ public class ReviewerEndpointController {
     }
 
     /**
-     * This function returns the specified application
+     * This function returns the specified application, along with an entity tag based on its version number.
+     * If the request contains an If-None-Match header, the current version number is retrived first and if it matches
+     * a 304 response is sent without the application being loaded
      * 
      * @param id the application id to find application
+     * @param ifNoneMatch the entity tags of the copies the client already has, or null if the request is not conditional
      * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
-     * @return This function will return the application of the application id
+     * @return This function will return the application of the application id, or an empty 304 response if the client already has the current version
      */
     @GetMapping("/getApplicationsById/{id}")
-    public ApplicationDTO GetApplicationsById(@PathVariable String id) {
+    public ResponseEntity<ApplicationDTO> GetApplicationsById(@PathVariable String id, @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Application with ID (`{}`) requested by (`{}`)" ,id,currentUser);
 
@@ -118,8 +495,32 @@ public class ReviewerEndpointController {
             throw new InvalidParameterException("Unknown cause, but double check formating of request, specifically for the applicationId parameter");
         }
 
+        //If the client has a cached copy, we first confirm if it is still current using only the version number
+        if (ifNoneMatch!=null) {
+            String currentTag=ApplicationEntityTag(parsedApplicationId, reviewService.GetApplicationVersion(parsedApplicationId));
+            if (EntityTags.Matches(ifNoneMatch, currentTag)) {
+                LOGGER.info("Application with ID (`{}`) not modified for (`{}`)" ,parsedApplicationId,currentUser);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentTag).cacheControl(APPLICATION_CACHE_CONTROL).build();
+            }
+        }
+
+        //Note that the tag is based on the loaded application, since it may have changed after the version number was checked
         ApplicationDTO application = reviewService.GetApplicationsById(parsedApplicationId);
-        return application;
+        return ResponseEntity.ok()
+            .eTag(ApplicationEntityTag(parsedApplicationId, application.getVersionNumber()))
+            .cacheControl(APPLICATION_CACHE_CONTROL)
+            .body(application);
+    }
+
+    /**
+     * This creates the entity tag for a specific version of an application
+     * @param applicationId the id of the application
+     * @param versionNumber the version number of the application
+     * @return the quoted entity tag
+     */
+    private String ApplicationEntityTag(Integer applicationId, long versionNumber)
+    {
+        return EntityTags.Create("application-"+applicationId+"-"+versionNumber);
     }
 
     /**
@@ -129,10 +530,10 @@ public class ReviewerEndpointController {
      * @param status the new application status to set the application to
      * @param versionNumber the application version
      * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
-     * @return The updated application as a json object
+     * @return The id, new status and new version number of the updated application as a json object
      */
     @PostMapping("/updateApplicationStatus")
-    public ApplicationDTO UpdateApplicationsByStatus(@RequestParam String applicationId,@RequestParam String status,@RequestParam String versionNumber) {
+    public ApplicationStatusChange UpdateApplicationsByStatus(@RequestParam String applicationId,@RequestParam String status,@RequestParam String versionNumber) {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Status change for application with id (`{}`) version number (`{}`) to (`{}`) requested by (`{}`)",applicationId,versionNumber,status,currentUser);
 
@@ -176,8 +577,307 @@ public class ReviewerEndpointController {
             throw new InvalidParameterException("Unknown cause, but double check formating of request, specifically for the version number parameter");
         }
         
-        ApplicationDTO applications = reviewService.SetApplicationStatus(parsedApplicationId,parsedApplicationStatus,parsedVersionNumber);
-        return applications;
+        ApplicationStatusChange statusChange = reviewService.SetApplicationStatus(parsedApplicationId,parsedApplicationStatus,parsedVersionNumber);
+        return statusChange;
+    }
+
+    /**
+     * This function updates the application status of a list of applications in a single transaction.
+     * Each update is only performed if the version number matches and the status is changed, like for updateApplicationStatus,
+     * however a failed update does not fail the request, instead the outcome of each update is returned
+     * 
+     * @param requestBody the list of updates, each containing the application id, the new status and the version number of the application
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified, in which case no update is performed
+     * @return The result of each update, in the same order as the request, as a json object
+     */
+    @PostMapping("/updateApplicationStatuses")
+    public List<ApplicationStatusUpdateResult> UpdateApplicationStatuses(@RequestBody List<ApplicationStatusUpdateRequestBody> requestBody) {
+        String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
+        int requestedUpdates = requestBody==null ? 0 : requestBody.size();
+        LOGGER.info("Status change for (`{}`) applications requested by (`{}`)",requestedUpdates,currentUser);
+
+        if (requestedUpdates<1 || requestedUpdates>MAX_STATUS_UPDATES) {
+            LOGGER.error("Failed to update applications since (`{}`) status updates were specified",requestedUpdates);
+            throw new InvalidParameterException("Provided number of status updates ("+requestedUpdates+") must be between 1 and "+MAX_STATUS_UPDATES);
+        }
+
+        List<ApplicationStatusChange> changes=new ArrayList<ApplicationStatusChange>(requestedUpdates);
+        for (int i = 0; i < requestedUpdates; i++) {
+            ApplicationStatusUpdateRequestBody update=requestBody.get(i);
+            if (update==null || update.getApplicationId()==null || update.getVersionNumber()==null) {
+                LOGGER.error("Failed to update applications since status update (`{}`) is missing an application id or version number",i);
+                throw new InvalidParameterException("Provided status update at index "+i+" must specify applicationId, status and versionNumber");
+            }
+
+            ApplicationStatus parsedApplicationStatus=null;
+            try {
+                parsedApplicationStatus=ApplicationStatus.valueOf(update.getStatus().toLowerCase());
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Failed to update applications since status update (`{}`) has invalid application status (`{}`)",i,update.getStatus());
+                throw new InvalidParameterException("Provided value ("+update.getStatus()+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+            }
+            catch(NullPointerException e) {
+                LOGGER.error("Failed to update applications since status update (`{}`) has null application status",i);
+                throw new InvalidParameterException("Provided status value is null, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+            }
+
+            changes.add(new ApplicationStatusChange(update.getApplicationId(), parsedApplicationStatus, update.getVersionNumber()));
+        }
+
+        return reviewService.SetApplicationStatuses(changes);
+    }
+
+    /**
+     * This function claims the next unchecked applications for the current user to review, by giving them a lease on each application which expires after 15 minutes.
+     * Other reviewers can not claim the applications until the lease expires or is released, so reviewers working at the same time receive different applications
+     * 
+     * @param count the maximum number of applications to claim, between 1 and 50, defaults to 10
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the summaries of the claimed applications along with their leases as a json object to the user
+     */
+    @PostMapping("/claimApplications")
+    public List<LeasedApplication> ClaimApplications(@RequestParam(required = false) String count) {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Claim of (`{}`) applications requested by (`{}`)",count,userAuthentication.getUsername());
+
+        Integer parsedCount=DEFAULT_CLAIM_COUNT;
+        if (count!=null) {
+            try {
+                parsedCount=Integer.parseInt(count);
+            } catch (NumberFormatException e) {
+                LOGGER.error("Failed to claim applications since count (`{}`) is invalid integer",count);
+                throw new InvalidParameterException("Provided value ("+count+") could not be parsed as a valid integer" );
+            }
+            if (parsedCount<1 || parsedCount>MAX_CLAIM_COUNT) {
+                LOGGER.error("Failed to claim applications since count (`{}`) is out of range",count);
+                throw new InvalidParameterException("Provided count ("+count+") must be between 1 and "+MAX_CLAIM_COUNT);
+            }
+        }
+
+        return reviewService.ClaimApplications(userAuthentication.getPersonId(), parsedCount);
+    }
+
+    /**
+     * This function extends the lease the current user holds on an unchecked application, so it expires 15 minutes from now
+     * 
+     * @param applicationId the id of the leased application
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return the renewed lease as a json object to the user
+     */
+    @PostMapping("/renewApplicationLease")
+    public ApplicationLease RenewApplicationLease(@RequestParam String applicationId) {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Renewal of lease on application with id (`{}`) requested by (`{}`)",applicationId,userAuthentication.getUsername());
+
+        Integer parsedApplicationId=null;
+        try {
+            parsedApplicationId=Integer.parseInt(applicationId);
+        } catch (NumberFormatException e) {
+            LOGGER.error("Failed to renew lease on application with id (`{}`) since id is invalid integer",applicationId);
+            throw new InvalidParameterException("Provided value ("+applicationId+") could not be parsed as a valid integer" );
+        }
+
+        return reviewService.RenewApplicationLease(parsedApplicationId, userAuthentication.getPersonId());
+    }
+
+    /**
+     * This function releases the lease the current user holds on an application, so other reviewers can claim it immediately
+     * 
+     * @param applicationId the id of the leased application
+     * @throws InvalidParameterException this exceptions is thrown is a parameter is incorrectly specified
+     * @return This function will return a confirmation message to the user
+     */
+    @PostMapping("/releaseApplicationLease")
+    public String ReleaseApplicationLease(@RequestParam String applicationId) {
+        PersonDetails userAuthentication=((PersonDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        LOGGER.info("Release of lease on application with id (`{}`) requested by (`{}`)",applicationId,userAuthentication.getUsername());
+
+        Integer parsedApplicationId=null;
+        try {
+            parsedApplicationId=Integer.parseInt(applicationId);
+        } catch (NumberFormatException e) {
+            LOGGER.error("Failed to release lease on application with id (`{}`) since id is invalid integer",applicationId);
+            throw new InvalidParameterException("Provided value ("+applicationId+") could not be parsed as a valid integer" );
+        }
+
+        reviewService.ReleaseApplicationLease(parsedApplicationId, userAuthentication.getPersonId());
+        return "Released lease on application with id : "+parsedApplicationId;
+    }
+
+    /**
+     * This parses the request body of a search into a search query, and confirms that every specified part of it is valid
+     * @param requestBody the request body of the search
+     * @throws InvalidParameterException if any part of the search is incorrectly specified
+     * @return the parsed search query
+     */
+    private ApplicationSearchQuery ParseSearchQuery(ApplicationSearchRequestBody requestBody) throws InvalidParameterException {
+        ApplicationStatus parsedApplicationStatus=null;
+        if (requestBody.getStatus()!=null) {
+            try {
+                parsedApplicationStatus=ApplicationStatus.valueOf(requestBody.getStatus().toLowerCase());
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Failed to search applications since status (`{}`) is invalid application status",requestBody.getStatus());
+                throw new InvalidParameterException("Provided value ("+requestBody.getStatus()+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+            }
+        }
+
+        List<CompetenceRequirement> requirements=ParseCompetenceRequirements(requestBody.getCompetences());
+
+        if ((requestBody.getAvailableFrom()==null) != (requestBody.getAvailableTo()==null)) {
+            LOGGER.error("Failed to search applications since only one of availableFrom (`{}`) and availableTo (`{}`) was specified",requestBody.getAvailableFrom(),requestBody.getAvailableTo());
+            throw new InvalidParameterException("Provided search must specify both availableFrom and availableTo, or neither");
+        }
+        LocalDate availableFrom=null;
+        LocalDate availableTo=null;
+        if (requestBody.getAvailableFrom()!=null) {
+            try {
+                availableFrom=LocalDate.parse(requestBody.getAvailableFrom());
+                availableTo=LocalDate.parse(requestBody.getAvailableTo());
+            } catch (DateTimeParseException e) {
+                LOGGER.error("Failed to search applications since availableFrom (`{}`) or availableTo (`{}`) is an invalid date",requestBody.getAvailableFrom(),requestBody.getAvailableTo());
+                throw new InvalidParameterException("Provided value ("+e.getParsedString()+") could not be parsed as a valid date, please specify as yyyy-mm-dd");
+            }
+            if (availableFrom.isAfter(availableTo)) {
+                LOGGER.error("Failed to search applications since availableFrom (`{}`) is after availableTo (`{}`)",availableFrom,availableTo);
+                throw new InvalidParameterException("Provided availableFrom ("+availableFrom+") must not be after availableTo ("+availableTo+")");
+            }
+        }
+
+        ApplicationSearchSort parsedSort=ApplicationSearchSort.applicationId;
+        if (requestBody.getSort()!=null) {
+            try {
+                parsedSort=ApplicationSearchSort.valueOf(requestBody.getSort());
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Failed to search applications since sort (`{}`) is invalid",requestBody.getSort());
+                throw new InvalidParameterException("Provided value ("+requestBody.getSort()+") is not valid value for sort, please specify as \"applicationId\",\"applicationDate\" or \"experience\"");
+            }
+        }
+        if (parsedSort==ApplicationSearchSort.experience && requirements.isEmpty()) {
+            LOGGER.error("Failed to search applications since sort by experience was requested without any competences");
+            throw new InvalidParameterException("Provided search must specify at least one competence to sort by experience");
+        }
+
+        return new ApplicationSearchQuery(parsedApplicationStatus, requirements, availableFrom, availableTo, parsedSort);
+    }
+
+    /**
+     * This parses the competence requirements of a search or ranking
+     * @param competences the competence requirements from the request body, may be null in which case no competences are required
+     * @throws InvalidParameterException if there are too many requirements, or if any requirement is incorrectly specified
+     * @return the parsed competence requirements, in the same order
+     */
+    private List<CompetenceRequirement> ParseCompetenceRequirements(List<CompetenceRequirementRequestBody> competences) throws InvalidParameterException {
+        List<CompetenceRequirement> requirements=new ArrayList<CompetenceRequirement>();
+        if (competences==null) {
+            return requirements;
+        }
+        if (competences.size()>MAX_SEARCH_COMPETENCES) {
+            LOGGER.error("Failed to parse competence requirements since (`{}`) competences were specified",competences.size());
+            throw new InvalidParameterException("Provided search specifies "+competences.size()+" competences, at most "+MAX_SEARCH_COMPETENCES+" can be specified");
+        }
+        for (int i = 0; i < competences.size(); i++) {
+            CompetenceRequirementRequestBody competence=competences.get(i);
+            if (competence==null || competence.getCompetenceId()==null) {
+                LOGGER.error("Failed to parse competence requirements since competence at index (`{}`) is incomplete",i);
+                throw new InvalidParameterException("Provided competence at index "+i+" must specify competenceId");
+            }
+            Double minimumYears=competence.getMinimumYearsOfExperience()==null ? 0.0 : competence.getMinimumYearsOfExperience();
+            if (minimumYears<0 || minimumYears.isNaN()) {
+                LOGGER.error("Failed to parse competence requirements since competence at index (`{}`) has invalid minimum years of experience (`{}`)",i,minimumYears);
+                throw new InvalidParameterException("Provided minimumYearsOfExperience for competence at index "+i+" must be non-negative");
+            }
+            Double weight=competence.getWeight()==null ? 1.0 : competence.getWeight();
+            if (!(weight>0) || weight.isInfinite()) {
+                LOGGER.error("Failed to parse competence requirements since competence at index (`{}`) has invalid weight (`{}`)",i,weight);
+                throw new InvalidParameterException("Provided weight for competence at index "+i+" must be positive");
+            }
+            requirements.add(new CompetenceRequirement(competence.getCompetenceId(), minimumYears, weight));
+        }
+        return requirements;
+    }
+
+    /**
+     * This parses the request body of the rankApplications endpoint
+     * @param requestBody the request body
+     * @throws InvalidParameterException if the position is incorrectly specified, or is missing the competences or the period
+     * @return the parsed specification of the position
+     */
+    private ApplicationRankingQuery ParseRankingQuery(ApplicationRankingRequestBody requestBody) throws InvalidParameterException {
+        ApplicationStatus parsedApplicationStatus=null;
+        if (requestBody.getStatus()!=null) {
+            try {
+                parsedApplicationStatus=ApplicationStatus.valueOf(requestBody.getStatus().toLowerCase());
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Failed to rank applications since status (`{}`) is invalid application status",requestBody.getStatus());
+                throw new InvalidParameterException("Provided value ("+requestBody.getStatus()+") is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"");
+            }
+        }
+
+        List<CompetenceRequirement> requirements=ParseCompetenceRequirements(requestBody.getCompetences());
+        if (requirements.isEmpty()) {
+            LOGGER.error("Failed to rank applications since no competences were specified");
+            throw new InvalidParameterException("Provided position must specify at least one competence");
+        }
+
+        if (requestBody.getAvailableFrom()==null || requestBody.getAvailableTo()==null) {
+            LOGGER.error("Failed to rank applications since availableFrom (`{}`) or availableTo (`{}`) was not specified",requestBody.getAvailableFrom(),requestBody.getAvailableTo());
+            throw new InvalidParameterException("Provided position must specify both availableFrom and availableTo");
+        }
+        LocalDate[] period=ParsePeriod(requestBody.getAvailableFrom(), requestBody.getAvailableTo());
+
+        return new ApplicationRankingQuery(parsedApplicationStatus, requirements, period[0], period[1]);
+    }
+
+    /**
+     * This parses the from and to parameters of the availability and export endpoints, along with the period of a ranked position
+     * @param from the first day of the period
+     * @param to the last day of the period
+     * @throws InvalidParameterException if either date is missing or invalid, or if the from date is after the to date
+     * @return the first and last day of the period
+     */
+    private LocalDate[] ParsePeriod(String from, String to) throws InvalidParameterException {
+        if (from==null || to==null) {
+            LOGGER.error("Failed to retrive availability since from (`{}`) or to (`{}`) was not specified",from,to);
+            throw new InvalidParameterException("Provided period must specify both from and to");
+        }
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate=LocalDate.parse(from);
+            toDate=LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            LOGGER.error("Failed to retrive availability since from (`{}`) or to (`{}`) is an invalid date",from,to);
+            throw new InvalidParameterException("Provided value ("+e.getParsedString()+") could not be parsed as a valid date, please specify as yyyy-mm-dd");
+        }
+        if (fromDate.isAfter(toDate)) {
+            LOGGER.error("Failed to retrive availability since from (`{}`) is after to (`{}`)",from,to);
+            throw new InvalidParameterException("Provided from ("+fromDate+") must not be after to ("+toDate+")");
+        }
+        return new LocalDate[] {fromDate, toDate};
+    }
+
+    /**
+     * This parses the page size parameter for the paginated endpoints
+     * @param size the page size parameter, may be null in which case the default page size is used
+     * @throws InvalidParameterException if the size is not an integer between 1 and MAX_PAGE_SIZE
+     * @return the parsed page size
+     */
+    private Integer ParsePageSize(String size) throws InvalidParameterException {
+        if (size==null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        Integer parsedSize=null;
+        try {
+            parsedSize=Integer.parseInt(size);
+        } catch (NumberFormatException e) {
+            LOGGER.error("Failed to retrive page of applications since size (`{}`) is invalid integer",size);
+            throw new InvalidParameterException("Provided value ("+size+") could not be parsed as a valid integer" );
+        }
+        if (parsedSize<1 || parsedSize>MAX_PAGE_SIZE) {
+            LOGGER.error("Failed to retrive page of applications since size (`{}`) is out of range",size);
+            throw new InvalidParameterException("Provided page size ("+size+") must be between 1 and "+MAX_PAGE_SIZE);
+        }
+        return parsedSize;
     }
 
 }
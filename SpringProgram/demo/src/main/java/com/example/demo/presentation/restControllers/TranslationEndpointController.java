@@ -1,15 +1,22 @@
 package com.example.demo.presentation.restControllers;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -34,6 +41,9 @@ public class TranslationEndpointController {
     @Autowired
     private final TranslationService translationService;
 
+    //The translations are the same for every user and almost never change, so they may be cached by shared caches for a short time before being validated again
+    private static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+
     //We create a logger
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationEndpointController.class.getName()); 
 
@@ -90,26 +100,52 @@ public class TranslationEndpointController {
 
     /**
      * This function returns a list of competence translations which are in a specified language. If any exists they will be returned, if not a 404 error will be sent stating this and if the language was missing or if the translations did not exist.
+     * The response has an entity tag based on the translation catalog revision, and if the If-None-Match header matches it a 304 response is sent without the translations being loaded
      * 
      * @param language This is the language the translations are for
-     * @return This function will return the list of competences translations as a json object to the user, if no error occurs
+     * @param ifNoneMatch the entity tags of the copies the client already has, or null if the request is not conditional
+     * @return This function will return the list of competences translations as a json object to the user, if no error occurs, or an empty 304 response if the client already has the current translations
      */
     @GetMapping("/getCompetenceTranslation")
-    public List<? extends CompetenceTranslationDTO> GetCompetenceTranslation(@RequestParam String language) {
+    public ResponseEntity<List<? extends CompetenceTranslationDTO>> GetCompetenceTranslation(@RequestParam String language, @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Competence translation for language (`{}`) requested by user (`{}`)",language, currentUser); 
-        return translationService.GetCompetenceTranslation(language.toLowerCase());
+        String languageName=language.toLowerCase();
+
+        //The language is part of the tag, since a cached copy for one language is not valid for another
+        String currentTag=CatalogEntityTag("translations-"+URLEncoder.encode(languageName, StandardCharsets.UTF_8));
+        if (EntityTags.Matches(ifNoneMatch, currentTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentTag).cacheControl(CATALOG_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(currentTag).cacheControl(CATALOG_CACHE_CONTROL).body(translationService.GetCompetenceTranslation(languageName));
     }
 
     /**
      * Retrieves a list of supported languages.
+     * The response has an entity tag based on the translation catalog revision, and if the If-None-Match header matches it a 304 response is sent without the languages being loaded
      * 
-     * @return A JSON list of available languages.
+     * @param ifNoneMatch the entity tags of the copies the client already has, or null if the request is not conditional
+     * @return A JSON list of available languages, or an empty 304 response if the client already has the current languages.
      */
     @GetMapping("/getLanguages")
-    public List<? extends LanguageDTO> GetLanguages() {
+    public ResponseEntity<List<? extends LanguageDTO>> GetLanguages(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         String currentUser = SecurityContextHolder.getContext().getAuthentication().getName();
         LOGGER.info("Languages supported requested by user (`{}`)", currentUser); 
-        return translationService.GetLanguages();
+
+        String currentTag=CatalogEntityTag("languages");
+        if (EntityTags.Matches(ifNoneMatch, currentTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentTag).cacheControl(CATALOG_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(currentTag).cacheControl(CATALOG_CACHE_CONTROL).body(translationService.GetLanguages());
+    }
+
+    /**
+     * This creates the entity tag for a resource based on the current translation catalog revision
+     * @param resource the name of the resource, which must only contain characters allowed in an entity tag
+     * @return the quoted entity tag
+     */
+    private String CatalogEntityTag(String resource)
+    {
+        return EntityTags.Create(resource+"-"+translationService.GetCatalogRevision());
     }
 }
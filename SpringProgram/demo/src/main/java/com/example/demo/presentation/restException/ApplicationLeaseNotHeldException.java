@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the ReviewService.java class, specifically if a reviewer tries to renew or release a lease they do not hold
+ */
+public class ApplicationLeaseNotHeldException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the lease is not held
+     */
+    public ApplicationLeaseNotHeldException(String cause) {
+        super("Could not update application lease due to : " + cause);
+      }
+}
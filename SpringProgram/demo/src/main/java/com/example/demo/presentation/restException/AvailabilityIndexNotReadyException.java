@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the AvailabilityIntervalIndex.java class, specifically if a query is performed before the index has been built
+ */
+public class AvailabilityIndexNotReadyException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the query could not be performed
+     */
+    public AvailabilityIndexNotReadyException(String cause) {
+        super("Could not retrive availability due to : " + cause);
+      }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException.EntryNotFoundExceptions;
+
+/**
+ * This class implements a specific error for the ApplicationSubmissionQueue.java class, specifically if a queued submission does not exist
+ */
+public class SubmissionNotFoundException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the submission id
+     * @param submissionId The id of the submission which could not be found
+     */
+    public SubmissionNotFoundException(String submissionId) {
+        super("Could not find any application submission with id : " + submissionId);
+      }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the IdempotencyService.java class, specifically if an idempotency key is reused for a different request
+ */
+public class IdempotencyKeyReusedException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the request could not be processed
+     */
+    public IdempotencyKeyReusedException(String cause) {
+        super("Could not process request due to : " + cause);
+      }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the RefreshTokenService.java class, specifically if a refresh token can not be used
+ */
+public class InvalidRefreshTokenException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the refresh token can not be used
+     */
+    public InvalidRefreshTokenException(String cause) {
+        super("The provided refresh token is invalid due to : " + cause);
+      }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the BoundedPasswordEncoder.java class, specifically if a password can not be hashed since too many passwords are already waiting to be hashed
+ */
+public class PasswordHashingBusyException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the password could not be hashed
+     */
+    public PasswordHashingBusyException(String cause) {
+        super("Could not hash the password due to : " + cause);
+      }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the ApplicationSearchIndex.java class, specifically if a search is performed before the index has been built
+ */
+public class SearchIndexNotReadyException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the search could not be performed
+     */
+    public SearchIndexNotReadyException(String cause) {
+        super("Could not search applications due to : " + cause);
+      }
+}
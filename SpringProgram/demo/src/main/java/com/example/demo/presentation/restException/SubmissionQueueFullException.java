@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the ApplicationSubmissionQueue.java class, specifically if no more submissions can be queued
+ */
+public class SubmissionQueueFullException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the submission could not be queued
+     */
+    public SubmissionQueueFullException(String cause) {
+        super("Could not queue application submission due to : " + cause);
+      }
+}
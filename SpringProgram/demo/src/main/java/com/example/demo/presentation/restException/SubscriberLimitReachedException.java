@@ -0,0 +1,14 @@
+package com.example.demo.presentation.restException;
+
+/**
+ * This class implements a specific error for the ApplicationEventService.java class, specifically if no more subscribers can be accepted
+ */
+public class SubscriberLimitReachedException extends RuntimeException{
+    /**
+     * This constructor creates the error, and defines it's error message, which is based on the cause
+     * @param cause A description of why the subscription could not be created
+     */
+    public SubscriberLimitReachedException(String cause) {
+        super("Could not subscribe to application events due to : " + cause);
+      }
+}
@@ -1,17 +1,34 @@
 package com.example.demo.repository;
 
+import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusChange;
+import com.example.demo.domain.dto.ApplicationIndexDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+import com.example.demo.domain.dto.AvailabilityIndexDTO;
+import com.example.demo.domain.dto.CompetenceIndexDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Person;
 
+import jakarta.persistence.QueryHint;
+
 import org.springframework.transaction.annotation.Propagation;
 
 
@@ -24,11 +41,214 @@ import org.springframework.transaction.annotation.Propagation;
 @Transactional(propagation = Propagation.MANDATORY)
 //Note that the above means that any explicitly defined methods for this interface requier being called inside a transaction
 //Non-explicitly defined ones, aka inherited ones from JPARepository do not requier this, however note that they should still be called inside of a transaction to avoid rollback issues
-public interface ApplicationRepository extends JpaRepository<Application, Integer>{
+public interface ApplicationRepository extends JpaRepository<Application, Integer>, ApplicationRepositoryCustom{
     /**
      * This interface tells JPA to generate a query to find a list of Applications with a specific application status equal to the parameter
      * @param applicationStatus the application status to find applications matching
      * @return A list of matching applications
      */
     List<Application> findAllByApplicationStatus(ApplicationStatus applicationStatus);
+
+    /*
+     * The functions below are used to load complete applications with a fixed number of queries, instead of one query per lazy collection and related entity.
+     * Each read first finds the applications along with the applicant and their role, 
+     * then fetches the availability periods and the competence profiles for those applications using one query each.
+     * Note that the two collections can not be fetched in the same query, since hibernate does not allow fetching multiple lists (bags) at once
+     */
+
+    /**
+     * This finds all applications ordered by application id, with the applicant and their role fetched in the same query
+     * @return A list of all applications
+     */
+    @EntityGraph(attributePaths = {"applicant", "applicant.role"}, type = EntityGraphType.LOAD)
+    List<Application> findWithApplicantByOrderByApplicationIdAsc();
+
+    /**
+     * This finds all applications with a specific application status ordered by application id, with the applicant and their role fetched in the same query
+     * @param applicationStatus the application status to find applications matching
+     * @return A list of matching applications
+     */
+    @EntityGraph(attributePaths = {"applicant", "applicant.role"}, type = EntityGraphType.LOAD)
+    List<Application> findWithApplicantByApplicationStatusOrderByApplicationIdAsc(ApplicationStatus applicationStatus);
+
+    /**
+     * This finds a specific application, with the applicant and their role fetched in the same query
+     * @param applicationId the id of the application to find
+     * @return An optional containing the application, or an empty optional if no such application exists
+     */
+    @EntityGraph(attributePaths = {"applicant", "applicant.role"}, type = EntityGraphType.LOAD)
+    Optional<Application> findWithApplicantByApplicationId(Integer applicationId);
+
+    /**
+     * This finds a set of applications with their availability periods, and the person and role for each period, fetched in the same query.
+     * If the applications are already loaded in the current transaction, this initializes the availability periods of those application objects
+     * @param applicationIds the ids of the applications to find, should contain at most FETCH_PLAN_BATCH_SIZE ids
+     * @return A list of the matching applications
+     */
+    @EntityGraph(attributePaths = {"availabilityPeriodsForApplication", "availabilityPeriodsForApplication.person", "availabilityPeriodsForApplication.person.role"}, type = EntityGraphType.LOAD)
+    List<Application> findWithAvailabilityPeriodsByApplicationIdIn(Collection<Integer> applicationIds);
+
+    /**
+     * This finds a set of applications with their competence profiles, and the competence, person and role for each profile, fetched in the same query.
+     * If the applications are already loaded in the current transaction, this initializes the competence profiles of those application objects
+     * @param applicationIds the ids of the applications to find, should contain at most FETCH_PLAN_BATCH_SIZE ids
+     * @return A list of the matching applications
+     */
+    @EntityGraph(attributePaths = {"competenceProfilesForApplication", "competenceProfilesForApplication.competence", "competenceProfilesForApplication.person", "competenceProfilesForApplication.person.role"}, type = EntityGraphType.LOAD)
+    List<Application> findWithCompetenceProfilesByApplicationIdIn(Collection<Integer> applicationIds);
+
+    /**
+     * This interface tells JPA to generate a query to find the next page of applications after a specific application id, ordered by application id.
+     * This is used for keyset (cursor) pagination, which unlike offset pagination does not have to skip past all earlier rows
+     * @param applicationId the last application id of the previous page, all returned applications have a larger id
+     * @param limit the maximum number of applications to return
+     * @return A list of at most limit applications, ordered by application id
+     */
+    @EntityGraph(attributePaths = {"applicant", "applicant.role"}, type = EntityGraphType.LOAD)
+    List<Application> findByApplicationIdGreaterThanOrderByApplicationIdAsc(Integer applicationId, Limit limit);
+
+    /**
+     * This returns all applications as a stream, ordered by application id, which is backed by a database cursor.
+     * The applicant and their role is fetched in the same query, and rows are fetched from the database in batches of STREAM_FETCH_SIZE
+     * Note that the stream must be consumed inside a transaction, and should be closed once it has been consumed
+     * @return A stream of all applications
+     */
+    @Query("select a from Application a join fetch a.applicant p join fetch p.role order by a.applicationId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ""+STREAM_FETCH_SIZE))
+    Stream<Application> streamAllByOrderByApplicationIdAsc();
+
+    /**
+     * This returns the applications submitted during a period as a stream, ordered by application date and then application id, which is backed by a forward only database cursor.
+     * The applicant and their role is fetched in the same query, and rows are fetched from the database in batches of STREAM_FETCH_SIZE
+     * Note that the stream must be consumed inside a transaction, and should be closed once it has been consumed
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @return A stream of the applications submitted during the period
+     */
+    @Query("select a from Application a join fetch a.applicant p join fetch p.role "
+        + "where a.applicationDate between :fromDate and :toDate order by a.applicationDate, a.applicationId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ""+STREAM_FETCH_SIZE))
+    Stream<Application> streamByApplicationDateBetween(@Param("fromDate") Date fromDate, @Param("toDate") Date toDate);
+
+    /**
+     * This finds the next page of application summaries after a specific application id, ordered by application id.
+     * The summaries are retrived using a single query, with the number of availability periods and competence profiles counted by the database
+     * @param applicationId the last application id of the previous page, all returned summaries have a larger id
+     * @param limit the maximum number of summaries to return
+     * @return A list of at most limit application summaries, ordered by application id
+     */
+    @Query(SUMMARY_SELECT + "where a.applicationId > :applicationId order by a.applicationId")
+    List<ApplicationSummaryDTO> findSummariesByApplicationIdGreaterThan(@Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * This finds the next page of application summaries with a specific application status after a specific application id, ordered by application id.
+     * The summaries are retrived using a single query, with the number of availability periods and competence profiles counted by the database
+     * @param applicationStatus the application status to find summaries matching
+     * @param applicationId the last application id of the previous page, all returned summaries have a larger id
+     * @param limit the maximum number of summaries to return
+     * @return A list of at most limit application summaries, ordered by application id
+     */
+    @Query(SUMMARY_SELECT + "where a.applicationStatus = :applicationStatus and a.applicationId > :applicationId order by a.applicationId")
+    List<ApplicationSummaryDTO> findSummariesByApplicationStatusAndApplicationIdGreaterThan(@Param("applicationStatus") ApplicationStatus applicationStatus, @Param("applicationId") Integer applicationId, Limit limit);
+
+    /**
+     * The shared select clause for the application summary queries, note that the aliases must match the getters in ApplicationSummaryDTO
+     */
+    String SUMMARY_SELECT = "select a.applicationId as applicationId, a.applicationStatus as applicationStatus, a.versionNumber as versionNumber, a.applicationDate as applicationDate, "
+        + "p.name as applicantName, p.surname as applicantSurname, "
+        + "size(a.availabilityPeriodsForApplication) as availabilityPeriodCount, size(a.competenceProfilesForApplication) as competenceProfileCount "
+        + "from Application a join a.applicant p ";
+
+    /**
+     * This sets the status of an application and increments its version number, but only if the version number matches and the status is changed.
+     * This is done using a single update statement, meaning there is no window between checking the version number and updating the application
+     * Note that the persistence context is cleared afterwards, since any loaded version of the application is now outdated
+     * @param applicationId the id of the application to update
+     * @param applicationStatus the new application status
+     * @param versionNumber the version number the application must currently have
+     * @return the number of updated applications, 1 if the update was performed and otherwise 0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Application a set a.applicationStatus = :applicationStatus, a.versionNumber = a.versionNumber + 1 "
+        + "where a.applicationId = :applicationId and a.versionNumber = :versionNumber and a.applicationStatus <> :applicationStatus")
+    int updateApplicationStatusByApplicationIdAndVersionNumber(@Param("applicationId") Integer applicationId, @Param("applicationStatus") ApplicationStatus applicationStatus, @Param("versionNumber") long versionNumber);
+
+    /**
+     * This finds the current status and version number of an application, without loading the application
+     * @param applicationId the id of the application
+     * @return An optional containing the status and version number, or an empty optional if no such application exists
+     */
+    @Query("select new com.example.demo.domain.ApplicationStatusChange(a.applicationId, a.applicationStatus, a.versionNumber) from Application a where a.applicationId = :applicationId")
+    Optional<ApplicationStatusChange> findStatusByApplicationId(@Param("applicationId") Integer applicationId);
+
+    /**
+     * This finds the current status and version number of a set of applications, without loading the applications
+     * @param applicationIds the ids of the applications
+     * @return A list containing the status and version number of each existing application
+     */
+    @Query("select new com.example.demo.domain.ApplicationStatusChange(a.applicationId, a.applicationStatus, a.versionNumber) from Application a where a.applicationId in :applicationIds")
+    List<ApplicationStatusChange> findStatusByApplicationIdIn(@Param("applicationIds") Collection<Integer> applicationIds);
+
+    /**
+     * This finds the summaries of a set of applications, in no specific order.
+     * This is used to retrive the summaries for a page of application search results
+     * @param applicationIds the ids of the applications
+     * @return A list containing the summary of each existing application
+     */
+    @Query(SUMMARY_SELECT + "where a.applicationId in :applicationIds")
+    List<ApplicationSummaryDTO> findSummariesByApplicationIdIn(@Param("applicationIds") Collection<Integer> applicationIds);
+
+    /**
+     * This finds the summaries of the applications submitted by a specific person, ordered by application id
+     * @param personId the id of the applicant
+     * @return A list of the summaries of the applications of the person
+     */
+    @Query(SUMMARY_SELECT + "where p.id = :personId order by a.applicationId")
+    List<ApplicationSummaryDTO> findSummariesByApplicantId(@Param("personId") Integer personId);
+
+    /*
+     * The functions below are used to build the application search index, and return only the columns used by the index instead of loading the applications.
+     * Note that the streams must be consumed inside a transaction, and should be closed once they have been consumed
+     */
+
+    /**
+     * This returns the indexed columns of every application as a stream
+     * @return A stream with the indexed columns of every application
+     */
+    @Query("select a.applicationId as applicationId, a.applicationStatus as applicationStatus, a.versionNumber as versionNumber, a.applicationDate as applicationDate from Application a")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ""+INDEX_FETCH_SIZE))
+    Stream<ApplicationIndexDTO> streamIndexRows();
+
+    /**
+     * This returns the competence and years of experience of every competence profile included in an application as a stream
+     * @return A stream with one element per competence profile in each application
+     */
+    @Query("select a.applicationId as applicationId, c.competence.competenceId as competenceId, c.yearsOfExperience as yearsOfExperience "
+        + "from Application a join a.competenceProfilesForApplication c")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ""+INDEX_FETCH_SIZE))
+    Stream<CompetenceIndexDTO> streamCompetenceIndexRows();
+
+    /**
+     * This returns the dates of every availability period included in an application as a stream
+     * @return A stream with one element per availability period in each application
+     */
+    @Query("select a.applicationId as applicationId, v.fromDate as fromDate, v.toDate as toDate "
+        + "from Application a join a.availabilityPeriodsForApplication v")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ""+INDEX_FETCH_SIZE))
+    Stream<AvailabilityIndexDTO> streamAvailabilityIndexRows();
+
+    /**
+     * The number of rows fetched from the database per round trip when building the application search index
+     */
+    int INDEX_FETCH_SIZE = 1000;
+
+    /**
+     * The number of rows fetched from the database per round trip when streaming applications
+     */
+    int STREAM_FETCH_SIZE = 100;
+
+    /**
+     * The maximum number of application ids used in a single findWithAvailabilityPeriodsByApplicationIdIn or findWithCompetenceProfilesByApplicationIdIn query
+     */
+    int FETCH_PLAN_BATCH_SIZE = 1000;
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.example.demo.domain.ApplicationStatusChange;
+
+/**
+ * The ApplicationRepositoryCustom interface defines the ApplicationRepository functions which are implemented manually instead of by JPA,
+ * see ApplicationRepositoryCustomImpl for the implementation
+ */
+public interface ApplicationRepositoryCustom {
+    /**
+     * This performs a list of status updates using jdbc batched update statements, where each update only is performed if the version number matches and the status is changed.
+     * The updates are performed in order, and each performed update increments the version number of the application
+     * @param changes the updates to perform, each containing the application id, the new status and the version number the application must currently have
+     * @return the number of updated applications for each update, in the same order as the changes, 1 if the update was performed and otherwise 0
+     */
+    int[] updateApplicationStatusesByApplicationIdAndVersionNumber(List<ApplicationStatusChange> changes);
+
+    /**
+     * This claims up to a number of unchecked applications for a reviewer, by giving the reviewer a lease on them which expires at a specific time.
+     * Only applications without a lease, with an expired lease or with a lease already held by the reviewer are claimed, in application id order.
+     * The candidate rows are locked while they are claimed, and rows locked by other claims are skipped instead of waited for, so concurrent claims never block each other or claim the same application
+     * @param leaseHolderId the person id of the reviewer claiming the applications
+     * @param count the maximum number of applications to claim
+     * @param now the current time, leases expiring at or before it are considered expired
+     * @param leaseExpiresAt the time the new leases expire
+     * @return the ids of the claimed applications, in ascending order
+     */
+    List<Integer> claimUncheckedApplications(Integer leaseHolderId, int count, Timestamp now, Timestamp leaseExpiresAt);
+
+    /**
+     * This extends the lease a reviewer holds on an unchecked application, which is only done if the lease has not expired yet
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer holding the lease
+     * @param now the current time, leases expiring at or before it are considered expired
+     * @param leaseExpiresAt the new time the lease expires
+     * @return the number of renewed leases, 1 if the lease was renewed and otherwise 0
+     */
+    int renewApplicationLease(Integer applicationId, Integer leaseHolderId, Timestamp now, Timestamp leaseExpiresAt);
+
+    /**
+     * This releases the lease a reviewer holds on an application, so other reviewers can claim it immediately
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer holding the lease
+     * @return the number of released leases, 1 if the lease was released and otherwise 0
+     */
+    int releaseApplicationLease(Integer applicationId, Integer leaseHolderId);
+}
@@ -0,0 +1,157 @@
+package com.example.demo.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.domain.ApplicationStatusChange;
+
+/**
+ * This class implements the ApplicationRepositoryCustom functions, which spring data adds to ApplicationRepository.
+ * It uses jdbc directly, since JPA does not support batching update statements with different parameters
+ */
+@Transactional(propagation = Propagation.MANDATORY)
+public class ApplicationRepositoryCustomImpl implements ApplicationRepositoryCustom {
+    //The maximum number of update statements sent to the database in a single batch
+    static final int STATUS_UPDATE_BATCH_SIZE = 100;
+
+    //Note that this is the same update as ApplicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber
+    private static final String STATUS_UPDATE_SQL = "update application set application_status = ?, application_version_number = application_version_number + 1 "
+        + "where application_id = ? and application_version_number = ? and application_status <> ?";
+
+    //This finds the applications which can be claimed, where the rows are locked until the transaction ends. The lock clause is added by ClaimLockClause
+    private static final String CLAIM_CANDIDATES_SQL = "select application_id from application where application_status = 'unchecked' "
+        + "and (lease_expires_at is null or lease_expires_at <= ? or lease_holder_id = ?) order by application_id limit ?";
+
+    //The claim is repeated with the same conditions when the lease is written, so a row is never claimed twice if the database does not support skipping locked rows
+    private static final String CLAIM_SQL = "update application set lease_holder_id = ?, lease_expires_at = ? where application_id = ? "
+        + "and application_status = 'unchecked' and (lease_expires_at is null or lease_expires_at <= ? or lease_holder_id = ?)";
+
+    private static final String RENEW_SQL = "update application set lease_expires_at = ? where application_id = ? "
+        + "and application_status = 'unchecked' and lease_holder_id = ? and lease_expires_at > ?";
+
+    private static final String RELEASE_SQL = "update application set lease_holder_id = null, lease_expires_at = null where application_id = ? and lease_holder_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //The lock clause of CLAIM_CANDIDATES_SQL, which is found the first time applications are claimed since it depends on the database
+    private volatile String claimLockClause;
+
+    /**
+     * Constructs a new instance of the ApplicationRepositoryCustomImpl (Spring boot managed).
+     * @param jdbcTemplate the jdbc template, which uses the connection of the current transaction
+     */
+    public ApplicationRepositoryCustomImpl(JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate=jdbcTemplate;
+    }
+
+    /**
+     * This performs a list of status updates using jdbc batched update statements, see ApplicationRepositoryCustom
+     * @param changes the updates to perform
+     * @return the number of updated applications for each update, in the same order as the changes
+     */
+    @Override
+    public int[] updateApplicationStatusesByApplicationIdAndVersionNumber(List<ApplicationStatusChange> changes)
+    {
+        int[][] batchCounts=jdbcTemplate.batchUpdate(STATUS_UPDATE_SQL, changes, STATUS_UPDATE_BATCH_SIZE, (statement, change) -> {
+            statement.setString(1, change.getApplicationStatus().name());
+            statement.setInt(2, change.getApplicationId());
+            statement.setLong(3, change.getVersionNumber());
+            statement.setString(4, change.getApplicationStatus().name());
+        });
+
+        int[] counts=new int[changes.size()];
+        int index=0;
+        for (int[] batch : batchCounts) {
+            for (int count : batch) {
+                counts[index++]=count;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * This claims up to a number of unchecked applications for a reviewer, see ApplicationRepositoryCustom
+     * @param leaseHolderId the person id of the reviewer claiming the applications
+     * @param count the maximum number of applications to claim
+     * @param now the current time
+     * @param leaseExpiresAt the time the new leases expire
+     * @return the ids of the claimed applications, in ascending order
+     */
+    @Override
+    public List<Integer> claimUncheckedApplications(Integer leaseHolderId, int count, Timestamp now, Timestamp leaseExpiresAt)
+    {
+        List<Integer> candidateIds=jdbcTemplate.queryForList(CLAIM_CANDIDATES_SQL+ClaimLockClause(), Integer.class, now, leaseHolderId, count);
+        if (candidateIds.isEmpty()) {
+            return candidateIds;
+        }
+
+        int[][] batchCounts=jdbcTemplate.batchUpdate(CLAIM_SQL, candidateIds, STATUS_UPDATE_BATCH_SIZE, (statement, applicationId) -> {
+            statement.setInt(1, leaseHolderId);
+            statement.setTimestamp(2, leaseExpiresAt);
+            statement.setInt(3, applicationId);
+            statement.setTimestamp(4, now);
+            statement.setInt(5, leaseHolderId);
+        });
+
+        List<Integer> claimedIds=new ArrayList<Integer>(candidateIds.size());
+        int index=0;
+        for (int[] batch : batchCounts) {
+            for (int claimed : batch) {
+                if (claimed==1) {
+                    claimedIds.add(candidateIds.get(index));
+                }
+                index++;
+            }
+        }
+        return claimedIds;
+    }
+
+    /**
+     * This extends the lease a reviewer holds on an unchecked application, see ApplicationRepositoryCustom
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer holding the lease
+     * @param now the current time
+     * @param leaseExpiresAt the new time the lease expires
+     * @return the number of renewed leases, 1 if the lease was renewed and otherwise 0
+     */
+    @Override
+    public int renewApplicationLease(Integer applicationId, Integer leaseHolderId, Timestamp now, Timestamp leaseExpiresAt)
+    {
+        return jdbcTemplate.update(RENEW_SQL, leaseExpiresAt, applicationId, leaseHolderId, now);
+    }
+
+    /**
+     * This releases the lease a reviewer holds on an application, see ApplicationRepositoryCustom
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer holding the lease
+     * @return the number of released leases, 1 if the lease was released and otherwise 0
+     */
+    @Override
+    public int releaseApplicationLease(Integer applicationId, Integer leaseHolderId)
+    {
+        return jdbcTemplate.update(RELEASE_SQL, applicationId, leaseHolderId);
+    }
+
+    /**
+     * This finds the lock clause used when claiming applications. PostgreSQL skips rows locked by other claims, so concurrent claims receive different applications without waiting for each other.
+     * Other databases, such as the H2 database used for testing, instead wait for the locked rows, after which CLAIM_SQL ensures rows claimed in the meantime are not claimed again
+     * @return the lock clause
+     */
+    private String ClaimLockClause()
+    {
+        String lockClause=claimLockClause;
+        if (lockClause==null) {
+            String databaseName=jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            lockClause="PostgreSQL".equalsIgnoreCase(databaseName) ? " for update skip locked" : " for update";
+            claimLockClause=lockClause;
+        }
+        return lockClause;
+    }
+}
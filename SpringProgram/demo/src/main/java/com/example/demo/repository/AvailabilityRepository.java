@@ -1,17 +1,26 @@
 package com.example.demo.repository;
 
 import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.domain.dto.AvailabilityIntervalDTO;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Person;
 
 import org.springframework.transaction.annotation.Propagation;
 
+import jakarta.persistence.QueryHint;
+
 
 /**
  * The AvailabilityRepository interface is responsible for providing CRUD operations for the Availability entity.
@@ -31,6 +40,39 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Inte
      */
     List<Availability> findAllByPerson(Person person);
 
+    /**
+     * This interface tells JPA to generate a query to find the Availability periods with any of the specified ids which belong to a specific person,
+     * which allows all ids of a request to be validated using a single query
+     * @param person the person the availability periods must belong to
+     * @param availabilityIds the ids of the availability periods to find
+     * @return A list of matching Availability, which does not contain the ids which do not exist or belong to another person
+     */
+    List<Availability> findAllByPersonAndAvailabilityIdIn(Person person, Collection<Integer> availabilityIds);
+
+    /**
+     * This finds the Availability periods of a specific person ordered by start date, with the person and their role fetched in the same query
+     * @param personId the id of the person to find availability periods for
+     * @return A list of the availability periods of the person
+     */
+    @Query("select v from Availability v join fetch v.person p join fetch p.role where p.id = :personId order by v.fromDate asc, v.availabilityId asc")
+    List<Availability> findWithPersonByPersonId(@Param("personId") Integer personId);
+
+    /**
+     * This finds which of the specified availability ids exist, regardless of who they belong to, without loading any entities
+     * @param availabilityIds the ids to look for
+     * @return A list of the ids which exist
+     */
+    @Query("select v.availabilityId from Availability v where v.availabilityId in :availabilityIds")
+    List<Integer> findExistingAvailabilityIds(@Param("availabilityIds") Collection<Integer> availabilityIds);
+
+    /**
+     * This finds the ids of the availability periods of a specific person which are part of at least one application, and therefore must not be changed
+     * @param person the person to find availability periods for
+     * @return A list of the ids of the availability periods used by applications
+     */
+    @Query("select distinct v.availabilityId from Application a join a.availabilityPeriodsForApplication v where v.person = :person")
+    List<Integer> findAvailabilityIdsInApplicationsByPerson(@Param("person") Person person);
+
     /**
      * This interface function tells JPA to generate a query to which confirms if an Availability which is fully covered within a specified date range and for a specific person exists
      * @param fromDate start of the date range
@@ -49,4 +91,18 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Inte
      */
     boolean existsByFromDateAndToDateAndPerson(Date fromDate, Date toDate,Person person);
 
-}
\ No newline at end of file
+    /**
+     * This returns the person and dates of every availability period as a stream, ordered by start date, without loading any entities
+     * @return A stream with one element per availability period
+     */
+    @Query("select v.availabilityId as availabilityId, v.person.id as personId, v.fromDate as fromDate, v.toDate as toDate "
+        + "from Availability v order by v.fromDate asc, v.availabilityId asc")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ""+INTERVAL_FETCH_SIZE))
+    Stream<AvailabilityIntervalDTO> streamIntervalRows();
+
+    /**
+     * The number of rows fetched from the database per round trip when building the availability interval index
+     */
+    int INTERVAL_FETCH_SIZE = 1000;
+
+}
@@ -1,8 +1,11 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +33,32 @@ public interface CompetenceProfileRepository extends JpaRepository<CompetencePro
      */
     List<CompetenceProfile> findAllByPerson(Person person);
 
+    /**
+     * This finds the CompetenceProfiles with any of the specified ids which belong to a specific person, along with their competence,
+     * which allows all ids of a request to be validated using a single query
+     * @param person the person the competence profiles must belong to
+     * @param competenceProfileIds the ids of the competence profiles to find
+     * @return A list of matching competence profiles, which does not contain the ids which do not exist or belong to another person
+     */
+    @Query("select c from CompetenceProfile c join fetch c.competence where c.person = :person and c.competenceProfileId in :competenceProfileIds")
+    List<CompetenceProfile> findAllByPersonAndCompetenceProfileIdIn(@Param("person") Person person, @Param("competenceProfileIds") Collection<Integer> competenceProfileIds);
+
+    /**
+     * This finds the CompetenceProfiles of a specific person, with the competence and the person and their role fetched in the same query
+     * @param personId the id of the person to find competence profiles for
+     * @return A list of the competence profiles of the person
+     */
+    @Query("select c from CompetenceProfile c join fetch c.competence join fetch c.person p join fetch p.role where p.id = :personId order by c.competenceProfileId")
+    List<CompetenceProfile> findWithCompetenceByPersonId(@Param("personId") Integer personId);
+
+    /**
+     * This finds which of the specified competence profile ids exist, regardless of who they belong to, without loading any entities
+     * @param competenceProfileIds the ids to look for
+     * @return A list of the ids which exist
+     */
+    @Query("select c.competenceProfileId from CompetenceProfile c where c.competenceProfileId in :competenceProfileIds")
+    List<Integer> findExistingCompetenceProfileIds(@Param("competenceProfileIds") Collection<Integer> competenceProfileIds);
+
     /**
      * This interface function tells JPA to generate a query which confirms if a CompetenceProfile already exists with these exact values
      * @param person the person the competence profile is for
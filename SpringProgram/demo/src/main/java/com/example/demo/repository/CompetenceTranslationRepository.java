@@ -3,11 +3,14 @@ package com.example.demo.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demo.domain.entity.CompetenceTranslation;
+import com.example.demo.domain.entity.Language;
 
 /**
  * The CompetenceTranslationRepository interface is responsible for providing CRUD operations for the CompetenceTranslation entity.
@@ -26,4 +29,21 @@ public interface CompetenceTranslationRepository extends JpaRepository<Competenc
      * @return A list of all translations for this language
      */
     List<CompetenceTranslation> findByLanguage_id(Integer languageId);
+
+    /**
+     * This finds all translations for a specific language, with the competence fetched in the same query
+     * @param language the language to find translations for
+     * @return A list of all translations for this language, ordered by competence id
+     */
+    @Query("select t from CompetenceTranslation t join fetch t.competence where t.language = :language order by t.competence.competenceId")
+    List<CompetenceTranslation> findWithCompetenceByLanguage(@Param("language") Language language);
+
+    /**
+     * This finds every competence translation as a single string containing its id, competence id, language id and translation, without loading any entities
+     * It is used to compute the translation catalog revision
+     * @return every competence translation as a string, ordered by id
+     */
+    @Query("select concat(cast(t.competenceTranslationId as String), ':', cast(t.competence.competenceId as String), ':', cast(t.language.id as String), ':', t.translation) "
+        + "from CompetenceTranslation t order by t.competenceTranslationId")
+    List<String> findCatalogTranslationRows();
 }
@@ -1,9 +1,12 @@
 package com.example.demo.repository;
 
+import java.util.List;
+
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.example.demo.domain.entity.Language;
 
@@ -23,4 +26,12 @@ public interface LanguageRepository extends JpaRepository<Language,Integer>{
      * @return The String object with the specified name
      */
     Language findByName(String name);
+
+    /**
+     * This finds every language as a single string containing its id and name, without loading any entities
+     * It is used to compute the translation catalog revision
+     * @return every language as a string, ordered by id
+     */
+    @Query("select concat(cast(l.id as String), ':', l.name) from Language l order by l.id")
+    List<String> findCatalogLanguageRows();
 }
@@ -6,6 +6,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -66,4 +69,16 @@ public interface PersonRepository extends JpaRepository<Person, Integer>{
      * @return True if an account with the personal identity number exists, otherwise false
      */
     boolean existsByPnr(String pnr);
-}
\ No newline at end of file
+
+    /**
+     * This replaces the hashed password of a person, but only if it is still the specified old hash, using a single update statement
+     * This is used to store a password which was hashed again after a login, without undoing a password change made during the login
+     * @param username The username of the person
+     * @param oldPassword The hash the password must still have
+     * @param newPassword The new hash of the password
+     * @return The number of updated persons, which is 0 if the person does not exist or the password was changed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Person p set p.password = :newPassword where p.username = :username and p.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("username") String username, @Param("oldPassword") String oldPassword, @Param("newPassword") String newPassword);
+}
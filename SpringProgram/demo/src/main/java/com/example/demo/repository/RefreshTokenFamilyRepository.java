@@ -0,0 +1,47 @@
+package com.example.demo.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.RefreshTokenFamily;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * The RefreshTokenFamilyRepository interface is responsible for providing CRUD operations for the RefreshTokenFamily entity.
+ * Any explicitly defined functions can only be called inside a transaction, however JPARepository inherited functions can be called outside of one
+ * This should however not be done, since doing so could risk a rollback not being performed correctly
+ */
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String>{
+
+    /**
+     * This finds a refresh token family and locks it until the transaction ends,
+     * so two requests using the same refresh token at once are handled one at a time and the second one is detected as a reused token
+     * @param familyId the id of the family
+     * @return An optional containing the family, or an empty optional if no such family exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from RefreshTokenFamily f join fetch f.person p join fetch p.role where f.familyId = :familyId")
+    Optional<RefreshTokenFamily> findAndLockByFamilyId(@Param("familyId") String familyId);
+
+    /**
+     * This removes every family of a person whose refresh token has expired, using a single delete statement
+     * @param person the person whose families to remove
+     * @param now the current time, in milliseconds since 1970
+     * @return the number of removed families
+     */
+    @Modifying
+    @Query("delete from RefreshTokenFamily f where f.person = :person and f.expiresAt < :now")
+    int deleteExpiredByPerson(@Param("person") Person person, @Param("now") long now);
+}
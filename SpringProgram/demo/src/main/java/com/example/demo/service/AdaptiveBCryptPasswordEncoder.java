@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The AdaptiveBCryptPasswordEncoder class hashes passwords using BCrypt with a specific strength, which can be calibrated at startup using Calibrate,
+ * which chooses the strongest strength whose hashes take at most a target time on the current hardware.
+ * A hash with any other strength, including a stronger one, should be hashed again, so once a user logs in their hash is upgraded or downgraded to the current strength.
+ * The strength is published as the metric "password.hashing.strength", and each calibration, along with the time a hash took at MIN_STRENGTH, as "password.hashing.calibration"
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+    //The default BCrypt strength, calibration never chooses a weaker strength since hashes should not become easier to break on slow hardware
+    static final int MIN_STRENGTH = 10;
+
+    //The strongest strength calibration can choose, where each step doubles the time a hash takes
+    static final int MAX_STRENGTH = 16;
+
+    //The number of hashes measured while calibrating, the fastest is used since slower ones were interrupted by other work
+    private static final int CALIBRATION_HASHES = 3;
+
+    //This matches the start of a BCrypt hash, which contains its strength, ex "$2a$10$"
+    private static final Pattern BCRYPT_PREFIX = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final int strength;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class.getName());
+
+    /**
+     * Constructs a new instance of the AdaptiveBCryptPasswordEncoder with a specific strength
+     *
+     * @param strength the BCrypt strength new hashes use
+     * @param meterRegistry the registry the strength is published to
+     */
+    public AdaptiveBCryptPasswordEncoder(int strength, MeterRegistry meterRegistry) {
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        Gauge.builder("password.hashing.strength", this, AdaptiveBCryptPasswordEncoder::getStrength).description("The BCrypt strength new hashes use").register(meterRegistry);
+    }
+
+    /**
+     * This function measures the time a hash takes on the current hardware, and creates an encoder with the strongest strength whose hashes take at most the target time
+     *
+     * @param target the longest time a hash should take
+     * @param meterRegistry the registry the calibration and the strength are published to
+     * @return an encoder with the chosen strength
+     */
+    public static AdaptiveBCryptPasswordEncoder Calibrate(Duration target, MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder calibrationEncoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        //This first hash warms up the encoder, so it is not measured
+        calibrationEncoder.encode("calibration");
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_HASHES; i++) {
+            long start = System.nanoTime();
+            calibrationEncoder.encode("calibration");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime()-start);
+        }
+
+        int strength = ChooseStrength(target.toNanos(), fastestNanos);
+        Timer.builder("password.hashing.calibration").description("The time a hash took at the weakest strength calibration can choose").register(meterRegistry)
+            .record(fastestNanos, TimeUnit.NANOSECONDS);
+        LOGGER.info("Calibrated the BCrypt strength to (`{}`) since a hash took (`{}`) ms at strength (`{}`) and should take at most (`{}`) ms",
+            strength, TimeUnit.NANOSECONDS.toMillis(fastestNanos), MIN_STRENGTH, target.toMillis());
+        return new AdaptiveBCryptPasswordEncoder(strength, meterRegistry);
+    }
+
+    /**
+     * This function chooses the strongest strength whose hashes take at most the target time, given the time a hash takes at MIN_STRENGTH
+     *
+     * @param targetNanos the longest time a hash should take, in nanoseconds
+     * @param nanosAtMinStrength the time a hash takes at MIN_STRENGTH, in nanoseconds
+     * @return the chosen strength, between MIN_STRENGTH and MAX_STRENGTH
+     */
+    static int ChooseStrength(long targetNanos, long nanosAtMinStrength) {
+        int strength = MIN_STRENGTH;
+        long nanos = nanosAtMinStrength;
+        while (strength<MAX_STRENGTH && nanos*2<=targetNanos) {
+            strength++;
+            nanos *= 2;
+        }
+        return strength;
+    }
+
+    /**
+     * This function returns the strength of a BCrypt hash
+     *
+     * @param encodedPassword the hashed password
+     * @return the strength of the hash, or -1 if it is not a BCrypt hash
+     */
+    static int GetStrength(String encodedPassword) {
+        if (encodedPassword==null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_PREFIX.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * This is a getter for the strength attribute
+     * @return the BCrypt strength new hashes use
+     */
+    public int getStrength() {
+        return this.strength;
+    }
+
+    /**
+     * This function hashes a new password using the current strength
+     *
+     * @param rawPassword the password to hash
+     * @return the hashed password
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * This function verifies a password against a hashed password, which uses the strength of the hash
+     *
+     * @param rawPassword the password to verify
+     * @param encodedPassword the hashed password
+     * @return true if the password matches, false otherwise
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordEncoder.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * This function checks if a hashed password should be hashed again, which is the case if it is a BCrypt hash with a different strength than the current strength
+     *
+     * @param encodedPassword the hashed password
+     * @return true if the password should be hashed again, false otherwise
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int hashStrength = GetStrength(encodedPassword);
+        return hashStrength!=-1 && hashStrength!=strength;
+    }
+}
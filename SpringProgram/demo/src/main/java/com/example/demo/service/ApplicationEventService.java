@@ -0,0 +1,320 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.domain.event.ApplicationChangeEvent;
+import com.example.demo.presentation.restException.SubscriberLimitReachedException;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+/**
+ * The ApplicationEventService class sends application change events to subscribed reviewers as server-sent events.
+ * Events are received once the transaction which changed the application has been committed, and are placed in a bounded buffer for each subscriber.
+ * Each buffer is sent by its own dispatcher thread while it contains events, so a subscriber whose connection has stalled only blocks the sending of its own events,
+ * and never the committing thread or the other subscribers. There is at most one such thread per subscriber, so at most MAX_SUBSCRIBERS threads.
+ * If the buffer of a subscriber is full the oldest event is dropped, and the subscriber is sent a resync event telling it to retrive the applications again.
+ * A subscriber whose send has not finished within SEND_TIMEOUT_MS is removed and its response is ended with an error, so no more events are buffered for it.
+ * The subscriber slot of a removed subscriber is only released once its dispatcher thread has finished, so the number of dispatcher threads never exceeds the number of slots
+ */
+public class ApplicationEventService {
+    //The maximum number of unsent events for a single subscriber
+    static final int SUBSCRIBER_BUFFER_SIZE = 256;
+
+    //The maximum number of simultaneous subscribers
+    static final int MAX_SUBSCRIBERS = 200;
+
+    //The longest time a single event may take to send before the subscriber is removed
+    static final long SEND_TIMEOUT_MS = 5000;
+
+    //The name of the event sent if events had to be dropped for a subscriber
+    static final String RESYNC_EVENT = "resync";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    //Each subscriber holds one permit, which is taken before it is added so the limit can not be exceeded by simultaneous subscriptions,
+    //and which is released once it has been removed and is no longer being dispatched, since its dispatcher thread may still be blocked in a send
+    private final Semaphore subscriberSlots = new Semaphore(MAX_SUBSCRIBERS);
+    private final Executor dispatcher;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final LongSupplier nanoClock;
+    private final ScheduledExecutorService stalledSendChecker;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationEventService.class.getName());
+
+    /**
+     * Constructs a new instance of the ApplicationEventService (Spring boot managed).
+     */
+    public ApplicationEventService() {
+        this(new ThreadPoolExecutor(0, MAX_SUBSCRIBERS, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), runnable -> {
+            Thread thread = new Thread(runnable, "application-event-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        }), SUBSCRIBER_BUFFER_SIZE, TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MS), System::nanoTime, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "application-event-stalled-send-checker");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        stalledSendChecker.scheduleWithFixedDelay(this::RemoveStalledSubscribers, SEND_TIMEOUT_MS, SEND_TIMEOUT_MS/5, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a new instance of the ApplicationEventService with a specific dispatcher and buffer size, this is used for testing
+     *
+     * @param dispatcher the executor used to send events to subscribers
+     * @param bufferSize the maximum number of unsent events for a single subscriber
+     */
+    ApplicationEventService(Executor dispatcher, int bufferSize) {
+        this(dispatcher, bufferSize, TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MS), System::nanoTime, null);
+    }
+
+    /**
+     * Constructs a new instance of the ApplicationEventService with a specific dispatcher, buffer size, send timeout and clock, this is used for testing.
+     * If there is no stalled send checker, stalled subscribers are only removed when RemoveStalledSubscribers is called or their send finishes
+     *
+     * @param dispatcher the executor used to send events to subscribers
+     * @param bufferSize the maximum number of unsent events for a single subscriber
+     * @param sendTimeoutNanos the longest time a single event may take to send before the subscriber is removed
+     * @param nanoClock the clock used to time sends, in nanoseconds
+     * @param stalledSendChecker the executor which regularly removes subscribers whose send has stalled, or null
+     */
+    ApplicationEventService(Executor dispatcher, int bufferSize, long sendTimeoutNanos, LongSupplier nanoClock, ScheduledExecutorService stalledSendChecker) {
+        this.dispatcher = dispatcher;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = sendTimeoutNanos;
+        this.nanoClock = nanoClock;
+        this.stalledSendChecker = stalledSendChecker;
+    }
+
+    /**
+     * This stops the dispatcher threads when the application is shut down
+     */
+    @PreDestroy
+    public void Shutdown() {
+        if (dispatcher instanceof ExecutorService) {
+            ((ExecutorService) dispatcher).shutdownNow();
+        }
+        if (stalledSendChecker!=null) {
+            stalledSendChecker.shutdownNow();
+        }
+    }
+
+    /**
+     * This function subscribes an emitter to all application change events, until the emitter completes, times out or fails to send an event
+     *
+     * @param emitter the emitter which events are sent to
+     * @throws SubscriberLimitReachedException this is thrown if there already are MAX_SUBSCRIBERS subscribers
+     */
+    public void Subscribe(SseEmitter emitter) throws SubscriberLimitReachedException {
+        if (!subscriberSlots.tryAcquire()) {
+            LOGGER.error("Failed to subscribe to application events since there already are (`{}`) subscribers",subscribers.size());
+            throw new SubscriberLimitReachedException("too many reviewers are subscribed, please try again later");
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> Unsubscribe(subscriber));
+        emitter.onTimeout(() -> Unsubscribe(subscriber));
+        emitter.onError(e -> Unsubscribe(subscriber));
+
+        //We send a comment directly, so the response is sent to the subscriber before the first event occurs
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            LOGGER.error("Failed to send initial message to subscriber : (`{}`)",e.getMessage());
+            Unsubscribe(subscriber);
+        }
+        LOGGER.info("New subscriber to application events, there are now (`{}`) subscribers",subscribers.size());
+    }
+
+    /**
+     * This function receives application change events once the transaction which published them has been committed, and adds them to the buffer of every subscriber
+     *
+     * @param event the application change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void OnApplicationChange(ApplicationChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.Enqueue(event);
+            ScheduleDispatch(subscriber);
+        }
+    }
+
+    /**
+     * This returns the current number of subscribers
+     * @return the number of subscribers
+     */
+    public int GetSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * This removes every subscriber whose current send has taken longer than the send timeout, and ends its response with an error.
+     * Its subscriber slot is released by its dispatcher thread once the stalled send returns
+     */
+    void RemoveStalledSubscribers() {
+        long now = nanoClock.getAsLong();
+        for (Subscriber subscriber : subscribers) {
+            long sendStartedAt = subscriber.sendStartedAt;
+            if (sendStartedAt!=0 && now-sendStartedAt>sendTimeoutNanos) {
+                LOGGER.error("Removed subscriber to application events since sending an event to it has taken more than (`{}`) ms",TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                Unsubscribe(subscriber);
+                subscriber.emitter.completeWithError(new IOException("Sending an application event took more than "+TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos)+" ms"));
+            }
+        }
+    }
+
+    /**
+     * This removes a subscriber, so no further events are buffered for it
+     * @param subscriber the subscriber to remove
+     */
+    private void Unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.removed.set(true);
+            subscriber.buffer.clear();
+            LOGGER.info("Subscriber to application events removed, there are now (`{}`) subscribers",subscribers.size());
+            ReleaseSlot(subscriber);
+        }
+    }
+
+    /**
+     * This releases the subscriber slot of a removed subscriber, unless it is still being dispatched, in which case it is released once the dispatch finishes
+     * @param subscriber the subscriber to release the slot of
+     */
+    private void ReleaseSlot(Subscriber subscriber) {
+        if (subscriber.removed.get() && !subscriber.dispatching.get() && subscriber.slotReleased.compareAndSet(false, true)) {
+            subscriberSlots.release();
+        }
+    }
+
+    /**
+     * This schedules the sending of a subscribers buffer, unless it is already being sent
+     * @param subscriber the subscriber to send the buffer of
+     */
+    private void ScheduleDispatch(Subscriber subscriber) {
+        if (subscriber.dispatching.compareAndSet(false, true)) {
+            if (subscriber.removed.get()) {
+                //The subscriber was removed after its events were buffered, so its slot may already be released
+                subscriber.dispatching.set(false);
+                ReleaseSlot(subscriber);
+                return;
+            }
+            try {
+                dispatcher.execute(() -> Dispatch(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.dispatching.set(false);
+                ReleaseSlot(subscriber);
+                LOGGER.error("Failed to schedule sending of application events : (`{}`)",e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * This sends every buffered event to a subscriber, and removes the subscriber if sending fails or takes longer than the send timeout
+     * @param subscriber the subscriber to send the buffer of
+     */
+    private void Dispatch(Subscriber subscriber) {
+        try {
+            if (subscriber.overflowed.getAndSet(false)) {
+                Send(subscriber, SseEmitter.event().name(RESYNC_EVENT).data("Some application events were dropped, please retrive the applications again"));
+            }
+            ApplicationChangeEvent event;
+            while (subscribers.contains(subscriber) && (event = subscriber.buffer.poll()) != null) {
+                Send(subscriber, SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+            }
+            if (!subscribers.contains(subscriber)) {
+                //The subscriber was removed while its events were sent, so its response is ended
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.info("Failed to send application event to subscriber, it is therefore removed : (`{}`)",e.getMessage());
+            Unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.dispatching.set(false);
+            ReleaseSlot(subscriber);
+        }
+
+        //An event may have been buffered after the loop ended but before dispatching was reset, if so we send it now
+        if (!subscriber.buffer.isEmpty() && subscribers.contains(subscriber)) {
+            ScheduleDispatch(subscriber);
+        }
+    }
+
+    /**
+     * This sends a single event to a subscriber, and removes the subscriber if the send took longer than the send timeout
+     * @param subscriber the subscriber to send the event to
+     * @param event the event to send
+     * @throws IOException if the event could not be sent
+     */
+    private void Send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        long sendStartedAt = nanoClock.getAsLong();
+        subscriber.sendStartedAt = sendStartedAt;
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+        if (nanoClock.getAsLong()-sendStartedAt>sendTimeoutNanos && subscribers.contains(subscriber)) {
+            LOGGER.error("Removed subscriber to application events since sending an event to it took more than (`{}`) ms",TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            Unsubscribe(subscriber);
+        }
+    }
+
+    /**
+     * This represents a single subscriber, along with its buffer of unsent events
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<ApplicationChangeEvent> buffer;
+        private final AtomicBoolean dispatching = new AtomicBoolean(false);
+        private final AtomicBoolean overflowed = new AtomicBoolean(false);
+        private final AtomicBoolean removed = new AtomicBoolean(false);
+        private final AtomicBoolean slotReleased = new AtomicBoolean(false);
+        //The time the current send started, in nanoseconds, or 0 if no event is being sent
+        private volatile long sendStartedAt = 0;
+
+        /**
+         * This is a complete constructor for Subscriber
+         * @param emitter the emitter events are sent to
+         * @param bufferSize the maximum number of unsent events
+         */
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<ApplicationChangeEvent>(bufferSize);
+        }
+
+        /**
+         * This adds an event to the buffer, if the buffer is full the oldest event is dropped and the subscriber is marked as needing a resync
+         * @param event the event to add
+         */
+        private void Enqueue(ApplicationChangeEvent event) {
+            while (!buffer.offer(event)) {
+                buffer.poll();
+                overflowed.set(true);
+            }
+        }
+    }
+}
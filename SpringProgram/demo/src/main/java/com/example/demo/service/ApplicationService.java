@@ -1,19 +1,32 @@
 package com.example.demo.service;
 
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.domain.ApplicantWorkspace;
+import com.example.demo.domain.ApplicationSubmission;
+import com.example.demo.domain.ApplicationSubmissionState;
+import com.example.demo.domain.ApplicationSubmissionStatus;
+import com.example.demo.domain.AvailabilityPeriod;
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
@@ -21,19 +34,26 @@ import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.CompetenceTranslation;
+import com.example.demo.domain.entity.Language;
 import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.event.ApplicationSubmittedEvent;
+import com.example.demo.domain.event.AvailabilityCreatedEvent;
 import com.example.demo.presentation.restException.AlreadyExistsException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.FromDateAfterToDateException;
 import com.example.demo.presentation.restException.PeriodAlreadyCoveredException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.AvailabilityInvalidException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.CompetenceProfileInvalidException;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.LanguageNotFoundException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.PersonNotFoundException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.SpecificCompetenceNotFoundException;
 import com.example.demo.repository.ApplicationRepository;
 import com.example.demo.repository.AvailabilityRepository;
 import com.example.demo.repository.CompetenceProfileRepository;
 import com.example.demo.repository.CompetenceRepository;
+import com.example.demo.repository.CompetenceTranslationRepository;
+import com.example.demo.repository.LanguageRepository;
 import com.example.demo.repository.PersonRepository;
 
 
@@ -60,6 +80,12 @@ public class ApplicationService {
     @Autowired
     private final PersonRepository personRepository;
 
+    private final LanguageRepository languageRepository;
+
+    private final CompetenceTranslationRepository competenceTranslationRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     //We create the logger
     private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationService.class.getName()); 
 
@@ -71,13 +97,19 @@ public class ApplicationService {
      * @param availabilityRepository the repository for accessing availability database data
      * @param competenceRepository the repository for accessing competence database data 
      * @param personRepository
+     * @param languageRepository the repository for accessing language database data
+     * @param competenceTranslationRepository the repository for accessing competence translation database data
+     * @param eventPublisher the publisher used to publish new applications and availability periods, which are sent to subscribers once the transaction is committed
      */
-    public ApplicationService(ApplicationRepository applicationRepository,CompetenceProfileRepository competenceProfileRepository,AvailabilityRepository availabilityRepository,CompetenceRepository competenceRepository,PersonRepository personRepository) {
+    public ApplicationService(ApplicationRepository applicationRepository,CompetenceProfileRepository competenceProfileRepository,AvailabilityRepository availabilityRepository,CompetenceRepository competenceRepository,PersonRepository personRepository,LanguageRepository languageRepository,CompetenceTranslationRepository competenceTranslationRepository,ApplicationEventPublisher eventPublisher) {
         this.applicationRepository=applicationRepository;
         this.competenceProfileRepository=competenceProfileRepository;
         this.availabilityRepository=availabilityRepository;
         this.competenceRepository=competenceRepository;
         this.personRepository=personRepository;
+        this.languageRepository=languageRepository;
+        this.competenceTranslationRepository=competenceTranslationRepository;
+        this.eventPublisher=eventPublisher;
     }
 
     /**
@@ -167,7 +199,7 @@ public class ApplicationService {
     }
 
     /**
-     * This function attempts to create a new availability 
+     * This function attempts to create a new availability, and publishes it to the availability interval index once the transaction is committed
      * 
      * @param personId The person id of the person the availability period is for
      * @param fromDate This is the start date for this availability period
@@ -211,6 +243,7 @@ public class ApplicationService {
 
             newAvailability=new Availability(person, fromDate, toDate);
             availabilityRepository.save(newAvailability);
+            eventPublisher.publishEvent(new AvailabilityCreatedEvent(newAvailability.getAvailabilityId(), personId, fromDate, toDate));
                 
         }
         catch(DataAccessException e)
@@ -223,6 +256,192 @@ public class ApplicationService {
         return newAvailability;
     }
 
+    /**
+     * This function adds several availability periods for a person at once. The requested periods are merged with the existing periods of the person
+     * into the smallest set of non-overlapping periods, where periods which overlap or are adjacent are combined, and only the difference is written.
+     * Existing periods which are part of an application, or which have already started, are never changed, and merged periods fully covered by one of them are not stored.
+     * The removed periods are left in the availability interval index until it is rebuilt, which does not affect its results since they are covered by the remaining periods
+     *
+     * @param personId The person id of the person the availability periods are for
+     * @param periods The periods to add
+     * @throws PersonNotFoundException this exception is thrown if no person exists with the specified the person Id
+     * @throws FromDateAfterToDateException this exception is thrown if the from date of any period is after its to date
+     * @throws CustomDatabaseException this exception is thrown is an error occurs when accessing the database
+     * @return If no exception is thrown, this returns every availability period of the person after the merge, ordered by start date
+     */
+    public List<? extends AvailabilityDTO> CreateAvailabilities(Integer personId, List<AvailabilityPeriod> periods)
+      throws PersonNotFoundException, FromDateAfterToDateException, CustomDatabaseException {
+
+        List<Availability> result=new ArrayList<Availability>();
+        List<Availability> removed=new ArrayList<Availability>();
+        List<Availability> created=new ArrayList<Availability>();
+        try {
+            Optional<Person> personContainer = personRepository.findById(personId);
+            if (personContainer.isEmpty()) {
+                LOGGER.error("Failed to create (`{}`) availability periods for a person with (`{}`) since no person with that id exists",periods.size(),personId);
+                throw new PersonNotFoundException(personId);
+            }
+            Person person=personContainer.get();
+
+            for (AvailabilityPeriod period : periods) {
+                if (period.getFromDate().after(period.getToDate())) {
+                    LOGGER.error("Failed to create availability periods for a person with (`{}`) since the from date (`{}`) is after the to date (`{}`)",personId,period.getFromDate(),period.getToDate());
+                    throw new FromDateAfterToDateException(period.getFromDate(),period.getToDate());
+                }
+            }
+
+            //The existing periods are split into those which may be merged, and those which must be kept as they are
+            Set<Integer> usedIds=new HashSet<Integer>(availabilityRepository.findAvailabilityIdsInApplicationsByPerson(person));
+            LocalDate today=LocalDate.now();
+            List<Availability> mergeable=new ArrayList<Availability>();
+            List<Availability> fixed=new ArrayList<Availability>();
+            for (Availability existing : availabilityRepository.findAllByPerson(person)) {
+                if (usedIds.contains(existing.getAvailabilityId()) || existing.getFromDate().toLocalDate().isBefore(today)) {
+                    fixed.add(existing);
+                }
+                else {
+                    mergeable.add(existing);
+                }
+            }
+            result.addAll(fixed);
+
+            //The mergeable and requested periods are then combined
+            List<LocalDate[]> intervals=new ArrayList<LocalDate[]>();
+            for (Availability existing : mergeable) {
+                intervals.add(new LocalDate[] {existing.getFromDate().toLocalDate(), existing.getToDate().toLocalDate()});
+            }
+            for (AvailabilityPeriod period : periods) {
+                intervals.add(new LocalDate[] {period.getFromDate().toLocalDate(), period.getToDate().toLocalDate()});
+            }
+
+            //Every existing period which is part of a merged period is removed, unless it already matches the merged period exactly
+            for (LocalDate[] merged : CoalesceIntervals(intervals)) {
+                List<Availability> contained=new ArrayList<Availability>();
+                Availability unchanged=null;
+                for (Availability existing : mergeable) {
+                    LocalDate existingFrom=existing.getFromDate().toLocalDate();
+                    if (!existingFrom.isBefore(merged[0]) && !existingFrom.isAfter(merged[1])) {
+                        contained.add(existing);
+                        if (existingFrom.equals(merged[0]) && existing.getToDate().toLocalDate().equals(merged[1])) {
+                            unchanged=existing;
+                        }
+                    }
+                }
+
+                if (IsCovered(fixed, merged)) {
+                    removed.addAll(contained);
+                }
+                else if (unchanged!=null) {
+                    contained.remove(unchanged);
+                    removed.addAll(contained);
+                    result.add(unchanged);
+                }
+                else {
+                    removed.addAll(contained);
+                    created.add(new Availability(person, Date.valueOf(merged[0]), Date.valueOf(merged[1])));
+                }
+            }
+
+            //Only the difference is written, where the removed periods are deleted using a single statement
+            if (!removed.isEmpty()) {
+                availabilityRepository.deleteAllInBatch(removed);
+            }
+            availabilityRepository.saveAll(created);
+            for (Availability availability : created) {
+                eventPublisher.publishEvent(new AvailabilityCreatedEvent(availability.getAvailabilityId(), personId, availability.getFromDate(), availability.getToDate()));
+            }
+            result.addAll(created);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to create (`{}`) availability periods for a person with (`{}`) due to a database error : (`{}`)",periods.size(),personId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        result.sort(Comparator.comparing(Availability::getFromDate).thenComparing(Availability::getToDate));
+        LOGGER.info("Merged (`{}`) requested availability periods for person (`{}`), creating (`{}`) and removing (`{}`) periods",periods.size(),personId,created.size(),removed.size());
+        return result;
+    }
+
+    /**
+     * This function combines intervals which overlap or are adjacent, meaning one ends the day before the next one starts
+     * @param intervals the intervals, as pairs of first and last days, in any order
+     * @return the combined intervals, ordered by first day
+     */
+    private static List<LocalDate[]> CoalesceIntervals(List<LocalDate[]> intervals) {
+        intervals.sort(Comparator.comparing((LocalDate[] interval) -> interval[0]));
+        List<LocalDate[]> merged=new ArrayList<LocalDate[]>();
+        LocalDate[] current=null;
+        for (LocalDate[] interval : intervals) {
+            if (current!=null && !interval[0].isAfter(current[1].plusDays(1))) {
+                if (interval[1].isAfter(current[1])) {
+                    current[1]=interval[1];
+                }
+            }
+            else {
+                current=new LocalDate[] {interval[0], interval[1]};
+                merged.add(current);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * This function checks if an interval is fully covered by any single availability period
+     * @param periods the availability periods
+     * @param interval the first and last day of the interval
+     * @return true if one of the periods covers every day of the interval
+     */
+    private static boolean IsCovered(List<Availability> periods, LocalDate[] interval) {
+        for (Availability period : periods) {
+            if (!period.getFromDate().toLocalDate().isAfter(interval[0]) && !period.getToDate().toLocalDate().isBefore(interval[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This function returns everything the applicant page needs when it is loaded, using a fixed number of queries regardless of how much data the applicant has.
+     * The person is not retrived first, since the id is taken from an authenticated user, and every query instead filters on the person id directly
+     * 
+     * @param personId The person id of the applicant
+     * @param languageName The name of the language to return competence translations for, or null to not return any translations
+     * @throws LanguageNotFoundException this exception is thrown if a language was specified which does not exist
+     * @throws CustomDatabaseException this exception is thrown if an error occurs with the database
+     * @return The competence profiles, availability periods and applications of the applicant, along with the competences, languages and translations
+     */
+    public ApplicantWorkspace GetWorkspace(Integer personId, String languageName)
+      throws LanguageNotFoundException, CustomDatabaseException {
+
+        try {
+            List<Language> languages=languageRepository.findAll();
+            List<CompetenceTranslation> translations=new ArrayList<CompetenceTranslation>();
+            if (languageName!=null) {
+                //The language is found among the languages which were already retrived, so it does not need to be retrived again
+                Language language=null;
+                for (Language l : languages) {
+                    if (l.getLanguageName().equals(languageName)) {
+                        language=l;
+                    }
+                }
+                if (language==null) {
+                    LOGGER.error("Failed to retrive the workspace for person (`{}`) since the requested language (`{}`) could not be found",personId,languageName);
+                    throw new LanguageNotFoundException(languageName);
+                }
+                translations=competenceTranslationRepository.findWithCompetenceByLanguage(language);
+            }
+
+            return new ApplicantWorkspace(competenceProfileRepository.findWithCompetenceByPersonId(personId), availabilityRepository.findWithPersonByPersonId(personId),
+                applicationRepository.findSummariesByApplicantId(personId), competenceRepository.findAll(), languages, translations);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive the workspace for person (`{}`) due to a database error : (`{}`)",personId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
     /**
      * This function returns a list of competence profiles for a specific person
      * 
@@ -278,62 +497,210 @@ public class ApplicationService {
                 LOGGER.error("Failed to create application for a person (`{}`) since no person with that id exists",personId);
                 throw new PersonNotFoundException(personId);
             }
-            Person person=personContainer.get();
 
-            List<Availability> availabilities=new ArrayList<Availability>();
+            newApplication=CreateApplication(personContainer.get(), availabilityIds, competenceProfileIds);
+            applicationRepository.save(newApplication);
+            eventPublisher.publishEvent(new ApplicationSubmittedEvent(newApplication.getApplicationId(), newApplication.getApplicationStatus(), newApplication.getVersionNumber()));
 
-            if (availabilityIds.size()==0) {
-                LOGGER.error("Failed to create application for a person (`{}`) since the availabiltyIds is empty",personId);
-                throw new AvailabilityInvalidException("No availability period was specified, please specify at least one for this application");
-            }
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to create application for a person (`{}`) due to a database error : (`{}`)",personId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
 
-            for (Integer i : availabilityIds) {
-                Optional<Availability> availabilityContainer = availabilityRepository.findById(i);
-                if (availabilityContainer.isEmpty()) {
-                    LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied availabilites do not exist, specifically requested with id (`{}`) which does not exist",personId,i);
-                    throw new AvailabilityInvalidException("No availability with id "+i+" in the database");
-                }
-                if (availabilityContainer.get().getPerson()!=person) {
-                    LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied availabilites profiles belongs to another users, specifically requested with id (`{}`)",personId,i);
-                    throw new AvailabilityInvalidException("The availability period with id "+i+" belongs to another user");
-                }
-                availabilities.add(availabilityContainer.get());
-            }
+        LOGGER.info("Created new application period for person (`{}`), it has id ",personId, newApplication.getApplicationId());
 
-            List<CompetenceProfile> competenceProfiles=new ArrayList<CompetenceProfile>();
+        return newApplication;
+    }
 
-            if (competenceProfileIds.size()==0) {
-                LOGGER.error("Failed to create application for a person (`{}`) since the competenceProfileIds is empty");
-                throw new CompetenceProfileInvalidException("No competence profile was specified, please specify at least one for this application");
+    /**
+     * This function creates the applications for a list of queued submissions in a single transaction, where each submission is validated in the same way as in SubmitApplication.
+     * The people are retrived using a single query, and the applications are saved together, so their availability periods and competence profiles are inserted as batched statements.
+     * Unlike SubmitApplication an invalid submission does not throw an exception, instead it is reported in the status for that submission
+     * @param submissions the submissions to create applications for
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason, in which case no application is created
+     * @return the status of each submission, in the same order as the submissions
+     */
+    public List<ApplicationSubmissionStatus> SubmitApplications(List<ApplicationSubmission> submissions)
+      throws CustomDatabaseException {
+
+        try {
+            Set<Integer> personIds=new HashSet<Integer>();
+            for (ApplicationSubmission submission : submissions) {
+                personIds.add(submission.getPersonId());
+            }
+            Map<Integer, Person> peopleById=new HashMap<Integer, Person>();
+            for (Person person : personRepository.findAllById(personIds)) {
+                peopleById.put(person.getId(), person);
             }
 
-            for (Integer i : competenceProfileIds) {
-                Optional<CompetenceProfile> competenceProfilesContainer = competenceProfileRepository.findById(i);
-                if (competenceProfilesContainer.isEmpty()) {
-                    LOGGER.error("Failed to create application for a person (`{}`) since (at least) one of the provied competence profiles do not exist, specifically requested with id (`{}`)",personId,i);
-                    throw new CompetenceProfileInvalidException("No competence profile with id "+i+" in the database");
-                }
-                if (competenceProfilesContainer.get().getPerson()!=person) {
-                    LOGGER.error("Failed to create application for a person (`{}`) since (atleast) one of the provied competence profiles belongs to another users, specifically requested with id (`{}`)",personId,i);
-                    throw new CompetenceProfileInvalidException("The competence profile with id "+i+" belongs to another user");
+            //Each submission is validated on its own, where an invalid submission is rejected without affecting the others
+            List<Application> newApplications=new ArrayList<Application>();
+            String[] rejections=new String[submissions.size()];
+            for (int i = 0; i < submissions.size(); i++) {
+                ApplicationSubmission submission=submissions.get(i);
+                try {
+                    Person person=peopleById.get(submission.getPersonId());
+                    if (person==null) {
+                        LOGGER.error("Failed to create application for a person (`{}`) since no person with that id exists",submission.getPersonId());
+                        throw new PersonNotFoundException(submission.getPersonId());
+                    }
+                    newApplications.add(CreateApplication(person, submission.getAvailabilityIds(), submission.getCompetenceProfileIds()));
+                } catch (PersonNotFoundException | AvailabilityInvalidException | CompetenceProfileInvalidException e) {
+                    rejections[i]=e.getMessage();
                 }
-                competenceProfiles.add(competenceProfilesContainer.get());
             }
 
+            applicationRepository.saveAll(newApplications);
 
-            newApplication=new Application(person,availabilities,competenceProfiles);
-            applicationRepository.save(newApplication);
+            List<ApplicationSubmissionStatus> results=new ArrayList<ApplicationSubmissionStatus>(submissions.size());
+            int created=0;
+            for (int i = 0; i < submissions.size(); i++) {
+                if (rejections[i]!=null) {
+                    results.add(new ApplicationSubmissionStatus(submissions.get(i).getSubmissionId(), ApplicationSubmissionState.rejected, null, rejections[i]));
+                    continue;
+                }
+                Application newApplication=newApplications.get(created++);
+                eventPublisher.publishEvent(new ApplicationSubmittedEvent(newApplication.getApplicationId(), newApplication.getApplicationStatus(), newApplication.getVersionNumber()));
+                results.add(new ApplicationSubmissionStatus(submissions.get(i).getSubmissionId(), ApplicationSubmissionState.submitted, newApplication.getApplicationId(), null));
+            }
 
+            LOGGER.info("Created (`{}`) out of (`{}`) queued applications",created,submissions.size());
+            return results;
         }
         catch(DataAccessException e)
         {
-            LOGGER.error("Failed to create application for a person (`{}`) due to a database error : (`{}`)",personId,e.getMessage());
+            LOGGER.error("Failed to create (`{}`) queued applications due to a database error : (`{}`)",submissions.size(),e.getMessage());
             throw new CustomDatabaseException();
         }
+    }
 
-        LOGGER.info("Created new application period for person (`{}`), it has id ",personId, newApplication.getApplicationId());
+    /**
+     * This function validates the requested availability periods and competence profiles for a person, and creates an unsaved application containing them
+     * @param person the person submitting the application
+     * @param availabilityIds the ids of the availability periods to include in the application
+     * @param competenceProfileIds the ids of the competence profiles to include in the application
+     * @throws AvailabilityInvalidException This is thrown if one of the availabilites could not be found or where invalid for the specified user
+     * @throws CompetenceProfileInvalidException This is thrown if one of the competence profiles could not be found or where invalid for the specified user
+     * @return the new application, which has not been saved
+     */
+    private Application CreateApplication(Person person, List<Integer> availabilityIds, List<Integer> competenceProfileIds)
+      throws AvailabilityInvalidException, CompetenceProfileInvalidException {
+        Integer personId=person.getId();
+        if (availabilityIds.size()==0) {
+            LOGGER.error("Failed to create application for a person (`{}`) since the availabiltyIds is empty",personId);
+            throw new AvailabilityInvalidException("No availability period was specified, please specify at least one for this application");
+        }
 
-        return newApplication;
+        //All requested availability periods are loaded using a single query, which only returns those belonging to this person
+        Set<Integer> requestedAvailabilityIds=new LinkedHashSet<Integer>(availabilityIds);
+        Map<Integer, Availability> availabilitiesById=new HashMap<Integer, Availability>();
+        for (Availability availability : availabilityRepository.findAllByPersonAndAvailabilityIdIn(person, requestedAvailabilityIds)) {
+            availabilitiesById.put(availability.getAvailabilityId(), availability);
+        }
+
+        if (availabilitiesById.size()!=requestedAvailabilityIds.size()) {
+            List<Integer> missingIds=new ArrayList<Integer>();
+            List<Integer> foreignIds=new ArrayList<Integer>();
+            SplitInvalidIds(requestedAvailabilityIds, availabilitiesById.keySet(), availabilityRepository.findExistingAvailabilityIds(requestedAvailabilityIds), missingIds, foreignIds);
+            LOGGER.error("Failed to create application for a person (`{}`) since some of the provided availabilities do not exist (`{}`) or belong to other users (`{}`)",personId,missingIds,foreignIds);
+            throw new AvailabilityInvalidException(InvalidIdsMessage("availability", "availability period", missingIds, foreignIds));
+        }
+
+        List<Availability> availabilities=new ArrayList<Availability>();
+        for (Integer i : availabilityIds) {
+            availabilities.add(availabilitiesById.get(i));
+        }
+
+        if (competenceProfileIds.size()==0) {
+            LOGGER.error("Failed to create application for a person (`{}`) since the competenceProfileIds is empty",personId);
+            throw new CompetenceProfileInvalidException("No competence profile was specified, please specify at least one for this application");
+        }
+
+        //All requested competence profiles are loaded, along with their competence, using a single query which only returns those belonging to this person
+        Set<Integer> requestedCompetenceProfileIds=new LinkedHashSet<Integer>(competenceProfileIds);
+        Map<Integer, CompetenceProfile> competenceProfilesById=new HashMap<Integer, CompetenceProfile>();
+        for (CompetenceProfile competenceProfile : competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(person, requestedCompetenceProfileIds)) {
+            competenceProfilesById.put(competenceProfile.getCompetenceProfileId(), competenceProfile);
+        }
+
+        if (competenceProfilesById.size()!=requestedCompetenceProfileIds.size()) {
+            List<Integer> missingIds=new ArrayList<Integer>();
+            List<Integer> foreignIds=new ArrayList<Integer>();
+            SplitInvalidIds(requestedCompetenceProfileIds, competenceProfilesById.keySet(), competenceProfileRepository.findExistingCompetenceProfileIds(requestedCompetenceProfileIds), missingIds, foreignIds);
+            LOGGER.error("Failed to create application for a person (`{}`) since some of the provided competence profiles do not exist (`{}`) or belong to other users (`{}`)",personId,missingIds,foreignIds);
+            throw new CompetenceProfileInvalidException(InvalidIdsMessage("competence profile", "competence profile", missingIds, foreignIds));
+        }
+
+        List<CompetenceProfile> competenceProfiles=new ArrayList<CompetenceProfile>();
+        for (Integer i : competenceProfileIds) {
+            competenceProfiles.add(competenceProfilesById.get(i));
+        }
+
+        return new Application(person,availabilities,competenceProfiles);
+    }
+
+    /**
+     * This function splits the requested ids which were not found for a person into those which do not exist at all and those which belong to another person,
+     * this is only done when the request is invalid, so that a valid request only requires a single query
+     * @param requestedIds the requested ids, in request order
+     * @param foundIds the ids which were found for the person
+     * @param existingIds the ids which exist, regardless of who they belong to
+     * @param missingIds the list the ids which do not exist are added to
+     * @param foreignIds the list the ids which belong to another person are added to
+     */
+    private static void SplitInvalidIds(Set<Integer> requestedIds, Set<Integer> foundIds, List<Integer> existingIds, List<Integer> missingIds, List<Integer> foreignIds) {
+        Set<Integer> existing=new HashSet<Integer>(existingIds);
+        for (Integer id : requestedIds) {
+            if (foundIds.contains(id)) {
+                continue;
+            }
+            if (existing.contains(id)) {
+                foreignIds.add(id);
+            }
+            else {
+                missingIds.add(id);
+            }
+        }
+    }
+
+    /**
+     * This function creates a single error message describing every invalid id of a request, using the singular form when only one id is invalid
+     * @param missingNoun what the ids refer to in the message for ids which do not exist
+     * @param foreignNoun what the ids refer to in the message for ids which belong to another user
+     * @param missingIds the ids which do not exist
+     * @param foreignIds the ids which belong to another user
+     * @return the error message
+     */
+    private static String InvalidIdsMessage(String missingNoun, String foreignNoun, List<Integer> missingIds, List<Integer> foreignIds) {
+        List<String> parts=new ArrayList<String>();
+        if (!missingIds.isEmpty()) {
+            parts.add("No "+missingNoun+" with "+IdsText(missingIds)+" in the database");
+        }
+        if (foreignIds.size()==1) {
+            parts.add("The "+foreignNoun+" with "+IdsText(foreignIds)+" belongs to another user");
+        }
+        else if (foreignIds.size()>1) {
+            parts.add("The "+foreignNoun+"s with "+IdsText(foreignIds)+" belong to another user");
+        }
+        return String.join("; ", parts);
+    }
+
+    /**
+     * This function formats a list of ids for an error message
+     * @param ids the ids, of which there is at least one
+     * @return the ids, prefixed by id or ids depending on how many there are
+     */
+    private static String IdsText(List<Integer> ids) {
+        StringBuilder text=new StringBuilder(ids.size()==1 ? "id " : "ids ");
+        for (int i = 0; i < ids.size(); i++) {
+            if (i>0) {
+                text.append(", ");
+            }
+            text.append(ids.get(i));
+        }
+        return text.toString();
     }
 
 }
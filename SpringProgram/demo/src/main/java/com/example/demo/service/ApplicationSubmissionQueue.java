@@ -0,0 +1,269 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.domain.ApplicationSubmission;
+import com.example.demo.domain.ApplicationSubmissionState;
+import com.example.demo.domain.ApplicationSubmissionStatus;
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.presentation.restException.SubmissionQueueFullException;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.SubmissionNotFoundException;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+/**
+ * The ApplicationSubmissionQueue class allows applications to be submitted asynchronously, where a submission is placed in a bounded queue and the request returns immediately.
+ * A small pool of worker threads drains the queue, creating the applications for up to BATCH_SIZE submissions in a single transaction using ApplicationService.SubmitApplications.
+ * If the queue is full the submission is rejected, so the client can retry later instead of every request holding a thread and a database connection.
+ * The status of each submission is remembered until MAX_STATUSES newer submissions have been queued, and can only be retrived by the person who submitted it
+ */
+public class ApplicationSubmissionQueue {
+    //The maximum number of submissions waiting to be processed
+    static final int QUEUE_CAPACITY = 1000;
+
+    //The maximum number of submissions processed in a single transaction
+    static final int BATCH_SIZE = 50;
+
+    //The maximum number of remembered submission statuses
+    static final int MAX_STATUSES = 10000;
+
+    //The number of threads processing the queue
+    private static final int WORKER_THREADS = 2;
+
+    private final ApplicationService applicationService;
+    private final BlockingQueue<ApplicationSubmission> queue;
+    private final int batchSize;
+    private final ExecutorService workers;
+
+    //The statuses in submission order, along with the id of the person who submitted them, where the oldest status is forgotten first
+    private final Map<String, TrackedStatus> statuses = new LinkedHashMap<String, TrackedStatus>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TrackedStatus> eldest) {
+            return size()>MAX_STATUSES;
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationSubmissionQueue.class.getName());
+
+    /**
+     * Constructs a new instance of the ApplicationSubmissionQueue (Spring boot managed).
+     *
+     * @param applicationService the service used to create the queued applications
+     */
+    public ApplicationSubmissionQueue(ApplicationService applicationService) {
+        this(applicationService, QUEUE_CAPACITY, BATCH_SIZE, WORKER_THREADS);
+    }
+
+    /**
+     * Constructs a new instance of the ApplicationSubmissionQueue with a specific capacity, batch size and number of workers, this is used for testing.
+     * If there are no workers the queue is only processed when ProcessQueued is called
+     *
+     * @param applicationService the service used to create the queued applications
+     * @param capacity the maximum number of submissions waiting to be processed
+     * @param batchSize the maximum number of submissions processed in a single transaction
+     * @param workerThreads the number of threads processing the queue
+     */
+    ApplicationSubmissionQueue(ApplicationService applicationService, int capacity, int batchSize, int workerThreads) {
+        this.applicationService = applicationService;
+        this.queue = new ArrayBlockingQueue<ApplicationSubmission>(capacity);
+        this.batchSize = batchSize;
+        if (workerThreads>0) {
+            this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+                Thread thread = new Thread(runnable, "application-submission-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int i = 0; i < workerThreads; i++) {
+                workers.execute(this::Work);
+            }
+        }
+        else {
+            this.workers = null;
+        }
+    }
+
+    /**
+     * This stops the worker threads when the application is shut down, any submissions still in the queue are not processed
+     */
+    @PreDestroy
+    public void Shutdown() {
+        if (workers!=null) {
+            workers.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            LOGGER.error("Shutting down with (`{}`) application submissions which were not processed",queue.size());
+        }
+    }
+
+    /**
+     * This function places an application submission in the queue
+     *
+     * @param personId the id of the person submitting the application
+     * @param availabilityIds the ids of the availability periods to include in the application
+     * @param competenceProfileIds the ids of the competence profiles to include in the application
+     * @throws SubmissionQueueFullException this is thrown if there already are too many submissions waiting to be processed
+     * @return the status of the submission, which contains the id used to retrive its status later
+     */
+    public ApplicationSubmissionStatus Enqueue(Integer personId, List<Integer> availabilityIds, List<Integer> competenceProfileIds) throws SubmissionQueueFullException {
+        ApplicationSubmission submission = new ApplicationSubmission(UUID.randomUUID().toString(), personId, availabilityIds, competenceProfileIds);
+        ApplicationSubmissionStatus status = new ApplicationSubmissionStatus(submission.getSubmissionId(), ApplicationSubmissionState.queued, null, null);
+
+        //The status is stored before the submission is queued, so a worker can never finish it before its status exists
+        synchronized (statuses) {
+            statuses.put(submission.getSubmissionId(), new TrackedStatus(personId, status));
+        }
+        if (!queue.offer(submission)) {
+            synchronized (statuses) {
+                statuses.remove(submission.getSubmissionId());
+            }
+            LOGGER.error("Failed to queue application submission for person (`{}`) since the queue is full",personId);
+            throw new SubmissionQueueFullException("too many applications are being submitted, please try again later");
+        }
+
+        LOGGER.info("Queued application submission (`{}`) for person (`{}`), there are now (`{}`) queued submissions",submission.getSubmissionId(),personId,queue.size());
+        return status;
+    }
+
+    /**
+     * This function returns the current status of a submission
+     *
+     * @param personId the id of the person requesting the status
+     * @param submissionId the id of the submission
+     * @throws SubmissionNotFoundException this is thrown if the submission does not exist, has been forgotten or was submitted by another person
+     * @return the current status of the submission
+     */
+    public ApplicationSubmissionStatus GetStatus(Integer personId, String submissionId) throws SubmissionNotFoundException {
+        TrackedStatus tracked;
+        synchronized (statuses) {
+            tracked = statuses.get(submissionId);
+        }
+        if (tracked==null || !tracked.personId.equals(personId)) {
+            LOGGER.error("Failed to retrive the status of application submission (`{}`) for person (`{}`) since it could not be found",submissionId,personId);
+            throw new SubmissionNotFoundException(submissionId);
+        }
+        return tracked.status;
+    }
+
+    /**
+     * This returns the current number of submissions waiting to be processed
+     * @return the number of queued submissions
+     */
+    public int GetQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * This function processes a single batch of queued submissions, if there are any
+     * @return the number of processed submissions
+     */
+    int ProcessQueued() {
+        List<ApplicationSubmission> batch = new ArrayList<ApplicationSubmission>(batchSize);
+        queue.drainTo(batch, batchSize);
+        if (!batch.isEmpty()) {
+            Process(batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * This is run by each worker thread, and processes batches of submissions as soon as they are queued until the thread is interrupted.
+     * A batch which fails unexpectedly, including with an error, is rejected, and the worker continues with the next batch
+     */
+    private void Work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<ApplicationSubmission> batch = new ArrayList<ApplicationSubmission>(batchSize);
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize-1);
+            try {
+                Process(batch);
+            } catch (Throwable e) {
+                LOGGER.error("Failed to process (`{}`) application submissions, they are therefore rejected : (`{}`)",batch.size(),e.toString());
+                Reject(batch, "the application could not be processed, please try again");
+            }
+        }
+    }
+
+    /**
+     * This creates the applications for a batch of submissions and stores their statuses.
+     * If the batch fails due to a database error each submission is retried on its own, so a single failing submission does not reject the others
+     * @param batch the submissions to process
+     */
+    private void Process(List<ApplicationSubmission> batch) {
+        List<ApplicationSubmissionStatus> results;
+        try {
+            results = applicationService.SubmitApplications(batch);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to process a batch of (`{}`) application submissions, they are therefore processed one at a time : (`{}`)",batch.size(),e.getMessage());
+            results = new ArrayList<ApplicationSubmissionStatus>(batch.size());
+            for (ApplicationSubmission submission : batch) {
+                try {
+                    ApplicationDTO application = applicationService.SubmitApplication(submission.getPersonId(), submission.getAvailabilityIds(), submission.getCompetenceProfileIds());
+                    results.add(new ApplicationSubmissionStatus(submission.getSubmissionId(), ApplicationSubmissionState.submitted, application.getApplicationId(), null));
+                } catch (RuntimeException submissionException) {
+                    results.add(new ApplicationSubmissionStatus(submission.getSubmissionId(), ApplicationSubmissionState.rejected, null, submissionException.getMessage()));
+                }
+            }
+        }
+
+        synchronized (statuses) {
+            for (ApplicationSubmissionStatus result : results) {
+                TrackedStatus tracked = statuses.get(result.getSubmissionId());
+                if (tracked!=null) {
+                    tracked.status = result;
+                }
+            }
+        }
+    }
+
+    /**
+     * This rejects every submission in a batch whose status has not been updated yet
+     * @param batch the submissions to reject
+     * @param message the reason the submissions were rejected
+     */
+    private void Reject(List<ApplicationSubmission> batch, String message) {
+        synchronized (statuses) {
+            for (ApplicationSubmission submission : batch) {
+                TrackedStatus tracked = statuses.get(submission.getSubmissionId());
+                if (tracked!=null && tracked.status.getState()==ApplicationSubmissionState.queued) {
+                    tracked.status = new ApplicationSubmissionStatus(submission.getSubmissionId(), ApplicationSubmissionState.rejected, null, message);
+                }
+            }
+        }
+    }
+
+    /**
+     * This represents the status of a single submission, along with the id of the person who submitted it
+     */
+    private static final class TrackedStatus {
+        private final Integer personId;
+        private volatile ApplicationSubmissionStatus status;
+
+        /**
+         * This is a complete constructor for TrackedStatus
+         * @param personId the id of the person who submitted the application
+         * @param status the current status of the submission
+         */
+        private TrackedStatus(Integer personId, ApplicationSubmissionStatus status) {
+            this.personId = personId;
+            this.status = status;
+        }
+    }
+}
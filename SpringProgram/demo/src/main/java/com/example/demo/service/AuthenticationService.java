@@ -2,7 +2,7 @@ package com.example.demo.service;
 
 import org.springframework.stereotype.Service;
 import com.example.demo.repository.PersonRepository;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 
 @Service
@@ -13,7 +13,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
  */
 public class AuthenticationService {
     private final PersonRepository personRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
 
     /**
      * Constructs an instance of AuthenticationService.
@@ -21,7 +21,7 @@ public class AuthenticationService {
      * @param personRepository  The repository for accessing person-related data.
      * @param passwordEncoder   The password encoder used for hashing passwords.
      */
-    public AuthenticationService(PersonRepository personRepository, BCryptPasswordEncoder passwordEncoder){
+    public AuthenticationService(PersonRepository personRepository, PasswordEncoder passwordEncoder){
         this.personRepository = personRepository;
         this.passwordEncoder = passwordEncoder;
     }
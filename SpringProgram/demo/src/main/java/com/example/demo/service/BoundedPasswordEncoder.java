@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.presentation.restException.PasswordHashingBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * The BoundedPasswordEncoder class hashes and verifies passwords on a dedicated pool with one thread per processor, instead of on the request threads,
+ * so a burst of logins, registrations or password resets can at most use every processor and can not starve cheap requests of request threads.
+ * At most QUEUED_HASHES_PER_THREAD passwords per thread wait to be hashed, any further password is rejected immediately with a PasswordHashingBusyException, so the client can retry later.
+ * The number of waiting passwords is published as the metric "password.hashing.queue.size", and the time spent hashing and waiting as "password.hashing.duration" and "password.hashing.wait".
+ * Note that the request thread still waits for the result, it is the number of passwords hashed at once and the number of request threads waiting for it which are bounded
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    //The maximum number of passwords waiting to be hashed for each hashing thread
+    static final int QUEUED_HASHES_PER_THREAD = 4;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedPasswordEncoder.class.getName());
+
+    /**
+     * Constructs a new instance of the BoundedPasswordEncoder, with one hashing thread per processor
+     *
+     * @param passwordEncoder the encoder which hashes and verifies the passwords
+     * @param meterRegistry the registry the queue size and hashing times are published to
+     */
+    public BoundedPasswordEncoder(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this(passwordEncoder, meterRegistry, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors()*QUEUED_HASHES_PER_THREAD);
+    }
+
+    /**
+     * Constructs a new instance of the BoundedPasswordEncoder with a specific number of threads and queue capacity, this is used for testing
+     *
+     * @param passwordEncoder the encoder which hashes and verifies the passwords
+     * @param meterRegistry the registry the queue size and hashing times are published to
+     * @param threads the number of threads hashing passwords
+     * @param queueCapacity the maximum number of passwords waiting to be hashed
+     */
+    BoundedPasswordEncoder(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry, int threads, int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.encodeTimer = Timer.builder("password.hashing.duration").tag("operation", "encode").description("The time spent hashing a new password").register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.duration").tag("operation", "matches").description("The time spent verifying a password").register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait").description("The time a password waited to be hashed").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected").description("The number of passwords which were rejected since too many passwords were waiting to be hashed").register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", this, BoundedPasswordEncoder::GetQueueSize).description("The number of passwords waiting to be hashed").register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).description("The number of passwords currently being hashed").register(meterRegistry);
+    }
+
+    /**
+     * This stops the hashing threads when the application is shut down
+     */
+    @PreDestroy
+    public void Shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * This function hashes a new password on a hashing thread
+     *
+     * @param rawPassword the password to hash
+     * @throws PasswordHashingBusyException this is thrown if too many passwords are already waiting to be hashed
+     * @return the hashed password
+     */
+    @Override
+    public String encode(CharSequence rawPassword) throws PasswordHashingBusyException {
+        return Hash(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * This function verifies a password against a hashed password on a hashing thread
+     *
+     * @param rawPassword the password to verify
+     * @param encodedPassword the hashed password
+     * @throws PasswordHashingBusyException this is thrown if too many passwords are already waiting to be hashed
+     * @return true if the password matches, false otherwise
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) throws PasswordHashingBusyException {
+        return Hash(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * This function checks if a hashed password should be hashed again, which does not require hashing so it is done on the calling thread.
+     * Since hashing it again after a login requires an extra hash, this is postponed while any passwords are waiting to be hashed.
+     * Note that the queue can still fill up before the password is hashed again, in which case RehashingAuthenticationProvider keeps the old hash instead of failing the login
+     *
+     * @param encodedPassword the hashed password
+     * @return true if the password should be hashed again, false otherwise
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return GetQueueSize()==0 && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * This returns the current number of passwords waiting to be hashed
+     * @return the number of waiting passwords
+     */
+    int GetQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * This returns the number of passwords which have been rejected since too many passwords were waiting to be hashed
+     * @return the number of rejected passwords
+     */
+    long GetRejectedCount() {
+        return (long)rejected.count();
+    }
+
+    /**
+     * This function runs a hashing operation on a hashing thread, and waits for its result
+     *
+     * @param <T> the result of the operation
+     * @param timer the timer the time spent hashing is recorded in
+     * @param operation the hashing operation
+     * @throws PasswordHashingBusyException this is thrown if too many passwords are already waiting to be hashed, or the thread was interrupted while waiting
+     * @return the result of the operation
+     */
+    private <T> T Hash(Timer timer, Callable<T> operation) throws PasswordHashingBusyException {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                waitTimer.record(System.nanoTime()-queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(operation);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOGGER.error("Rejected a password since (`{}`) passwords are already waiting to be hashed", GetQueueSize());
+            throw new PasswordHashingBusyException("too many passwords are being checked, please try again later");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("the request was interrupted while waiting for the password to be checked");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.presentation.restException.IdempotencyKeyReusedException;
+
+@Service
+/**
+ * The IdempotencyService class remembers the responses of requests sent with an idempotency key, so a retried request is answered with the original response
+ * instead of being executed again. A retry which arrives while the first request is still being executed waits for it and receives the same response.
+ * Keys are scoped to the person and operation, are remembered for KEY_TTL, and at most MAX_KEYS are remembered at once, where the oldest key is forgotten first.
+ * Failed requests are not remembered, so they can be retried using the same key
+ */
+public class IdempotencyService {
+    //The maximum number of remembered keys
+    static final int MAX_KEYS = 10000;
+
+    //How long the response of a request is remembered
+    static final Duration KEY_TTL = Duration.ofHours(24);
+
+    //The remembered keys in insertion order, which is also expiry order since every key is remembered for the same duration
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>();
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyService.class.getName());
+
+    /**
+     * Constructs a new instance of the IdempotencyService (Spring boot managed).
+     */
+    public IdempotencyService() {
+        this(MAX_KEYS, KEY_TTL, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new instance of the IdempotencyService with a specific size, duration and clock, this is used for testing
+     *
+     * @param maxKeys the maximum number of remembered keys
+     * @param ttl how long the response of a request is remembered
+     * @param nanoClock the clock used to expire keys, in nanoseconds
+     */
+    IdempotencyService(int maxKeys, Duration ttl, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * This function executes an action once per idempotency key, and returns the response of the first execution for every later request with the same key.
+     * If no key is specified the action is always executed
+     *
+     * @param <T> the type of the response
+     * @param personId the id of the person sending the request, since keys are only unique for each person
+     * @param operation the name of the operation, since keys are only unique for each operation
+     * @param idempotencyKey the key sent by the client, or null if none was sent
+     * @param fingerprint a description of the request parameters, used to detect a key being reused for a different request
+     * @param action the action to execute, which is only executed for the first request with a key
+     * @throws IdempotencyKeyReusedException this is thrown if the key was already used for a request with different parameters
+     * @return the response of the first request with this key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T Execute(Integer personId, String operation, String idempotencyKey, String fingerprint, Supplier<T> action) throws IdempotencyKeyReusedException {
+        if (idempotencyKey==null) {
+            return action.get();
+        }
+
+        String key=personId+":"+operation+":"+idempotencyKey;
+        Entry entry;
+        boolean first;
+        synchronized (entries) {
+            RemoveExpired();
+            entry=entries.get(key);
+            first=entry==null;
+            if (first) {
+                if (entries.size()>=maxKeys) {
+                    Iterator<Map.Entry<String, Entry>> eldest=entries.entrySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                entry=new Entry(fingerprint, nanoClock.getAsLong()+ttlNanos);
+                entries.put(key, entry);
+            }
+            else if (!Objects.equals(entry.fingerprint, fingerprint)) {
+                LOGGER.error("Rejected (`{}`) request from person (`{}`) since the idempotency key (`{}`) was already used for a different request",operation,personId,idempotencyKey);
+                throw new IdempotencyKeyReusedException("the idempotency key was already used for a different request");
+            }
+        }
+
+        if (!first) {
+            LOGGER.info("Replaying the response of (`{}`) request from person (`{}`) with idempotency key (`{}`)",operation,personId,idempotencyKey);
+            try {
+                return (T) entry.response.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        try {
+            T response=action.get();
+            entry.response.complete(response);
+            return response;
+        } catch (Throwable e) {
+            //The failed request is forgotten, so it can be retried, while any request waiting for it fails in the same way,
+            //which also includes errors, since a request waiting for a response which is never completed would otherwise wait until the key expires
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * This function returns the number of remembered keys, including keys whose request is still being executed
+     *
+     * @return the number of remembered keys
+     */
+    public int GetKeyCount() {
+        synchronized (entries) {
+            RemoveExpired();
+            return entries.size();
+        }
+    }
+
+    /**
+     * This function forgets the expired keys, which are always the oldest ones, and must be called while holding the lock on entries
+     */
+    private void RemoveExpired() {
+        long now=nanoClock.getAsLong();
+        Iterator<Entry> iterator=entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt-now>0) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * This class contains the response of a request, which is completed once the first request with the key has been executed
+     */
+    private static class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<Object> response = new CompletableFuture<Object>();
+
+        /**
+         * This is a complete constructor for Entry
+         * @param fingerprint a description of the request parameters
+         * @param expiresAt the time the key expires, according to the clock of the service
+         */
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint=fingerprint;
+            this.expiresAt=expiresAt;
+        }
+    }
+}
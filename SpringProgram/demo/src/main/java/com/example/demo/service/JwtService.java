@@ -1,18 +1,32 @@
 package com.example.demo.service;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedRefreshToken;
+import com.example.demo.domain.VerifiedToken;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 
 @Component
@@ -21,13 +35,63 @@ import java.util.function.Function;
  * and extracting claims from JWT tokens. It supports user authentication and password reset functionality.
  * This service uses a secret key to sign and validate JWTs and provides methods to extract user-related 
  * information and additional claims (like reset tokens).
+ * A token is verified once using VerifyToken, which returns all of its claims, and the verified claims are remembered until the token expires,
+ * where at most MAX_VERIFIED_TOKENS tokens are remembered at once and the least recently used token is forgotten first.
+ * The tokens are remembered using a SHA-256 hash, so the remembered tokens can not be used if the memory of the application is read
+ * A self-contained token also contains the id, role and token version of the person, see generateToken(PersonDetails)
+ * A refresh token can only be used to get a new token using RefreshTokenService, and is never accepted by VerifyToken
  */
 public class JwtService {
 
     Random rand = new Random(); // Used to generate random number for reset token
 
     public static final String SECRET = "123456789eaaaaaaaaaaaaaaaaaaaaaasdawdawdawdawdawdadawdawdawdadawdawd"; //to be replaced
-    
+
+    //How long a token generated for logging in is valid
+    public static final Duration TOKEN_VALIDITY = Duration.ofMinutes(30);
+
+    //How long a refresh token is valid, where each use of a refresh token returns a new one
+    public static final Duration REFRESH_TOKEN_VALIDITY = Duration.ofHours(12);
+
+    //The value of the type claim of refresh tokens
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    //The maximum number of remembered verified tokens
+    static final int MAX_VERIFIED_TOKENS = 10000;
+
+    //The signing key and parser are created once, since decoding the key and building a parser for every token is needlessly slow
+    private final Key signKey;
+    private final JwtParser parser;
+
+    //The verified tokens by hash in access order, so the least recently used token is forgotten first
+    private final LinkedHashMap<String, VerifiedToken> verifiedTokens;
+    private final LongSupplier clock;
+
+    /**
+     * Constructs a new instance of the JwtService (Spring boot managed).
+     */
+    public JwtService() {
+        this(MAX_VERIFIED_TOKENS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a new instance of the JwtService with a specific number of remembered tokens and clock, this is used for testing
+     *
+     * @param maxVerifiedTokens the maximum number of remembered verified tokens
+     * @param clock the clock used to forget expired tokens, in milliseconds
+     */
+    JwtService(int maxVerifiedTokens, LongSupplier clock) {
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        this.parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        this.clock = clock;
+        this.verifiedTokens = new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size()>maxVerifiedTokens;
+            }
+        };
+    }
+
     /**
      * Generates a JWT token for the specified user. 
      * @param userName The username for the user to be included in the token's claims as the subject.
@@ -38,6 +102,20 @@ public class JwtService {
         return createToken(claims,userName);
     }
     
+    /**
+     * Generates a self-contained JWT token for the specified user, which also contains the id, role and token version of the user.
+     * This allows a request to be authenticated without retriving the user, while the token version allows the token to be revoked by resetting the password
+     * @param userDetails The details of the user, where the username is included in the token's claims as the subject.
+     * @return The generated JWT token.
+     */
+    public String generateToken(PersonDetails userDetails){
+        Map<String,Object> claims = new HashMap<>();
+        claims.put("personId", userDetails.getPersonId());
+        claims.put("role", userDetails.getAuthorities().iterator().next().getAuthority());
+        claims.put("tokenVersion", userDetails.getTokenVersion());
+        return createToken(claims,userDetails.getUsername());
+    }
+
     /**
      * Creates a JWT token with specified claims and username.
      * @param claims A map of claims to include in the token.
@@ -49,7 +127,7 @@ public class JwtService {
                 .setClaims(claims)
                 .setSubject(userName)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000*60*30))    // valid token lasts 30 min
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY.toMillis()))    // valid token lasts 30 min
                 .signWith(getSignKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -59,8 +137,7 @@ public class JwtService {
      * @return The signing key.
      */
     private Key getSignKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signKey;
     }
 
     /**
@@ -69,13 +146,106 @@ public class JwtService {
      * @return The claims extracted from the token.
      */
     private Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verifies the signature and expiration date of the JWT token, and returns its claims.
+     * A token is only parsed the first time it is verified, after which the same claims are returned until the token expires
+     * @param token The JWT token.
+     * @throws ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException if the token is invalid, for example if the signature does not match
+     * @return The verified claims of the token.
+     */
+    public VerifiedToken VerifyToken(String token){
+        String tokenHash = hashToken(token);
+        synchronized (verifiedTokens) {
+            VerifiedToken verified = verifiedTokens.get(tokenHash);
+            if (verified != null) {
+                if (verified.getExpiration().getTime() > clock.getAsLong()) {
+                    return verified;
+                }
+                verifiedTokens.remove(tokenHash);
+            }
+        }
+
+        //The token is parsed outside of the lock, so verifying a new token does not delay requests with remembered tokens
+        Claims claims = extractAllClaims(token);
+        if (REFRESH_TOKEN_TYPE.equals(claims.get("type", String.class))) {
+            throw new UnsupportedJwtException("A refresh token can only be used to get a new token");
+        }
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration(), claims.get("randomNumber", Long.class),
+                claims.get("personId", Integer.class), claims.get("role", String.class), claims.get("tokenVersion", Integer.class));
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(tokenHash, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Generates a refresh token, which can be used once to get a new token and a new refresh token
+     * @param userName The username for the user to be included in the token's claims as the subject.
+     * @param familyId The id of the refresh token family the token belongs to
+     * @param generation The generation of the token within its family
+     * @param expiration The expiration date of the token
+     * @return The generated refresh token.
+     */
+    public String generateRefreshToken(String userName, String familyId, int generation, Date expiration){
+        Map<String,Object> claims = new HashMap<>();
+        claims.put("type", REFRESH_TOKEN_TYPE);
+        claims.put("familyId", familyId);
+        claims.put("generation", generation);
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(userName)
+                .setIssuedAt(new Date())
+                .setExpiration(expiration)
+                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Verifies the signature and expiration date of a refresh token, and returns its claims.
+     * Refresh tokens are not remembered, since each one is only used once
+     * @param token The refresh token.
+     * @throws ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or is not a refresh token
+     * @return The verified claims of the refresh token.
+     */
+    public VerifiedRefreshToken VerifyRefreshToken(String token){
+        Claims claims = extractAllClaims(token);
+        if (!REFRESH_TOKEN_TYPE.equals(claims.get("type", String.class)) || claims.get("familyId", String.class)==null || claims.get("generation", Integer.class)==null) {
+            throw new UnsupportedJwtException("The token is not a refresh token");
+        }
+        return new VerifiedRefreshToken(claims.getSubject(), claims.get("familyId", String.class), claims.get("generation", Integer.class));
+    }
+
+    /**
+     * This returns the current number of remembered verified tokens, including expired tokens which have not yet been removed
+     * @return the number of remembered tokens
+     */
+    int getVerifiedTokenCount(){
+        synchronized (verifiedTokens) {
+            return verifiedTokens.size();
+        }
+    }
+
+    /**
+     * Creates the SHA-256 hash of a token, which is used to remember the token once it has been verified
+     * @param token The JWT token.
+     * @return The base64 encoded hash of the token.
+     */
+    private String hashToken(String token){
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            //Every java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Extracts a specific claim from the JWT token.
      * @param <T> The type of the claim to be extracted.
@@ -94,7 +264,7 @@ public class JwtService {
      * @return The subject extracted from the token.
      */
     public String extractSubject(String token){
-        return extractClaim(token,Claims::getSubject);
+        return VerifyToken(token).getSubject();
     }
 
     /**
@@ -103,7 +273,7 @@ public class JwtService {
      * @return The expiration date of the token.
      */
     public Date extractExpiration(String token){
-        return extractClaim(token, Claims::getExpiration);
+        return VerifyToken(token).getExpiration();
     }
 
     /**
@@ -111,8 +281,8 @@ public class JwtService {
      * @param token The JWT token.
      * @return True if the token is expired, false otherwise.
      */
-    private Boolean isTokenExpired(String token){
-        return extractExpiration(token).before(new Date());
+    private Boolean isTokenExpired(VerifiedToken token){
+        return token.getExpiration().before(new Date());
     }
 
     /**
@@ -122,8 +292,17 @@ public class JwtService {
      * @return True if the token is valid, false otherwise.
      */
     public Boolean validateToken(String token, UserDetails userDetails){
-        final String username = extractSubject(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(VerifyToken(token), userDetails);
+    }
+
+    /**
+     * Validates an already verified JWT token by comparing the username and expiration date.
+     * @param token The verified claims of the JWT token.
+     * @param userDetails The user details to compare against the token.
+     * @return True if the token is valid, false otherwise.
+     */
+    public Boolean validateToken(VerifiedToken token, UserDetails userDetails){
+        return (token.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
 
@@ -151,7 +330,7 @@ public class JwtService {
      * @return The random number, or null if no such number exists
      */
     public Long extractRandomNumber(String token){
-        return (Long)extractAllClaims(token).get("randomNumber");
+        return VerifyToken(token).getRandomNumber();
     }
 
     /**
@@ -160,6 +339,15 @@ public class JwtService {
      * @return A boolean representing if this is a possibly valid token
      */
     public Boolean validateResetToken(String token){
+        return validateResetToken(VerifyToken(token));
+    }
+
+    /**
+     * This method is used to validate that an already verified token could have been generated by this application
+     * @param token The verified claims of the token to validate
+     * @return A boolean representing if this is a possibly valid token
+     */
+    public Boolean validateResetToken(VerifiedToken token){
         return (!isTokenExpired(token));
     }
 }
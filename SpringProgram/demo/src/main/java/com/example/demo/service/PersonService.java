@@ -7,6 +7,7 @@ import java.util.Optional;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionSystemException;
@@ -14,13 +15,17 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedToken;
 import com.example.demo.domain.dto.PersonDTO;
 import com.example.demo.domain.entity.ApplicantReset;
 import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.event.PersonChangedEvent;
+import com.example.demo.domain.event.TokensRevokedEvent;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.InvalidJWTException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.InvalidPersonException;
@@ -29,6 +34,9 @@ import com.example.demo.repository.ApplicantResetRepository;
 import com.example.demo.repository.PersonRepository;
 import com.example.demo.repository.RoleRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import jakarta.transaction.RollbackException;
 import jakarta.validation.ConstraintViolationException;
 
@@ -39,13 +47,19 @@ import jakarta.validation.ConstraintViolationException;
  * This service class is for handling person-related operations such as registering,
  * updating, and resetting information, as well as generating and validating JWT tokens.
  * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * The functions which find people are read-only, so they use the replica database if one is specified
+ * Every change to a person publishes a PersonChangedEvent, so the UserDetailsCache forgets the outdated user once the change is committed
+ * It is also used to store passwords which were hashed again after a login since their hash used a different BCrypt strength, the number of which is published as the metric "password.rehash"
  */
-public class PersonService implements UserDetailsService {
+public class PersonService implements UserDetailsService, UserDetailsPasswordService {
     private final PersonRepository personRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final ApplicantResetRepository applicantResetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter upgradedPasswords;
+    private final Counter downgradedPasswords;
     // We create the logger
     private static final Logger LOGGER = LoggerFactory.getLogger(PersonService.class.getName());
 
@@ -57,14 +71,20 @@ public class PersonService implements UserDetailsService {
      * @param applicantResetRepository the repository for handling applicant reset requests
      * @param jwtService       this service provides jwt token related functionality
      * @param passwordEncoder  this is responsible for encoding passwords
+     * @param eventPublisher   this is used to publish an event when a person is registered or updated
+     * @param meterRegistry    the registry the number of passwords hashed again is published to
      */
     public PersonService(PersonRepository personRepository, RoleRepository roleRepository,
-            ApplicantResetRepository applicantResetRepository, JwtService jwtService, PasswordEncoder passwordEncoder) {
+            ApplicantResetRepository applicantResetRepository, JwtService jwtService, PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
         this.personRepository = personRepository;
         this.roleRepository = roleRepository;
         this.applicantResetRepository = applicantResetRepository;
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.upgradedPasswords = Counter.builder("password.rehash").tag("direction", "upgrade").description("The number of passwords hashed again with a stronger BCrypt strength after a login").register(meterRegistry);
+        this.downgradedPasswords = Counter.builder("password.rehash").tag("direction", "downgrade").description("The number of passwords hashed again with a weaker BCrypt strength after a login").register(meterRegistry);
     }
 
     /**
@@ -74,6 +94,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return A list of matching people
      */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
     public List<? extends PersonDTO> FindPeopleByName(String name) throws CustomDatabaseException {
         try {
             return personRepository.findByName(name);
@@ -124,6 +145,7 @@ public class PersonService implements UserDetailsService {
             LOGGER.info("Registering new person: Name: `{}`, Surname: `{}`, PNR: `{}`, Email: `{}`, Username: `{}`",
                     name, surname, pnr, email, username);
             personRepository.save(person);
+            eventPublisher.publishEvent(new PersonChangedEvent(username));
         } catch (DataAccessException e) {
             LOGGER.error("Failed to find people by name (`{}`) due to a database error : (`{}`)", name, e.getMessage());
             throw new CustomDatabaseException();
@@ -137,6 +159,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return The Person entity found, or empty if not found
      */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
     public Optional<? extends PersonDTO> FindPersonByEmail(String email) throws CustomDatabaseException {
         try {
             return personRepository.findByEmail(email);
@@ -154,6 +177,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return The Person entity found, or empty if not found
      */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
     public Optional<? extends PersonDTO> FindPersonByUsername(String username) throws CustomDatabaseException {
         try {
             return personRepository.findByUsername(username);
@@ -171,6 +195,7 @@ public class PersonService implements UserDetailsService {
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
      * @return TThe Person entity found, or empty if not found
      */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
     public Optional<? extends PersonDTO> FindPersonByPnr(String pnr) throws CustomDatabaseException {
         try {
             return personRepository.findByPnr(pnr);
@@ -217,6 +242,7 @@ public class PersonService implements UserDetailsService {
             person.setPnr(pnr);
             person.setEmail(email);
             personRepository.save(person);
+            eventPublisher.publishEvent(new PersonChangedEvent(person.getUsername()));
 
             LOGGER.info("Updated pnr and email for a reviwer (`{}`) to pnr (`{}`) and email (`{}`)", personId, pnr,
                     email);
@@ -304,14 +330,16 @@ public class PersonService implements UserDetailsService {
         
         try {
 
-            if (!jwtService.validateResetToken(resetToken)) {
+            // The token is verified once, and its claims are then used for every check below
+            VerifiedToken verifiedToken = jwtService.VerifyToken(resetToken);
+            if (!jwtService.validateResetToken(verifiedToken)) {
                 LOGGER.error(
                         "Failed to reset applicant following link with token (`{}`) since token is either invalid or out of date",
                         resetToken);
                 throw new InvalidJWTException("Token invalid, either out of date or not generated by this system");
             }
 
-            String email = jwtService.extractSubject(resetToken);
+            String email = verifiedToken.getSubject();
 
             Optional<Person> personContainer = personRepository.findByEmail(email);
 
@@ -333,8 +361,8 @@ public class PersonService implements UserDetailsService {
             }
 
             Optional<ApplicantReset> resetContainer = applicantResetRepository.findByPersonAndResetDateAndRandomLong(
-                    person, jwtService.extractExpiration(resetToken).toString(),
-                    jwtService.extractRandomNumber(resetToken));
+                    person, verifiedToken.getExpiration().toString(),
+                    verifiedToken.getRandomNumber());
 
             if (resetContainer.isEmpty()) {
                 LOGGER.error(
@@ -344,10 +372,15 @@ public class PersonService implements UserDetailsService {
                         "You gave an invalid but potentially real token, no current request for that person exists in the system. The link may have already been used, in which case you must request a new one.");
             }
 
-            // We then update the username and password for the user
+            // We then update the username and password for the user, where both the old and new username are removed from the cache
+            // The token version is also increased, which revokes every self-contained token issued before the reset
+            eventPublisher.publishEvent(new PersonChangedEvent(person.getUsername()));
             person.setUsername(username);
             person.setPassword(passwordEncoder.encode(password));
+            person.setTokenVersion(person.getTokenVersion()+1);
             personRepository.save(person);
+            eventPublisher.publishEvent(new PersonChangedEvent(username));
+            eventPublisher.publishEvent(new TokensRevokedEvent(person.getId(), person.getTokenVersion()));
 
             // We then remove the token, since we want to avoid a token being re-used in
             // this case
@@ -382,4 +415,48 @@ public class PersonService implements UserDetailsService {
             throw new CustomDatabaseException();
         }
     }
+
+    @Override
+    /**
+     * This method stores a password which was hashed again after a successful login, since its hash used a different BCrypt strength than new hashes.
+     * The password itself has not changed, so no PersonChangedEvent is published and the tokens of the user remain valid
+     * The new hash is only stored if the stored hash is still the one the login was verified against, so a password reset made during the login is not undone
+     * 
+     * @param user the user who logged in, whose password contains the old hash
+     * @param newPassword the new hash of the password
+     * @throws CustomDatabaseException if a database error occurs
+     * @throws UsernameNotFoundException if the user no longer exists
+     * @return a user details for the user, with the new hash as the password, or the user itself if the password was changed during the login
+     */
+    public UserDetails updatePassword(UserDetails user, String newPassword) throws UsernameNotFoundException, CustomDatabaseException {
+        try {
+            int oldStrength = AdaptiveBCryptPasswordEncoder.GetStrength(user.getPassword());
+            int newStrength = AdaptiveBCryptPasswordEncoder.GetStrength(newPassword);
+            if (personRepository.updatePasswordIfUnchanged(user.getUsername(), user.getPassword(), newPassword)==0) {
+                if (!personRepository.existsByUsername(user.getUsername())) {
+                    throw new UsernameNotFoundException("Could not find username: " + user.getUsername());
+                }
+                LOGGER.info("Did not hash the password of user (`{}`) again since it was changed during the login", user.getUsername());
+                return user;
+            }
+
+            Optional<Person> personContainer = personRepository.findByUsername(user.getUsername());
+            if (personContainer.isEmpty()) {
+                throw new UsernameNotFoundException("Could not find username: " + user.getUsername());
+            }
+
+            Person person = personContainer.get();
+            if (newStrength<oldStrength) {
+                downgradedPasswords.increment();
+            }
+            else {
+                upgradedPasswords.increment();
+            }
+            LOGGER.info("Hashed the password of person (`{}`) again with strength (`{}`) instead of (`{}`)", person.getId(), newStrength, oldStrength);
+            return new PersonDetails(person);
+        } catch (DataAccessException e) {
+            LOGGER.error("Failed to store the password of user (`{}`) which was hashed again due to a database error : (`{}`)", user.getUsername(), e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
 }
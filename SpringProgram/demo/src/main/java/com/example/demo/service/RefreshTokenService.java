@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.RefreshTokenRotation;
+import com.example.demo.domain.VerifiedRefreshToken;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.RefreshTokenFamily;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.InvalidRefreshTokenException;
+import com.example.demo.repository.PersonRepository;
+import com.example.demo.repository.RefreshTokenFamilyRepository;
+
+import io.jsonwebtoken.JwtException;
+
+@Service
+@Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+/**
+ * The RefreshTokenService class issues and rotates refresh tokens, which allow a user to get a new token without logging in again, and therefore without hashing their password.
+ * Each login starts a new refresh token family, and each refresh token can only be used once, after which it is replaced by the next generation of the family.
+ * Using a refresh token only requires verifying its signature and reading the family, which is locked so the same refresh token can not be used twice at once.
+ * If an older generation is used the refresh token must have been stolen, so the whole family is revoked, which logs out both the thief and the user.
+ * A family is also revoked if the password has been reset since the login
+ */
+public class RefreshTokenService {
+    private final RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+    private final PersonRepository personRepository;
+    private final JwtService jwtService;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenService.class.getName());
+
+    /**
+     * Constructs a new instance of the RefreshTokenService (Spring boot managed).
+     *
+     * @param refreshTokenFamilyRepository the repository for accessing refresh token families
+     * @param personRepository the repository used to reference the person a family belongs to
+     * @param jwtService this service is used to generate and verify refresh tokens
+     */
+    public RefreshTokenService(RefreshTokenFamilyRepository refreshTokenFamilyRepository, PersonRepository personRepository, JwtService jwtService) {
+        this.refreshTokenFamilyRepository = refreshTokenFamilyRepository;
+        this.personRepository = personRepository;
+        this.jwtService = jwtService;
+    }
+
+    /**
+     * This function starts a new refresh token family for a user who has just logged in, and removes any of their families which have expired
+     *
+     * @param user the details of the user who logged in
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
+     * @return the first refresh token of the new family
+     */
+    public String IssueRefreshToken(PersonDetails user) throws CustomDatabaseException {
+        try {
+            Person person = personRepository.getReferenceById(user.getPersonId());
+            long now = System.currentTimeMillis();
+            refreshTokenFamilyRepository.deleteExpiredByPerson(person, now);
+
+            long expiresAt = now + JwtService.REFRESH_TOKEN_VALIDITY.toMillis();
+            RefreshTokenFamily family = new RefreshTokenFamily(UUID.randomUUID().toString(), person, user.getTokenVersion(), expiresAt);
+            refreshTokenFamilyRepository.save(family);
+
+            LOGGER.info("Started refresh token family (`{}`) for person (`{}`)", family.getFamilyId(), user.getPersonId());
+            return jwtService.generateRefreshToken(user.getUsername(), family.getFamilyId(), family.getGeneration(), new Date(expiresAt));
+        } catch (DataAccessException e) {
+            LOGGER.error("Failed to start a refresh token family for person (`{}`) due to a database error : (`{}`)", user.getPersonId(), e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * This function uses a refresh token, which replaces it with the next generation of its family.
+     * Note that the transaction is committed even if the refresh token is rejected, since a rejected refresh token may have revoked its family
+     *
+     * @param refreshToken the refresh token to use
+     * @throws InvalidRefreshTokenException this is thrown if the refresh token is invalid, has expired, has already been used or its family has been revoked
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail
+     * @return a snapshot of the user the new token should be generated for, along with the new refresh token
+     */
+    @Transactional(rollbackFor = Exception.class, noRollbackFor = InvalidRefreshTokenException.class, propagation = Propagation.REQUIRES_NEW)
+    public RefreshTokenRotation Refresh(String refreshToken) throws InvalidRefreshTokenException, CustomDatabaseException {
+        VerifiedRefreshToken verified;
+        try {
+            verified = jwtService.VerifyRefreshToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            LOGGER.error("Failed to use a refresh token since it could not be verified : (`{}`)", e.getMessage());
+            throw new InvalidRefreshTokenException("it is not a refresh token or it has expired, please log in again");
+        }
+
+        try {
+            Optional<RefreshTokenFamily> familyContainer = refreshTokenFamilyRepository.findAndLockByFamilyId(verified.getFamilyId());
+            if (familyContainer.isEmpty() || familyContainer.get().isRevoked()) {
+                LOGGER.error("Failed to use a refresh token from family (`{}`) since the family does not exist or has been revoked", verified.getFamilyId());
+                throw new InvalidRefreshTokenException("it has been revoked, please log in again");
+            }
+
+            RefreshTokenFamily family = familyContainer.get();
+            Person person = family.getPerson();
+
+            if (verified.getGeneration() != family.getGeneration()) {
+                family.setRevoked(true);
+                refreshTokenFamilyRepository.save(family);
+                LOGGER.error("Revoked refresh token family (`{}`) for person (`{}`) since generation (`{}`) was reused while generation (`{}`) is current",
+                        family.getFamilyId(), person.getId(), verified.getGeneration(), family.getGeneration());
+                throw new InvalidRefreshTokenException("it has already been used, so every session started by the same login has been logged out");
+            }
+
+            if (person.getTokenVersion() != family.getTokenVersion()) {
+                family.setRevoked(true);
+                refreshTokenFamilyRepository.save(family);
+                LOGGER.error("Revoked refresh token family (`{}`) for person (`{}`) since the password has been reset", family.getFamilyId(), person.getId());
+                throw new InvalidRefreshTokenException("the password has been reset since it was issued, please log in again");
+            }
+
+            long expiresAt = System.currentTimeMillis() + JwtService.REFRESH_TOKEN_VALIDITY.toMillis();
+            family.setGeneration(family.getGeneration() + 1);
+            family.setExpiresAt(expiresAt);
+            refreshTokenFamilyRepository.save(family);
+
+            LOGGER.info("Rotated refresh token family (`{}`) for person (`{}`) to generation (`{}`)", family.getFamilyId(), person.getId(), family.getGeneration());
+            PersonDetails user = new PersonDetails(person.getId(), person.getUsername(), person.getRole().getName(), person.getTokenVersion());
+            return new RefreshTokenRotation(user, jwtService.generateRefreshToken(person.getUsername(), family.getFamilyId(), family.getGeneration(), new Date(expiresAt)));
+        } catch (DataAccessException e) {
+            LOGGER.error("Failed to use a refresh token from family (`{}`) due to a database error : (`{}`)", verified.getFamilyId(), e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+}
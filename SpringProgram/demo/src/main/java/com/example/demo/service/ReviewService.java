@@ -1,23 +1,60 @@
 package com.example.demo.service;
 
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.domain.ApplicationLease;
+import com.example.demo.domain.ApplicationPage;
+import com.example.demo.domain.ApplicationRankingQuery;
+import com.example.demo.domain.ApplicationScore;
+import com.example.demo.domain.ApplicationSearchQuery;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusChange;
+import com.example.demo.domain.ApplicationStatusCounts;
+import com.example.demo.domain.ApplicationStatusUpdateOutcome;
+import com.example.demo.domain.ApplicationStatusUpdateResult;
+import com.example.demo.domain.AvailableDayCount;
+import com.example.demo.domain.LeasedApplication;
+import com.example.demo.domain.RankedApplication;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.event.ApplicationStatusChangedEvent;
+import com.example.demo.presentation.restException.ApplicationLeaseNotHeldException;
 import com.example.demo.presentation.restException.ApplicationNotUpdatedException;
+import com.example.demo.presentation.restException.AvailabilityIndexNotReadyException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.InvalidParameterException;
+import com.example.demo.presentation.restException.SearchIndexNotReadyException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.ApplicationNotFoundException;
 import com.example.demo.repository.ApplicationRepository;
+import com.example.demo.service.index.ApplicationSearchIndex;
+import com.example.demo.service.index.AvailabilityIntervalIndex;
+
+import jakarta.persistence.EntityManager;
 
 import org.springframework.transaction.annotation.Propagation;
 
@@ -29,9 +66,24 @@ import org.springframework.transaction.annotation.Propagation;
  * It offers functionality for retrieving, updating application statuses, 
  * and checking application information.
  * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * The functions which only list, search or export applications are read-only, so they use the replica database if one is specified,
+ * while GetApplicationsById and GetApplicationVersion use the primary since their version number is used to update the application
  */
 public class ReviewService {
     private final ApplicationRepository applicationRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationSearchIndex applicationSearchIndex;
+    private final AvailabilityIntervalIndex availabilityIntervalIndex;
+
+    //This is the prefix of the decoded continuation tokens, which allows the format to be changed later without accepting old tokens incorrectly
+    private static final String CURSOR_PREFIX = "application-id:";
+
+    //This is the prefix of the decoded continuation tokens for search results, which contain the number of results on the previous pages
+    private static final String SEARCH_CURSOR_PREFIX = "search-offset:";
+
+    //The time a reviewer may hold a claimed application before other reviewers can claim it, unless the lease is renewed
+    static final Duration LEASE_DURATION = Duration.ofMinutes(15);
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewService.class.getName()); 
 
@@ -40,20 +92,32 @@ public class ReviewService {
      * Constructs a new instance of the ReviewService (Spring boot managed).
      *
      * @param applicationRepository the repository for accessing application database data
+     * @param entityManager the entity manager, used to detach streamed applications once they have been handled
+     * @param eventPublisher the publisher used to publish status changes, which are sent to subscribers once the transaction is committed
+     * @param applicationSearchIndex the in-memory index used to search for applications
+     * @param availabilityIntervalIndex the in-memory index used to find who is available during a period
      */
-    public ReviewService(ApplicationRepository applicationRepository) {
+    public ReviewService(ApplicationRepository applicationRepository, EntityManager entityManager, ApplicationEventPublisher eventPublisher, ApplicationSearchIndex applicationSearchIndex, AvailabilityIntervalIndex availabilityIntervalIndex) {
         this.applicationRepository = applicationRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.applicationSearchIndex = applicationSearchIndex;
+        this.availabilityIntervalIndex = availabilityIntervalIndex;
     }
 
     /**
      * Returns a list of all applications
+     * The applications are loaded using 3 queries per FETCH_PLAN_BATCH_SIZE applications, see LoadApplicationCollections
      * 
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
      * @return a list of applications
      */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
     public List<? extends ApplicationDTO> GetApplications() throws CustomDatabaseException {
         try {
-            return applicationRepository.findAll();
+            List<Application> applications=applicationRepository.findWithApplicantByOrderByApplicationIdAsc();
+            LoadApplicationCollections(applications);
+            return applications;
         }
         catch(DataAccessException e)
         {
@@ -62,8 +126,498 @@ public class ReviewService {
         }
     }
 
+    /**
+     * Returns one page of applications ordered by application id, using keyset pagination.
+     * Unlike GetApplications this only loads pageSize applications, and the cost of retriving a page does not depend on how far into the list it is
+     * 
+     * @param cursor the continuation token returned with the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of applications on the page
+     * @throws InvalidParameterException this is thrown if the cursor is not a continuation token generated by this service
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of applications, along with the continuation token for the next page
+     */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    public ApplicationPage<ApplicationDTO> GetApplicationsPage(String cursor, Integer pageSize)
+      throws InvalidParameterException, CustomDatabaseException {
+        Integer lastApplicationId=DecodeCursor(cursor);
+        try {
+            //We retrive one extra application, which is only used to know if there is a next page or not
+            List<Application> applications=applicationRepository.findByApplicationIdGreaterThanOrderByApplicationIdAsc(lastApplicationId, Limit.of(pageSize+1));
+            LoadApplicationCollections(applications);
+            return CreatePage(applications, pageSize, ApplicationDTO::getApplicationId);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive page of applications after (`{}`) due to a database error : (`{}`)",lastApplicationId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns one page of application summaries ordered by application id, using keyset pagination.
+     * The summaries do not contain the applicant, availability periods or competence profiles, and each page is retrived using a single query,
+     * GetApplicationsById should be used to retrive the full application
+     * 
+     * @param status the application status to find summaries for, or null to retrive summaries for all applications
+     * @param cursor the continuation token returned with the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of summaries on the page
+     * @throws InvalidParameterException this is thrown if the cursor is not a continuation token generated by this service
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of application summaries, along with the continuation token for the next page
+     */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    public ApplicationPage<ApplicationSummaryDTO> GetApplicationSummariesPage(ApplicationStatus status, String cursor, Integer pageSize)
+      throws InvalidParameterException, CustomDatabaseException {
+        Integer lastApplicationId=DecodeCursor(cursor);
+        try {
+            //We retrive one extra summary, which is only used to know if there is a next page or not
+            List<ApplicationSummaryDTO> summaries;
+            if (status==null) {
+                summaries=applicationRepository.findSummariesByApplicationIdGreaterThan(lastApplicationId, Limit.of(pageSize+1));
+            }
+            else {
+                summaries=applicationRepository.findSummariesByApplicationStatusAndApplicationIdGreaterThan(status, lastApplicationId, Limit.of(pageSize+1));
+            }
+            return CreatePage(summaries, pageSize, ApplicationSummaryDTO::getApplicationId);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive page of application summaries with status (`{}`) after (`{}`) due to a database error : (`{}`)",status,lastApplicationId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns one page of summaries of the applications matching a search, in the order specified by the search.
+     * The matching applications are found using the in-memory search index, after which the summaries for the page are retrived using a single query
+     * 
+     * @param query the search to perform
+     * @param cursor the continuation token returned with the previous page, or null to retrive the first page
+     * @param pageSize the maximum number of summaries on the page
+     * @throws InvalidParameterException this is thrown if the cursor is not a continuation token generated by this function
+     * @throws SearchIndexNotReadyException this is thrown if the search index has not been built yet
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the page of application summaries, along with the continuation token for the next page
+     */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    public ApplicationPage<ApplicationSummaryDTO> SearchApplications(ApplicationSearchQuery query, String cursor, Integer pageSize)
+      throws InvalidParameterException, SearchIndexNotReadyException, CustomDatabaseException {
+        Integer offset=DecodeCursor(SEARCH_CURSOR_PREFIX, cursor);
+
+        //We retrive one extra application id, which is only used to know if there is a next page or not
+        List<Integer> applicationIds=applicationSearchIndex.Search(query, offset, pageSize+1);
+        boolean hasNext=applicationIds.size()>pageSize;
+        if (hasNext) {
+            applicationIds=applicationIds.subList(0, pageSize);
+        }
+        if (applicationIds.isEmpty()) {
+            return new ApplicationPage<ApplicationSummaryDTO>(new ArrayList<ApplicationSummaryDTO>(), null);
+        }
+
+        try {
+            Map<Integer, ApplicationSummaryDTO> summariesById=new HashMap<Integer, ApplicationSummaryDTO>();
+            for (ApplicationSummaryDTO summary : applicationRepository.findSummariesByApplicationIdIn(applicationIds)) {
+                summariesById.put(summary.getApplicationId(), summary);
+            }
+
+            //The summaries are returned in no specific order, so we place them in the order found by the search
+            List<ApplicationSummaryDTO> summaries=new ArrayList<ApplicationSummaryDTO>();
+            for (Integer applicationId : applicationIds) {
+                ApplicationSummaryDTO summary=summariesById.get(applicationId);
+                if (summary!=null) {
+                    summaries.add(summary);
+                }
+            }
+            return new ApplicationPage<ApplicationSummaryDTO>(summaries, hasNext ? EncodeCursor(SEARCH_CURSOR_PREFIX, offset+pageSize) : null);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive summaries of application search results due to a database error : (`{}`)",e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns the applications best matching the specification of an open position, best match first.
+     * The applications are ranked using the in-memory search index, see ApplicationScore for how they are scored,
+     * after which the summaries of the best applications are retrived using a single query
+     * 
+     * @param query the specification of the position
+     * @param limit the maximum number of applications to return
+     * @throws SearchIndexNotReadyException this is thrown if the search index has not been built yet
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the best matching applications along with their scores, best match first
+     */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    public List<RankedApplication> RankApplications(ApplicationRankingQuery query, Integer limit)
+      throws SearchIndexNotReadyException, CustomDatabaseException {
+        List<ApplicationScore> scores=applicationSearchIndex.Rank(query, limit);
+        List<RankedApplication> ranked=new ArrayList<RankedApplication>();
+        if (scores.isEmpty()) {
+            return ranked;
+        }
+
+        List<Integer> applicationIds=new ArrayList<Integer>();
+        for (ApplicationScore score : scores) {
+            applicationIds.add(score.getApplicationId());
+        }
+        try {
+            Map<Integer, ApplicationSummaryDTO> summariesById=new HashMap<Integer, ApplicationSummaryDTO>();
+            for (ApplicationSummaryDTO summary : applicationRepository.findSummariesByApplicationIdIn(applicationIds)) {
+                summariesById.put(summary.getApplicationId(), summary);
+            }
+
+            //The summaries are returned in no specific order, so we place them in the order of the ranking
+            for (ApplicationScore score : scores) {
+                ApplicationSummaryDTO summary=summariesById.get(score.getApplicationId());
+                if (summary!=null) {
+                    ranked.add(new RankedApplication(summary, score));
+                }
+            }
+            return ranked;
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive summaries of ranked applications due to a database error : (`{}`)",e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Returns the number of applications with each status, found using the counters of the in-memory search index without querying the database
+     * 
+     * @throws SearchIndexNotReadyException this is thrown if the search index has not been built yet
+     * @return the number of applications with each status
+     */
+    public ApplicationStatusCounts GetApplicationStatusCounts() throws SearchIndexNotReadyException {
+        return applicationSearchIndex.GetStatusCounts();
+    }
+
+    /**
+     * Returns the number of applications with each status for every day of a period, based on the day the applications were submitted.
+     * The counts are found using the counters of the in-memory search index without querying the database
+     * 
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @throws SearchIndexNotReadyException this is thrown if the search index has not been built yet
+     * @return the number of applications with each status submitted on each day of the period, in date order
+     */
+    public List<ApplicationStatusCounts> GetDailyApplicationStatusCounts(LocalDate fromDate, LocalDate toDate) throws SearchIndexNotReadyException {
+        return applicationSearchIndex.GetDailyStatusCounts(fromDate, toDate);
+    }
+
+    /**
+     * Returns the ids of the people who are available during a period, found using the in-memory availability interval index without querying the database
+     * 
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @param covering true if the people must be available for every day of the period, false if some day of the period is enough
+     * @throws AvailabilityIndexNotReadyException this is thrown if the availability index has not been built yet
+     * @return the ids of the available people, in ascending order
+     */
+    public List<Integer> GetAvailablePersons(LocalDate fromDate, LocalDate toDate, boolean covering) throws AvailabilityIndexNotReadyException {
+        return availabilityIntervalIndex.GetAvailablePersons(fromDate, toDate, covering);
+    }
+
+    /**
+     * Returns the number of people who are available on each day of a period, found using the in-memory availability interval index without querying the database
+     * 
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @throws AvailabilityIndexNotReadyException this is thrown if the availability index has not been built yet
+     * @return the number of available people for every day of the period, in date order
+     */
+    public List<AvailableDayCount> GetDailyAvailability(LocalDate fromDate, LocalDate toDate) throws AvailabilityIndexNotReadyException {
+        return availabilityIntervalIndex.GetDailyAvailability(fromDate, toDate);
+    }
+
+    /**
+     * Claims up to a number of unchecked applications for a reviewer, by giving them a lease on each application which expires after LEASE_DURATION.
+     * Applications leased by other reviewers are skipped until their lease expires or is released, so reviewers working through the unchecked applications
+     * at the same time receive different applications instead of reviewing the same one. Applications already leased by the reviewer are claimed again, which renews their leases
+     * 
+     * @param leaseHolderId the person id of the reviewer
+     * @param count the maximum number of applications to claim
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason, in which case no application is claimed
+     * @return the summaries of the claimed applications along with their leases, in application id order
+     */
+    public List<LeasedApplication> ClaimApplications(Integer leaseHolderId, Integer count) throws CustomDatabaseException {
+        Instant now=Instant.now();
+        Instant leaseExpiresAt=now.plus(LEASE_DURATION);
+        try {
+            List<Integer> claimedIds=applicationRepository.claimUncheckedApplications(leaseHolderId, count, Timestamp.from(now), Timestamp.from(leaseExpiresAt));
+            List<LeasedApplication> claimed=new ArrayList<LeasedApplication>();
+            if (claimedIds.isEmpty()) {
+                LOGGER.info("No unchecked applications available to claim for (`{}`)",leaseHolderId);
+                return claimed;
+            }
+
+            Map<Integer, ApplicationSummaryDTO> summariesById=new HashMap<Integer, ApplicationSummaryDTO>();
+            for (ApplicationSummaryDTO summary : applicationRepository.findSummariesByApplicationIdIn(claimedIds)) {
+                summariesById.put(summary.getApplicationId(), summary);
+            }
+            for (Integer applicationId : claimedIds) {
+                claimed.add(new LeasedApplication(summariesById.get(applicationId), new ApplicationLease(applicationId, leaseHolderId, leaseExpiresAt)));
+            }
+            LOGGER.info("Claimed (`{}`) applications for (`{}`) until (`{}`)",claimedIds.size(),leaseHolderId,leaseExpiresAt);
+            return claimed;
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to claim applications for (`{}`) due to a database error : (`{}`)",leaseHolderId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
+    /**
+     * Extends the lease a reviewer holds on an unchecked application by LEASE_DURATION from now, which only is possible if the lease has not expired yet
+     * 
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer
+     * @throws ApplicationLeaseNotHeldException this is thrown if the reviewer does not hold an unexpired lease on an unchecked application with that id
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the renewed lease
+     */
+    public ApplicationLease RenewApplicationLease(Integer applicationId, Integer leaseHolderId) throws ApplicationLeaseNotHeldException, CustomDatabaseException {
+        Instant now=Instant.now();
+        Instant leaseExpiresAt=now.plus(LEASE_DURATION);
+        int renewed;
+        try {
+            renewed=applicationRepository.renewApplicationLease(applicationId, leaseHolderId, Timestamp.from(now), Timestamp.from(leaseExpiresAt));
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to renew lease on application (`{}`) for (`{}`) due to a database error : (`{}`)",applicationId,leaseHolderId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        if (renewed!=1) {
+            LOGGER.error("Failed to renew lease on application (`{}`) since (`{}`) does not hold an unexpired lease on it",applicationId,leaseHolderId);
+            throw new ApplicationLeaseNotHeldException("you do not hold a lease on an unchecked application with id : \""+applicationId+"\", it may have expired or been claimed by someone else");
+        }
+        LOGGER.info("Renewed lease on application (`{}`) for (`{}`) until (`{}`)",applicationId,leaseHolderId,leaseExpiresAt);
+        return new ApplicationLease(applicationId, leaseHolderId, leaseExpiresAt);
+    }
+
+    /**
+     * Releases the lease a reviewer holds on an application, so it can be claimed by other reviewers immediately instead of once the lease expires
+     * 
+     * @param applicationId the id of the leased application
+     * @param leaseHolderId the person id of the reviewer
+     * @throws ApplicationLeaseNotHeldException this is thrown if the reviewer does not hold a lease on an application with that id
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     */
+    public void ReleaseApplicationLease(Integer applicationId, Integer leaseHolderId) throws ApplicationLeaseNotHeldException, CustomDatabaseException {
+        int released;
+        try {
+            released=applicationRepository.releaseApplicationLease(applicationId, leaseHolderId);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to release lease on application (`{}`) for (`{}`) due to a database error : (`{}`)",applicationId,leaseHolderId,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+
+        if (released!=1) {
+            LOGGER.error("Failed to release lease on application (`{}`) since (`{}`) does not hold a lease on it",applicationId,leaseHolderId);
+            throw new ApplicationLeaseNotHeldException("you do not hold a lease on an application with id : \""+applicationId+"\", it may have been claimed by someone else");
+        }
+        LOGGER.info("Released lease on application (`{}`) for (`{}`)",applicationId,leaseHolderId);
+    }
+
+    /**
+     * This creates a page from a list which contains at most one more element than the page size, where the extra element only signifies that there is a next page
+     * @param <T> the type of the elements on the page
+     * @param results the retrived elements, ordered by application id
+     * @param pageSize the maximum number of elements on the page
+     * @param applicationIdGetter the function used to find the application id of the last element on the page
+     * @return the page, with a continuation token if there is a next page
+     */
+    private <T> ApplicationPage<T> CreatePage(List<? extends T> results, Integer pageSize, Function<T,Integer> applicationIdGetter)
+    {
+        if (results.size()<=pageSize) {
+            return new ApplicationPage<T>(results, null);
+        }
+
+        List<? extends T> page=results.subList(0, pageSize);
+        return new ApplicationPage<T>(page, EncodeCursor(applicationIdGetter.apply(page.get(pageSize-1))));
+    }
+
+    /**
+     * This function passes every application, ordered by application id, to the consumer one at a time.
+     * The applications are read from a database cursor in batches of STREAM_FETCH_SIZE, the collections for each batch are loaded using 2 queries,
+     * and the batch is detached once it has been consumed, meaning memory use does not depend on the number of applications
+     * Note that the consumer is called inside the transaction, so it should write the application somewhere and not keep a reference to it
+     * 
+     * @param consumer the consumer which handles each application, for example by writing it to a response
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    public void ForEachApplication(Consumer<? super ApplicationDTO> consumer) throws CustomDatabaseException {
+        ConsumeStream(() -> applicationRepository.streamAllByOrderByApplicationIdAsc(), consumer);
+    }
+
+    /**
+     * This function passes every application submitted during a period, ordered by application date, to the consumer one at a time.
+     * This reads the applications in the same way as ForEachApplication, so memory use does not depend on the number of applications
+     * Note that the consumer is called inside the transaction, so it should write the application somewhere and not keep a reference to it
+     * 
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @param consumer the consumer which handles each application, for example by writing it to an export
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
+    public void ForEachApplicationInPeriod(LocalDate fromDate, LocalDate toDate, Consumer<? super ApplicationDTO> consumer) throws CustomDatabaseException {
+        ConsumeStream(() -> applicationRepository.streamByApplicationDateBetween(java.sql.Date.valueOf(fromDate), java.sql.Date.valueOf(toDate)), consumer);
+    }
+
+    /**
+     * This passes every application in a stream to the consumer, in batches of STREAM_FETCH_SIZE where the batch is detached once it has been consumed
+     * @param streamQuery the repository function which opens the stream of applications, which is backed by a database cursor
+     * @param consumer the consumer which handles each application
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     */
+    private void ConsumeStream(Supplier<Stream<Application>> streamQuery, Consumer<? super ApplicationDTO> consumer) throws CustomDatabaseException {
+        int handled=0;
+        List<Application> batch=new ArrayList<Application>(ApplicationRepository.STREAM_FETCH_SIZE);
+        try (Stream<Application> applications=streamQuery.get()) {
+            for (Application application : (Iterable<Application>) applications::iterator) {
+                batch.add(application);
+
+                if (batch.size()==ApplicationRepository.STREAM_FETCH_SIZE) {
+                    handled+=ConsumeBatch(batch, consumer);
+                    //We clear the persistence context once per fetched batch, to avoid it growing with every streamed application
+                    entityManager.clear();
+                }
+            }
+            handled+=ConsumeBatch(batch, consumer);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to stream applications after (`{}`) applications due to a database error : (`{}`)",handled,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+        LOGGER.info("Streamed (`{}`) applications",handled);
+    }
+
+    /**
+     * This loads the collections for a batch of streamed applications, passes them to the consumer and then empties the batch
+     * @param batch the batch of applications
+     * @param consumer the consumer which handles each application
+     * @return the number of applications which were consumed
+     */
+    private int ConsumeBatch(List<Application> batch, Consumer<? super ApplicationDTO> consumer)
+    {
+        int size=batch.size();
+        LoadApplicationCollections(batch);
+        batch.forEach(consumer);
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * This loads the availability periods and competence profiles for a list of applications, which have already been loaded in the current transaction.
+     * This uses 2 queries per FETCH_PLAN_BATCH_SIZE applications, instead of lazily loading the collections using 2 queries per application when they are serialized.
+     * The results of the queries are not used directly, instead hibernate initializes the collections of the already loaded application objects
+     * @param applications the applications to load the collections for
+     */
+    private void LoadApplicationCollections(List<Application> applications)
+    {
+        for (int start=0; start<applications.size(); start+=ApplicationRepository.FETCH_PLAN_BATCH_SIZE) {
+            List<Integer> applicationIds=new ArrayList<Integer>();
+            for (Application application : applications.subList(start, Math.min(start+ApplicationRepository.FETCH_PLAN_BATCH_SIZE, applications.size()))) {
+                applicationIds.add(application.getApplicationId());
+            }
+            applicationRepository.findWithAvailabilityPeriodsByApplicationIdIn(applicationIds);
+            applicationRepository.findWithCompetenceProfilesByApplicationIdIn(applicationIds);
+        }
+    }
+
+    /**
+     * This creates the opaque continuation token for a page ending with a specific application id
+     * @param lastApplicationId the id of the last application on the page
+     * @return the continuation token
+     */
+    private String EncodeCursor(Integer lastApplicationId)
+    {
+        return EncodeCursor(CURSOR_PREFIX, lastApplicationId);
+    }
+
+    /**
+     * This creates an opaque continuation token containing a single integer
+     * @param prefix the prefix which identifies the kind of continuation token
+     * @param value the value of the continuation token
+     * @return the continuation token
+     */
+    private String EncodeCursor(String prefix, Integer value)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((prefix+value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This parses a continuation token created by EncodeCursor
+     * @param cursor the continuation token, or null for the first page
+     * @throws InvalidParameterException if the cursor could not be parsed
+     * @return the id of the last application on the previous page, or 0 if cursor is null
+     */
+    private Integer DecodeCursor(String cursor) throws InvalidParameterException
+    {
+        return DecodeCursor(CURSOR_PREFIX, cursor);
+    }
+
+    /**
+     * This parses a continuation token created by EncodeCursor with a specific prefix
+     * @param prefix the prefix which identifies the kind of continuation token
+     * @param cursor the continuation token, or null for the first page
+     * @throws InvalidParameterException if the cursor could not be parsed
+     * @return the value of the continuation token, or 0 if cursor is null
+     */
+    private Integer DecodeCursor(String prefix, String cursor) throws InvalidParameterException
+    {
+        if (cursor==null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded=new String(Base64.getUrlDecoder().decode(cursor),StandardCharsets.UTF_8);
+            if (!decoded.startsWith(prefix)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return Integer.parseInt(decoded.substring(prefix.length()));
+        } catch (IllegalArgumentException e) { //Note that NumberFormatException is a subclass of IllegalArgumentException
+            LOGGER.error("Failed to parse application cursor (`{}`) : (`{}`)",cursor,e.getMessage());
+            throw new InvalidParameterException("Provided cursor ("+cursor+") is not valid, please use the nextCursor value from the previous page");
+        }
+    }
+
+    /**
+     * Returns the current version number of an application, without loading the application.
+     * This is used to validate a cached copy of the application before retriving it using GetApplicationsById
+     *
+     * @param id the ID of the application
+     * @throws ApplicationNotFoundException this is thrown if no application exists with the specified ID
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return the current version number of the application
+     */
+    public long GetApplicationVersion(Integer id) throws ApplicationNotFoundException, CustomDatabaseException {
+        try {
+            Optional<ApplicationStatusChange> current = applicationRepository.findStatusByApplicationId(id);
+            if (current.isPresent()==false) {
+                LOGGER.error("Failed to find version of application (`{}`) since no such application exists",id);
+                throw new ApplicationNotFoundException("No such application");
+            }
+            return current.get().getVersionNumber();
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to find version of application (`{}`) due to a database error : (`{}`)",id,e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
+
     /**
      * Retrieves an application by its ID.
+     * The application is loaded using 3 queries, see LoadApplicationCollections
      *
      * @param id the ID of the application to retrieve
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
@@ -71,8 +625,9 @@ public class ReviewService {
      */
     public ApplicationDTO GetApplicationsById(Integer id) throws CustomDatabaseException {
         try {
-            Optional<Application> result = applicationRepository.findById(id);
+            Optional<Application> result = applicationRepository.findWithApplicantByApplicationId(id);
             Application resultValue = result.get();
+            LoadApplicationCollections(List.of(resultValue));
             return resultValue;
         }
         catch(DataAccessException e)
@@ -90,14 +645,18 @@ public class ReviewService {
 
     /**
      * Returns a list of all applications matching the specified application status
+     * The applications are loaded using 3 queries per FETCH_PLAN_BATCH_SIZE applications, see LoadApplicationCollections
      * @param status the application status to find a match for
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
      * @return a list of applications matching the status
      */
+    @Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW)
     public List<? extends ApplicationDTO> GetApplicationsByStatus(ApplicationStatus status)
       throws CustomDatabaseException {
         try {
-            return applicationRepository.findAllByApplicationStatus(status);
+            List<Application> applications=applicationRepository.findWithApplicantByApplicationStatusOrderByApplicationIdAsc(status);
+            LoadApplicationCollections(applications);
+            return applications;
         }
         catch(DataAccessException e)
         {
@@ -107,50 +666,110 @@ public class ReviewService {
     }
 
     /**
-     * This function first checks if an application exists with a specific id, and then confirms the application has the correct version number, if so it updates the applicaton status to the specified value and then returns the updated application 
+     * This function updates the applicaton status to the specified value, if the application has the correct version number and the status is changed, and then returns the new status and version number.
+     * The check and the update is performed by a single update statement, the application is only read if the update fails, to find the reason why it failed
      * @param applicationID The id for the application to update
      * @param newStatus The new application status for the application
      * @param currentVersionNumber The version number of the application
      * @throws ApplicationNotFoundException this is thrown if a matching application can not be found, either due to incorrect id or the version number not being consistent with the application
      * @throws ApplicationNotUpdatedException this is thrown if the application could not be updated due to some business logic, ex new status is the same as existing status
      * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
-     * @return The updated application
+     * @return The id, new status and new version number of the updated application
      */
-    public ApplicationDTO SetApplicationStatus(Integer applicationID,ApplicationStatus newStatus,Integer currentVersionNumber)
+    public ApplicationStatusChange SetApplicationStatus(Integer applicationID,ApplicationStatus newStatus,Integer currentVersionNumber)
      throws ApplicationNotFoundException, ApplicationNotUpdatedException, CustomDatabaseException{
         try {
-            Optional<Application> applicationToUpdateContainer=applicationRepository.findById(applicationID);
+            int updated=applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(applicationID, newStatus, currentVersionNumber);
+            if (updated==1) {
+                LOGGER.info("Updated application (`{}`) to status (`{}`)",applicationID,newStatus);
+                eventPublisher.publishEvent(new ApplicationStatusChangedEvent(applicationID, newStatus, currentVersionNumber+1L));
+                return new ApplicationStatusChange(applicationID, newStatus, currentVersionNumber+1L);
+            }
+
+            //If no application was updated, we find the current state of the application to determine why
+            Optional<ApplicationStatusChange> currentStateContainer=applicationRepository.findStatusByApplicationId(applicationID);
             //This check is for if an application with this id existed or not, if not we throw a specific exception here
-            if (applicationToUpdateContainer.isEmpty()) {
+            if (currentStateContainer.isEmpty()) {
                 LOGGER.error("Failed to update application due to no application existing with specified application id (`{}`)",applicationID);
                 throw new ApplicationNotFoundException("No application with id : \""+applicationID+"\" found");
             }
-            Application applicationToUpdate=applicationToUpdateContainer.get();
+            ApplicationStatusChange currentState=currentStateContainer.get();
 
             //This check is for if the version number of the reviewed version is the same as the current value, if not we throw a specific exception here
-            if (applicationToUpdate.getVersionNumber()!=currentVersionNumber) {
-                LOGGER.error("Failed to update application (`{}`) due to version number being incorret, specified (`{}`) but correct is (`{}`)",applicationID,currentVersionNumber,applicationToUpdate.getVersionNumber());
+            if (currentState.getVersionNumber()!=currentVersionNumber) {
+                LOGGER.error("Failed to update application (`{}`) due to version number being incorret, specified (`{}`) but correct is (`{}`)",applicationID,currentVersionNumber,currentState.getVersionNumber());
                 throw new ApplicationNotFoundException("Unable to update application since someone else updated it since you last retrived it");
             }
 
-            if (applicationToUpdate.getApplicationStatus()==newStatus) {
-                LOGGER.error("Failed to update application since new status is identical to old status");
-                throw new ApplicationNotUpdatedException("application status is already "+newStatus);
-            }
+            LOGGER.error("Failed to update application since new status is identical to old status");
+            throw new ApplicationNotUpdatedException("application status is already "+newStatus);
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to update application (`{}`) to (`{}`) due to a database error : (`{}`)",applicationID,newStatus.toString(),e.getMessage());
+            throw new CustomDatabaseException();
+        }
 
-            applicationToUpdate.setApplicationStatus(newStatus);
-            applicationRepository.save(applicationToUpdate);
+    }
 
-            LOGGER.info("Updated application (`{}`) to status (`{}`)",applicationID,newStatus);
+    /**
+     * This function performs a list of status updates in a single transaction, where each update has the same conditions as SetApplicationStatus.
+     * The updates are sent to the database as batched update statements, and the current state of the applications which could not be updated is then found using a single query.
+     * Unlike SetApplicationStatus a failed update does not throw an exception, instead it is reported in the result for that update
+     * @param changes the updates to perform, each containing the application id, the new status and the version number of the application which was reviewed
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason, in which case no update is performed
+     * @return the result of each update, in the same order as the changes
+     */
+    public List<ApplicationStatusUpdateResult> SetApplicationStatuses(List<ApplicationStatusChange> changes)
+     throws CustomDatabaseException{
+        try {
+            int[] updated=applicationRepository.updateApplicationStatusesByApplicationIdAndVersionNumber(changes);
 
-            return applicationToUpdate;
+            //We find the current state of every application which was not updated, to determine why
+            List<Integer> failedApplicationIds=new ArrayList<Integer>();
+            for (int i = 0; i < changes.size(); i++) {
+                if (updated[i]!=1) {
+                    failedApplicationIds.add(changes.get(i).getApplicationId());
+                }
+            }
+            Map<Integer,ApplicationStatusChange> currentStates=new HashMap<Integer,ApplicationStatusChange>();
+            if (!failedApplicationIds.isEmpty()) {
+                for (ApplicationStatusChange currentState : applicationRepository.findStatusByApplicationIdIn(failedApplicationIds)) {
+                    currentStates.put(currentState.getApplicationId(), currentState);
+                }
+            }
+
+            List<ApplicationStatusUpdateResult> results=new ArrayList<ApplicationStatusUpdateResult>(changes.size());
+            int applied=0;
+            for (int i = 0; i < changes.size(); i++) {
+                ApplicationStatusChange change=changes.get(i);
+                if (updated[i]==1) {
+                    results.add(new ApplicationStatusUpdateResult(change.getApplicationId(), change.getApplicationStatus(), change.getVersionNumber()+1, ApplicationStatusUpdateOutcome.applied, null));
+                    eventPublisher.publishEvent(new ApplicationStatusChangedEvent(change.getApplicationId(), change.getApplicationStatus(), change.getVersionNumber()+1));
+                    applied++;
+                    continue;
+                }
+
+                //The checks below are performed in the same order as in SetApplicationStatus, and use the same messages
+                ApplicationStatusChange currentState=currentStates.get(change.getApplicationId());
+                if (currentState==null) {
+                    results.add(new ApplicationStatusUpdateResult(change.getApplicationId(), null, null, ApplicationStatusUpdateOutcome.not_found, "No application with id : \""+change.getApplicationId()+"\" found"));
+                }
+                else if (currentState.getVersionNumber()!=change.getVersionNumber()) {
+                    results.add(new ApplicationStatusUpdateResult(change.getApplicationId(), currentState.getApplicationStatus(), currentState.getVersionNumber(), ApplicationStatusUpdateOutcome.version_conflict, "Unable to update application since someone else updated it since you last retrived it"));
+                }
+                else {
+                    results.add(new ApplicationStatusUpdateResult(change.getApplicationId(), currentState.getApplicationStatus(), currentState.getVersionNumber(), ApplicationStatusUpdateOutcome.unchanged, "application status is already "+change.getApplicationStatus()));
+                }
+            }
 
+            LOGGER.info("Updated the status of (`{}`) out of (`{}`) applications",applied,changes.size());
+            return results;
         }
         catch(DataAccessException e)
         {
-            LOGGER.error("Failed to update application (`{}`) to (`{}`) due to a database error : (`{}`)",applicationID,newStatus.toString(),e.getMessage());
+            LOGGER.error("Failed to update the status of (`{}`) applications due to a database error : (`{}`)",changes.size(),e.getMessage());
             throw new CustomDatabaseException();
         }
-
     }
 }
@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedToken;
+import com.example.demo.domain.event.TokensRevokedEvent;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+
+@Service
+/**
+ * The TokenRevocationService class decides if a self-contained token has been revoked, which is the case if the token version of the person has been increased since the token was issued.
+ * The new token version is remembered in memory for JwtService.TOKEN_VALIDITY after each TokensRevokedEvent, since every token issued before that has expired by then,
+ * so checking a token does not require any database queries.
+ * Tokens issued before the revocations were tracked, which is before the application started or before a revocation was forgotten since more than MAX_REVOCATIONS were remembered,
+ * are instead compared to the current token version using the UserDetailsCache.
+ * Note that TokensRevokedEvent is only published on the instance which made the change, so when several instances share the database,
+ * a token revoked on another instance is still accepted here until it expires, which is at most JwtService.TOKEN_VALIDITY after it was issued
+ */
+public class TokenRevocationService {
+    //The maximum number of remembered revocations
+    static final int MAX_REVOCATIONS = 10000;
+
+    private final UserDetailsCache userDetailsCache;
+    private final int maxRevocations;
+    private final long revocationTtlMillis;
+    private final LongSupplier clock;
+
+    //The remembered revocations by person id in insertion order, which is also expiry order since every revocation is remembered for the same duration
+    private final LinkedHashMap<Integer, Revocation> revocations = new LinkedHashMap<Integer, Revocation>();
+
+    //Tokens issued before this time may have been revoked without the revocation being remembered
+    private long untrackedBefore;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationService.class.getName());
+
+    /**
+     * Constructs a new instance of the TokenRevocationService (Spring boot managed).
+     *
+     * @param userDetailsCache the cache used to retrive the current token version of people whose revocations may not be remembered
+     */
+    public TokenRevocationService(UserDetailsCache userDetailsCache) {
+        this(userDetailsCache, MAX_REVOCATIONS, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a new instance of the TokenRevocationService with a specific size and clock, this is used for testing
+     *
+     * @param userDetailsCache the cache used to retrive the current token version of people whose revocations may not be remembered
+     * @param maxRevocations the maximum number of remembered revocations
+     * @param clock the clock used to expire revocations, in milliseconds
+     */
+    TokenRevocationService(UserDetailsCache userDetailsCache, int maxRevocations, LongSupplier clock) {
+        this.userDetailsCache = userDetailsCache;
+        this.maxRevocations = maxRevocations;
+        this.revocationTtlMillis = JwtService.TOKEN_VALIDITY.toMillis();
+        this.clock = clock;
+        this.untrackedBefore = clock.getAsLong();
+    }
+
+    /**
+     * This function checks if a self-contained token has been revoked
+     *
+     * @param token the verified claims of the self-contained token
+     * @throws CustomDatabaseException this is thrown if the token was issued before revocations were tracked, and the person could not be retrived due to a database error
+     * @return true if the token has been revoked, false otherwise
+     */
+    public boolean IsRevoked(VerifiedToken token) throws CustomDatabaseException {
+        synchronized (revocations) {
+            RemoveExpired();
+            Revocation revocation = revocations.get(token.getPersonId());
+            if (revocation!=null && token.getTokenVersion()<revocation.tokenVersion) {
+                return true;
+            }
+            if (token.getIssuedAt().getTime()>=untrackedBefore) {
+                return false;
+            }
+        }
+
+        try {
+            PersonDetails current = userDetailsCache.LoadUser(token.getSubject());
+            return !current.getPersonId().equals(token.getPersonId()) || current.getTokenVersion()!=token.getTokenVersion();
+        } catch (UsernameNotFoundException e) {
+            //The username of the person has changed since the token was issued, which only happens when the password is reset
+            return true;
+        }
+    }
+
+    /**
+     * This remembers the new token version once the change to it has been committed, or immediately if the change was not made in a transaction
+     * @param event the event published when the token version was increased
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void OnTokensRevoked(TokensRevokedEvent event) {
+        synchronized (revocations) {
+            RemoveExpired();
+            long now = clock.getAsLong();
+            revocations.remove(event.getPersonId());
+            if (revocations.size()>=maxRevocations) {
+                //Tokens issued before the forgotten revocation can no longer be checked in memory
+                Iterator<Map.Entry<Integer, Revocation>> eldest = revocations.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                untrackedBefore = now;
+                LOGGER.error("Forgot a token revocation since more than (`{}`) revocations are remembered, older tokens will be checked using the database", maxRevocations);
+            }
+            revocations.put(event.getPersonId(), new Revocation(event.getTokenVersion(), now+revocationTtlMillis));
+        }
+        LOGGER.info("Revoked every token with a version older than (`{}`) for person (`{}`)", event.getTokenVersion(), event.getPersonId());
+    }
+
+    /**
+     * This returns the current number of remembered revocations, including expired revocations which have not yet been removed
+     * @return the number of remembered revocations
+     */
+    int GetRevocationCount() {
+        synchronized (revocations) {
+            return revocations.size();
+        }
+    }
+
+    /**
+     * This removes every expired revocation, which must be done while holding the lock on revocations
+     */
+    private void RemoveExpired() {
+        long now = clock.getAsLong();
+        Iterator<Revocation> iterator = revocations.values().iterator();
+        while (iterator.hasNext() && iterator.next().expiresAt<=now) {
+            iterator.remove();
+        }
+    }
+
+    /**
+     * This represents the new token version of a single person, along with the time it is forgotten
+     */
+    private static final class Revocation {
+        private final int tokenVersion;
+        private final long expiresAt;
+
+        /**
+         * This is a complete constructor for Revocation
+         * @param tokenVersion the new token version, where every token with an older version is revoked
+         * @param expiresAt the time at which the revocation is forgotten, in milliseconds
+         */
+        private Revocation(int tokenVersion, long expiresAt) {
+            this.tokenVersion = tokenVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
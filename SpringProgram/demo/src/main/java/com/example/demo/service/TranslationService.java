@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
 
+import com.example.demo.domain.TranslationCatalogRevision;
 import com.example.demo.domain.dto.CompetenceDTO;
 import com.example.demo.domain.dto.CompetenceTranslationDTO;
 import com.example.demo.domain.dto.LanguageDTO;
@@ -25,16 +26,24 @@ import com.example.demo.repository.CompetenceTranslationRepository;
 import com.example.demo.repository.LanguageRepository;
 
 @Service
-@Transactional(rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW) 
+@Transactional(readOnly = true, rollbackFor = Exception.class, propagation = Propagation.REQUIRES_NEW) 
 /**
  * The TranslationService class provides services for endpoints, specifically regarding handling translation (and internationalization)
  * It uses explicit transaction annotation to ensure a rollback occurs whenever an unchecked exception is thrown.
+ * Every function only reads the translation catalog, so they are all read-only and use the replica database if one is specified
  */
 public class TranslationService {
     private final CompetenceRepository competenceRepository;
     private final LanguageRepository languageRepository;
     private final CompetenceTranslationRepository competenceTranslationRepository;
 
+    //The time for which the catalog revision is reused before it is retrived again, which is also the longest time a change to the catalog can go unnoticed
+    static final long CATALOG_REVISION_TTL_MS = 60*1000L;
+
+    //The most recently retrived catalog revision, and the time (from System.nanoTime) after which it must be retrived again
+    private volatile TranslationCatalogRevision catalogRevision;
+    private volatile long catalogRevisionExpiresAt;
+
     //We create a logger
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationService.class.getName()); 
 
@@ -158,4 +167,28 @@ public class TranslationService {
             throw new CustomDatabaseException();
         }
     }
+
+    /**
+     * Returns the current revision of the translation catalog, which changes whenever a language or competence translation is changed.
+     * The revision is a hash of every language and translation row, which are retrived as strings without loading any entities, and is then reused for CATALOG_REVISION_TTL_MS since the catalog almost never changes
+     * @throws CustomDatabaseException this is thrown if any of the jpa methods fail for some reason
+     * @return The current revision of the translation catalog, as a string
+     */
+    public String GetCatalogRevision() throws CustomDatabaseException {
+        TranslationCatalogRevision revision=catalogRevision;
+        if (revision!=null && System.nanoTime()-catalogRevisionExpiresAt<0) {
+            return revision.getTag();
+        }
+        try {
+            revision=new TranslationCatalogRevision(competenceTranslationRepository.findCatalogTranslationRows(), languageRepository.findCatalogLanguageRows());
+            catalogRevisionExpiresAt=System.nanoTime()+CATALOG_REVISION_TTL_MS*1000000L;
+            catalogRevision=revision;
+            return revision.getTag();
+        }
+        catch(DataAccessException e)
+        {
+            LOGGER.error("Failed to retrive the translation catalog revision due to a database error : (`{}`)",e.getMessage());
+            throw new CustomDatabaseException();
+        }
+    }
 }
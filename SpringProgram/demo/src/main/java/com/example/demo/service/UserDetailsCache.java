@@ -0,0 +1,212 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.event.PersonChangedEvent;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.repository.PersonRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Service
+/**
+ * The UserDetailsCache class remembers immutable snapshots of the id, username, role and token version of recently authenticated users,
+ * so a request with a JWT token can be authenticated without any database queries as long as its user is cached.
+ * A snapshot is remembered for USER_TTL, and at most MAX_USERS snapshots are remembered at once, where the least recently used snapshot is forgotten first.
+ * A snapshot is forgotten as soon as a PersonChangedEvent for its username is committed, and the number of hits and misses is published as the metric "auth.user.cache.requests".
+ * Note that logging in still uses PersonService.loadUserByUsername, since the password is needed and should not be cached.
+ * Note also that PersonChangedEvent is only published on the instance which made the change, so when several instances share the database,
+ * the other instances keep using their snapshot of the user until it expires, which is at most USER_TTL after the change
+ */
+public class UserDetailsCache {
+    //The maximum number of remembered users
+    static final int MAX_USERS = 10000;
+
+    //How long a user is remembered, which is the longest time a change made outside of PersonService, or by another instance, can take to be noticed
+    static final Duration USER_TTL = Duration.ofMinutes(5);
+
+    private final PersonRepository personRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //The remembered users in access order, so the least recently used user is forgotten first
+    private final LinkedHashMap<String, Entry> entries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    //This is increased every time a user is forgotten, so a user loaded before the change was committed is not remembered after it
+    private long invalidations = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserDetailsCache.class.getName());
+
+    /**
+     * Constructs a new instance of the UserDetailsCache (Spring boot managed).
+     *
+     * @param personRepository the repository used to retrive users which are not cached
+     * @param transactionManager the transaction manager used to create the transactions users are retrived in
+     * @param meterRegistry the registry the hit and miss counts are published to
+     */
+    public UserDetailsCache(PersonRepository personRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this(personRepository, transactionManager, meterRegistry, MAX_USERS, USER_TTL, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new instance of the UserDetailsCache with a specific size, duration and clock, this is used for testing
+     *
+     * @param personRepository the repository used to retrive users which are not cached
+     * @param transactionManager the transaction manager used to create the transactions users are retrived in
+     * @param meterRegistry the registry the hit and miss counts are published to
+     * @param maxUsers the maximum number of remembered users
+     * @param ttl how long a user is remembered
+     * @param nanoClock the clock used to expire users, in nanoseconds
+     */
+    UserDetailsCache(PersonRepository personRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, int maxUsers, Duration ttl, LongSupplier nanoClock) {
+        this.personRepository = personRepository;
+        //Note that the transaction is not read-only, so users are always retrived from the primary database and a change can not be undone by an outdated replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size()>maxUsers;
+            }
+        };
+
+        this.hits = Counter.builder("auth.user.cache.requests").tag("result", "hit").description("The number of authenticated requests whose user was cached").register(meterRegistry);
+        this.misses = Counter.builder("auth.user.cache.requests").tag("result", "miss").description("The number of authenticated requests whose user was retrived from the database").register(meterRegistry);
+        Gauge.builder("auth.user.cache.size", this, UserDetailsCache::GetUserCount).description("The number of cached users").register(meterRegistry);
+    }
+
+    /**
+     * This function returns a snapshot of the user with the specified username, which is only retrived from the database if it is not cached
+     *
+     * @param username the username of the user
+     * @throws UsernameNotFoundException this is thrown if no user has that username
+     * @throws CustomDatabaseException this is thrown if the user is not cached and could not be retrived due to a database error
+     * @return a snapshot of the user, which does not contain a password
+     */
+    public PersonDetails LoadUser(String username) throws UsernameNotFoundException, CustomDatabaseException {
+        long invalidationsBeforeLoad;
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry!=null && nanoClock.getAsLong()-entry.expiresAt<0) {
+                hits.increment();
+                return entry.details;
+            }
+            if (entry!=null) {
+                entries.remove(username);
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+        misses.increment();
+
+        Optional<Person> person;
+        try {
+            person = transactionTemplate.execute(status -> personRepository.findByUsername(username));
+        }
+        catch (DataAccessException | TransactionException e) {
+            LOGGER.error("Failed to load a user by username (`{}`) due to a database error : (`{}`)", username, e.getMessage());
+            throw new CustomDatabaseException();
+        }
+        if (person==null || person.isEmpty()) {
+            throw new UsernameNotFoundException("Could not find username: " + username);
+        }
+
+        PersonDetails details = new PersonDetails(person.get().getId(), person.get().getUsername(), person.get().getRole().getName(), person.get().getTokenVersion());
+        synchronized (entries) {
+            if (invalidations==invalidationsBeforeLoad) {
+                entries.put(username, new Entry(details, nanoClock.getAsLong()+ttlNanos));
+            }
+        }
+        return details;
+    }
+
+    /**
+     * This function forgets the cached user with the specified username, if it is cached
+     * @param username the username of the user to forget
+     */
+    public void Invalidate(String username) {
+        synchronized (entries) {
+            invalidations++;
+            entries.remove(username);
+        }
+        LOGGER.info("Removed user (`{}`) from the user details cache", username);
+    }
+
+    /**
+     * This forgets the cached user once the change to it has been committed, or immediately if the change was not made in a transaction
+     * @param event the event published when the person was registered or updated
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void OnPersonChanged(PersonChangedEvent event) {
+        Invalidate(event.getUsername());
+    }
+
+    /**
+     * This returns the number of requests whose user was cached
+     * @return the number of hits
+     */
+    public long GetHitCount() {
+        return (long) hits.count();
+    }
+
+    /**
+     * This returns the number of requests whose user was retrived from the database
+     * @return the number of misses
+     */
+    public long GetMissCount() {
+        return (long) misses.count();
+    }
+
+    /**
+     * This returns the current number of cached users, including expired users which have not yet been removed
+     * @return the number of cached users
+     */
+    public int GetUserCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * This represents a single cached user, along with the time it expires
+     */
+    private static final class Entry {
+        private final PersonDetails details;
+        private final long expiresAt;
+
+        /**
+         * This is a complete constructor for Entry
+         * @param details the snapshot of the user
+         * @param expiresAt the time at which the user is forgotten, in nanoseconds
+         */
+        private Entry(PersonDetails details, long expiresAt) {
+            this.details = details;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
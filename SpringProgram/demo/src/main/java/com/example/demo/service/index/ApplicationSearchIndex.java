@@ -0,0 +1,901 @@
+package com.example.demo.service.index;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.domain.ApplicationRankingQuery;
+import com.example.demo.domain.ApplicationScore;
+import com.example.demo.domain.ApplicationSearchQuery;
+import com.example.demo.domain.ApplicationSearchSort;
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusCounts;
+import com.example.demo.domain.CompetenceRequirement;
+import com.example.demo.domain.dto.ApplicationIndexDTO;
+import com.example.demo.domain.dto.AvailabilityIndexDTO;
+import com.example.demo.domain.dto.CompetenceIndexDTO;
+import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.event.ApplicationStatusChangedEvent;
+import com.example.demo.domain.event.ApplicationSubmittedEvent;
+import com.example.demo.presentation.restException.SearchIndexNotReadyException;
+import com.example.demo.repository.ApplicationRepository;
+
+@Service
+/**
+ * The ApplicationSearchIndex class keeps an in-memory index of every application, which is used to search for applications by status, competence and availability
+ * without querying the database.
+ * For each competence it holds a posting list of the applications which include it, sorted by years of experience, meaning a minimum experience requirement is a prefix of the list.
+ * For each application it holds the status, the years of experience per competence and the merged availability periods, which are used to check the remaining predicates,
+ * and to rank applications against an open position.
+ * It also counts the applications with each status, in total and per day they were submitted, which are changed together with the indexed applications.
+ * The index is built from the database once the application has started, and is then kept in sync using the events published by ApplicationService and ReviewService once their transactions have been committed
+ */
+public class ApplicationSearchIndex {
+    private final ApplicationRepository applicationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //The current contents of the index, which is replaced as a whole when the index is rebuilt
+    private volatile IndexState state = new IndexState();
+
+    //This is false until the index has been built, since searches would otherwise silently miss applications
+    private volatile boolean ready = false;
+
+    //Changes to the index are performed one at a time, while searches do not wait for changes
+    private final Object writeLock = new Object();
+
+    //The number of ranking candidates from which the candidates are scored in parallel, and the number of candidates scored by each task
+    private static final int PARALLEL_RANKING_THRESHOLD = 20000;
+    private static final int RANKING_CHUNK_SIZE = 8192;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationSearchIndex.class.getName());
+
+    /**
+     * Constructs a new instance of the ApplicationSearchIndex (Spring boot managed).
+     *
+     * @param applicationRepository the repository used to retrive the indexed applications
+     * @param transactionManager the transaction manager used to create the transactions the applications are retrived in
+     */
+    public ApplicationSearchIndex(ApplicationRepository applicationRepository, PlatformTransactionManager transactionManager) {
+        this.applicationRepository = applicationRepository;
+        //Note that a transaction template is used instead of annotations, so a failed read can be logged without also failing the caller,
+        //which is either the application startup or a request whose transaction has already been committed
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        //Note that the transaction is not read-only, so applications are always retrived from the primary database,
+        //since a newly committed application may not have reached the replica yet and would then be missing from the index until it is rebuilt
+    }
+
+    /**
+     * This builds the index from every application in the database, and replaces the current contents of the index.
+     * The indexed columns are streamed using 3 queries, without loading any application entities
+     * Changes to the index wait until the rebuild is finished, so no committed change is lost
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void Rebuild() {
+        synchronized (writeLock) {
+            long startTime=System.nanoTime();
+            Map<Integer, IndexedApplicationBuilder> builders;
+            try {
+                builders=transactionTemplate.execute(status -> LoadAllApplications());
+            }
+            catch(DataAccessException | TransactionException e)
+            {
+                LOGGER.error("Failed to build the application search index due to a database error : (`{}`)",e.getMessage());
+                return;
+            }
+
+            IndexState newState=new IndexState();
+            for (IndexedApplicationBuilder builder : builders.values()) {
+                newState.Put(builder.Build());
+            }
+            state=newState;
+            ready=true;
+            LOGGER.info("Built application search index with (`{}`) applications in (`{}`) ms",builders.size(),(System.nanoTime()-startTime)/1000000);
+        }
+    }
+
+    /**
+     * This retrives the indexed columns of every application, this must be called inside a transaction
+     * @return the values of every application, by application id
+     */
+    private Map<Integer, IndexedApplicationBuilder> LoadAllApplications() {
+        Map<Integer, IndexedApplicationBuilder> builders=new HashMap<Integer, IndexedApplicationBuilder>();
+        try (Stream<ApplicationIndexDTO> rows=applicationRepository.streamIndexRows()) {
+            rows.forEach(row -> builders.put(row.getApplicationId(),
+                new IndexedApplicationBuilder(row.getApplicationId(), row.getApplicationStatus(), row.getVersionNumber(), row.getApplicationDate())));
+        }
+        try (Stream<CompetenceIndexDTO> rows=applicationRepository.streamCompetenceIndexRows()) {
+            rows.forEach(row -> {
+                IndexedApplicationBuilder builder=builders.get(row.getApplicationId());
+                if (builder!=null) {
+                    builder.AddCompetence(row.getCompetenceId(), row.getYearsOfExperience());
+                }
+            });
+        }
+        try (Stream<AvailabilityIndexDTO> rows=applicationRepository.streamAvailabilityIndexRows()) {
+            rows.forEach(row -> {
+                IndexedApplicationBuilder builder=builders.get(row.getApplicationId());
+                if (builder!=null) {
+                    builder.AddAvailability(row.getFromDate(), row.getToDate());
+                }
+            });
+        }
+        return builders;
+    }
+
+    /**
+     * This adds a newly submitted application to the index, once the transaction which created it has been committed.
+     * The competence profiles and availability periods of the application are retrived using 2 queries, and the application is ignored if the index already contains the same or a later version of it
+     * @param event the event published when the application was submitted
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void OnApplicationSubmitted(ApplicationSubmittedEvent event) {
+        IndexedApplicationBuilder builder;
+        try {
+            builder=transactionTemplate.execute(status -> LoadApplication(event.getApplicationId()));
+        }
+        catch(DataAccessException | TransactionException e)
+        {
+            LOGGER.error("Failed to add application (`{}`) to the search index due to a database error, it will be missing from searches until the index is rebuilt : (`{}`)",event.getApplicationId(),e.getMessage());
+            return;
+        }
+        if (builder==null) {
+            LOGGER.error("Failed to add application (`{}`) to the search index since it no longer exists",event.getApplicationId());
+            return;
+        }
+
+        synchronized (writeLock) {
+            //The application was loaded without the lock, so a rebuild or status change may already have stored the same or a later version of it
+            IndexedApplication existing=state.applications.get(builder.applicationId);
+            if (existing!=null && existing.versionNumber>=builder.versionNumber) {
+                return;
+            }
+            state.Put(builder.Build());
+        }
+    }
+
+    /**
+     * This retrives the indexed values of a single application, this must be called inside a transaction
+     * @param applicationId the id of the application
+     * @return the values of the application, or null if no such application exists
+     */
+    private IndexedApplicationBuilder LoadApplication(Integer applicationId) {
+        //Note that both queries return the same application object, with one of its collections initialized by each query
+        List<Application> applications=applicationRepository.findWithCompetenceProfilesByApplicationIdIn(List.of(applicationId));
+        applicationRepository.findWithAvailabilityPeriodsByApplicationIdIn(List.of(applicationId));
+        if (applications.isEmpty()) {
+            return null;
+        }
+
+        Application application=applications.get(0);
+        IndexedApplicationBuilder builder=new IndexedApplicationBuilder(application.getApplicationId(), application.getApplicationStatus(), application.getVersionNumber(), application.getApplicationDate());
+        for (CompetenceProfile profile : application.getCompetenceProfilesForApplication()) {
+            builder.AddCompetence(profile.getCompetenceDTO().getCompetenceId(), profile.getYearsOfExperience());
+        }
+        for (Availability availability : application.getAvailabilityPeriodsForApplication()) {
+            builder.AddAvailability(availability.getFromDate(), availability.getToDate());
+        }
+        return builder;
+    }
+
+    /**
+     * This updates the status of an indexed application, once the transaction which changed it has been committed.
+     * The update is ignored if the index already contains the same or a later version of the application
+     * @param event the event published when the application status was changed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void OnApplicationStatusChanged(ApplicationStatusChangedEvent event) {
+        synchronized (writeLock) {
+            IndexedApplication application=state.applications.get(event.getApplicationId());
+            if (application!=null && application.versionNumber<event.getVersionNumber()) {
+                state.counters.Add(application.status, application.applicationDay, -1);
+                state.counters.Add(event.getApplicationStatus(), application.applicationDay, 1);
+                application.status=event.getApplicationStatus();
+                application.versionNumber=event.getVersionNumber();
+            }
+        }
+    }
+
+    /**
+     * This returns the number of applications with each status, which are kept up to date as applications are submitted and reviewed instead of being counted for each request
+     * @throws SearchIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the number of applications with each status
+     */
+    public ApplicationStatusCounts GetStatusCounts() throws SearchIndexNotReadyException {
+        if (!ready) {
+            LOGGER.error("Failed to retrive application status counts since the search index has not been built yet");
+            throw new SearchIndexNotReadyException("the search index is still being built, please try again shortly");
+        }
+        ApplicationStatusCounters counters=state.counters;
+        Map<ApplicationStatus, Long> counts=new EnumMap<ApplicationStatus, Long>(ApplicationStatus.class);
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            counts.put(status, counters.GetTotal(status));
+        }
+        return new ApplicationStatusCounts(null, counts);
+    }
+
+    /**
+     * This returns the number of applications with each status for every day of a period, based on the day the applications were submitted
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @throws SearchIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the number of applications with each status submitted on each day of the period, in date order
+     */
+    public List<ApplicationStatusCounts> GetDailyStatusCounts(LocalDate fromDate, LocalDate toDate) throws SearchIndexNotReadyException {
+        if (!ready) {
+            LOGGER.error("Failed to retrive daily application status counts since the search index has not been built yet");
+            throw new SearchIndexNotReadyException("the search index is still being built, please try again shortly");
+        }
+        ApplicationStatusCounters counters=state.counters;
+        List<ApplicationStatusCounts> days=new ArrayList<ApplicationStatusCounts>();
+        for (long day = fromDate.toEpochDay(); day <= toDate.toEpochDay(); day++) {
+            Map<ApplicationStatus, Long> counts=new EnumMap<ApplicationStatus, Long>(ApplicationStatus.class);
+            for (ApplicationStatus status : ApplicationStatus.values()) {
+                counts.put(status, counters.GetDaily(status, day));
+            }
+            days.add(new ApplicationStatusCounts(LocalDate.ofEpochDay(day), counts));
+        }
+        return days;
+    }
+
+    /**
+     * This returns the number of indexed applications
+     * @return the number of indexed applications
+     */
+    public int GetIndexedApplicationCount() {
+        return state.applications.size();
+    }
+
+    /**
+     * This returns true if the index has been built and can be searched
+     * @return true if the index can be searched, otherwise false
+     */
+    public boolean IsReady() {
+        return ready;
+    }
+
+    /**
+     * This finds the ids of the applications matching a search, in the order specified by the search.
+     * If the search has competence requirements, only the posting list prefix of the most selective requirement is scanned,
+     * otherwise every application is scanned in application id order.
+     * If the scan is already in the requested order the search stops once enough matches are found, otherwise the best matches are kept in a bounded heap
+     *
+     * @param query the search to perform
+     * @param offset the number of matches to skip
+     * @param limit the maximum number of application ids to return
+     * @throws SearchIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the ids of at most limit matching applications, after the first offset matches
+     */
+    public List<Integer> Search(ApplicationSearchQuery query, int offset, int limit) throws SearchIndexNotReadyException {
+        if (!ready) {
+            LOGGER.error("Failed to search applications since the search index has not been built yet");
+            throw new SearchIndexNotReadyException("the search index is still being built, please try again shortly");
+        }
+        if (limit<=0) {
+            return new ArrayList<Integer>();
+        }
+        IndexState current=state;
+        SearchMatcher matcher=new SearchMatcher(query);
+        List<CompetenceRequirement> requirements=matcher.requirements;
+        ApplicationSearchSort sort=query.getSort();
+        if (sort==null || (sort==ApplicationSearchSort.experience && requirements.isEmpty())) {
+            sort=ApplicationSearchSort.applicationId;
+        }
+
+        if (requirements.isEmpty()) {
+            ResultCollector collector=new ResultCollector(sort, offset, limit, sort==ApplicationSearchSort.applicationId);
+            for (IndexedApplication application : current.applications.values()) {
+                if (matcher.Matches(application) && !collector.Add(application)) {
+                    break;
+                }
+            }
+            return collector.Result();
+        }
+
+        //The experience order is the order of the posting list for the first requirement, for any other order we scan the shortest posting list
+        CompetenceRequirement driver=requirements.get(0);
+        if (sort!=ApplicationSearchSort.experience) {
+            for (CompetenceRequirement requirement : requirements) {
+                if (current.PostingCount(requirement.getCompetenceId())<current.PostingCount(driver.getCompetenceId())) {
+                    driver=requirement;
+                }
+            }
+        }
+        PostingList postings=current.postings.get(driver.getCompetenceId());
+        if (postings==null) {
+            return new ArrayList<Integer>();
+        }
+
+        ResultCollector collector=new ResultCollector(sort, offset, limit, sort==ApplicationSearchSort.experience);
+        for (Posting posting : postings.postings.headSet(new Posting(driver.getMinimumYearsOfExperience(), Integer.MAX_VALUE), true)) {
+            IndexedApplication application=current.applications.get(posting.applicationId);
+            if (application!=null && matcher.Matches(application) && !collector.Add(application)) {
+                break;
+            }
+        }
+        return collector.Result();
+    }
+
+    /**
+     * This ranks the applications matching the specification of an open position, and returns the best ones.
+     * The candidates are the posting list prefix of the most selective competence requirement, which are then scored using the other requirements and the availability.
+     * The best candidates are kept in a bounded heap where the worst candidate is removed first, so only limit candidates are kept regardless of the number of candidates.
+     * If there are more than PARALLEL_RANKING_THRESHOLD candidates, they are split into chunks of RANKING_CHUNK_SIZE which are scored in parallel, each into its own heap,
+     * after which the heaps are merged
+     *
+     * @param query the specification of the position
+     * @param limit the maximum number of applications to return
+     * @throws SearchIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the scores of at most limit applications, best score first
+     */
+    public List<ApplicationScore> Rank(ApplicationRankingQuery query, int limit) throws SearchIndexNotReadyException {
+        if (!ready) {
+            LOGGER.error("Failed to rank applications since the search index has not been built yet");
+            throw new SearchIndexNotReadyException("the search index is still being built, please try again shortly");
+        }
+        List<CompetenceRequirement> requirements=query.getCompetenceRequirements();
+        if (limit<=0 || requirements==null || requirements.isEmpty()) {
+            return new ArrayList<ApplicationScore>();
+        }
+        IndexState current=state;
+
+        CompetenceRequirement driver=requirements.get(0);
+        for (CompetenceRequirement requirement : requirements) {
+            if (current.PostingCount(requirement.getCompetenceId())<current.PostingCount(driver.getCompetenceId())) {
+                driver=requirement;
+            }
+        }
+        PostingList postings=current.postings.get(driver.getCompetenceId());
+        if (postings==null) {
+            return new ArrayList<ApplicationScore>();
+        }
+        List<IndexedApplication> candidates=new ArrayList<IndexedApplication>();
+        for (Posting posting : postings.postings.headSet(new Posting(driver.getMinimumYearsOfExperience(), Integer.MAX_VALUE), true)) {
+            IndexedApplication application=current.applications.get(posting.applicationId);
+            if (application!=null) {
+                candidates.add(application);
+            }
+        }
+
+        ApplicationScorer scorer=new ApplicationScorer(query);
+        TopScores best;
+        if (candidates.size()<PARALLEL_RANKING_THRESHOLD) {
+            best=scorer.ScoreAll(candidates, 0, candidates.size(), limit);
+        }
+        else {
+            int chunks=(candidates.size()+RANKING_CHUNK_SIZE-1)/RANKING_CHUNK_SIZE;
+            best=IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scorer.ScoreAll(candidates, chunk*RANKING_CHUNK_SIZE, Math.min((chunk+1)*RANKING_CHUNK_SIZE, candidates.size()), limit))
+                .reduce(TopScores::Merge).get();
+        }
+        return best.Result();
+    }
+
+    /**
+     * This represents the contents of the index
+     */
+    private static final class IndexState {
+        //The indexed applications, ordered by application id
+        private final ConcurrentSkipListMap<Integer, IndexedApplication> applications = new ConcurrentSkipListMap<Integer, IndexedApplication>();
+
+        //The posting list for each competence
+        private final ConcurrentHashMap<Integer, PostingList> postings = new ConcurrentHashMap<Integer, PostingList>();
+
+        //The number of indexed applications with each status, which are changed together with the indexed applications
+        private final ApplicationStatusCounters counters = new ApplicationStatusCounters();
+
+        /**
+         * This adds an application to the index, replacing any earlier version of the application
+         * Note that this must only be called while holding the write lock
+         * @param application the application to add
+         */
+        private void Put(IndexedApplication application) {
+            IndexedApplication previous=applications.put(application.applicationId, application);
+            if (previous!=null) {
+                counters.Add(previous.status, previous.applicationDay, -1);
+                for (int i = 0; i < previous.competenceIds.length; i++) {
+                    postings.get(previous.competenceIds[i]).Remove(new Posting(previous.yearsOfExperience[i], previous.applicationId));
+                }
+            }
+            counters.Add(application.status, application.applicationDay, 1);
+            for (int i = 0; i < application.competenceIds.length; i++) {
+                postings.computeIfAbsent(application.competenceIds[i], id -> new PostingList()).Add(new Posting(application.yearsOfExperience[i], application.applicationId));
+            }
+        }
+
+        /**
+         * This returns the number of applications which include a specific competence
+         * @param competenceId the id of the competence
+         * @return the number of applications including the competence
+         */
+        private int PostingCount(Integer competenceId) {
+            PostingList list=postings.get(competenceId);
+            return list==null ? 0 : list.size.get();
+        }
+    }
+
+    /**
+     * This represents the applications which include a specific competence, sorted by most years of experience first.
+     * The size is kept separately, since counting the elements of a skip list requires traversing it
+     */
+    private static final class PostingList {
+        private final ConcurrentSkipListSet<Posting> postings = new ConcurrentSkipListSet<Posting>(Posting.ORDER);
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * This adds a posting to the list
+         * @param posting the posting to add
+         */
+        private void Add(Posting posting) {
+            if (postings.add(posting)) {
+                size.incrementAndGet();
+            }
+        }
+
+        /**
+         * This removes a posting from the list
+         * @param posting the posting to remove
+         */
+        private void Remove(Posting posting) {
+            if (postings.remove(posting)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * This represents a single application in a posting list, along with its years of experience in the competence
+     */
+    private static final class Posting {
+        //Postings are ordered by most years of experience first, and then by application id
+        private static final Comparator<Posting> ORDER = Comparator.comparingDouble((Posting p) -> p.yearsOfExperience).reversed().thenComparingInt(p -> p.applicationId);
+
+        private final double yearsOfExperience;
+        private final int applicationId;
+
+        /**
+         * This is a complete constructor for Posting
+         * @param yearsOfExperience the years of experience in the competence
+         * @param applicationId the id of the application
+         */
+        private Posting(double yearsOfExperience, int applicationId) {
+            this.yearsOfExperience = yearsOfExperience;
+            this.applicationId = applicationId;
+        }
+    }
+
+    /**
+     * This represents a single indexed application.
+     * The competences are sorted by id, and the availability periods are merged and stored as pairs of epoch days
+     */
+    private static final class IndexedApplication {
+        private final int applicationId;
+        private final long applicationDay;
+        private final int[] competenceIds;
+        private final double[] yearsOfExperience;
+        private final long[] availability;
+
+        //The status is changed in place when a status change event is received
+        private volatile ApplicationStatus status;
+        private volatile long versionNumber;
+
+        /**
+         * This is a complete constructor for IndexedApplication
+         * @param applicationId the id of the application
+         * @param status the status of the application
+         * @param versionNumber the version number of the application
+         * @param applicationDay the epoch day the application was submitted
+         * @param competenceIds the ids of the included competences, in ascending order
+         * @param yearsOfExperience the years of experience for each competence
+         * @param availability the merged availability periods, as pairs of first and last epoch day in ascending order
+         */
+        private IndexedApplication(int applicationId, ApplicationStatus status, long versionNumber, long applicationDay, int[] competenceIds, double[] yearsOfExperience, long[] availability) {
+            this.applicationId = applicationId;
+            this.status = status;
+            this.versionNumber = versionNumber;
+            this.applicationDay = applicationDay;
+            this.competenceIds = competenceIds;
+            this.yearsOfExperience = yearsOfExperience;
+            this.availability = availability;
+        }
+
+        /**
+         * This returns the years of experience in a specific competence
+         * @param competenceId the id of the competence
+         * @return the years of experience, or -1 if the competence is not included in the application
+         */
+        private double YearsOfExperience(int competenceId) {
+            int index=Arrays.binarySearch(competenceIds, competenceId);
+            return index<0 ? -1 : yearsOfExperience[index];
+        }
+
+        /**
+         * This checks if the applicant is available for every day of a period
+         * @param fromDay the first epoch day of the period
+         * @param toDay the last epoch day of the period
+         * @return true if a single merged availability period covers the whole period, otherwise false
+         */
+        private boolean IsAvailable(long fromDay, long toDay) {
+            //We find the last period starting on or before the first day, which is the only period which can cover the whole period since they are merged
+            int low=0;
+            int high=availability.length/2-1;
+            int found=-1;
+            while (low<=high) {
+                int middle=(low+high)>>>1;
+                if (availability[middle*2]<=fromDay) {
+                    found=middle;
+                    low=middle+1;
+                }
+                else {
+                    high=middle-1;
+                }
+            }
+            return found>=0 && availability[found*2+1]>=toDay;
+        }
+
+        /**
+         * This counts the days of a period the applicant is available for
+         * @param fromDay the first epoch day of the period
+         * @param toDay the last epoch day of the period
+         * @return the number of days of the period covered by the merged availability periods
+         */
+        private long CoveredDays(long fromDay, long toDay) {
+            //We find the first period ending on or after the first day, since every earlier period ends before the period
+            int low=0;
+            int high=availability.length/2;
+            while (low<high) {
+                int middle=(low+high)>>>1;
+                if (availability[middle*2+1]<fromDay) {
+                    low=middle+1;
+                }
+                else {
+                    high=middle;
+                }
+            }
+            long covered=0;
+            for (int i = low; i < availability.length/2 && availability[i*2]<=toDay; i++) {
+                covered+=Math.min(availability[i*2+1], toDay)-Math.max(availability[i*2], fromDay)+1;
+            }
+            return covered;
+        }
+    }
+
+    /**
+     * This is used to collect the values of an application before it is added to the index
+     */
+    private static final class IndexedApplicationBuilder {
+        private final int applicationId;
+        private final ApplicationStatus status;
+        private final long versionNumber;
+        private final long applicationDay;
+        private final Map<Integer, Double> competences = new HashMap<Integer, Double>();
+        private final List<long[]> periods = new ArrayList<long[]>();
+
+        /**
+         * This is a complete constructor for IndexedApplicationBuilder
+         * @param applicationId the id of the application
+         * @param status the status of the application
+         * @param versionNumber the version number of the application
+         * @param applicationDate the date the application was submitted
+         */
+        private IndexedApplicationBuilder(Integer applicationId, ApplicationStatus status, long versionNumber, Date applicationDate) {
+            this.applicationId = applicationId;
+            this.status = status;
+            this.versionNumber = versionNumber;
+            this.applicationDay = applicationDate==null ? 0 : applicationDate.toLocalDate().toEpochDay();
+        }
+
+        /**
+         * This adds a competence, if the competence is added more than once the most years of experience is used
+         * @param competenceId the id of the competence
+         * @param yearsOfExperience the years of experience in the competence
+         */
+        private void AddCompetence(Integer competenceId, Double yearsOfExperience) {
+            competences.merge(competenceId, yearsOfExperience==null ? 0.0 : yearsOfExperience, Math::max);
+        }
+
+        /**
+         * This adds an availability period
+         * @param fromDate the first day of the period
+         * @param toDate the last day of the period
+         */
+        private void AddAvailability(Date fromDate, Date toDate) {
+            periods.add(new long[] {fromDate.toLocalDate().toEpochDay(), toDate.toLocalDate().toEpochDay()});
+        }
+
+        /**
+         * This creates the indexed application, where overlapping or adjacent availability periods are merged into one period
+         * @return the indexed application
+         */
+        private IndexedApplication Build() {
+            int[] competenceIds=competences.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            double[] yearsOfExperience=new double[competenceIds.length];
+            for (int i = 0; i < competenceIds.length; i++) {
+                yearsOfExperience[i]=competences.get(competenceIds[i]);
+            }
+
+            periods.sort(Comparator.comparingLong(period -> period[0]));
+            List<long[]> merged=new ArrayList<long[]>();
+            for (long[] period : periods) {
+                long[] last=merged.isEmpty() ? null : merged.get(merged.size()-1);
+                if (last!=null && period[0]<=last[1]+1) {
+                    last[1]=Math.max(last[1], period[1]);
+                }
+                else {
+                    merged.add(new long[] {period[0], period[1]});
+                }
+            }
+            long[] availability=new long[merged.size()*2];
+            for (int i = 0; i < merged.size(); i++) {
+                availability[i*2]=merged.get(i)[0];
+                availability[i*2+1]=merged.get(i)[1];
+            }
+
+            return new IndexedApplication(applicationId, status, versionNumber, applicationDay, competenceIds, yearsOfExperience, availability);
+        }
+    }
+
+    /**
+     * This checks if an indexed application matches every predicate of a search
+     */
+    private static final class SearchMatcher {
+        private final ApplicationStatus status;
+        private final List<CompetenceRequirement> requirements;
+        private final boolean checkAvailability;
+        private final long fromDay;
+        private final long toDay;
+
+        /**
+         * This creates the matcher for a search
+         * @param query the search
+         */
+        private SearchMatcher(ApplicationSearchQuery query) {
+            this.status = query.getStatus();
+            this.requirements = query.getCompetenceRequirements()==null ? List.of() : query.getCompetenceRequirements();
+            this.checkAvailability = query.getAvailableFrom()!=null && query.getAvailableTo()!=null;
+            this.fromDay = checkAvailability ? query.getAvailableFrom().toEpochDay() : 0;
+            this.toDay = checkAvailability ? query.getAvailableTo().toEpochDay() : 0;
+        }
+
+        /**
+         * This checks if an application matches the search
+         * @param application the application to check
+         * @return true if every predicate matches, otherwise false
+         */
+        private boolean Matches(IndexedApplication application) {
+            if (status!=null && application.status!=status) {
+                return false;
+            }
+            for (CompetenceRequirement requirement : requirements) {
+                if (application.YearsOfExperience(requirement.getCompetenceId())<requirement.getMinimumYearsOfExperience()) {
+                    return false;
+                }
+            }
+            return !checkAvailability || application.IsAvailable(fromDay, toDay);
+        }
+    }
+
+    /**
+     * This collects the matching applications for one page of a search.
+     * If the matches are added in the requested order the collector is full once offset+limit matches have been added,
+     * otherwise the best offset+limit matches are kept in a heap where the worst match is removed first
+     */
+    private static final class ResultCollector {
+        private final int offset;
+        private final int limit;
+        private final boolean inOrder;
+        private final Comparator<IndexedApplication> order;
+        private final List<IndexedApplication> ordered = new ArrayList<IndexedApplication>();
+        private final PriorityQueue<IndexedApplication> heap;
+
+        /**
+         * This creates the collector for one page
+         * @param sort the requested order
+         * @param offset the number of matches to skip
+         * @param limit the maximum number of matches on the page
+         * @param inOrder true if the matches are added in the requested order
+         */
+        private ResultCollector(ApplicationSearchSort sort, int offset, int limit, boolean inOrder) {
+            this.offset = offset;
+            this.limit = limit;
+            this.inOrder = inOrder;
+            this.order = sort==ApplicationSearchSort.applicationDate
+                ? Comparator.comparingLong((IndexedApplication a) -> a.applicationDay).reversed().thenComparingInt(a -> a.applicationId)
+                : Comparator.comparingInt((IndexedApplication a) -> a.applicationId);
+            this.heap = inOrder ? null : new PriorityQueue<IndexedApplication>(order.reversed());
+        }
+
+        /**
+         * This adds a matching application
+         * @param application the matching application
+         * @return false if no further matches are needed, otherwise true
+         */
+        private boolean Add(IndexedApplication application) {
+            if (inOrder) {
+                ordered.add(application);
+                return ordered.size()<offset+limit;
+            }
+            if (heap.size()<offset+limit) {
+                heap.add(application);
+            }
+            else if (order.compare(application, heap.peek())<0) {
+                heap.poll();
+                heap.add(application);
+            }
+            return true;
+        }
+
+        /**
+         * This returns the application ids on the page
+         * @return the ids of at most limit matching applications, after the first offset matches
+         */
+        private List<Integer> Result() {
+            List<IndexedApplication> sorted=ordered;
+            if (!inOrder) {
+                sorted=new ArrayList<IndexedApplication>(heap);
+                sorted.sort(order);
+            }
+            List<Integer> applicationIds=new ArrayList<Integer>();
+            for (int i = offset; i < Math.min(offset+limit, sorted.size()); i++) {
+                applicationIds.add(sorted.get(i).applicationId);
+            }
+            return applicationIds;
+        }
+    }
+
+    /**
+     * This scores applications against the specification of an open position
+     */
+    private static final class ApplicationScorer {
+        private final ApplicationStatus status;
+        private final List<CompetenceRequirement> requirements;
+        private final double totalWeight;
+        private final long fromDay;
+        private final long toDay;
+
+        /**
+         * This creates the scorer for a position
+         * @param query the specification of the position
+         */
+        private ApplicationScorer(ApplicationRankingQuery query) {
+            this.status = query.getStatus();
+            this.requirements = query.getCompetenceRequirements();
+            double weight=0;
+            for (CompetenceRequirement requirement : requirements) {
+                weight+=requirement.getWeight();
+            }
+            this.totalWeight = weight;
+            this.fromDay = query.getAvailableFrom().toEpochDay();
+            this.toDay = query.getAvailableTo().toEpochDay();
+        }
+
+        /**
+         * This scores a range of candidates, and keeps the best ones
+         * @param candidates the candidates
+         * @param first the index of the first candidate to score
+         * @param end the index after the last candidate to score
+         * @param limit the maximum number of scores to keep
+         * @return the best scores in the range
+         */
+        private TopScores ScoreAll(List<IndexedApplication> candidates, int first, int end, int limit) {
+            TopScores best=new TopScores(limit);
+            for (int i = first; i < end; i++) {
+                ApplicationScore score=Score(candidates.get(i));
+                if (score!=null) {
+                    best.Add(score);
+                }
+            }
+            return best;
+        }
+
+        /**
+         * This scores a single candidate
+         * @param application the candidate
+         * @return the score, or null if the candidate does not match the position
+         */
+        private ApplicationScore Score(IndexedApplication application) {
+            if (status!=null && application.status!=status) {
+                return null;
+            }
+            double weightedYears=0;
+            for (CompetenceRequirement requirement : requirements) {
+                double years=application.YearsOfExperience(requirement.getCompetenceId());
+                if (years<requirement.getMinimumYearsOfExperience() || years<0) {
+                    return null;
+                }
+                weightedYears+=requirement.getWeight()*years;
+            }
+            long covered=application.CoveredDays(fromDay, toDay);
+            if (covered==0) {
+                return null;
+            }
+            double experience=weightedYears/totalWeight;
+            double coverage=(double)covered/(toDay-fromDay+1);
+            return new ApplicationScore(application.applicationId, experience*coverage, experience, coverage);
+        }
+    }
+
+    /**
+     * This keeps the best scores added to it, using a heap where the worst kept score is removed first when a better score is added
+     */
+    private static final class TopScores {
+        //Scores are ordered by best score first, and then by application id
+        private static final Comparator<ApplicationScore> BEST_FIRST = Comparator.comparingDouble(ApplicationScore::getScore).reversed().thenComparing(ApplicationScore::getApplicationId);
+
+        private final int limit;
+        private final PriorityQueue<ApplicationScore> heap;
+
+        /**
+         * This creates an empty collection of scores
+         * @param limit the maximum number of scores to keep
+         */
+        private TopScores(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<ApplicationScore>(BEST_FIRST.reversed());
+        }
+
+        /**
+         * This adds a score, which is only kept if it is among the best limit scores added so far
+         * @param score the score to add
+         */
+        private void Add(ApplicationScore score) {
+            if (heap.size()<limit) {
+                heap.add(score);
+            }
+            else if (BEST_FIRST.compare(score, heap.peek())<0) {
+                heap.poll();
+                heap.add(score);
+            }
+        }
+
+        /**
+         * This adds every score kept by another collection to this collection
+         * @param other the other collection
+         * @return this collection
+         */
+        private TopScores Merge(TopScores other) {
+            for (ApplicationScore score : other.heap) {
+                Add(score);
+            }
+            return this;
+        }
+
+        /**
+         * This returns the kept scores
+         * @return the kept scores, best score first
+         */
+        private List<ApplicationScore> Result() {
+            List<ApplicationScore> scores=new ArrayList<ApplicationScore>(heap);
+            scores.sort(BEST_FIRST);
+            return scores;
+        }
+    }
+}
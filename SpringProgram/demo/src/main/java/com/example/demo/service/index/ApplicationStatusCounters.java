@@ -0,0 +1,64 @@
+package com.example.demo.service.index;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.example.demo.domain.ApplicationStatus;
+
+/**
+ * This class holds the number of applications with each status, both in total and per day the applications were submitted.
+ * The counters are changed by the search index whenever it adds an application or changes its status, and can be read at any time without locking,
+ * although a read performed during a status change may count the changed application under both or neither of its statuses
+ */
+final class ApplicationStatusCounters {
+    private static final ApplicationStatus[] STATUSES = ApplicationStatus.values();
+
+    //The number of applications with each status, indexed by the ordinal of the status
+    private final LongAdder[] totals = NewCounters();
+
+    //The number of applications with each status submitted on a specific epoch day, only days with submitted applications are included
+    private final ConcurrentHashMap<Long, LongAdder[]> daily = new ConcurrentHashMap<Long, LongAdder[]>();
+
+    /**
+     * This changes the number of applications with a specific status
+     * @param status the status of the applications
+     * @param applicationDay the epoch day the applications were submitted
+     * @param delta the change in the number of applications, which is negative if applications no longer have the status
+     */
+    void Add(ApplicationStatus status, long applicationDay, long delta) {
+        totals[status.ordinal()].add(delta);
+        daily.computeIfAbsent(applicationDay, day -> NewCounters())[status.ordinal()].add(delta);
+    }
+
+    /**
+     * This returns the number of applications with a specific status
+     * @param status the status of the applications
+     * @return the number of applications with the status
+     */
+    long GetTotal(ApplicationStatus status) {
+        return totals[status.ordinal()].sum();
+    }
+
+    /**
+     * This returns the number of applications with a specific status which were submitted on a specific day
+     * @param status the status of the applications
+     * @param applicationDay the epoch day the applications were submitted
+     * @return the number of applications with the status submitted that day
+     */
+    long GetDaily(ApplicationStatus status, long applicationDay) {
+        LongAdder[] counters=daily.get(applicationDay);
+        return counters==null ? 0 : counters[status.ordinal()].sum();
+    }
+
+    /**
+     * This creates a counter for each status
+     * @return the counters, indexed by the ordinal of the status
+     */
+    private static LongAdder[] NewCounters() {
+        LongAdder[] counters=new LongAdder[STATUSES.length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i]=new LongAdder();
+        }
+        return counters;
+    }
+}
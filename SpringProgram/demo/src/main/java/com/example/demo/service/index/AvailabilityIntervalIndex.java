@@ -0,0 +1,434 @@
+package com.example.demo.service.index;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.domain.AvailableDayCount;
+import com.example.demo.domain.dto.AvailabilityIntervalDTO;
+import com.example.demo.domain.event.AvailabilityCreatedEvent;
+import com.example.demo.presentation.restException.AvailabilityIndexNotReadyException;
+import com.example.demo.repository.AvailabilityRepository;
+
+@Service
+/**
+ * The AvailabilityIntervalIndex class keeps an in-memory interval tree of every availability period, which is used to find who is available during a period
+ * and how many people are available on each day, without scanning the availability table.
+ * The tree is a balanced (AVL) binary search tree ordered by the first day of each period, where every node also holds the latest last day in its subtree.
+ * This allows a query to skip every subtree which ends before the queried period, so finding the k periods overlapping a period takes O(log n + k) steps for typical data
+ * and never more than O(k log n), instead of reading every period.
+ * The tree is built from the database once the application has started, and is then kept up to date using the event published by ApplicationService.CreateAvailability
+ * once its transaction has been committed
+ */
+public class AvailabilityIntervalIndex {
+    private final AvailabilityRepository availabilityRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //Queries may run at the same time, while changes to the tree wait until no query is running
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //The root of the tree, along with the ids of every indexed period which are used to ignore periods which are already indexed
+    private IntervalNode root = null;
+    private final Set<Integer> availabilityIds = new HashSet<Integer>();
+
+    //This is false until the index has been built, since queries would otherwise silently miss periods
+    private volatile boolean ready = false;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AvailabilityIntervalIndex.class.getName());
+
+    /**
+     * Constructs a new instance of the AvailabilityIntervalIndex (Spring boot managed).
+     *
+     * @param availabilityRepository the repository used to retrive the indexed availability periods
+     * @param transactionManager the transaction manager used to create the transaction the periods are retrived in
+     */
+    public AvailabilityIntervalIndex(AvailabilityRepository availabilityRepository, PlatformTransactionManager transactionManager) {
+        this.availabilityRepository = availabilityRepository;
+        //Note that a transaction template is used instead of annotations, so a failed read can be logged without also failing the application startup
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        //Note that the transaction is not read-only, so the periods are always retrived from the primary database, since the replica may be behind it
+    }
+
+    /**
+     * This builds the index from every availability period in the database, and replaces the current contents of the index.
+     * The periods are streamed in start date order using a single query, which allows the balanced tree to be built directly from the sorted periods
+     * New periods wait until the rebuild is finished, so no committed period is lost
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void Rebuild() {
+        lock.writeLock().lock();
+        try {
+            long startTime=System.nanoTime();
+            List<IntervalNode> nodes;
+            try {
+                nodes=transactionTemplate.execute(status -> LoadAllPeriods());
+            }
+            catch(DataAccessException | TransactionException e)
+            {
+                LOGGER.error("Failed to build the availability interval index due to a database error : (`{}`)",e.getMessage());
+                return;
+            }
+
+            availabilityIds.clear();
+            for (IntervalNode node : nodes) {
+                availabilityIds.add(node.availabilityId);
+            }
+            root=BuildBalanced(nodes, 0, nodes.size()-1);
+            ready=true;
+            LOGGER.info("Built availability interval index with (`{}`) availability periods in (`{}`) ms",nodes.size(),(System.nanoTime()-startTime)/1000000);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This retrives every availability period in start date order, this must be called inside a transaction
+     * @return the tree nodes for every period, in the order of the tree
+     */
+    private List<IntervalNode> LoadAllPeriods() {
+        List<IntervalNode> nodes=new ArrayList<IntervalNode>();
+        try (Stream<AvailabilityIntervalDTO> rows=availabilityRepository.streamIntervalRows()) {
+            rows.forEach(row -> nodes.add(new IntervalNode(row.getAvailabilityId(), row.getPersonId(), row.getFromDate(), row.getToDate())));
+        }
+        //The query orders by date, which we sort again by epoch day in case the database and the JVM disagree on time zones
+        nodes.sort(IntervalNode::CompareTo);
+        return nodes;
+    }
+
+    /**
+     * This builds a balanced tree from nodes sorted in tree order
+     * @param nodes the sorted nodes
+     * @param first the index of the first node in the subtree
+     * @param last the index of the last node in the subtree
+     * @return the root of the subtree, or null if it is empty
+     */
+    private static IntervalNode BuildBalanced(List<IntervalNode> nodes, int first, int last) {
+        if (first>last) {
+            return null;
+        }
+        int middle=(first+last)>>>1;
+        IntervalNode node=nodes.get(middle);
+        node.left=BuildBalanced(nodes, first, middle-1);
+        node.right=BuildBalanced(nodes, middle+1, last);
+        node.Update();
+        return node;
+    }
+
+    /**
+     * This adds a newly created availability period to the index, once the transaction which created it has been committed.
+     * The period is ignored if it is already indexed, which happens if it was committed while the index was being built
+     * @param event the event published when the availability period was created
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void OnAvailabilityCreated(AvailabilityCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (availabilityIds.add(event.getAvailabilityId())) {
+                root=Insert(root, new IntervalNode(event.getAvailabilityId(), event.getPersonId(), event.getFromDate(), event.getToDate()));
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This returns the number of indexed availability periods
+     * @return the number of indexed availability periods
+     */
+    public int GetIndexedPeriodCount() {
+        lock.readLock().lock();
+        try {
+            return availabilityIds.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This returns true if the index has been built and can be queried
+     * @return true if the index can be queried, otherwise false
+     */
+    public boolean IsReady() {
+        return ready;
+    }
+
+    /**
+     * This finds the people who are available during a period.
+     * If covering is false this includes everyone with an availability period overlapping the period, so a single day returns everyone available that day,
+     * otherwise it only includes the people whose availability periods together cover every day of the period
+     *
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @param covering true if the people must be available for the whole period, false if they must be available for some part of it
+     * @throws AvailabilityIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the ids of the matching people, in ascending order
+     */
+    public List<Integer> GetAvailablePersons(LocalDate fromDate, LocalDate toDate, boolean covering) throws AvailabilityIndexNotReadyException {
+        long fromDay=fromDate.toEpochDay();
+        long toDay=toDate.toEpochDay();
+        List<Integer> personIds=new ArrayList<Integer>();
+        for (Map.Entry<Integer, List<long[]>> entry : FindMergedPeriods(fromDay, toDay).entrySet()) {
+            if (!covering) {
+                personIds.add(entry.getKey());
+                continue;
+            }
+            //Since the periods are merged and clipped to the queried period, the person covers it only if a single period remains which covers every day
+            List<long[]> periods=entry.getValue();
+            if (periods.size()==1 && periods.get(0)[0]==fromDay && periods.get(0)[1]==toDay) {
+                personIds.add(entry.getKey());
+            }
+        }
+        personIds.sort(null);
+        return personIds;
+    }
+
+    /**
+     * This counts how many people are available on each day of a period, where a person with several overlapping periods is only counted once per day
+     *
+     * @param fromDate the first day of the period
+     * @param toDate the last day of the period
+     * @throws AvailabilityIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the number of available people for every day of the period, in date order
+     */
+    public List<AvailableDayCount> GetDailyAvailability(LocalDate fromDate, LocalDate toDate) throws AvailabilityIndexNotReadyException {
+        long fromDay=fromDate.toEpochDay();
+        long toDay=toDate.toEpochDay();
+        int days=(int)(toDay-fromDay+1);
+
+        //Each merged period adds one at its first day and removes one after its last day, so the running sum is the count for each day
+        int[] changes=new int[days+1];
+        for (List<long[]> periods : FindMergedPeriods(fromDay, toDay).values()) {
+            for (long[] period : periods) {
+                changes[(int)(period[0]-fromDay)]++;
+                changes[(int)(period[1]-fromDay)+1]--;
+            }
+        }
+
+        List<AvailableDayCount> counts=new ArrayList<AvailableDayCount>(days);
+        int available=0;
+        for (int i = 0; i < days; i++) {
+            available+=changes[i];
+            counts.add(new AvailableDayCount(fromDate.plusDays(i), available));
+        }
+        return counts;
+    }
+
+    /**
+     * This finds every availability period overlapping a period, and merges the periods of each person.
+     * The merged periods are clipped to the queried period, and overlapping or adjacent periods are merged into one
+     * @param fromDay the first epoch day of the period
+     * @param toDay the last epoch day of the period
+     * @throws AvailabilityIndexNotReadyException this is thrown if the index has not been built yet
+     * @return the merged periods in date order, by person id
+     */
+    private Map<Integer, List<long[]>> FindMergedPeriods(long fromDay, long toDay) throws AvailabilityIndexNotReadyException {
+        if (!ready) {
+            LOGGER.error("Failed to retrive availability since the availability interval index has not been built yet");
+            throw new AvailabilityIndexNotReadyException("the availability index is still being built, please try again shortly");
+        }
+
+        //Note that the tree is visited in start date order, so the periods of each person are found in start date order
+        Map<Integer, List<long[]>> periodsByPerson=new HashMap<Integer, List<long[]>>();
+        lock.readLock().lock();
+        try {
+            CollectOverlapping(root, fromDay, toDay, node -> {
+                List<long[]> periods=periodsByPerson.computeIfAbsent(node.personId, id -> new ArrayList<long[]>());
+                long first=Math.max(node.fromDay, fromDay);
+                long last=Math.min(node.toDay, toDay);
+                long[] previous=periods.isEmpty() ? null : periods.get(periods.size()-1);
+                if (previous!=null && first<=previous[1]+1) {
+                    previous[1]=Math.max(previous[1], last);
+                }
+                else {
+                    periods.add(new long[] {first, last});
+                }
+            });
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        return periodsByPerson;
+    }
+
+    /**
+     * This visits every node of a subtree whose period overlaps a period, in tree order.
+     * A subtree is skipped if its latest last day is before the period, and the right subtree is skipped if the node starts after the period
+     * @param node the root of the subtree
+     * @param fromDay the first epoch day of the period
+     * @param toDay the last epoch day of the period
+     * @param visitor the function called for each overlapping node
+     */
+    private static void CollectOverlapping(IntervalNode node, long fromDay, long toDay, Consumer<IntervalNode> visitor) {
+        while (node!=null && node.maxToDay>=fromDay) {
+            CollectOverlapping(node.left, fromDay, toDay, visitor);
+            if (node.fromDay>toDay) {
+                return;
+            }
+            if (node.toDay>=fromDay) {
+                visitor.accept(node);
+            }
+            node=node.right;
+        }
+    }
+
+    /**
+     * This inserts a node into a subtree, and rebalances the subtree
+     * @param node the root of the subtree
+     * @param newNode the node to insert
+     * @return the new root of the subtree
+     */
+    private static IntervalNode Insert(IntervalNode node, IntervalNode newNode) {
+        if (node==null) {
+            newNode.Update();
+            return newNode;
+        }
+        if (newNode.CompareTo(node)<0) {
+            node.left=Insert(node.left, newNode);
+        }
+        else {
+            node.right=Insert(node.right, newNode);
+        }
+        return Rebalance(node);
+    }
+
+    /**
+     * This restores the AVL balance of a subtree after one of its children has grown by at most one level
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private static IntervalNode Rebalance(IntervalNode node) {
+        node.Update();
+        int balance=IntervalNode.Height(node.left)-IntervalNode.Height(node.right);
+        if (balance>1) {
+            if (IntervalNode.Height(node.left.left)<IntervalNode.Height(node.left.right)) {
+                node.left=RotateLeft(node.left);
+            }
+            return RotateRight(node);
+        }
+        if (balance<-1) {
+            if (IntervalNode.Height(node.right.right)<IntervalNode.Height(node.right.left)) {
+                node.right=RotateRight(node.right);
+            }
+            return RotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * This rotates a subtree to the right, making the left child the new root
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private static IntervalNode RotateRight(IntervalNode node) {
+        IntervalNode newRoot=node.left;
+        node.left=newRoot.right;
+        newRoot.right=node;
+        node.Update();
+        newRoot.Update();
+        return newRoot;
+    }
+
+    /**
+     * This rotates a subtree to the left, making the right child the new root
+     * @param node the root of the subtree
+     * @return the new root of the subtree
+     */
+    private static IntervalNode RotateLeft(IntervalNode node) {
+        IntervalNode newRoot=node.right;
+        node.right=newRoot.left;
+        newRoot.left=node;
+        node.Update();
+        newRoot.Update();
+        return newRoot;
+    }
+
+    /**
+     * This represents a single availability period in the tree, stored as epoch days.
+     * Nodes are ordered by first day and then by availability id, and each node holds the height and latest last day of its subtree
+     */
+    private static final class IntervalNode {
+        private final int availabilityId;
+        private final int personId;
+        private final long fromDay;
+        private final long toDay;
+
+        private IntervalNode left;
+        private IntervalNode right;
+        private long maxToDay;
+        private int height;
+
+        /**
+         * This is a complete constructor for IntervalNode
+         * @param availabilityId the id of the availability period
+         * @param personId the id of the person the period belongs to
+         * @param fromDate the first day of the period
+         * @param toDate the last day of the period
+         */
+        private IntervalNode(Integer availabilityId, Integer personId, Date fromDate, Date toDate) {
+            this.availabilityId = availabilityId;
+            this.personId = personId;
+            this.fromDay = fromDate.toLocalDate().toEpochDay();
+            this.toDay = toDate.toLocalDate().toEpochDay();
+            this.maxToDay = this.toDay;
+            this.height = 1;
+        }
+
+        /**
+         * This compares the position of two nodes in the tree
+         * @param other the other node
+         * @return a negative number if this node is before the other node, a positive number if it is after, otherwise 0
+         */
+        private int CompareTo(IntervalNode other) {
+            int compare=Long.compare(fromDay, other.fromDay);
+            return compare!=0 ? compare : Integer.compare(availabilityId, other.availabilityId);
+        }
+
+        /**
+         * This recalculates the height and latest last day of the subtree from its children
+         */
+        private void Update() {
+            height=Math.max(Height(left), Height(right))+1;
+            maxToDay=toDay;
+            if (left!=null && left.maxToDay>maxToDay) {
+                maxToDay=left.maxToDay;
+            }
+            if (right!=null && right.maxToDay>maxToDay) {
+                maxToDay=right.maxToDay;
+            }
+        }
+
+        /**
+         * This returns the height of a subtree
+         * @param node the root of the subtree
+         * @return the height of the subtree, or 0 if it is empty
+         */
+        private static int Height(IntervalNode node) {
+            return node==null ? 0 : node.height;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedToken;
+import com.example.demo.service.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+/**
+ * This benchmark measures the time JwtAuthFilter spends verifying the token of a single authenticated request.
+ * It compares parsing the token three times with a new key and parser each time, which is how tokens were verified before JwtService.VerifyToken,
+ * with parsing it once using a reusable parser, and with verifying a token which has already been verified.
+ * It is run using the main method with the test classpath, ex after "mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test" run
+ * "java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.demo.benchmark.JwtServiceBenchmark"
+ */
+public class JwtServiceBenchmark {
+    private JwtService jwtService;
+    private JwtParser parser;
+    private PersonDetails details;
+    private String token;
+
+    /**
+     * This creates the token used by every benchmark, and verifies it once so it is remembered by the service
+     */
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET))).build();
+        details = new PersonDetails(1, "benchmark", "applicant", 0);
+        token = jwtService.generateToken("benchmark");
+        jwtService.VerifyToken(token);
+    }
+
+    /**
+     * This parses a token the way it was done once per claim, with a new key and parser each time
+     * @return the claims of the token
+     */
+    private Claims ParseWithNewParser() {
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtService.SECRET))).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    /**
+     * This verifies a token by parsing it three times, once for the subject in the filter and twice in validateToken
+     * @return if the token is valid
+     */
+    public boolean ThreeParsesWithNewParser() {
+        String username = ParseWithNewParser().getSubject();
+        return ParseWithNewParser().getSubject().equals(details.getUsername()) && username!=null && !ParseWithNewParser().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    /**
+     * This verifies a token by parsing it once using a reusable parser, which is what JwtService.VerifyToken does for a new token
+     * @return if the token is valid
+     */
+    public boolean SingleParse() {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return claims.getSubject().equals(details.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    /**
+     * This verifies a token which has already been verified, which is the case for every request after the first one using the same token
+     * @return if the token is valid
+     */
+    public boolean VerifiedTokenCached() {
+        VerifiedToken verified = jwtService.VerifyToken(token);
+        return jwtService.validateToken(verified, details);
+    }
+
+    /**
+     * This runs the benchmark
+     * @param args not used
+     * @throws RunnerException if the benchmark could not be run
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.presentation.restException.PasswordHashingBusyException;
+import com.example.demo.service.BoundedPasswordEncoder;
+import com.example.demo.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * This load test measures the latency of a cheap authenticated read request while a storm of logins is hashing passwords.
+ * The request threads are simulated by a pool of REQUEST_THREADS threads, which is the default maximum number of Tomcat request threads,
+ * where each read request verifies an already verified token and each login verifies a password using BCrypt with the default strength.
+ * It compares no logins, logins hashed on the request threads, which is how passwords were hashed before BoundedPasswordEncoder, and logins hashed using BoundedPasswordEncoder.
+ * It is run using the main method with the test classpath, ex after "mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test" run
+ * "java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.demo.benchmark.LoginStormBenchmark"
+ */
+public class LoginStormBenchmark {
+    //The number of simulated request threads
+    private static final int REQUEST_THREADS = 200;
+
+    //The number of clients which log in repeatedly during the storm
+    private static final int LOGIN_CLIENTS = 400;
+
+    //How long a client waits before logging in again after being rejected
+    private static final long LOGIN_RETRY_MILLIS = 500;
+
+    //The time between two read requests, and how long each phase is measured
+    private static final long READ_INTERVAL_MILLIS = 10;
+    private static final long PHASE_MILLIS = 5000;
+
+    /**
+     * This runs every phase of the load test and prints the read latencies
+     * @param args unused
+     * @throws Exception if a phase fails
+     */
+    public static void main(String[] args) throws Exception {
+        JwtService jwtService = new JwtService();
+        String token = jwtService.generateToken("benchmark");
+        jwtService.VerifyToken(token);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        String hash = bcrypt.encode("password");
+        BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(bcrypt, new SimpleMeterRegistry());
+
+        System.out.println("Processors: "+Runtime.getRuntime().availableProcessors());
+        RunPhase("No logins", null, hash, jwtService, token);
+        RunPhase("Logins on request threads", bcrypt, hash, jwtService, token);
+        RunPhase("Logins using BoundedPasswordEncoder", bounded, hash, jwtService, token);
+        bounded.Shutdown();
+    }
+
+    /**
+     * This measures the read latency while the login clients use the specified encoder
+     *
+     * @param name the name of the phase
+     * @param passwordEncoder the encoder the logins use, or null if there are no logins
+     * @param hash the hashed password the logins verify
+     * @param jwtService the service the read requests verify the token with
+     * @param token the token of the read requests
+     * @throws Exception if a request fails
+     */
+    private static void RunPhase(String name, PasswordEncoder passwordEncoder, String hash, JwtService jwtService, String token) throws Exception {
+        ThreadPoolExecutor requestThreads = new ThreadPoolExecutor(REQUEST_THREADS, REQUEST_THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        ExecutorService loginClients = Executors.newFixedThreadPool(LOGIN_CLIENTS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong logins = new AtomicLong();
+        AtomicLong rejectedLogins = new AtomicLong();
+
+        if (passwordEncoder!=null) {
+            for (int i = 0; i < LOGIN_CLIENTS; i++) {
+                loginClients.execute(() -> {
+                    while (running.get()) {
+                        try {
+                            requestThreads.submit(() -> passwordEncoder.matches("password", hash)).get();
+                            logins.incrementAndGet();
+                        } catch (Exception e) {
+                            if (!(e.getCause() instanceof PasswordHashingBusyException)) {
+                                return;
+                            }
+                            rejectedLogins.incrementAndGet();
+                            try {
+                                Thread.sleep(LOGIN_RETRY_MILLIS);
+                            } catch (InterruptedException interrupted) {
+                                return;
+                            }
+                        }
+                    }
+                });
+            }
+            //This lets the storm fill the request threads before the reads are measured
+            Thread.sleep(1000);
+        }
+
+        List<Long> latencies = new ArrayList<Long>();
+        long end = System.currentTimeMillis()+PHASE_MILLIS;
+        while (System.currentTimeMillis()<end) {
+            long start = System.nanoTime();
+            Future<?> read = requestThreads.submit(() -> jwtService.VerifyToken(token));
+            read.get();
+            latencies.add(System.nanoTime()-start);
+            Thread.sleep(READ_INTERVAL_MILLIS);
+        }
+
+        running.set(false);
+        loginClients.shutdownNow();
+        requestThreads.shutdownNow();
+        loginClients.awaitTermination(1, TimeUnit.MINUTES);
+        requestThreads.awaitTermination(1, TimeUnit.MINUTES);
+
+        Collections.sort(latencies);
+        System.out.printf("%-40s reads: %5d  p50: %9.3f ms  p99: %9.3f ms  max: %9.3f ms  logins: %6d  rejected logins: %6d%n", name, latencies.size(),
+                Percentile(latencies, 0.5), Percentile(latencies, 0.99), latencies.get(latencies.size()-1)/1e6, logins.get(), rejectedLogins.get());
+    }
+
+    /**
+     * This returns a percentile of the sorted latencies in milliseconds
+     * @param latencies the sorted latencies in nanoseconds
+     * @param percentile the percentile, between 0 and 1
+     * @return the latency at the percentile in milliseconds
+     */
+    private static double Percentile(List<Long> latencies, double percentile) {
+        return latencies.get((int)Math.min(latencies.size()-1, Math.floor(percentile*latencies.size())))/1e6;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.domain.dto.LanguageDTO;
+import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.Language;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+import com.example.demo.domain.event.ApplicationSubmittedEvent;
+import com.example.demo.repository.ApplicationRepository;
+import com.example.demo.repository.AvailabilityRepository;
+import com.example.demo.repository.CompetenceProfileRepository;
+import com.example.demo.repository.CompetenceRepository;
+import com.example.demo.repository.LanguageRepository;
+import com.example.demo.repository.PersonRepository;
+import com.example.demo.repository.RoleRepository;
+import com.example.demo.service.TranslationService;
+import com.example.demo.service.index.ApplicationSearchIndex;
+import com.example.demo.service.index.AvailabilityIntervalIndex;
+
+/**
+ * This tests that read-only transactions are sent to the replica database, using two in-memory databases where only the replica contains the marker row
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:primarydb", //This specifies the in-memory primary database url
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa", //The replica uses the same username and password as the primary
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop", //This is used to specify that the database schema should be dropped after the test is over
+    "app.datasource.replica.url="+ReadWriteRoutingDataSourceTest.REPLICA_URL
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE) //This keeps the data source from DataSourceConfig, instead of replacing it with a single embedded database
+@Import({DataSourceConfig.class, TranslationService.class, ApplicationSearchIndex.class, AvailabilityIntervalIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //This disables the test transaction, since the routing depends on the transactions started by the services
+public class ReadWriteRoutingDataSourceTest {
+    //The replica is kept open between connections, since its schema is created before the application context
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TranslationService translationService;
+
+    @Autowired
+    private LanguageRepository languageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationSearchIndex applicationSearchIndex;
+
+    @Autowired
+    private AvailabilityIntervalIndex availabilityIntervalIndex;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @BeforeAll
+    public static void setUpReplica() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", ""); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists language (language_id integer primary key, name varchar(255))");
+            statement.execute("merge into language key (language_id) values (1, 'replica language')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            languageRepository.deleteAll();
+            applicationRepository.deleteAll();
+            competenceProfileRepository.deleteAll();
+            availabilityRepository.deleteAll();
+            competenceRepository.deleteAll();
+            personRepository.deleteAll();
+            roleRepository.deleteAll();
+        });
+    }
+
+    @Test
+    /**
+     * This tests that the read-only functions of a service read from the replica, while other transactions write to and read from the primary
+     */
+    void ServiceRoutingTest() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Language language = new Language();
+            language.SetLanguageName("primary language");
+            languageRepository.save(language);
+        });
+
+        List<? extends LanguageDTO> replicaLanguages = translationService.GetLanguages();
+        assertEquals(1, replicaLanguages.size());
+        assertEquals("replica language", replicaLanguages.get(0).getLanguageName());
+
+        List<Language> primaryLanguages = new TransactionTemplate(transactionManager).execute(status -> languageRepository.findAll());
+        assertEquals(1, primaryLanguages.size());
+        assertEquals("primary language", primaryLanguages.get(0).getLanguageName());
+    }
+
+    @Test
+    /**
+     * This tests that the search and availability indexes read from the primary, so an application is indexed once it has been committed even though it has not reached the replica,
+     * which in this test never contains any applications
+     */
+    void IndexRoutingTest() {
+        Application application = new TransactionTemplate(transactionManager).execute(status -> {
+            Role role = new Role();
+            role.setName("applicant");
+            roleRepository.save(role);
+            Person person = new Person();
+            person.setName("test");
+            person.setSurname("testsson");
+            person.setEmail("test@test.test");
+            person.setPassword("testPassword");
+            person.setPnr("12345678-1234");
+            person.setRole(role);
+            person.setUsername("username");
+            personRepository.save(person);
+
+            Availability availability = new Availability(person, java.sql.Date.valueOf(LocalDate.now().plusDays(10)), java.sql.Date.valueOf(LocalDate.now().plusDays(40)));
+            availabilityRepository.save(availability);
+            Competence competence = new Competence();
+            competence.setName("competence");
+            competenceRepository.save(competence);
+            CompetenceProfile profile = new CompetenceProfile(person, competence, 2.0);
+            competenceProfileRepository.save(profile);
+
+            List<Availability> periods = new ArrayList<Availability>();
+            periods.add(availability);
+            List<CompetenceProfile> profiles = new ArrayList<CompetenceProfile>();
+            profiles.add(profile);
+            return applicationRepository.save(new Application(person, periods, profiles));
+        });
+
+        //The application is reloaded after the commit, as is done by the event listener
+        applicationSearchIndex.OnApplicationSubmitted(new ApplicationSubmittedEvent(application.getApplicationId(), application.getApplicationStatus(), application.getVersionNumber()));
+        assertEquals(1, applicationSearchIndex.GetIndexedApplicationCount());
+
+        //As are the applications and periods when the indexes are built at startup
+        applicationSearchIndex.Rebuild();
+        assertTrue(applicationSearchIndex.IsReady());
+        assertEquals(1, applicationSearchIndex.GetIndexedApplicationCount());
+        availabilityIntervalIndex.Rebuild();
+        assertTrue(availabilityIntervalIndex.IsReady());
+        assertEquals(1, availabilityIntervalIndex.GetIndexedPeriodCount());
+    }
+
+    @Test
+    /**
+     * This tests that the primary is used if the replica can not be reached, and that the replica is only retried once REPLICA_RETRY_DELAY_MILLIS has passed
+     */
+    void ReplicaFallbackTest() throws SQLException {
+        DataSource primary = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        DataSource replica = Mockito.mock(DataSource.class);
+        when(replica.getConnection()).thenThrow(new SQLException("replica is down"));
+        AtomicLong clock = new AtomicLong(1000);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, clock::get));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTransaction.setReadOnly(true);
+
+        //Both read-only transactions use the primary, but only the first one tries the replica
+        for (int i = 0; i < 2; i++) {
+            assertEquals(Integer.valueOf(1), readOnlyTransaction.<Integer>execute(status -> jdbcTemplate.queryForObject("select count(*) from language", Integer.class)));
+        }
+        Mockito.verify(replica, Mockito.times(1)).getConnection();
+
+        clock.addAndGet(ReadWriteRoutingDataSource.REPLICA_RETRY_DELAY_MILLIS);
+        assertEquals(Integer.valueOf(1), readOnlyTransaction.<Integer>execute(status -> jdbcTemplate.queryForObject("select count(*) from language", Integer.class)));
+        Mockito.verify(replica, Mockito.times(2)).getConnection();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.PasswordHashingBusyException;
+
+/**
+ * This class defined the unit tests for the RehashingAuthenticationProvider class
+ */
+public class RehashingAuthenticationProviderTest {
+
+    /**
+     * This creates a user whose password hash should be upgraded
+     * @return the user
+     */
+    private PersonDetails CreateUser() {
+        Role role = new Role();
+        role.setName("applicant");
+        Person person = new Person();
+        person.setRole(role);
+        person.setUsername("username");
+        person.setPassword("oldHash");
+        return new PersonDetails(person);
+    }
+
+    @Test
+    /**
+     * This tests that a password is hashed again and stored after a successful login, while a wrong password is still rejected
+     */
+    void RehashTest() {
+        PersonDetails user = CreateUser();
+        UserDetailsService userDetailsService = Mockito.mock(UserDetailsService.class);
+        PasswordEncoder passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        UserDetailsPasswordService passwordService = Mockito.mock(UserDetailsPasswordService.class);
+        when(userDetailsService.loadUserByUsername("username")).thenReturn(user);
+        when(passwordEncoder.matches("password", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("newHash");
+        when(passwordService.updatePassword(user, "newHash")).thenReturn(user);
+
+        RehashingAuthenticationProvider provider = new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, passwordService);
+        Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("username", "password"));
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(user, authentication.getPrincipal());
+        Mockito.verify(passwordService, Mockito.times(1)).updatePassword(user, "newHash");
+
+        assertThrowsExactly(BadCredentialsException.class, () -> provider.authenticate(new UsernamePasswordAuthenticationToken("username", "wrong password")));
+        Mockito.verify(passwordService, Mockito.times(1)).updatePassword(any(UserDetails.class), anyString());
+    }
+
+    @Test
+    /**
+     * This tests that a login still succeeds if the password can not be hashed again since every hashing thread is busy, or can not be stored due to a database error
+     */
+    void RehashFailureTest() {
+        PersonDetails user = CreateUser();
+        UserDetailsService userDetailsService = Mockito.mock(UserDetailsService.class);
+        PasswordEncoder passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        UserDetailsPasswordService passwordService = Mockito.mock(UserDetailsPasswordService.class);
+        when(userDetailsService.loadUserByUsername("username")).thenReturn(user);
+        when(passwordEncoder.matches("password", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        RehashingAuthenticationProvider provider = new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, passwordService);
+
+        //The queue filled up after the password was verified, so it can not be hashed again
+        when(passwordEncoder.encode("password")).thenThrow(new PasswordHashingBusyException("too many passwords are being checked, please try again later"));
+        Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("username", "password"));
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(user, authentication.getPrincipal());
+        Mockito.verifyNoInteractions(passwordService);
+
+        //The password was hashed again, but could not be stored
+        Mockito.reset(passwordEncoder);
+        when(passwordEncoder.matches("password", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("newHash");
+        when(passwordService.updatePassword(user, "newHash")).thenThrow(new CustomDatabaseException());
+        authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("username", "password"));
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("oldHash", user.getPassword());
+    }
+}
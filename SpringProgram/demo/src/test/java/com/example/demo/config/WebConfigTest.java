@@ -0,0 +1,132 @@
+package com.example.demo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.presentation.restControllers.ReviewerEndpointController;
+import com.example.demo.service.ApplicationEventService;
+import com.example.demo.service.ReviewService;
+
+import jakarta.servlet.Filter;
+
+/**
+ * This class tests the asynchronous response configuration in WebConfig, using a real server which only contains the web layer and the ReviewerEndpointController
+ * The servlet container default timeout is lowered from 30 seconds to ASYNC_TIMEOUT_MS, so a response streamed for longer than that default does not take 30 seconds to test
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = WebConfigTest.TestConfig.class, properties = {
+    "app.streaming.timeout-millis=10000" //This is the timeout configured by WebConfig, which should replace the container default
+})
+public class WebConfigTest {
+    //The lowered servlet container default timeout, and the time between two exported applications
+    private static final int CONTAINER_ASYNC_TIMEOUT_MS = 300;
+    private static final long ROW_INTERVAL_MS = 300;
+
+    //The number of exported applications, which together take longer than the container default timeout to write, even though the container only checks for timeouts about once a second
+    private static final int EXPORTED_APPLICATIONS = 8;
+
+    private static final ReviewService reviewService = Mockito.mock(ReviewService.class);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Configuration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @Import({WebConfig.class, ReviewerEndpointController.class})
+    /**
+     * This defines the web layer used by the test, where the services are mocked and every request is made by a recruiter
+     */
+    static class TestConfig {
+        @Bean
+        ReviewService reviewService() {
+            return reviewService;
+        }
+
+        @Bean
+        ApplicationEventService applicationEventService() {
+            return Mockito.mock(ApplicationEventService.class);
+        }
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> containerAsyncTimeout() {
+            return factory -> factory.addConnectorCustomizers(connector -> connector.setAsyncTimeout(CONTAINER_ASYNC_TIMEOUT_MS));
+        }
+
+        @Bean
+        Filter recruiterAuthentication() {
+            return (request, response, chain) -> {
+                SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("recruiter", null, "recruiter"));
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            };
+        }
+    }
+
+    @Test
+    /**
+     * This tests that an export which takes longer than the servlet container default timeout is written completely, since WebConfig configures a longer timeout
+     */
+    void LongExportTest() throws IOException {
+        Person applicant=new Person();
+        applicant.setId(7);
+        applicant.setName("Anna");
+        applicant.setSurname("Svensson");
+        Application application=new Application(applicant, new ArrayList<Availability>(), new ArrayList<CompetenceProfile>());
+        application.setApplicationId(3);
+        application.setApplicationDate(java.sql.Date.valueOf("2026-02-14"));
+
+        //Each application is written after a delay, so the export takes longer than the container default timeout
+        Mockito.doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<ApplicationDTO> consumer=(Consumer<ApplicationDTO>)invocation.getArguments()[2];
+            for (int i = 0; i < EXPORTED_APPLICATIONS; i++) {
+                Thread.sleep(ROW_INTERVAL_MS);
+                consumer.accept(application);
+            }
+            return null;
+        }).when(reviewService).ForEachApplicationInPeriod(any(LocalDate.class), any(LocalDate.class), any());
+
+        long start = System.currentTimeMillis();
+        ResponseEntity<String> response = restTemplate.getForEntity("/review/exportApplications?from=2026-01-01&to=2026-03-31&format=ndjson", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(System.currentTimeMillis()-start>CONTAINER_ASYNC_TIMEOUT_MS);
+        List<String> lines=response.getBody().lines().toList();
+        assertEquals(EXPORTED_APPLICATIONS, lines.size());
+    }
+}
@@ -19,12 +19,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.example.demo.domain.ApplicantWorkspace;
+import com.example.demo.domain.ApplicationSubmissionState;
+import com.example.demo.domain.ApplicationSubmissionStatus;
+import com.example.demo.domain.AvailabilityPeriod;
 import com.example.demo.domain.PersonDetails;
 import com.example.demo.domain.dto.ApplicationDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
@@ -36,9 +43,13 @@ import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 import com.example.demo.domain.requestBodies.ApplicationSubmissionRequestBody;
+import com.example.demo.domain.requestBodies.AvailabilityPeriodRequestBody;
 import com.example.demo.presentation.restControllers.ApplicationEndpointController;
+import com.example.demo.presentation.restException.IdempotencyKeyReusedException;
 import com.example.demo.presentation.restException.InvalidParameterException;
 import com.example.demo.service.ApplicationService;
+import com.example.demo.service.ApplicationSubmissionQueue;
+import com.example.demo.service.IdempotencyService;
 
 @ExtendWith(MockitoExtension.class)
 /**
@@ -49,6 +60,13 @@ public class ApplicationEndpointControllerTest {
     @Mock
     private ApplicationService applicationService;
 
+    // The idempotency service is real, since it only calls the mocked service
+    @Spy
+    private IdempotencyService idempotencyService = new IdempotencyService();
+
+    @Mock
+    private ApplicationSubmissionQueue submissionQueue;
+
     // We then define the controller we want to test
     @InjectMocks
     private ApplicationEndpointController applicationEndpointController;
@@ -124,23 +142,42 @@ public class ApplicationEndpointControllerTest {
         // We first test that it throws the correct exception for an invalid integer and double for each of the parameters
 
         var e = assertThrowsExactly(InvalidParameterException.class,
-                () -> applicationEndpointController.CreateCompetenceProfile("notAPersonId", "notaDouble"));
+                () -> applicationEndpointController.CreateCompetenceProfile("notAPersonId", "notaDouble", null));
         assertEquals("Invalid parameter : Provided value (notAPersonId) could not be parsed as a valid integer",
                 e.getMessage());
 
         e = assertThrowsExactly(InvalidParameterException.class,
-                () -> applicationEndpointController.CreateCompetenceProfile( "0", "notaDouble"));
+                () -> applicationEndpointController.CreateCompetenceProfile( "0", "notaDouble", null));
         assertEquals("Invalid parameter : Provided value (notaDouble) could not be parsed as a valid double",
                 e.getMessage());
 
         // And then that it returns the list it recived from service for a valid integer
-        CompetenceProfileDTO result = applicationEndpointController.CreateCompetenceProfile("2", "3.1");
+        CompetenceProfileDTO result = applicationEndpointController.CreateCompetenceProfile("2", "3.1", null);
         assertEquals(person.getId(), result.getPerson().getId());
         assertEquals(2, result.getCompetenceDTO().getCompetenceId());
         assertEquals(3.1, result.getYearsOfExperience());
 
     }
 
+    @Test
+    /**
+     * This tests the GetWorkspace method
+     */
+    void GetWorkspaceTest() {
+        // We define the mock implementation for the service function, which returns an empty workspace for the requested person
+        when(applicationService.GetWorkspace(anyInt(), any())).thenAnswer(invocation -> {
+            Integer intArg = (Integer) invocation.getArguments()[0];
+            Person p = new Person();
+            p.setId(intArg);
+            return new ApplicantWorkspace(List.of(), List.of(new Availability(p, null, null)), List.of(), List.of(), List.of(), List.of());
+        });
+
+        // And then test that it returns the workspace of the logged in person, with the requested language
+        ApplicantWorkspace result = applicationEndpointController.GetWorkspace("english");
+        assertEquals(person.getId(), result.getAvailabilityPeriods().get(0).getPerson().getId());
+        Mockito.verify(applicationService).GetWorkspace(person.getId(), "english");
+    }
+
     @Test
     /**
      * This tests the GetAllAvailability method
@@ -191,25 +228,74 @@ public class ApplicationEndpointControllerTest {
         // date parameters
 
         var e = assertThrowsExactly(InvalidParameterException.class,
-                () -> applicationEndpointController.CreateAvailability("notAFromDate", "notAToDate"));
+                () -> applicationEndpointController.CreateAvailability("notAFromDate", "notAToDate", null));
         assertEquals(
                 "Invalid parameter : Provided value (notAFromDate) could not be parsed as a valid date, please use the yyyy-(m)m-(d)d format, with the (m) and (d) specifying that these can be 0 or ignored",
                 e.getMessage());
 
         e = assertThrowsExactly(InvalidParameterException.class,
-                () -> applicationEndpointController.CreateAvailability("2000-01-10", "notAToDate"));
+                () -> applicationEndpointController.CreateAvailability("2000-01-10", "notAToDate", null));
         assertEquals(
                 "Invalid parameter : Provided value (notAToDate) could not be parsed as a valid date, please use the yyyy-(m)m-(d)d format, with the (m) and (d) specifying that these can be 0 or ignored",
                 e.getMessage());
 
         // And then that it returns the list it recived from service for a valid integer
-        AvailabilityDTO result = applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14");
+        AvailabilityDTO result = applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", null);
         assertEquals(person.getId(), result.getPerson().getId());
         assertEquals(true, result.getFromDate().equals(Date.valueOf("2000-01-10")));
         assertEquals(true, result.getToDate().equals(Date.valueOf("2000-01-14")));
 
     }
 
+    @Test
+    /**
+     * This tests the CreateAvailabilities method
+     */
+    void CreateAvailabilitiesTest() {
+        // We define the mock implementation for the service function, which returns one availability per requested period
+        when(applicationService.CreateAvailabilities(anyInt(), anyList())).thenAnswer(invocation -> {
+            Person p = new Person();
+            p.setId((Integer) invocation.getArguments()[0]);
+
+            @SuppressWarnings("unchecked")
+            List<AvailabilityPeriod> periods = (List<AvailabilityPeriod>) invocation.getArguments()[1];
+            List<Availability> availabilityList = new ArrayList<Availability>();
+            for (AvailabilityPeriod period : periods) {
+                availabilityList.add(new Availability(p, period.getFromDate(), period.getToDate()));
+            }
+            return availabilityList;
+        });
+
+        // We first test that the number of periods is limited
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.CreateAvailabilities(List.of()));
+        assertEquals("Invalid parameter : Between 1 and 100 availability periods must be specified", e.getMessage());
+
+        List<AvailabilityPeriodRequestBody> tooMany = new ArrayList<AvailabilityPeriodRequestBody>();
+        for (int i = 0; i < 101; i++) {
+            tooMany.add(new AvailabilityPeriodRequestBody("2000-01-10", "2000-01-14"));
+        }
+        e = assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.CreateAvailabilities(tooMany));
+        assertEquals("Invalid parameter : Between 1 and 100 availability periods must be specified", e.getMessage());
+
+        // Then that every date is parsed and must be present
+        e = assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.CreateAvailabilities(List.of(
+            new AvailabilityPeriodRequestBody("2000-01-10", "2000-01-14"), new AvailabilityPeriodRequestBody("2000-01-20", "notAToDate"))));
+        assertEquals(
+                "Invalid parameter : Provided value (notAToDate) could not be parsed as a valid date, please use the yyyy-(m)m-(d)d format, with the (m) and (d) specifying that these can be 0 or ignored",
+                e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.CreateAvailabilities(List.of(new AvailabilityPeriodRequestBody(null, "2000-01-14"))));
+        assertEquals("Invalid parameter : Every availability period must specify both a fromDate and a toDate", e.getMessage());
+
+        // And finally that the parsed periods are passed to the service
+        List<? extends AvailabilityDTO> result = applicationEndpointController.CreateAvailabilities(List.of(
+            new AvailabilityPeriodRequestBody("2000-01-10", "2000-01-14"), new AvailabilityPeriodRequestBody("2000-01-20", "2000-01-24")));
+        assertEquals(2, result.size());
+        assertEquals(person.getId(), result.get(0).getPerson().getId());
+        assertEquals(Date.valueOf("2000-01-20"), result.get(1).getFromDate());
+        assertEquals(Date.valueOf("2000-01-24"), result.get(1).getToDate());
+    }
+
     @Test
     /**
      * This tests the SubmitApplication method
@@ -260,7 +346,7 @@ public class ApplicationEndpointControllerTest {
         //In this case we just test the correct execution, since the endpoint controller has no real logic
         ApplicationSubmissionRequestBody body = new ApplicationSubmissionRequestBody(availabilityIds, competenceProfilesIds);
 
-        ApplicationDTO result=applicationEndpointController.SubmitApplication(body);
+        ApplicationDTO result=applicationEndpointController.SubmitApplication(body, null);
 
         assertEquals(0, result.getApplicant().getId());
         assertEquals(1, result.getAvailabilityPeriodsForApplication().size());
@@ -270,4 +356,61 @@ public class ApplicationEndpointControllerTest {
 
 
     }
+
+    @Test
+    /**
+     * This tests the SubmitApplicationAsync and GetSubmissionStatus methods
+     */
+    void SubmitApplicationAsyncTest() {
+        // We define the mock implementation for the queue, which queues every submission with the same id
+        when(submissionQueue.Enqueue(anyInt(), anyList(), anyList())).thenReturn(new ApplicationSubmissionStatus("test", ApplicationSubmissionState.queued, null, null));
+        when(submissionQueue.GetStatus(0, "test")).thenReturn(new ApplicationSubmissionStatus("test", ApplicationSubmissionState.submitted, 5, null));
+
+        // We first test that submissions without availability periods or competence profiles are rejected before being queued
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.SubmitApplicationAsync(new ApplicationSubmissionRequestBody(List.of(), List.of(1)), null));
+        assertEquals("Invalid parameter : At least one availability period and one competence profile must be specified", e.getMessage());
+        assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.SubmitApplicationAsync(new ApplicationSubmissionRequestBody(List.of(1), null), null));
+
+        // Then that a valid submission is queued and accepted, with the status url in the Location header
+        ResponseEntity<ApplicationSubmissionStatus> response = applicationEndpointController.SubmitApplicationAsync(new ApplicationSubmissionRequestBody(List.of(54), List.of(23)), null);
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/application/submissionStatus?submissionId=test", response.getHeaders().getLocation().toString());
+        assertEquals(ApplicationSubmissionState.queued, response.getBody().getState());
+        Mockito.verify(submissionQueue).Enqueue(0, List.of(54), List.of(23));
+
+        // And that the status is retrived for the logged in person
+        assertEquals(5, applicationEndpointController.GetSubmissionStatus("test").getApplicationId());
+    }
+
+    @Test
+    /**
+     * This tests that requests with the same idempotency key are only executed once, and that a key can not be reused for a different request
+     */
+    void IdempotencyKeyTest() {
+        when(applicationService.CreateAvailability(anyInt(), any(Date.class), any(Date.class))).thenAnswer(invocation -> {
+            Person p = new Person();
+            p.setId((Integer) invocation.getArguments()[0]);
+            return new Availability(p, (Date) invocation.getArguments()[1], (Date) invocation.getArguments()[2]);
+        });
+
+        // The retried request should return the original response without calling the service again
+        AvailabilityDTO first = applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", "key-1");
+        AvailabilityDTO retry = applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", "key-1");
+        assertEquals(first, retry);
+        Mockito.verify(this.applicationService, Mockito.times(1)).CreateAvailability(anyInt(), any(Date.class), any(Date.class));
+
+        // While a new key, or no key at all, executes the request again
+        applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", "key-2");
+        applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", null);
+        Mockito.verify(this.applicationService, Mockito.times(3)).CreateAvailability(anyInt(), any(Date.class), any(Date.class));
+
+        // A key can not be reused for different parameters
+        var e = assertThrowsExactly(IdempotencyKeyReusedException.class, () -> applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-15", "key-1"));
+        assertEquals("Could not process request due to : the idempotency key was already used for a different request", e.getMessage());
+
+        // And the key must not be blank or too long
+        var e2 = assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", " "));
+        assertEquals("Invalid parameter : The Idempotency-Key header must be between 1 and 255 characters long", e2.getMessage());
+        assertThrowsExactly(InvalidParameterException.class, () -> applicationEndpointController.CreateAvailability("2000-01-10", "2000-01-14", "k".repeat(256)));
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demo.presentation.unit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -19,12 +21,16 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.RefreshTokenRotation;
+import com.example.demo.domain.VerifiedToken;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 import com.example.demo.presentation.restControllers.AuthenticationController;
 import com.example.demo.service.JwtService;
+import com.example.demo.service.RefreshTokenService;
 
 @ExtendWith(MockitoExtension.class)
 /**
@@ -38,6 +44,9 @@ public class AuthenticationEndpointControllerUnitTest {
     @Spy
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private AuthenticationController authenticationEndpointController;
 
@@ -69,9 +78,19 @@ public class AuthenticationEndpointControllerUnitTest {
         when(authenticationManager.authenticate(any(Authentication.class))).thenAnswer(invocation -> {
             return authentication;
         });
+        when(refreshTokenService.IssueRefreshToken(details)).thenReturn("refreshTokenHere");
     
-        //We first test that a "correct" requests works
-        authenticationEndpointController.authenticateAndGetToken("bla","bla");
+        //We first test that a "correct" requests works, and that it also returns a refresh token
+        String response = authenticationEndpointController.authenticateAndGetToken("bla","bla");
+        assertTrue(response.contains("\"refreshToken\":\"refreshTokenHere\""));
+
+        //We then test that the refresh token is left out, instead of being sent as the string "null", if the user is not a person
+        Authentication otherAuthentication=new UsernamePasswordAuthenticationToken("bla",null,details.getAuthorities());
+        when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(otherAuthentication);
+        response = authenticationEndpointController.authenticateAndGetToken("bla","bla");
+        assertFalse(response.contains("refreshToken"));
+        assertTrue(response.endsWith("\"role\":\"testRole\"}"));
+        when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authentication);
 
         //We then test that if authentication is false that it will throw the correct exception
         authentication.setAuthenticated(false);
@@ -90,4 +109,47 @@ public class AuthenticationEndpointControllerUnitTest {
 
     }
 
+    @Test
+    /**
+     * This tests that the generateToken method generates self-contained tokens if they are enabled
+     */
+    void generateSelfContainedTokenTest()
+    {
+        Role role = new Role();
+        role.setName("testRole");
+        Person person = new Person();
+        person.setRole(role);
+        person.setId(0);
+        person.setUsername("bla");
+        PersonDetails details=new PersonDetails(person);
+        Authentication authentication=new UsernamePasswordAuthenticationToken(details,null,details.getAuthorities());
+        when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authentication);
+        when(refreshTokenService.IssueRefreshToken(details)).thenReturn("refreshTokenHere");
+
+        ReflectionTestUtils.setField(authenticationEndpointController, "selfContainedTokens", true);
+        String response = authenticationEndpointController.authenticateAndGetToken("bla","bla");
+        String token = response.substring(response.indexOf(":\"")+2, response.indexOf("\" ,"));
+
+        VerifiedToken verified = jwtService.VerifyToken(token);
+        assertTrue(verified.isSelfContained());
+        assertEquals(0, verified.getPersonId());
+        assertEquals("testRole", verified.getRole());
+    }
+
+    @Test
+    /**
+     * This tests that the refreshToken method returns a new token for the user of the refresh token, along with the next refresh token
+     */
+    void refreshTokenTest()
+    {
+        PersonDetails user = new PersonDetails(0, "bla", "testRole", 0);
+        when(refreshTokenService.Refresh("oldRefreshToken")).thenReturn(new RefreshTokenRotation(user, "newRefreshToken"));
+
+        String response = authenticationEndpointController.refreshToken("oldRefreshToken");
+        String token = response.substring(response.indexOf(":\"")+2, response.indexOf("\" ,"));
+        assertEquals("bla", jwtService.VerifyToken(token).getSubject());
+        assertTrue(response.contains("\"refreshToken\":\"newRefreshToken\""));
+        assertTrue(response.contains("\"role\":\"testRole\""));
+    }
+
 }
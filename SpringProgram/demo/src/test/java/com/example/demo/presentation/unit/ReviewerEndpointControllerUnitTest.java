@@ -1,13 +1,23 @@
 package com.example.demo.presentation.unit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -17,19 +27,46 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.example.demo.domain.ApplicationLease;
+import com.example.demo.domain.ApplicationPage;
+import com.example.demo.domain.ApplicationRankingQuery;
+import com.example.demo.domain.ApplicationSearchQuery;
+import com.example.demo.domain.ApplicationSearchSort;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusChange;
+import com.example.demo.domain.ApplicationStatusCounts;
+import com.example.demo.domain.ApplicationStatusUpdateOutcome;
+import com.example.demo.domain.ApplicationStatusUpdateResult;
+import com.example.demo.domain.AvailableDayCount;
+import com.example.demo.domain.LeasedApplication;
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.RankedApplication;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
+import com.example.demo.domain.requestBodies.ApplicationRankingRequestBody;
+import com.example.demo.domain.requestBodies.ApplicationSearchRequestBody;
+import com.example.demo.domain.requestBodies.ApplicationStatusUpdateRequestBody;
+import com.example.demo.domain.requestBodies.CompetenceRequirementRequestBody;
 import com.example.demo.presentation.restControllers.ReviewerEndpointController;
 import com.example.demo.presentation.restException.InvalidParameterException;
+import com.example.demo.presentation.restException.SubscriberLimitReachedException;
+import com.example.demo.service.ApplicationEventService;
 import com.example.demo.service.ReviewService;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +75,9 @@ public class ReviewerEndpointControllerUnitTest {
     @Mock
     private ReviewService reviewService;
 
+    @Mock
+    private ApplicationEventService applicationEventService;
+
     // We then define the controller we want to test, and state we want to inject
     // the above defined mock object instead of the real one
     @InjectMocks
@@ -88,6 +128,299 @@ public class ReviewerEndpointControllerUnitTest {
 
     }
 
+    @Test
+    /**
+     * This is a test for the GetApplicationsPage method
+     */
+    void GetApplicationsPageTest()
+    {
+        //We create test objects
+        List<Application> applications=new ArrayList<Application>();
+        applications.add(new Application());
+        ApplicationPage<ApplicationDTO> page=new ApplicationPage<ApplicationDTO>(applications, null);
+
+        //We define the mock objects behaviour
+        when(reviewService.GetApplicationsPage(any(), anyInt())).thenReturn(page);
+
+        //We then test that invalid page sizes are rejected before the service is called
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, "notAnInt"));
+        assertEquals("Invalid parameter : Provided value (notAnInt) could not be parsed as a valid integer", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, "0"));
+        assertEquals("Invalid parameter : Provided page size (0) must be between 1 and 500", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsPage(null, "501"));
+        assertEquals("Invalid parameter : Provided page size (501) must be between 1 and 500", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetApplicationsPage(any(), anyInt());
+
+        //We then test that the default page size is used if none is specified, and that the page from the service is returned
+        assertEquals(page, reviewerEndpointController.GetApplicationsPage(null, null));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationsPage(null, 50);
+
+        assertEquals(page, reviewerEndpointController.GetApplicationsPage("cursor", "10"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationsPage("cursor", 10);
+    }
+
+    @Test
+    /**
+     * This is a test for the SearchApplications method
+     */
+    void SearchApplicationsTest()
+    {
+        //We create test objects
+        ApplicationPage<ApplicationSummaryDTO> page=new ApplicationPage<ApplicationSummaryDTO>(new ArrayList<ApplicationSummaryDTO>(), null);
+
+        //We define the mock objects behaviour
+        when(reviewService.SearchApplications(any(ApplicationSearchQuery.class), any(), anyInt())).thenReturn(page);
+
+        //We then test that the different invalid parameter exception cases are thrown correctly, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody("notAStatus", null, null, null, null), null, null));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+
+        List<CompetenceRequirementRequestBody> tooMany=new ArrayList<CompetenceRequirementRequestBody>();
+        for (int i = 0; i <= 20; i++) {
+            tooMany.add(new CompetenceRequirementRequestBody(i, 1.0));
+        }
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, tooMany, null, null, null), null, null));
+        assertEquals("Invalid parameter : Provided search specifies 21 competences, at most 20 can be specified", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, List.of(new CompetenceRequirementRequestBody(1, 1.0), new CompetenceRequirementRequestBody(null, 1.0)), null, null, null), null, null));
+        assertEquals("Invalid parameter : Provided competence at index 1 must specify competenceId", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, List.of(new CompetenceRequirementRequestBody(1, -1.0)), null, null, null), null, null));
+        assertEquals("Invalid parameter : Provided minimumYearsOfExperience for competence at index 0 must be non-negative", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, null, "2026-06-01", null, null), null, null));
+        assertEquals("Invalid parameter : Provided search must specify both availableFrom and availableTo, or neither", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, null, "2026-06-01", "notADate", null), null, null));
+        assertEquals("Invalid parameter : Provided value (notADate) could not be parsed as a valid date, please specify as yyyy-mm-dd", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, null, "2026-08-31", "2026-06-01", null), null, null));
+        assertEquals("Invalid parameter : Provided availableFrom (2026-08-31) must not be after availableTo (2026-06-01)", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, null, null, null, "notASort"), null, null));
+        assertEquals("Invalid parameter : Provided value (notASort) is not valid value for sort, please specify as \"applicationId\",\"applicationDate\" or \"experience\"", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody(null, null, null, null, "experience"), null, null));
+        assertEquals("Invalid parameter : Provided search must specify at least one competence to sort by experience", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.SearchApplications(null, null, "0"));
+        assertEquals("Invalid parameter : Provided page size (0) must be between 1 and 500", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).SearchApplications(any(ApplicationSearchQuery.class), any(), anyInt());
+
+        //We then test that an empty search matches everything, using the default page size
+        assertEquals(page, reviewerEndpointController.SearchApplications(null, null, null));
+        Mockito.verify(this.reviewService, Mockito.times(1)).SearchApplications(Mockito.argThat(query -> query.getStatus()==null
+            && query.getCompetenceRequirements().isEmpty() && query.getAvailableFrom()==null && query.getSort()==ApplicationSearchSort.applicationId), Mockito.isNull(), Mockito.eq(50));
+
+        //And finally that a complete search is parsed correctly
+        assertEquals(page, reviewerEndpointController.SearchApplications(new ApplicationSearchRequestBody("UNCHECKED", List.of(new CompetenceRequirementRequestBody(2, 1.5)), "2026-06-01", "2026-08-31", "experience"), "cursor", "10"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).SearchApplications(Mockito.argThat(query -> query.getStatus()==ApplicationStatus.unchecked
+            && query.getCompetenceRequirements().size()==1 && query.getCompetenceRequirements().get(0).getCompetenceId()==2
+            && query.getAvailableFrom().equals(LocalDate.parse("2026-06-01")) && query.getAvailableTo().equals(LocalDate.parse("2026-08-31"))
+            && query.getSort()==ApplicationSearchSort.experience), Mockito.eq("cursor"), Mockito.eq(10));
+    }
+
+    @Test
+    /**
+     * This is a test for the RankApplications method
+     */
+    void RankApplicationsTest()
+    {
+        //We create test objects
+        List<RankedApplication> ranked=new ArrayList<RankedApplication>();
+
+        //We define the mock objects behaviour
+        when(reviewService.RankApplications(any(ApplicationRankingQuery.class), anyInt())).thenReturn(ranked);
+
+        //We then test that the different invalid parameter exception cases are thrown correctly, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RankApplications(null, null));
+        assertEquals("Invalid parameter : Provided position must specify at least one competence", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RankApplications(new ApplicationRankingRequestBody(null, List.of(new CompetenceRequirementRequestBody(1, 1.0)), null, "2026-08-31"), null));
+        assertEquals("Invalid parameter : Provided position must specify both availableFrom and availableTo", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RankApplications(new ApplicationRankingRequestBody(null, List.of(new CompetenceRequirementRequestBody(1, 1.0, 0.0)), "2026-06-01", "2026-08-31"), null));
+        assertEquals("Invalid parameter : Provided weight for competence at index 0 must be positive", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RankApplications(new ApplicationRankingRequestBody("notAStatus", List.of(new CompetenceRequirementRequestBody(1, 1.0)), "2026-06-01", "2026-08-31"), null));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RankApplications(new ApplicationRankingRequestBody(null, List.of(new CompetenceRequirementRequestBody(1, 1.0)), "2026-08-31", "2026-06-01"), null));
+        assertEquals("Invalid parameter : Provided from (2026-08-31) must not be after to (2026-06-01)", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RankApplications(new ApplicationRankingRequestBody(null, List.of(new CompetenceRequirementRequestBody(1, 1.0)), "2026-06-01", "2026-08-31"), "501"));
+        assertEquals("Invalid parameter : Provided page size (501) must be between 1 and 500", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).RankApplications(any(ApplicationRankingQuery.class), anyInt());
+
+        //And finally that a correct position is parsed, where the weight defaults to 1
+        assertEquals(ranked, reviewerEndpointController.RankApplications(new ApplicationRankingRequestBody("unchecked",
+            List.of(new CompetenceRequirementRequestBody(1, 2.0, 3.0), new CompetenceRequirementRequestBody(2, null)), "2026-06-01", "2026-08-31"), "10"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).RankApplications(Mockito.argThat(query -> query.getStatus()==ApplicationStatus.unchecked
+            && query.getCompetenceRequirements().size()==2 && query.getCompetenceRequirements().get(0).getWeight()==3.0
+            && query.getCompetenceRequirements().get(0).getMinimumYearsOfExperience()==2.0 && query.getCompetenceRequirements().get(1).getWeight()==1.0
+            && query.getAvailableFrom().equals(LocalDate.parse("2026-06-01")) && query.getAvailableTo().equals(LocalDate.parse("2026-08-31"))), Mockito.eq(10));
+    }
+
+    @Test
+    /**
+     * This is a test for the ClaimApplications method
+     */
+    void ClaimApplicationsTest()
+    {
+        //We create test objects
+        List<LeasedApplication> claimed=new ArrayList<LeasedApplication>();
+
+        //We define the mock objects behaviour
+        when(reviewService.ClaimApplications(any(), anyInt())).thenReturn(claimed);
+
+        //We then test that the different invalid parameter exception cases are thrown correctly, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.ClaimApplications("ten"));
+        assertEquals("Invalid parameter : Provided value (ten) could not be parsed as a valid integer", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.ClaimApplications("51"));
+        assertEquals("Invalid parameter : Provided count (51) must be between 1 and 50", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.ClaimApplications("0"));
+        assertEquals("Invalid parameter : Provided count (0) must be between 1 and 50", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).ClaimApplications(any(), anyInt());
+
+        //And finally that the applications are claimed for the current user, where the count defaults to 10
+        assertEquals(claimed, reviewerEndpointController.ClaimApplications(null));
+        assertEquals(claimed, reviewerEndpointController.ClaimApplications("3"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).ClaimApplications(details.getPersonId(), 10);
+        Mockito.verify(this.reviewService, Mockito.times(1)).ClaimApplications(details.getPersonId(), 3);
+    }
+
+    @Test
+    /**
+     * This is a test for the RenewApplicationLease and ReleaseApplicationLease methods
+     */
+    void RenewAndReleaseApplicationLeaseTest()
+    {
+        //We create test objects
+        ApplicationLease lease=new ApplicationLease(1, details.getPersonId(), Instant.parse("2026-01-01T10:15:00Z"));
+
+        //We define the mock objects behaviour
+        when(reviewService.RenewApplicationLease(any(), any())).thenReturn(lease);
+
+        //We then test that invalid application ids are rejected, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.RenewApplicationLease("one"));
+        assertEquals("Invalid parameter : Provided value (one) could not be parsed as a valid integer", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.ReleaseApplicationLease("one"));
+        assertEquals("Invalid parameter : Provided value (one) could not be parsed as a valid integer", e.getMessage());
+
+        //And finally that the lease of the current user is renewed and released
+        assertEquals(lease, reviewerEndpointController.RenewApplicationLease("1"));
+        assertEquals("Released lease on application with id : 1", reviewerEndpointController.ReleaseApplicationLease("1"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).RenewApplicationLease(1, details.getPersonId());
+        Mockito.verify(this.reviewService, Mockito.times(1)).ReleaseApplicationLease(1, details.getPersonId());
+    }
+
+    @Test
+    /**
+     * This is a test for the GetAvailablePersons method
+     */
+    void GetAvailablePersonsTest()
+    {
+        //We define the mock objects behaviour
+        when(reviewService.GetAvailablePersons(any(LocalDate.class), any(LocalDate.class), any(Boolean.class))).thenReturn(List.of(1, 2));
+
+        //We then test that the different invalid parameter exception cases are thrown correctly, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetAvailablePersons("2026-06-01", null, null));
+        assertEquals("Invalid parameter : Provided period must specify both from and to", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetAvailablePersons("notADate", "2026-06-01", null));
+        assertEquals("Invalid parameter : Provided value (notADate) could not be parsed as a valid date, please specify as yyyy-mm-dd", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetAvailablePersons("2026-06-02", "2026-06-01", null));
+        assertEquals("Invalid parameter : Provided from (2026-06-02) must not be after to (2026-06-01)", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetAvailablePersons("2026-06-01", "2026-06-01", "notABoolean"));
+        assertEquals("Invalid parameter : Provided value (notABoolean) is not valid value for covering, please specify as \"true\" or \"false\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetAvailablePersons(any(LocalDate.class), any(LocalDate.class), any(Boolean.class));
+
+        //We then test that covering defaults to false, and that a correct input is passed to the service
+        assertEquals(List.of(1, 2), reviewerEndpointController.GetAvailablePersons("2026-06-01", "2026-06-01", null));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetAvailablePersons(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-06-01"), false);
+        assertEquals(List.of(1, 2), reviewerEndpointController.GetAvailablePersons("2026-06-01", "2026-08-31", "TRUE"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetAvailablePersons(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31"), true);
+    }
+
+    @Test
+    /**
+     * This is a test for the GetDailyAvailability method
+     */
+    void GetDailyAvailabilityTest()
+    {
+        //We create test objects
+        List<AvailableDayCount> counts=List.of(new AvailableDayCount(LocalDate.parse("2026-06-01"), 3));
+
+        //We define the mock objects behaviour
+        when(reviewService.GetDailyAvailability(any(LocalDate.class), any(LocalDate.class))).thenReturn(counts);
+
+        //We then test that a period longer than a year is rejected, along with the period validation shared with GetAvailablePersons
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetDailyAvailability("2026-01-01", "2027-01-02"));
+        assertEquals("Invalid parameter : Provided period must be at most 366 days long", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetDailyAvailability(null, "2026-06-01"));
+        assertEquals("Invalid parameter : Provided period must specify both from and to", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetDailyAvailability(any(LocalDate.class), any(LocalDate.class));
+
+        //And finally that the longest allowed period is passed to the service
+        assertEquals(counts, reviewerEndpointController.GetDailyAvailability("2026-01-01", "2027-01-01"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetDailyAvailability(LocalDate.parse("2026-01-01"), LocalDate.parse("2027-01-01"));
+    }
+
+    @Test
+    /**
+     * This is a test for the GetApplicationStatusCounts and GetDailyApplicationStatusCounts methods
+     */
+    void GetApplicationStatusCountsTest()
+    {
+        //We create test objects
+        ApplicationStatusCounts counts=new ApplicationStatusCounts(null, Map.of(ApplicationStatus.unchecked, 2L, ApplicationStatus.accepted, 0L, ApplicationStatus.denied, 1L));
+        List<ApplicationStatusCounts> days=List.of(new ApplicationStatusCounts(LocalDate.parse("2026-06-01"), Map.of(ApplicationStatus.unchecked, 2L, ApplicationStatus.accepted, 0L, ApplicationStatus.denied, 1L)));
+
+        //We define the mock objects behaviour
+        when(reviewService.GetApplicationStatusCounts()).thenReturn(counts);
+        when(reviewService.GetDailyApplicationStatusCounts(any(LocalDate.class), any(LocalDate.class))).thenReturn(days);
+
+        //We then test that a period longer than a year is rejected
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetDailyApplicationStatusCounts("2026-01-01", "2027-01-02"));
+        assertEquals("Invalid parameter : Provided period must be at most 366 days long", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetDailyApplicationStatusCounts(any(LocalDate.class), any(LocalDate.class));
+
+        //And finally that the counts are passed on from the service
+        assertEquals(counts, reviewerEndpointController.GetApplicationStatusCounts());
+        assertEquals(days, reviewerEndpointController.GetDailyApplicationStatusCounts("2026-06-01", "2026-06-01"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetDailyApplicationStatusCounts(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-06-01"));
+    }
+
+    @Test
+    /**
+     * This is a test for the GetApplicationSummaries and GetApplicationSummariesByStatus methods
+     */
+    void GetApplicationSummariesTest()
+    {
+        //We create test objects
+        List<ApplicationSummaryDTO> summaries=new ArrayList<ApplicationSummaryDTO>();
+        summaries.add(Mockito.mock(ApplicationSummaryDTO.class));
+        ApplicationPage<ApplicationSummaryDTO> page=new ApplicationPage<ApplicationSummaryDTO>(summaries, null);
+
+        //We define the mock objects behaviour
+        when(reviewService.GetApplicationSummariesPage(any(), any(), anyInt())).thenReturn(page);
+
+        //We then test that invalid parameters are rejected before the service is called
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationSummaries(null, "0"));
+        assertEquals("Invalid parameter : Provided page size (0) must be between 1 and 500", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationSummariesByStatus("notAStatus", null, null));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationSummariesByStatus(null, null, null));
+        assertEquals("Invalid parameter : Provided status value is null, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetApplicationSummariesPage(any(), any(), anyInt());
+
+        //We then test that the page from the service is returned
+        assertEquals(page, reviewerEndpointController.GetApplicationSummaries(null, null));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationSummariesPage(null, null, 50);
+
+        assertEquals(page, reviewerEndpointController.GetApplicationSummariesByStatus("ACCEPTED", "cursor", "10"));
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationSummariesPage(ApplicationStatus.accepted, "cursor", 10);
+    }
+
     @Test
     /**
      * This is a test for the GetApplications method
@@ -142,10 +475,48 @@ public class ReviewerEndpointControllerUnitTest {
      */
     void GetApplicationsByIdTest()
     {
+        //We define the mock objects behaviour, in this case we return a new application (with version number 0)
+        when(reviewService.GetApplicationsById(anyInt())).thenReturn(new Application());
 
-        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsById("NotAnInt"));
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.GetApplicationsById("NotAnInt",null));
         assertEquals("Invalid parameter : Provided value (NotAnInt) could not be parsed as a valid integer", e.getMessage());
-        reviewerEndpointController.GetApplicationsById("1");
+
+        //We then confirm that an unconditional request loads the application directly, and returns it with a tag based on its version number
+        ResponseEntity<ApplicationDTO> result=reviewerEndpointController.GetApplicationsById("1",null);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"application-1-0\"", result.getHeaders().getETag());
+        assertEquals("no-cache, private", result.getHeaders().getCacheControl());
+        assertNotNull(result.getBody());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetApplicationVersion(anyInt());
+    }
+
+    @Test
+    /**
+     * This tests the GetApplicationsById method when the request contains an If-None-Match header
+     */
+    void GetApplicationsByIdConditionalTest()
+    {
+        //We define the mock objects behaviour, in this case the current version number of the application is 3
+        when(reviewService.GetApplicationVersion(anyInt())).thenReturn(3L);
+
+        //We then confirm that a matching tag results in a 304 response, without the application being loaded
+        ResponseEntity<ApplicationDTO> result=reviewerEndpointController.GetApplicationsById("1","\"application-1-3\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertEquals("\"application-1-3\"", result.getHeaders().getETag());
+        assertNull(result.getBody());
+
+        //The same should be the case for a weak tag, or one of several tags
+        assertEquals(HttpStatus.NOT_MODIFIED, reviewerEndpointController.GetApplicationsById("1","W/\"application-1-3\"").getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, reviewerEndpointController.GetApplicationsById("1","\"application-1-2\", \"application-1-3\"").getStatusCode());
+        Mockito.verify(this.reviewService, Mockito.times(0)).GetApplicationsById(anyInt());
+
+        //And a tag for an older version should result in the application being loaded
+        Application application=new Application();
+        when(reviewService.GetApplicationsById(anyInt())).thenReturn(application);
+        result=reviewerEndpointController.GetApplicationsById("1","\"application-1-2\"");
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(application, result.getBody());
+        Mockito.verify(this.reviewService, Mockito.times(1)).GetApplicationsById(1);
     }
 
     @Test
@@ -154,18 +525,12 @@ public class ReviewerEndpointControllerUnitTest {
      */
     void UpdateApplicationsByStatusTest()
     {
-        //We create the test objects
-        List<Application> applications=new ArrayList<Application>();
-        Application application1=new Application();
-        application1.setApplicationStatus(ApplicationStatus.unchecked);
-        application1.setApplicationId(0);
-        applications.add(application1);
-
-        //We define the mock objects behaviour, in this case we simply set the status of the test object to the provided value
+        //We define the mock objects behaviour, in this case we simply return the provided status with an incremented version number
         when(reviewService.SetApplicationStatus(anyInt(),any(ApplicationStatus.class),anyInt())).thenAnswer(invocation -> {
+            Integer applicationIdArg=(Integer)invocation.getArguments()[0];
             ApplicationStatus ApplicationStatusArg=(ApplicationStatus)invocation.getArguments()[1];
-            application1.setApplicationStatus(ApplicationStatusArg);
-            return application1;
+            Integer versionNumberArg=(Integer)invocation.getArguments()[2];
+            return new ApplicationStatusChange(applicationIdArg, ApplicationStatusArg, versionNumberArg+1);
         });
 
         //We then test that the different invalid parameter exception cases are thrown correctly
@@ -186,12 +551,129 @@ public class ReviewerEndpointControllerUnitTest {
         Mockito.verify(this.reviewService, Mockito.times(0)).SetApplicationStatus(anyInt(),any(ApplicationStatus.class),anyInt());
 
         //And finally we verify that a correct input results in a correct update of the status
-        ApplicationDTO result=reviewerEndpointController.UpdateApplicationsByStatus("0","accepted","0");
+        ApplicationStatusChange result=reviewerEndpointController.UpdateApplicationsByStatus("0","accepted","0");
         Mockito.verify(this.reviewService, Mockito.times(1)).SetApplicationStatus(anyInt(),any(ApplicationStatus.class),anyInt());
-        assertEquals(application1.getApplicationId(), result.getApplicationId());
+        assertEquals(0, result.getApplicationId());
         assertEquals(ApplicationStatus.accepted, result.getApplicationStatus());
+        assertEquals(1, result.getVersionNumber());
 
 
     }
 
+    @Test
+    /**
+     * This is a test for the UpdateApplicationStatuses method
+     */
+    void UpdateApplicationStatusesTest()
+    {
+        //We define the mock objects behaviour, in this case every update is applied
+        when(reviewService.SetApplicationStatuses(anyList())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<ApplicationStatusChange> changes=(List<ApplicationStatusChange>)invocation.getArguments()[0];
+            List<ApplicationStatusUpdateResult> results=new ArrayList<ApplicationStatusUpdateResult>();
+            for (ApplicationStatusChange change : changes) {
+                results.add(new ApplicationStatusUpdateResult(change.getApplicationId(), change.getApplicationStatus(), change.getVersionNumber()+1, ApplicationStatusUpdateOutcome.applied, null));
+            }
+            return results;
+        });
+
+        //We then test that the different invalid parameter exception cases are thrown correctly, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.UpdateApplicationStatuses(new ArrayList<ApplicationStatusUpdateRequestBody>()));
+        assertEquals("Invalid parameter : Provided number of status updates (0) must be between 1 and 500", e.getMessage());
+
+        List<ApplicationStatusUpdateRequestBody> tooMany=new ArrayList<ApplicationStatusUpdateRequestBody>();
+        for (int i = 0; i <= 500; i++) {
+            tooMany.add(new ApplicationStatusUpdateRequestBody(i, "accepted", 0));
+        }
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.UpdateApplicationStatuses(tooMany));
+        assertEquals("Invalid parameter : Provided number of status updates (501) must be between 1 and 500", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.UpdateApplicationStatuses(List.of(new ApplicationStatusUpdateRequestBody(0, "accepted", 0), new ApplicationStatusUpdateRequestBody(1, "accepted", null))));
+        assertEquals("Invalid parameter : Provided status update at index 1 must specify applicationId, status and versionNumber", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.UpdateApplicationStatuses(List.of(new ApplicationStatusUpdateRequestBody(0, "notAStatus", 0))));
+        assertEquals("Invalid parameter : Provided value (notAStatus) is not valid value for application status, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.UpdateApplicationStatuses(List.of(new ApplicationStatusUpdateRequestBody(0, null, 0))));
+        assertEquals("Invalid parameter : Provided status value is null, please specify as \"unchecked\",\"accepted\" or \"denied\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).SetApplicationStatuses(anyList());
+
+        //And finally we verify that a correct input is passed to the service in order
+        List<ApplicationStatusUpdateResult> results=reviewerEndpointController.UpdateApplicationStatuses(List.of(new ApplicationStatusUpdateRequestBody(3, "ACCEPTED", 0), new ApplicationStatusUpdateRequestBody(1, "denied", 2)));
+        Mockito.verify(this.reviewService, Mockito.times(1)).SetApplicationStatuses(anyList());
+        assertEquals(2, results.size());
+        assertEquals(3, results.get(0).getApplicationId());
+        assertEquals(ApplicationStatus.accepted, results.get(0).getApplicationStatus());
+        assertEquals(1, results.get(1).getApplicationId());
+        assertEquals(ApplicationStatus.denied, results.get(1).getApplicationStatus());
+        assertEquals(3, results.get(1).getVersionNumber());
+    }
+
+    @Test
+    /**
+     * This is a test for the ExportApplications method, using the csv format
+     */
+    void ExportApplicationsTest() throws IOException
+    {
+        //We create test objects, where the applicant name needs to be quoted and the surname would otherwise be evaluated as a formula
+        Person applicant=new Person();
+        applicant.setId(7);
+        applicant.setName("Anna, Maria");
+        applicant.setSurname("=SUM(A1)");
+        applicant.setEmail("anna@example.com");
+        applicant.setPnr("19900101-1234");
+        Competence competence=new Competence();
+        competence.setName("ticket sales");
+        List<CompetenceProfile> profiles=new ArrayList<CompetenceProfile>();
+        profiles.add(new CompetenceProfile(applicant, competence, 2.5));
+        List<Availability> periods=new ArrayList<Availability>();
+        periods.add(new Availability(applicant, java.sql.Date.valueOf("2026-06-01"), java.sql.Date.valueOf("2026-06-30")));
+        periods.add(new Availability(applicant, java.sql.Date.valueOf("2026-08-01"), java.sql.Date.valueOf("2026-08-31")));
+        Application application=new Application(applicant, periods, profiles);
+        application.setApplicationId(3);
+        application.setApplicationDate(java.sql.Date.valueOf("2026-02-14"));
+
+        //We define the mock objects behaviour
+        Mockito.doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<ApplicationDTO> consumer=(Consumer<ApplicationDTO>)invocation.getArguments()[2];
+            consumer.accept(application);
+            return null;
+        }).when(reviewService).ForEachApplicationInPeriod(any(LocalDate.class), any(LocalDate.class), any());
+
+        //We then test that the different invalid parameter exception cases are thrown correctly, without calling the service
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.ExportApplications("2026-01-01", null, null));
+        assertEquals("Invalid parameter : Provided period must specify both from and to", e.getMessage());
+        e = assertThrowsExactly(InvalidParameterException.class, () -> reviewerEndpointController.ExportApplications("2026-01-01", "2026-03-31", "xml"));
+        assertEquals("Invalid parameter : Provided value (xml) is not valid value for format, please specify as \"csv\" or \"ndjson\"", e.getMessage());
+        Mockito.verify(this.reviewService, Mockito.times(0)).ForEachApplicationInPeriod(any(LocalDate.class), any(LocalDate.class), any());
+
+        //And finally that the csv file is written with a header and one flattened row per application
+        ResponseEntity<StreamingResponseBody> response=reviewerEndpointController.ExportApplications("2026-01-01", "2026-03-31", null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("attachment; filename=\"applications-2026-01-01-2026-03-31.csv\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        ByteArrayOutputStream output=new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        String[] lines=output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("applicationId,applicationDate,applicationStatus,versionNumber,applicantId,applicantName,applicantSurname,applicantEmail,applicantPnr,competences,availability", lines[0]);
+        assertEquals("3,2026-02-14,unchecked,0,7,\"Anna, Maria\",'=SUM(A1),anna@example.com,19900101-1234,ticket sales:2.5,2026-06-01/2026-06-30;2026-08-01/2026-08-31", lines[1]);
+        Mockito.verify(this.reviewService, Mockito.times(1)).ForEachApplicationInPeriod(Mockito.eq(LocalDate.parse("2026-01-01")), Mockito.eq(LocalDate.parse("2026-03-31")), any());
+    }
+
+    @Test
+    /**
+     * This is a test for the SubscribeToApplicationEvents method
+     */
+    void SubscribeToApplicationEventsTest()
+    {
+        //We test that the returned emitter is the one subscribed to the service
+        SseEmitter emitter=reviewerEndpointController.SubscribeToApplicationEvents();
+        Mockito.verify(this.applicationEventService, Mockito.times(1)).Subscribe(emitter);
+
+        //We then test that the exception from the service is not caught
+        Mockito.doThrow(new SubscriberLimitReachedException("too many reviewers are subscribed, please try again later")).when(applicationEventService).Subscribe(any(SseEmitter.class));
+        var e = assertThrowsExactly(SubscriberLimitReachedException.class, () -> reviewerEndpointController.SubscribeToApplicationEvents());
+        assertEquals("Could not subscribe to application events due to : too many reviewers are subscribed, please try again later", e.getMessage());
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demo.presentation.unit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -19,6 +20,8 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -133,8 +136,13 @@ public class TranslationEndpointControllerUnitTest {
             return translations;
         });
 
+        when(translationService.GetCatalogRevision()).thenReturn("1");
+
         //We then test the method and confirm it returns the competence translation it gets from the service
-        List<? extends CompetenceTranslationDTO> result=translationEndpointController.GetCompetenceTranslation("testLanguage");
+        ResponseEntity<List<? extends CompetenceTranslationDTO>> response=translationEndpointController.GetCompetenceTranslation("testLanguage",null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"translations-testlanguage-1\"", response.getHeaders().getETag());
+        List<? extends CompetenceTranslationDTO> result=response.getBody();
         assertNotNull(result);
         assertEquals(1, result.size());
         assertNotEquals("testLanguage", result.get(0).getLanguage().getLanguageName()); //This is since the endpoint passes the parameter in lower case, so it should not return with any upper case letters
@@ -156,10 +164,43 @@ public class TranslationEndpointControllerUnitTest {
             return languages;
         });
 
+        when(translationService.GetCatalogRevision()).thenReturn("1");
+
         //We then test the method and confirm it returns the languages list it gets from the service
-        List<? extends LanguageDTO> result=translationEndpointController.GetLanguages();
+        ResponseEntity<List<? extends LanguageDTO>> response=translationEndpointController.GetLanguages(null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"languages-1\"", response.getHeaders().getETag());
+        assertEquals("max-age=300, public", response.getHeaders().getCacheControl());
+        List<? extends LanguageDTO> result=response.getBody();
         assertNotNull(result);
         assertEquals(2, result.size());
     }
 
+    @Test
+    /** 
+     * This is a test for the GetLanguages and GetCompetenceTranslation methods when the request contains an If-None-Match header
+     */
+    void ConditionalTranslationRequestTest()
+    {
+        when(translationService.GetCatalogRevision()).thenReturn("2");
+
+        //We confirm that a tag matching the current revision results in a 304 response, without the catalog being loaded
+        ResponseEntity<List<? extends LanguageDTO>> languages=translationEndpointController.GetLanguages("\"languages-2\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, languages.getStatusCode());
+        assertNull(languages.getBody());
+        ResponseEntity<List<? extends CompetenceTranslationDTO>> translations=translationEndpointController.GetCompetenceTranslation("English","\"translations-english-2\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, translations.getStatusCode());
+        assertNull(translations.getBody());
+        Mockito.verify(this.translationService, Mockito.times(0)).GetLanguages();
+        Mockito.verify(this.translationService, Mockito.times(0)).GetCompetenceTranslation(anyString());
+
+        //While a tag from an older revision, or for another language, results in the catalog being loaded
+        when(translationService.GetLanguages()).thenAnswer(invocation -> new ArrayList<Language>());
+        when(translationService.GetCompetenceTranslation(anyString())).thenAnswer(invocation -> new ArrayList<CompetenceTranslation>());
+        assertEquals(HttpStatus.OK, translationEndpointController.GetLanguages("\"languages-1\"").getStatusCode());
+        assertEquals(HttpStatus.OK, translationEndpointController.GetCompetenceTranslation("swedish","\"translations-english-2\"").getStatusCode());
+        Mockito.verify(this.translationService, Mockito.times(1)).GetLanguages();
+        Mockito.verify(this.translationService, Mockito.times(1)).GetCompetenceTranslation("swedish");
+    }
+
 }
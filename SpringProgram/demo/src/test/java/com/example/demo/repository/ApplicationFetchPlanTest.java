@@ -0,0 +1,210 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+import com.example.demo.service.ReviewService;
+import com.example.demo.service.index.ApplicationSearchIndex;
+import com.example.demo.service.index.AvailabilityIntervalIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * This tests the number of sql statements used by each read path in ReviewService,
+ * and that the returned applications can be serialized after the transaction has ended without any lazy loading
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb", //This specifies the in-memory database url
+    "spring.jpa.hibernate.ddl-auto=create-drop", //This is used to specify that the database schema should be dropped after the test is over
+    "spring.jpa.properties.hibernate.generate_statistics=true" //This enables the statistics used to count the executed statements
+})
+@Import({ReviewService.class, ApplicationSearchIndex.class, AvailabilityIntervalIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //This disables the test transaction, since ReviewService uses its own transactions and must be able to see the test data
+public class ApplicationFetchPlanTest {
+    //The number of statements used to load any number of applications (below FETCH_PLAN_BATCH_SIZE), one for the applications and one for each collection
+    private static final long EXPECTED_STATEMENTS = 3;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private List<Application> applications;
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() {
+        statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        applications=new ArrayList<Application>();
+
+        //We create 3 applicants, each with their own application with 2 availability periods and 2 competence profiles
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long systemTime=System.currentTimeMillis();
+
+            Role role = new Role();
+            role.setName("test role");
+            roleRepository.save(role);
+
+            Competence competence = new Competence();
+            competence.setName("competence");
+            competenceRepository.save(competence);
+            Competence competence2 = new Competence();
+            competence2.setName("competence2");
+            competenceRepository.save(competence2);
+
+            for (int i = 0; i < 3; i++) {
+                Person person=new Person();
+                person.setName("test"+i);
+                person.setSurname("testsson");
+                person.setEmail("test"+i+"@test.test");
+                person.setPassword("testPassword");
+                person.setPnr("12345678-123"+i);
+                person.setRole(role);
+                person.setUsername("username"+i);
+                personRepository.save(person);
+
+                List<Availability> availabilityList=new ArrayList<Availability>();
+                availabilityList.add(availabilityRepository.save(new Availability(person, new java.sql.Date(systemTime+44444), new java.sql.Date(systemTime+44444))));
+                availabilityList.add(availabilityRepository.save(new Availability(person, new java.sql.Date(systemTime+3123124), new java.sql.Date(systemTime+5123123))));
+
+                List<CompetenceProfile> competenceProfiles=new ArrayList<CompetenceProfile>();
+                competenceProfiles.add(competenceProfileRepository.save(new CompetenceProfile(person, competence, 2.0)));
+                competenceProfiles.add(competenceProfileRepository.save(new CompetenceProfile(person, competence2, 1.0)));
+
+                applications.add(applicationRepository.save(new Application(person, availabilityList, competenceProfiles)));
+            }
+        });
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            applicationRepository.deleteAll();
+            competenceProfileRepository.deleteAll();
+            availabilityRepository.deleteAll();
+            competenceRepository.deleteAll();
+            personRepository.deleteAll();
+            roleRepository.deleteAll();
+        });
+    }
+
+    /**
+     * This confirms that the applications were loaded using the expected number of statements,
+     * and that they can then be serialized without executing any more statements
+     * @param result the applications returned by the read path
+     * @param expectedApplications the expected number of applications
+     */
+    private void assertLoadedWithFixedStatements(List<? extends ApplicationDTO> result, int expectedApplications)
+    {
+        assertEquals(expectedApplications, result.size());
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+
+        //Note that this would throw a LazyInitializationException if any collection was not loaded, since the transaction has ended
+        String json = assertDoesNotThrow(() -> objectMapper.writeValueAsString(result));
+        assertEquals(true, json.contains("competence2"));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+
+        for (ApplicationDTO application : result) {
+            assertEquals(2, application.getAvailabilityPeriodsForApplication().size());
+            assertEquals(2, application.getCompetenceProfilesForApplication().size());
+        }
+    }
+
+    @Test
+    /**
+     * This tests the number of statements used by GetApplications
+     */
+    void GetApplicationsStatementCountTest()
+    {
+        assertLoadedWithFixedStatements(reviewService.GetApplications(), 3);
+    }
+
+    @Test
+    /**
+     * This tests the number of statements used by GetApplicationsByStatus
+     */
+    void GetApplicationsByStatusStatementCountTest()
+    {
+        assertLoadedWithFixedStatements(reviewService.GetApplicationsByStatus(ApplicationStatus.unchecked), 3);
+    }
+
+    @Test
+    /**
+     * This tests the number of statements used by GetApplicationsById
+     */
+    void GetApplicationsByIdStatementCountTest()
+    {
+        assertLoadedWithFixedStatements(List.of(reviewService.GetApplicationsById(applications.get(1).getApplicationId())), 1);
+    }
+
+    @Test
+    /**
+     * This tests the number of statements used by GetApplicationsPage
+     */
+    void GetApplicationsPageStatementCountTest()
+    {
+        assertLoadedWithFixedStatements(reviewService.GetApplicationsPage(null, 2).getContent(), 2);
+    }
+
+    @Test
+    /**
+     * This tests the number of statements used by ForEachApplication, where each application is serialized inside the transaction
+     */
+    void ForEachApplicationStatementCountTest()
+    {
+        List<String> lines = new ArrayList<String>();
+        reviewService.ForEachApplication(application -> lines.add(assertDoesNotThrow(() -> objectMapper.writeValueAsString(application))));
+        assertEquals(3, lines.size());
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+}
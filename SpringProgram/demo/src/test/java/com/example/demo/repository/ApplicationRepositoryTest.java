@@ -7,16 +7,26 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusChange;
+import com.example.demo.domain.dto.ApplicationIndexDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
+import com.example.demo.domain.dto.AvailabilityIndexDTO;
+import com.example.demo.domain.dto.CompetenceIndexDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Competence;
@@ -164,6 +174,273 @@ public class ApplicationRepositoryTest {
 
     }
 
+    @Test
+    /**
+     * This is a test for the findByApplicationIdGreaterThanOrderByApplicationIdAsc method
+     */
+    void findByApplicationIdGreaterThanOrderByApplicationIdAscTest()
+    {
+        //The first page should contain the first application only, since the limit is 1
+        List<Application> findResult = applicationRepository.findByApplicationIdGreaterThanOrderByApplicationIdAsc(0, Limit.of(1));
+        assertNotNull(findResult);
+        assertEquals(1, findResult.size());
+        assertEquals(application, findResult.get(0));
+
+        //The page after the first application should only contain the second application
+        findResult = applicationRepository.findByApplicationIdGreaterThanOrderByApplicationIdAsc(application.getApplicationId(), Limit.of(10));
+        assertEquals(1, findResult.size());
+        assertEquals(application2, findResult.get(0));
+
+        //And the page after the second application should be empty
+        findResult = applicationRepository.findByApplicationIdGreaterThanOrderByApplicationIdAsc(application2.getApplicationId(), Limit.of(10));
+        assertEquals(0, findResult.size());
+    }
+
+    @Test
+    /**
+     * This is a test for the findSummariesByApplicationIdGreaterThan method
+     */
+    void findSummariesByApplicationIdGreaterThanTest()
+    {
+        //The first page should contain the summary of the first application only, since the limit is 1
+        List<ApplicationSummaryDTO> findResult = applicationRepository.findSummariesByApplicationIdGreaterThan(0, Limit.of(1));
+        assertNotNull(findResult);
+        assertEquals(1, findResult.size());
+        ApplicationSummaryDTO summary = findResult.get(0);
+        assertEquals(application.getApplicationId(), summary.getApplicationId());
+        assertEquals(ApplicationStatus.unchecked, summary.getApplicationStatus());
+        assertEquals(application.getVersionNumber(), summary.getVersionNumber());
+        assertEquals(application.getApplicationDate().toString(), summary.getApplicationDate().toString());
+        assertEquals("test", summary.getApplicantName());
+        assertEquals("testsson", summary.getApplicantSurname());
+        assertEquals(2, summary.getAvailabilityPeriodCount());
+        assertEquals(1, summary.getCompetenceProfileCount());
+
+        //The page after the first application should only contain the second application
+        findResult = applicationRepository.findSummariesByApplicationIdGreaterThan(application.getApplicationId(), Limit.of(10));
+        assertEquals(1, findResult.size());
+        assertEquals(application2.getApplicationId(), findResult.get(0).getApplicationId());
+
+        //And the page after the second application should be empty
+        findResult = applicationRepository.findSummariesByApplicationIdGreaterThan(application2.getApplicationId(), Limit.of(10));
+        assertEquals(0, findResult.size());
+    }
+
+    @Test
+    /**
+     * This is a test for the findSummariesByApplicationStatusAndApplicationIdGreaterThan method
+     */
+    void findSummariesByApplicationStatusAndApplicationIdGreaterThanTest()
+    {
+        List<ApplicationSummaryDTO> findResult = applicationRepository.findSummariesByApplicationStatusAndApplicationIdGreaterThan(ApplicationStatus.unchecked, 0, Limit.of(10));
+        assertEquals(2, findResult.size());
+        assertEquals(application.getApplicationId(), findResult.get(0).getApplicationId());
+        assertEquals(application2.getApplicationId(), findResult.get(1).getApplicationId());
+
+        findResult = applicationRepository.findSummariesByApplicationStatusAndApplicationIdGreaterThan(ApplicationStatus.accepted, 0, Limit.of(10));
+        assertEquals(0, findResult.size());
+
+        application2.setApplicationStatus(ApplicationStatus.accepted);
+        applicationRepository.save(application2);
+
+        findResult = applicationRepository.findSummariesByApplicationStatusAndApplicationIdGreaterThan(ApplicationStatus.accepted, 0, Limit.of(10));
+        assertEquals(1, findResult.size());
+        assertEquals(application2.getApplicationId(), findResult.get(0).getApplicationId());
+    }
+
+    @Test
+    /**
+     * This is a test for the updateApplicationStatusByApplicationIdAndVersionNumber and findStatusByApplicationId methods
+     */
+    void updateApplicationStatusByApplicationIdAndVersionNumberTest()
+    {
+        Integer applicationId = application.getApplicationId();
+        long versionNumber = application.getVersionNumber();
+
+        //An incorrect version number, an unchanged status or an unknown id should not update anything
+        assertEquals(0, applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(applicationId, ApplicationStatus.accepted, versionNumber+1));
+        assertEquals(0, applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(applicationId, ApplicationStatus.unchecked, versionNumber));
+        assertEquals(0, applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(-1, ApplicationStatus.accepted, versionNumber));
+
+        //A correct update should change the status and increment the version number
+        assertEquals(1, applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(applicationId, ApplicationStatus.accepted, versionNumber));
+        ApplicationStatusChange state = applicationRepository.findStatusByApplicationId(applicationId).orElse(null);
+        assertNotNull(state);
+        assertEquals(applicationId, state.getApplicationId());
+        assertEquals(ApplicationStatus.accepted, state.getApplicationStatus());
+        assertEquals(versionNumber+1, state.getVersionNumber());
+
+        //The same version number can then not be used again
+        assertEquals(0, applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(applicationId, ApplicationStatus.denied, versionNumber));
+
+        //The other application should not have been changed
+        assertEquals(ApplicationStatus.unchecked, applicationRepository.findStatusByApplicationId(application2.getApplicationId()).get().getApplicationStatus());
+        assertTrue(applicationRepository.findStatusByApplicationId(-1).isEmpty());
+
+        //Since the update clears the persistence context, we reload the applications so the tear down deletes the current versions
+        application = applicationRepository.findById(applicationId).get();
+        application2 = applicationRepository.findById(application2.getApplicationId()).get();
+    }
+
+    @Test
+    /**
+     * This is a test for the updateApplicationStatusesByApplicationIdAndVersionNumber and findStatusByApplicationIdIn methods
+     */
+    void updateApplicationStatusesByApplicationIdAndVersionNumberTest()
+    {
+        long versionNumber = application.getVersionNumber();
+        List<ApplicationStatusChange> changes = new ArrayList<ApplicationStatusChange>();
+        changes.add(new ApplicationStatusChange(application.getApplicationId(), ApplicationStatus.accepted, versionNumber)); //This should be applied
+        changes.add(new ApplicationStatusChange(application.getApplicationId(), ApplicationStatus.denied, versionNumber)); //This should conflict, since the previous update changed the version
+        changes.add(new ApplicationStatusChange(application2.getApplicationId(), ApplicationStatus.unchecked, application2.getVersionNumber())); //This should not change anything
+        changes.add(new ApplicationStatusChange(-1, ApplicationStatus.accepted, 0)); //This application does not exist
+
+        int[] counts = applicationRepository.updateApplicationStatusesByApplicationIdAndVersionNumber(changes);
+        assertEquals(4, counts.length);
+        assertEquals(1, counts[0]);
+        assertEquals(0, counts[1]);
+        assertEquals(0, counts[2]);
+        assertEquals(0, counts[3]);
+
+        List<ApplicationStatusChange> states = applicationRepository.findStatusByApplicationIdIn(List.of(application.getApplicationId(), application2.getApplicationId(), -1));
+        assertEquals(2, states.size());
+        for (ApplicationStatusChange state : states) {
+            if (state.getApplicationId().equals(application.getApplicationId())) {
+                assertEquals(ApplicationStatus.accepted, state.getApplicationStatus());
+                assertEquals(versionNumber+1, state.getVersionNumber());
+            }
+            else {
+                assertEquals(ApplicationStatus.unchecked, state.getApplicationStatus());
+                assertEquals(application2.getVersionNumber(), state.getVersionNumber());
+            }
+        }
+    }
+
+    @Test
+    /**
+     * This is a test for the claimUncheckedApplications, renewApplicationLease and releaseApplicationLease methods
+     */
+    void applicationLeaseTest()
+    {
+        Integer firstReviewer = testPerson.getId();
+        Integer secondReviewer = testPerson.getId()+1;
+        Timestamp now = Timestamp.from(Instant.parse("2026-01-01T10:00:00Z"));
+        Timestamp leaseExpiresAt = Timestamp.from(Instant.parse("2026-01-01T10:15:00Z"));
+        Timestamp afterExpiry = Timestamp.from(Instant.parse("2026-01-01T10:20:00Z"));
+
+        //Applications are claimed in id order, and applications leased by someone else are skipped
+        assertEquals(List.of(application.getApplicationId()), applicationRepository.claimUncheckedApplications(firstReviewer, 1, now, leaseExpiresAt));
+        assertEquals(List.of(application2.getApplicationId()), applicationRepository.claimUncheckedApplications(secondReviewer, 5, now, leaseExpiresAt));
+        assertEquals(List.of(application.getApplicationId()), applicationRepository.claimUncheckedApplications(firstReviewer, 5, now, leaseExpiresAt));
+
+        //Only the lease holder can renew a lease, and only before it expires
+        assertEquals(0, applicationRepository.renewApplicationLease(application.getApplicationId(), secondReviewer, now, afterExpiry));
+        assertEquals(1, applicationRepository.renewApplicationLease(application2.getApplicationId(), secondReviewer, now, afterExpiry));
+        assertEquals(0, applicationRepository.renewApplicationLease(application.getApplicationId(), firstReviewer, afterExpiry, afterExpiry));
+
+        //Once the lease of the first reviewer has expired, the application can be claimed by someone else, who also claims their own application again
+        assertEquals(List.of(application.getApplicationId(), application2.getApplicationId()), applicationRepository.claimUncheckedApplications(secondReviewer, 5, leaseExpiresAt, afterExpiry));
+        assertEquals(List.of(), applicationRepository.claimUncheckedApplications(firstReviewer, 5, leaseExpiresAt, afterExpiry));
+
+        //Only the lease holder can release a lease, after which the application can be claimed immediately
+        assertEquals(0, applicationRepository.releaseApplicationLease(application.getApplicationId(), firstReviewer));
+        assertEquals(1, applicationRepository.releaseApplicationLease(application.getApplicationId(), secondReviewer));
+        assertEquals(List.of(application.getApplicationId()), applicationRepository.claimUncheckedApplications(firstReviewer, 5, now, leaseExpiresAt));
+
+        //Applications which are no longer unchecked can not be claimed
+        assertEquals(1, applicationRepository.updateApplicationStatusesByApplicationIdAndVersionNumber(List.of(new ApplicationStatusChange(application2.getApplicationId(), ApplicationStatus.accepted, application2.getVersionNumber())))[0]);
+        assertEquals(List.of(application.getApplicationId()), applicationRepository.claimUncheckedApplications(firstReviewer, 5, afterExpiry, afterExpiry));
+    }
+
+    @Test
+    /**
+     * This is a test for the streamAllByOrderByApplicationIdAsc method
+     */
+    void streamAllByOrderByApplicationIdAscTest()
+    {
+        List<Application> streamResult;
+        try (Stream<Application> stream = applicationRepository.streamAllByOrderByApplicationIdAsc()) {
+            streamResult = stream.collect(Collectors.toList());
+        }
+        assertEquals(2, streamResult.size());
+        assertEquals(application, streamResult.get(0));
+        assertEquals(application2, streamResult.get(1));
+        assertEquals(testPerson, streamResult.get(0).getApplicant());
+    }
+
+    @Test
+    /**
+     * This is a test for the streamByApplicationDateBetween method
+     */
+    void streamByApplicationDateBetweenTest()
+    {
+        //We move the second application one day back, so it is submitted before the first one
+        java.sql.Date today=application.getApplicationDate();
+        java.sql.Date yesterday=java.sql.Date.valueOf(today.toLocalDate().minusDays(1));
+        application2.setApplicationDate(yesterday);
+        applicationRepository.save(application2);
+
+        List<Application> streamResult;
+        try (Stream<Application> stream = applicationRepository.streamByApplicationDateBetween(yesterday, today)) {
+            streamResult = stream.collect(Collectors.toList());
+        }
+        assertEquals(2, streamResult.size());
+        assertEquals(application2, streamResult.get(0));
+        assertEquals(application, streamResult.get(1));
+        assertEquals(testPerson, streamResult.get(1).getApplicant());
+
+        try (Stream<Application> stream = applicationRepository.streamByApplicationDateBetween(yesterday, yesterday)) {
+            streamResult = stream.collect(Collectors.toList());
+        }
+        assertEquals(List.of(application2), streamResult);
+    }
+
+    @Test
+    /**
+     * This is a test for the findSummariesByApplicationIdIn method
+     */
+    void findSummariesByApplicationIdInTest()
+    {
+        List<ApplicationSummaryDTO> findResult = applicationRepository.findSummariesByApplicationIdIn(List.of(application2.getApplicationId(), application2.getApplicationId()+1000));
+        assertEquals(1, findResult.size());
+        assertEquals(application2.getApplicationId(), findResult.get(0).getApplicationId());
+        assertEquals(2, findResult.get(0).getAvailabilityPeriodCount());
+    }
+
+    @Test
+    /**
+     * This is a test for the streamIndexRows, streamCompetenceIndexRows and streamAvailabilityIndexRows methods
+     */
+    void streamIndexRowsTest()
+    {
+        List<ApplicationIndexDTO> applicationRows;
+        try (Stream<ApplicationIndexDTO> stream = applicationRepository.streamIndexRows()) {
+            applicationRows = stream.collect(Collectors.toList());
+        }
+        assertEquals(2, applicationRows.size());
+        for (ApplicationIndexDTO row : applicationRows) {
+            assertEquals(ApplicationStatus.unchecked, row.getApplicationStatus());
+            assertNotNull(row.getApplicationDate());
+        }
+
+        //Each application includes the same single competence profile
+        List<CompetenceIndexDTO> competenceRows;
+        try (Stream<CompetenceIndexDTO> stream = applicationRepository.streamCompetenceIndexRows()) {
+            competenceRows = stream.collect(Collectors.toList());
+        }
+        assertEquals(2, competenceRows.size());
+        assertEquals(competence.getCompetenceId(), competenceRows.get(0).getCompetenceId());
+        assertEquals(2.0, competenceRows.get(0).getYearsOfExperience());
+
+        //Each application includes 2 availability periods
+        List<AvailabilityIndexDTO> availabilityRows;
+        try (Stream<AvailabilityIndexDTO> stream = applicationRepository.streamAvailabilityIndexRows()) {
+            availabilityRows = stream.collect(Collectors.toList());
+        }
+        assertEquals(4, availabilityRows.size());
+        assertEquals(2, availabilityRows.stream().filter(row -> row.getApplicationId().equals(application.getApplicationId())).count());
+    }
+
     @Test
     /**
      * This tests the application entities constraints
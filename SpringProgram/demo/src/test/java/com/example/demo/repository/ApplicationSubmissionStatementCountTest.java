@@ -0,0 +1,232 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.domain.ApplicantWorkspace;
+import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.CompetenceTranslation;
+import com.example.demo.domain.entity.Language;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.AvailabilityInvalidException;
+import com.example.demo.service.ApplicationService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * This tests the number of sql statements used by ApplicationService.SubmitApplication and ApplicationService.GetWorkspace,
+ * which should not depend on how many availability periods and competence profiles are submitted or retrived
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:testdb", //This specifies the in-memory database url
+    "spring.jpa.hibernate.ddl-auto=create-drop", //This is used to specify that the database schema should be dropped after the test is over
+    "spring.jpa.properties.hibernate.generate_statistics=true" //This enables the statistics used to count the executed statements
+})
+@Import({ApplicationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) //This disables the test transaction, since ApplicationService uses its own transactions and must be able to see the test data
+public class ApplicationSubmissionStatementCountTest {
+    //The number of availability periods and competence profiles created for each person
+    private static final int ENTRIES_PER_PERSON = 10;
+
+    @Autowired
+    private ApplicationService applicationService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private LanguageRepository languageRepository;
+
+    @Autowired
+    private CompetenceTranslationRepository competenceTranslationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private List<Integer> personIds;
+    private List<List<Integer>> availabilityIds;
+    private List<List<Integer>> competenceProfileIds;
+
+    @BeforeEach
+    public void setUp() {
+        statistics=entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        personIds=new ArrayList<Integer>();
+        availabilityIds=new ArrayList<List<Integer>>();
+        competenceProfileIds=new ArrayList<List<Integer>>();
+
+        //We create 2 people, each with 10 availability periods and 10 competence profiles
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long systemTime=System.currentTimeMillis();
+
+            Role role = new Role();
+            role.setName("test role");
+            roleRepository.save(role);
+
+            List<Competence> competences=new ArrayList<Competence>();
+            for (int i = 0; i < ENTRIES_PER_PERSON; i++) {
+                Competence competence = new Competence();
+                competence.setName("competence"+i);
+                competences.add(competenceRepository.save(competence));
+            }
+
+            Language language = new Language();
+            language.SetLanguageName("english");
+            languageRepository.save(language);
+            for (Competence competence : competences) {
+                CompetenceTranslation translation = new CompetenceTranslation();
+                translation.SetCompetence(competence);
+                translation.SetLanguage(language);
+                translation.SetTranslation("translated "+competence.getName());
+                competenceTranslationRepository.save(translation);
+            }
+
+            for (int i = 0; i < 2; i++) {
+                Person person=new Person();
+                person.setName("test"+i);
+                person.setSurname("testsson");
+                person.setEmail("test"+i+"@test.test");
+                person.setPassword("testPassword");
+                person.setPnr("12345678-123"+i);
+                person.setRole(role);
+                person.setUsername("username"+i);
+                personIds.add(personRepository.save(person).getId());
+
+                List<Integer> availabilities=new ArrayList<Integer>();
+                List<Integer> competenceProfiles=new ArrayList<Integer>();
+                for (int j = 0; j < ENTRIES_PER_PERSON; j++) {
+                    availabilities.add(availabilityRepository.save(new Availability(person, new java.sql.Date(systemTime+(j+1)*86400000L), new java.sql.Date(systemTime+(j+1)*86400000L))).getAvailabilityId());
+                    competenceProfiles.add(competenceProfileRepository.save(new CompetenceProfile(person, competences.get(j), 1.0+j)).getCompetenceProfileId());
+                }
+                availabilityIds.add(availabilities);
+                competenceProfileIds.add(competenceProfiles);
+            }
+        });
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            applicationRepository.deleteAll();
+            competenceTranslationRepository.deleteAll();
+            languageRepository.deleteAll();
+            competenceProfileRepository.deleteAll();
+            availabilityRepository.deleteAll();
+            competenceRepository.deleteAll();
+            personRepository.deleteAll();
+            roleRepository.deleteAll();
+        });
+    }
+
+    /**
+     * This submits an application and returns the number of statements it used
+     * @param personIndex which of the created people submits the application
+     * @param entries how many of the availability periods and competence profiles of the person to submit
+     * @return the number of prepared statements
+     */
+    private long SubmitAndCountStatements(int personIndex, int entries)
+    {
+        statistics.clear();
+        ApplicationDTO application=applicationService.SubmitApplication(personIds.get(personIndex),
+            availabilityIds.get(personIndex).subList(0, entries), competenceProfileIds.get(personIndex).subList(0, entries));
+        assertEquals(entries, application.getAvailabilityPeriodsForApplication().size());
+        assertEquals(entries, application.getCompetenceProfilesForApplication().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    /**
+     * This tests that submitting 10 availability periods and competence profiles uses as many statements as submitting 1 of each
+     */
+    void SubmitApplicationStatementCountTest()
+    {
+        long singleEntryStatements=SubmitAndCountStatements(0, 1);
+        long manyEntryStatements=SubmitAndCountStatements(1, ENTRIES_PER_PERSON);
+        assertEquals(singleEntryStatements, manyEntryStatements);
+    }
+
+    @Test
+    /**
+     * This tests that an invalid submission is also validated with a fixed number of statements, and that every invalid id is reported
+     */
+    void InvalidSubmissionStatementCountTest()
+    {
+        //The first person requests all the availability periods of the second person
+        statistics.clear();
+        var e = assertThrowsExactly(AvailabilityInvalidException.class, () -> applicationService.SubmitApplication(personIds.get(0), availabilityIds.get(1), competenceProfileIds.get(0)));
+        assertEquals(true, e.getMessage().contains("The availability periods with ids "+availabilityIds.get(1).get(0)+", "+availabilityIds.get(1).get(1)));
+
+        //One statement for the person, one for the periods of the person and one for the periods which exist
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    /**
+     * This tests that the workspace is retrived using a fixed number of statements, and that nothing more is retrived when it is serialized to json
+     */
+    void GetWorkspaceStatementCountTest() throws Exception
+    {
+        applicationService.SubmitApplication(personIds.get(0), availabilityIds.get(0), competenceProfileIds.get(0));
+
+        statistics.clear();
+        ApplicantWorkspace workspace=applicationService.GetWorkspace(personIds.get(0), "english");
+        assertEquals(ENTRIES_PER_PERSON, workspace.getCompetenceProfiles().size());
+        assertEquals(ENTRIES_PER_PERSON, workspace.getAvailabilityPeriods().size());
+        assertEquals(1, workspace.getApplications().size());
+        assertEquals(ENTRIES_PER_PERSON, workspace.getCompetenceTranslations().size());
+
+        //One statement each for the languages, translations, competence profiles, availability periods, applications and competences
+        assertEquals(6, statistics.getPrepareStatementCount());
+        new ObjectMapper().writeValueAsString(workspace);
+        assertEquals(6, statistics.getPrepareStatementCount());
+
+        //Without a language the translations are not retrived
+        statistics.clear();
+        workspace=applicationService.GetWorkspace(personIds.get(1), null);
+        assertEquals(0, workspace.getApplications().size());
+        assertEquals(0, workspace.getCompetenceTranslations().size());
+        assertEquals(5, statistics.getPrepareStatementCount());
+    }
+}
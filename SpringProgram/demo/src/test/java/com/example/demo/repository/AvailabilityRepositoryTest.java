@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +14,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import com.example.demo.domain.dto.AvailabilityIntervalDTO;
+import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 
@@ -42,6 +48,15 @@ public class AvailabilityRepositoryTest {
     @Autowired 
     private AvailabilityRepository availabilityRepository;
 
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private CompetenceRepository competenceRepository;
+
+    @Autowired
+    private CompetenceProfileRepository competenceProfileRepository;
+
     private Availability availability;
 
     private long systemTime;
@@ -125,6 +140,53 @@ public class AvailabilityRepositoryTest {
 
     }
 
+    @Test
+    /**
+     * This tests the findAllByPersonAndAvailabilityIdIn and findExistingAvailabilityIds methods
+     */
+    void findAllByPersonAndAvailabilityIdInTest()
+    {
+        Availability other = availabilityRepository.save(new Availability(testPerson2, new java.sql.Date(systemTime+10000), new java.sql.Date(systemTime+10000)));
+        List<Integer> ids = List.of(availability.getAvailabilityId(), other.getAvailabilityId(), -1);
+
+        //Only the period belonging to the person should be returned
+        List<Availability> findResult = availabilityRepository.findAllByPersonAndAvailabilityIdIn(testPerson, ids);
+        assertEquals(1, findResult.size());
+        assertEquals(availability.getAvailabilityId(), findResult.get(0).getAvailabilityId());
+
+        findResult = availabilityRepository.findAllByPersonAndAvailabilityIdIn(testPerson2, ids);
+        assertEquals(1, findResult.size());
+        assertEquals(other.getAvailabilityId(), findResult.get(0).getAvailabilityId());
+
+        //While every existing id should be returned regardless of who it belongs to
+        List<Integer> existingIds = availabilityRepository.findExistingAvailabilityIds(ids);
+        assertEquals(2, existingIds.size());
+        assertEquals(true, existingIds.containsAll(List.of(availability.getAvailabilityId(), other.getAvailabilityId())));
+    }
+
+    @Test
+    /**
+     * This tests the findAvailabilityIdsInApplicationsByPerson method, which should only return the periods of the person which are part of an application
+     */
+    void findAvailabilityIdsInApplicationsByPersonTest()
+    {
+        Availability unused = availabilityRepository.save(new Availability(testPerson, new java.sql.Date(systemTime+10000), new java.sql.Date(systemTime+10000)));
+        assertEquals(0, availabilityRepository.findAvailabilityIdsInApplicationsByPerson(testPerson).size());
+
+        Competence competence = new Competence();
+        competence.setName("testCompetence");
+        competenceRepository.save(competence);
+        CompetenceProfile profile = competenceProfileRepository.save(new CompetenceProfile(testPerson, competence, 1));
+
+        //The period is used by two applications, but should only be returned once
+        applicationRepository.save(new Application(testPerson, List.of(availability), List.of(profile)));
+        applicationRepository.save(new Application(testPerson, List.of(availability), List.of(profile)));
+
+        assertEquals(List.of(availability.getAvailabilityId()), availabilityRepository.findAvailabilityIdsInApplicationsByPerson(testPerson));
+        assertEquals(0, availabilityRepository.findAvailabilityIdsInApplicationsByPerson(testPerson2).size());
+        assertEquals(false, availabilityRepository.findAvailabilityIdsInApplicationsByPerson(testPerson).contains(unused.getAvailabilityId()));
+    }
+
     @Test
     /**
      * This tests the existsByFromDateLessThanEqualAndToDateGreaterThanEqualAndPerson method
@@ -164,6 +226,31 @@ public class AvailabilityRepositoryTest {
         assertEquals(true, result);
     }
 
+    @Test
+    /**
+     * This tests the streamIntervalRows method, which should return every period ordered by start date
+     */
+    void streamIntervalRowsTest()
+    {
+        long day=24*60*60*1000L;
+        Availability later=new Availability(testPerson2, new java.sql.Date(systemTime+5*day), new java.sql.Date(systemTime+6*day));
+        availabilityRepository.save(later);
+        Availability earlier=new Availability(testPerson, new java.sql.Date(systemTime+2*day), new java.sql.Date(systemTime+9*day));
+        availabilityRepository.save(earlier);
+
+        List<AvailabilityIntervalDTO> rows;
+        try (Stream<AvailabilityIntervalDTO> stream = availabilityRepository.streamIntervalRows()) {
+            rows = stream.collect(Collectors.toList());
+        }
+        assertEquals(3, rows.size());
+        assertEquals(availability.getAvailabilityId(), rows.get(0).getAvailabilityId());
+        assertEquals(earlier.getAvailabilityId(), rows.get(1).getAvailabilityId());
+        assertEquals(testPerson.getId(), rows.get(1).getPersonId());
+        assertEquals(earlier.getToDate().toLocalDate(), rows.get(1).getToDate().toLocalDate());
+        assertEquals(later.getAvailabilityId(), rows.get(2).getAvailabilityId());
+        assertEquals(testPerson2.getId(), rows.get(2).getPersonId());
+    }
+
     @Test
     /**
      * This tests the Availability entities constraints
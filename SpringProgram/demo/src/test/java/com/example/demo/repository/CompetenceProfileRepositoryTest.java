@@ -129,6 +129,30 @@ public class CompetenceProfileRepositoryTest {
         assertEquals(0, results.size());
     }
 
+    @Test
+    /**
+     * This method tests findAllByPersonAndCompetenceProfileIdIn and findExistingCompetenceProfileIds
+     */
+    void findAllByPersonAndCompetenceProfileIdInTest()
+    {
+        CompetenceProfile other = competenceProfileRepository.save(new CompetenceProfile(testPerson2, competence2, 1));
+        List<Integer> ids = List.of(competenceProfile.getCompetenceProfileId(), other.getCompetenceProfileId(), -1);
+
+        //Only the profile belonging to the person should be returned, along with its competence
+        List<CompetenceProfile> results = competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(testPerson, ids);
+        assertEquals(1, results.size());
+        assertEquals(competence, results.get(0).getCompetenceDTO());
+
+        results = competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(testPerson2, ids);
+        assertEquals(1, results.size());
+        assertEquals(competence2, results.get(0).getCompetenceDTO());
+
+        //While every existing id should be returned regardless of who it belongs to
+        List<Integer> existingIds = competenceProfileRepository.findExistingCompetenceProfileIds(ids);
+        assertEquals(2, existingIds.size());
+        assertEquals(true, existingIds.containsAll(List.of(competenceProfile.getCompetenceProfileId(), other.getCompetenceProfileId())));
+    }
+
     @Test
     /**
      * This method tests existsByPersonAndCompetenceAndYearsOfExperience
@@ -1,6 +1,7 @@
 package com.example.demo.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import com.example.demo.domain.TranslationCatalogRevision;
 import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceTranslation;
 import com.example.demo.domain.entity.Language;
@@ -97,6 +99,49 @@ public class CompetenceTranslationRepositoryTest {
         assertEquals(0, result.size());
     }
 
+    @Test
+    /**
+     * This method tests the findCatalogTranslationRows and LanguageRepository.findCatalogLanguageRows functions, and that the revision changes when a translation or language is added or changed, even if its length stays the same
+     */
+    void findCatalogRevisionTest() {
+        String revision = FindCatalogRevision();
+        assertNotNull(revision);
+        assertEquals(revision, FindCatalogRevision());
+
+        competenceTranslation.SetTranslation("a longer translation");
+        competenceTranslationRepository.saveAndFlush(competenceTranslation);
+        String changedRevision = FindCatalogRevision();
+        assertNotEquals(revision, changedRevision);
+
+        //A change which keeps the length of the translation must also change the revision
+        competenceTranslation.SetTranslation("a longer translatiom");
+        competenceTranslationRepository.saveAndFlush(competenceTranslation);
+        String sameLengthRevision = FindCatalogRevision();
+        assertNotEquals(changedRevision, sameLengthRevision);
+
+        //As must renaming a language
+        language.SetLanguageName(language.getLanguageName()+"2");
+        languageRepository.saveAndFlush(language);
+        String renamedRevision = FindCatalogRevision();
+        assertNotEquals(sameLengthRevision, renamedRevision);
+
+        CompetenceTranslation addedTranslation = new CompetenceTranslation();
+        addedTranslation.SetLanguage(language);
+        addedTranslation.SetCompetence(competence);
+        addedTranslation.SetTranslation("a longer translation");
+        competenceTranslationRepository.saveAndFlush(addedTranslation);
+        assertNotEquals(renamedRevision, FindCatalogRevision());
+        competenceTranslationRepository.delete(addedTranslation);
+    }
+
+    /**
+     * This computes the current catalog revision the same way TranslationService does
+     * @return the current catalog revision
+     */
+    private String FindCatalogRevision() {
+        return new TranslationCatalogRevision(competenceTranslationRepository.findCatalogTranslationRows(), languageRepository.findCatalogLanguageRows()).getTag();
+    }
+
     @Test
     void testCompetenceTranslationConstraints()
     {
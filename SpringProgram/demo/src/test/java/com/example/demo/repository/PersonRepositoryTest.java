@@ -122,6 +122,22 @@ public class PersonRepositoryTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    /**
+     * This method tests the updatePasswordIfUnchanged function, and that it does not replace a password which has been changed
+     */
+    void updatePasswordIfUnchangedTest()
+    {
+        assertEquals(1, personRepository.updatePasswordIfUnchanged("username", "testPassword", "newPassword"));
+        assertEquals("newPassword", personRepository.findByUsername("username").get().getPassword());
+
+        //The password is no longer the old one, so it is not replaced
+        assertEquals(0, personRepository.updatePasswordIfUnchanged("username", "testPassword", "otherPassword"));
+        assertEquals("newPassword", personRepository.findByUsername("username").get().getPassword());
+
+        assertEquals(0, personRepository.updatePasswordIfUnchanged("notARealValue", "newPassword", "otherPassword"));
+    }
+
     @Test
     /**
      * This method tests the findByPnr function
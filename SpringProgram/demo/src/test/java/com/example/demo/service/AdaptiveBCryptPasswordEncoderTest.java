@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * This class defined the unit tests for the AdaptiveBCryptPasswordEncoder class
+ */
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    /**
+     * This tests that the chosen strength is the strongest strength whose hashes take at most the target time, within the allowed strengths
+     */
+    void ChooseStrengthTest() {
+        long millis = 1000000;
+        assertEquals(10, AdaptiveBCryptPasswordEncoder.ChooseStrength(100*millis, 80*millis));
+        assertEquals(11, AdaptiveBCryptPasswordEncoder.ChooseStrength(160*millis, 80*millis));
+        assertEquals(12, AdaptiveBCryptPasswordEncoder.ChooseStrength(350*millis, 80*millis));
+
+        //Slow hardware never weakens the hashes, and fast hardware never makes them stronger than the maximum
+        assertEquals(AdaptiveBCryptPasswordEncoder.MIN_STRENGTH, AdaptiveBCryptPasswordEncoder.ChooseStrength(10*millis, 80*millis));
+        assertEquals(AdaptiveBCryptPasswordEncoder.MAX_STRENGTH, AdaptiveBCryptPasswordEncoder.ChooseStrength(Long.MAX_VALUE/4, 1));
+    }
+
+    @Test
+    /**
+     * This tests that hashes with any other strength should be hashed again, while hashes which are not BCrypt hashes are left alone
+     */
+    void UpgradeEncodingTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveBCryptPasswordEncoder passwordEncoder = new AdaptiveBCryptPasswordEncoder(5, meterRegistry);
+        assertEquals(5, meterRegistry.get("password.hashing.strength").gauge().value());
+
+        String hash = passwordEncoder.encode("password");
+        assertEquals(5, AdaptiveBCryptPasswordEncoder.GetStrength(hash));
+        assertTrue(passwordEncoder.matches("password", hash));
+        assertFalse(passwordEncoder.upgradeEncoding(hash));
+
+        //Hashes with a different strength can still be verified, but should be hashed again
+        String weakerHash = new BCryptPasswordEncoder(4).encode("password");
+        String strongerHash = new BCryptPasswordEncoder(6).encode("password");
+        assertTrue(passwordEncoder.matches("password", weakerHash));
+        assertTrue(passwordEncoder.matches("password", strongerHash));
+        assertTrue(passwordEncoder.upgradeEncoding(weakerHash));
+        assertTrue(passwordEncoder.upgradeEncoding(strongerHash));
+
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.GetStrength("notAHash"));
+        assertFalse(passwordEncoder.upgradeEncoding("notAHash"));
+        assertFalse(passwordEncoder.upgradeEncoding(null));
+    }
+
+    @Test
+    /**
+     * This tests that calibrating measures a hash and publishes the calibration and the chosen strength
+     */
+    void CalibrateTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveBCryptPasswordEncoder passwordEncoder = AdaptiveBCryptPasswordEncoder.Calibrate(Duration.ZERO, meterRegistry);
+        assertEquals(AdaptiveBCryptPasswordEncoder.MIN_STRENGTH, passwordEncoder.getStrength());
+        assertEquals(1, meterRegistry.get("password.hashing.calibration").timer().count());
+        assertTrue(meterRegistry.get("password.hashing.calibration").timer().totalTime(TimeUnit.NANOSECONDS)>0);
+        assertEquals(AdaptiveBCryptPasswordEncoder.MIN_STRENGTH, meterRegistry.get("password.hashing.strength").gauge().value());
+    }
+}
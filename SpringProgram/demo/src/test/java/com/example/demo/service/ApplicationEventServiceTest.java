@@ -0,0 +1,260 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.event.ApplicationStatusChangedEvent;
+import com.example.demo.domain.event.ApplicationSubmittedEvent;
+import com.example.demo.presentation.restException.SubscriberLimitReachedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This class defined the unit tests for the ApplicationEventService class
+ */
+public class ApplicationEventServiceTest {
+    /**
+     * This is an emitter which records the events sent to it instead of writing them to a response, and can be made to fail
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+        private boolean failing = false;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Connection closed");
+            }
+            //We write the event in the same format it would be sent in
+            StringBuilder event = new StringBuilder();
+            ObjectMapper objectMapper = new ObjectMapper();
+            for (DataWithMediaType part : builder.build()) {
+                if (MediaType.APPLICATION_JSON.equals(part.getMediaType())) {
+                    event.append(objectMapper.writeValueAsString(part.getData()));
+                }
+                else {
+                    event.append(part.getData());
+                }
+            }
+            sent.add(event.toString());
+        }
+    }
+
+    /**
+     * This is an emitter whose sends block once it is stalled, until it is released, like a subscriber whose connection has stopped reading
+     */
+    private static class StalledEmitter extends RecordingEmitter {
+        private volatile boolean stalled = false;
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean completed = false;
+        private volatile Throwable failure = null;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (stalled) {
+                sendStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.send(builder);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable e) {
+            failure = e;
+        }
+    }
+
+    @Test
+    /**
+     * This tests that subscribers receive the published events in order
+     */
+    void OnApplicationChangeTest() {
+        //We use a dispatcher which sends the events directly
+        ApplicationEventService applicationEventService = new ApplicationEventService(Runnable::run, 2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        applicationEventService.Subscribe(emitter);
+        assertEquals(1, applicationEventService.GetSubscriberCount());
+        assertEquals(":subscribed\n\n", emitter.sent.get(0));
+
+        applicationEventService.OnApplicationChange(new ApplicationSubmittedEvent(1, ApplicationStatus.unchecked, 0));
+        applicationEventService.OnApplicationChange(new ApplicationStatusChangedEvent(1, ApplicationStatus.accepted, 1));
+        assertEquals(3, emitter.sent.size());
+        assertTrue(emitter.sent.get(1).startsWith("event:submitted\ndata:"));
+        assertTrue(emitter.sent.get(1).contains("\"applicationId\":1"));
+        assertTrue(emitter.sent.get(2).startsWith("event:statusChanged\ndata:"));
+        assertTrue(emitter.sent.get(2).contains("\"applicationStatus\":\"accepted\""));
+        assertTrue(emitter.sent.get(2).contains("\"versionNumber\":1"));
+    }
+
+    @Test
+    /**
+     * This tests that a slow subscriber only buffers a limited number of events, and is told to resync if events were dropped
+     */
+    void SlowSubscriberTest() {
+        //We use a dispatcher which only sends the events once the test runs the tasks, to simulate a slow subscriber
+        List<Runnable> pendingTasks = new ArrayList<Runnable>();
+        ApplicationEventService applicationEventService = new ApplicationEventService(pendingTasks::add, 2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        applicationEventService.Subscribe(emitter);
+
+        for (int i = 1; i <= 5; i++) {
+            applicationEventService.OnApplicationChange(new ApplicationStatusChangedEvent(i, ApplicationStatus.accepted, 1));
+        }
+        //Only one dispatch should have been scheduled, since the subscriber was already waiting to be sent to
+        assertEquals(1, pendingTasks.size());
+        pendingTasks.remove(0).run();
+
+        //The subscriber should first be told to resync, and then receive the 2 newest events
+        assertEquals(4, emitter.sent.size());
+        assertTrue(emitter.sent.get(1).startsWith("event:resync\n"));
+        assertTrue(emitter.sent.get(2).contains("\"applicationId\":4"));
+        assertTrue(emitter.sent.get(3).contains("\"applicationId\":5"));
+        assertEquals(0, pendingTasks.size());
+    }
+
+    @Test
+    /**
+     * This tests that a subscriber is removed once sending to it fails, and that the number of subscribers is limited
+     */
+    void UnsubscribeTest() {
+        ApplicationEventService applicationEventService = new ApplicationEventService(Runnable::run, 2);
+        RecordingEmitter emitter = new RecordingEmitter();
+        applicationEventService.Subscribe(emitter);
+        RecordingEmitter otherEmitter = new RecordingEmitter();
+        applicationEventService.Subscribe(otherEmitter);
+
+        emitter.failing = true;
+        applicationEventService.OnApplicationChange(new ApplicationStatusChangedEvent(1, ApplicationStatus.denied, 1));
+        assertEquals(1, applicationEventService.GetSubscriberCount());
+        assertEquals(2, otherEmitter.sent.size());
+
+        //We then test that no more than MAX_SUBSCRIBERS can subscribe
+        for (int i = 1; i < ApplicationEventService.MAX_SUBSCRIBERS; i++) {
+            applicationEventService.Subscribe(new RecordingEmitter());
+        }
+        var e = assertThrowsExactly(SubscriberLimitReachedException.class, () -> applicationEventService.Subscribe(new RecordingEmitter()));
+        assertEquals("Could not subscribe to application events due to : too many reviewers are subscribed, please try again later", e.getMessage());
+    }
+
+    @Test
+    /**
+     * This tests that a subscriber whose connection has stalled does not delay the events of other subscribers, and is removed once its send has taken too long, while keeping its slot until its send returns
+     */
+    void StalledSubscriberTest() throws Exception {
+        //We use a fake clock, so the test decides when the stalled send has taken too long
+        AtomicInteger clock = new AtomicInteger(1);
+        ExecutorService dispatcher = Executors.newCachedThreadPool();
+        ApplicationEventService applicationEventService = new ApplicationEventService(dispatcher, 2, 1000, clock::get, null);
+        try {
+            StalledEmitter stalledEmitter = new StalledEmitter();
+            applicationEventService.Subscribe(stalledEmitter);
+            RecordingEmitter emitter = new RecordingEmitter();
+            applicationEventService.Subscribe(emitter);
+            stalledEmitter.stalled = true;
+
+            //The other subscriber receives both events while the stalled send is still blocked
+            applicationEventService.OnApplicationChange(new ApplicationStatusChangedEvent(1, ApplicationStatus.accepted, 1));
+            assertTrue(stalledEmitter.sendStarted.await(5, TimeUnit.SECONDS));
+            applicationEventService.OnApplicationChange(new ApplicationStatusChangedEvent(2, ApplicationStatus.accepted, 1));
+            long deadline = System.currentTimeMillis()+5000;
+            while (emitter.sent.size()<3 && System.currentTimeMillis()<deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(3, emitter.sent.size());
+
+            //The stalled subscriber is only removed once its send has taken longer than the timeout
+            applicationEventService.RemoveStalledSubscribers();
+            assertEquals(2, applicationEventService.GetSubscriberCount());
+            clock.addAndGet(1001);
+            applicationEventService.RemoveStalledSubscribers();
+            assertEquals(1, applicationEventService.GetSubscriberCount());
+            assertTrue(stalledEmitter.failure instanceof IOException);
+
+            //The removed subscriber keeps its slot while its dispatcher thread is blocked, so the other slots can still be taken
+            for (int i = 0; i < ApplicationEventService.MAX_SUBSCRIBERS-2; i++) {
+                applicationEventService.Subscribe(new RecordingEmitter());
+            }
+            assertThrowsExactly(SubscriberLimitReachedException.class, () -> applicationEventService.Subscribe(new RecordingEmitter()));
+
+            //Once the stalled send returns the remaining buffered event is not sent, the response is ended and the slot is released
+            stalledEmitter.release.countDown();
+            deadline = System.currentTimeMillis()+5000;
+            while (!stalledEmitter.completed && System.currentTimeMillis()<deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(stalledEmitter.completed);
+            assertEquals(2, stalledEmitter.sent.size());
+            assertFalse(stalledEmitter.sent.get(1).contains("\"applicationId\":2"));
+            boolean subscribed = false;
+            while (!subscribed && System.currentTimeMillis()<deadline) {
+                try {
+                    applicationEventService.Subscribe(new RecordingEmitter());
+                    subscribed = true;
+                } catch (SubscriberLimitReachedException e) {
+                    Thread.sleep(1);
+                }
+            }
+            assertEquals(ApplicationEventService.MAX_SUBSCRIBERS, applicationEventService.GetSubscriberCount());
+        } finally {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    @Test
+    /**
+     * This tests that simultaneous subscriptions can not exceed the subscriber limit
+     */
+    void SimultaneousSubscribeTest() throws Exception {
+        ApplicationEventService applicationEventService = new ApplicationEventService(Runnable::run, 2);
+        ExecutorService subscribers = Executors.newFixedThreadPool(8);
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 2*ApplicationEventService.MAX_SUBSCRIBERS; i++) {
+                subscribers.execute(() -> {
+                    try {
+                        start.await();
+                        applicationEventService.Subscribe(new RecordingEmitter());
+                    } catch (SubscriberLimitReachedException e) {
+                        rejected.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+            subscribers.shutdown();
+            assertTrue(subscribers.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(ApplicationEventService.MAX_SUBSCRIBERS, applicationEventService.GetSubscriberCount());
+            assertEquals(ApplicationEventService.MAX_SUBSCRIBERS, rejected.get());
+        } finally {
+            subscribers.shutdownNow();
+        }
+    }
+}
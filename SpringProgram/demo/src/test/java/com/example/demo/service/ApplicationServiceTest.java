@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -11,7 +12,9 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,28 +27,42 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.TransientDataAccessException;
 
+import com.example.demo.domain.ApplicantWorkspace;
+import com.example.demo.domain.ApplicationSubmission;
+import com.example.demo.domain.ApplicationSubmissionState;
+import com.example.demo.domain.ApplicationSubmissionStatus;
+import com.example.demo.domain.AvailabilityPeriod;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.dto.AvailabilityDTO;
 import com.example.demo.domain.dto.CompetenceProfileDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Availability;
 import com.example.demo.domain.entity.Competence;
 import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.CompetenceTranslation;
+import com.example.demo.domain.entity.Language;
 import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.event.ApplicationSubmittedEvent;
+import com.example.demo.domain.event.AvailabilityCreatedEvent;
 import com.example.demo.presentation.restException.AlreadyExistsException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.FromDateAfterToDateException;
 import com.example.demo.presentation.restException.PeriodAlreadyCoveredException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.AvailabilityInvalidException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.CompetenceProfileInvalidException;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.LanguageNotFoundException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.PersonNotFoundException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.SpecificCompetenceNotFoundException;
 import com.example.demo.repository.ApplicationRepository;
 import com.example.demo.repository.AvailabilityRepository;
 import com.example.demo.repository.CompetenceProfileRepository;
 import com.example.demo.repository.CompetenceRepository;
+import com.example.demo.repository.CompetenceTranslationRepository;
+import com.example.demo.repository.LanguageRepository;
 import com.example.demo.repository.PersonRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,6 +81,12 @@ public class ApplicationServiceTest {
     private PersonRepository personRepository;
     @Mock
     private CompetenceRepository competenceRepository;
+    @Mock
+    private LanguageRepository languageRepository;
+    @Mock
+    private CompetenceTranslationRepository competenceTranslationRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     // We then define the service we are testing
     @InjectMocks
@@ -284,6 +307,141 @@ public class ApplicationServiceTest {
 
     }
 
+    @Test
+    /**
+     * This is a test for the method GetWorkspace
+     */
+    void GetWorkspaceTest() {
+        // We first create the test objects
+        Person person = new Person();
+        person.setId(0);
+        Competence competence = new Competence();
+        competence.setName("testCompetence");
+        CompetenceProfile profile = new CompetenceProfile(person, competence, 1.0);
+        Availability availability = new Availability(person, Date.valueOf("2000-12-1"), Date.valueOf("2001-12-1"));
+        ApplicationSummaryDTO summary = Mockito.mock(ApplicationSummaryDTO.class);
+
+        Language english = new Language();
+        english.SetLanguageName("english");
+        CompetenceTranslation translation = new CompetenceTranslation();
+        translation.SetCompetence(competence);
+        translation.SetLanguage(english);
+        translation.SetTranslation("translated");
+
+        // We then define the implementation for the mock repositories, where only person 0 has any data
+        when(languageRepository.findAll()).thenReturn(List.of(english));
+        when(competenceTranslationRepository.findWithCompetenceByLanguage(any(Language.class))).thenReturn(List.of(translation));
+        when(competenceProfileRepository.findWithCompetenceByPersonId(anyInt())).thenAnswer(invocation -> (Integer) invocation.getArguments()[0] == 0 ? List.of(profile) : List.of());
+        when(availabilityRepository.findWithPersonByPersonId(anyInt())).thenAnswer(invocation -> (Integer) invocation.getArguments()[0] == 0 ? List.of(availability) : List.of());
+        when(applicationRepository.findSummariesByApplicantId(anyInt())).thenAnswer(invocation -> (Integer) invocation.getArguments()[0] == 0 ? List.of(summary) : List.of());
+        when(competenceRepository.findAll()).thenReturn(List.of(competence));
+
+        // We first test that an unknown language is rejected
+        var e = assertThrowsExactly(LanguageNotFoundException.class, () -> applicationService.GetWorkspace(0, "klingon"));
+        assertEquals("Could not find the following language in the database  : klingon", e.getMessage());
+
+        // Then that the workspace contains the data of the person, along with the translations for the language
+        ApplicantWorkspace workspace = applicationService.GetWorkspace(0, "english");
+        assertEquals(List.of(profile), workspace.getCompetenceProfiles());
+        assertEquals(List.of(availability), workspace.getAvailabilityPeriods());
+        assertEquals(List.of(summary), workspace.getApplications());
+        assertEquals(List.of(competence), workspace.getCompetences());
+        assertEquals(List.of(english), workspace.getLanguages());
+        assertEquals(List.of(translation), workspace.getCompetenceTranslations());
+
+        // And that no translations are retrived if no language is specified
+        workspace = applicationService.GetWorkspace(1, null);
+        assertEquals(0, workspace.getCompetenceProfiles().size());
+        assertEquals(0, workspace.getCompetenceTranslations().size());
+        Mockito.verify(this.competenceTranslationRepository, Mockito.times(1)).findWithCompetenceByLanguage(any(Language.class));
+        Mockito.verify(this.personRepository, Mockito.never()).findById(anyInt());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(languageRepository).findAll();
+        var e2 = assertThrowsExactly(CustomDatabaseException.class, () -> applicationService.GetWorkspace(0, "english"));
+        assertEquals("Failed due to database error, please try again", e2.getMessage());
+    }
+
+    @Test
+    /**
+     * This is a test for the method CreateAvailabilities
+     */
+    void CreateAvailabilitiesTest() {
+        // We first create the test objects, where all dates are relative to today since periods which have started can not be merged
+        Person person = new Person();
+        person.setName("testName");
+        person.setId(0);
+        LocalDate base = LocalDate.now().plusDays(10);
+
+        Availability started = new Availability(person, Date.valueOf(LocalDate.now().minusDays(5)), Date.valueOf(LocalDate.now().plusDays(2)));
+        started.setAvailabilityId(5);
+        Availability first = new Availability(person, Date.valueOf(base), Date.valueOf(base.plusDays(4)));
+        first.setAvailabilityId(1);
+        Availability adjacent = new Availability(person, Date.valueOf(base.plusDays(5)), Date.valueOf(base.plusDays(9)));
+        adjacent.setAvailabilityId(2);
+        Availability used = new Availability(person, Date.valueOf(base.plusDays(20)), Date.valueOf(base.plusDays(30)));
+        used.setAvailabilityId(3);
+        Availability separate = new Availability(person, Date.valueOf(base.plusDays(40)), Date.valueOf(base.plusDays(45)));
+        separate.setAvailabilityId(4);
+        savedAvailabilities.addAll(List.of(started, first, adjacent, used, separate));
+
+        // We then define the implementation for the mock repositories, where the period with id 3 is part of an application
+        when(personRepository.findById(anyInt())).thenAnswer(invocation -> {
+            Integer idArg = (Integer) invocation.getArguments()[0];
+            return idArg.equals(person.getId()) ? Optional.of(person) : Optional.empty();
+        });
+        when(availabilityRepository.findAvailabilityIdsInApplicationsByPerson(any(Person.class))).thenReturn(List.of(3));
+        when(availabilityRepository.findAllByPerson(any(Person.class))).thenAnswer(invocation -> new ArrayList<Availability>(savedAvailabilities));
+        when(availabilityRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<Availability> created = (List<Availability>) invocation.getArguments()[0];
+            for (Availability a : created) {
+                a.setAvailabilityId(100 + savedAvailabilities.size());
+                savedAvailabilities.add(a);
+            }
+            return created;
+        });
+
+        // We first test that the person must exist, and that every period is checked
+        var e = assertThrowsExactly(PersonNotFoundException.class, () -> applicationService.CreateAvailabilities(1,
+            List.of(new AvailabilityPeriod(Date.valueOf(base), Date.valueOf(base)))));
+        assertEquals("Could not find a person with the following id : 1", e.getMessage());
+
+        var e2 = assertThrowsExactly(FromDateAfterToDateException.class, () -> applicationService.CreateAvailabilities(0, List.of(
+            new AvailabilityPeriod(Date.valueOf(base), Date.valueOf(base)), new AvailabilityPeriod(Date.valueOf("2001-12-1"), Date.valueOf("2000-12-1")))));
+        assertEquals("Could not create availability period since start date 2001-12-01 is after end date 2000-12-01", e2.getMessage());
+
+        // We then merge one period overlapping the first two existing ones, one covered by the used period and two adjacent new ones, given out of order
+        List<? extends AvailabilityDTO> result = applicationService.CreateAvailabilities(0, List.of(
+            new AvailabilityPeriod(Date.valueOf(base.plusDays(62)), Date.valueOf(base.plusDays(65))),
+            new AvailabilityPeriod(Date.valueOf(base.plusDays(3)), Date.valueOf(base.plusDays(12))),
+            new AvailabilityPeriod(Date.valueOf(base.plusDays(22)), Date.valueOf(base.plusDays(25))),
+            new AvailabilityPeriod(Date.valueOf(base.plusDays(60)), Date.valueOf(base.plusDays(61)))));
+
+        assertEquals(5, result.size());
+        assertEquals(started, result.get(0));
+        assertEquals(Date.valueOf(base), result.get(1).getFromDate());
+        assertEquals(Date.valueOf(base.plusDays(12)), result.get(1).getToDate());
+        assertEquals(used, result.get(2));
+        assertEquals(separate, result.get(3));
+        assertEquals(Date.valueOf(base.plusDays(60)), result.get(4).getFromDate());
+        assertEquals(Date.valueOf(base.plusDays(65)), result.get(4).getToDate());
+
+        // Only the two merged periods should have been removed, and only the two new periods created and published
+        Mockito.verify(this.availabilityRepository, Mockito.times(1)).deleteAllInBatch(Mockito.argThat((Iterable<Availability> removed) -> {
+            List<Availability> removedList = new ArrayList<Availability>();
+            removed.forEach(removedList::add);
+            return removedList.size() == 2 && removedList.containsAll(List.of(first, adjacent));
+        }));
+        Mockito.verify(this.eventPublisher, Mockito.times(2)).publishEvent(any(AvailabilityCreatedEvent.class));
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(availabilityRepository).findAllByPerson(any(Person.class));
+        var e3 = assertThrowsExactly(CustomDatabaseException.class, () -> applicationService.CreateAvailabilities(0,
+            List.of(new AvailabilityPeriod(Date.valueOf(base), Date.valueOf(base)))));
+        assertEquals("Failed due to database error, please try again", e3.getMessage());
+    }
+
     @Test
     /**
      * This is a test for the method CreateAvailability
@@ -374,6 +532,8 @@ public class ApplicationServiceTest {
         assertEquals(person, results.getPerson());
         assertEquals(fromDate, results.getFromDate());
         assertEquals(toDate, results.getToDate());
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(Mockito.argThat((Object event) -> event instanceof AvailabilityCreatedEvent
+            && ((AvailabilityCreatedEvent)event).getPersonId().equals(person.getId()) && ((AvailabilityCreatedEvent)event).getFromDate().equals(fromDate)));
 
         var e3 = assertThrowsExactly(AlreadyExistsException.class, () -> applicationService.CreateAvailability(person.getId(), availability.getFromDate(), availability.getToDate()));
         assertEquals(
@@ -539,17 +699,28 @@ public class ApplicationServiceTest {
         });
 
   
-        when(competenceProfileRepository.findById(anyInt())).thenAnswer(invocation -> {
-            Integer idArg = (Integer) invocation.getArguments()[0];
-            Optional<CompetenceProfile> cContainer;
+        //The competence profiles are found using a set query, which only returns those belonging to the person, while the existing ids are only requested for invalid requests
+        when(competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(any(Person.class), anyCollection())).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[1];
+            List<CompetenceProfile> found = new ArrayList<CompetenceProfile>();
             for (CompetenceProfile c : savedCompetenceProfiles) {
-                if (c.getCompetenceProfileId() == idArg) {
-                    cContainer = Optional.of(c);
-                    return cContainer;
+                if (idsArg.contains(c.getCompetenceProfileId()) && c.getPerson() == personArg) {
+                    found.add(c);
                 }
             }
-            cContainer = Optional.empty();
-            return cContainer;
+            return found;
+        });
+
+        when(competenceProfileRepository.findExistingCompetenceProfileIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[0];
+            List<Integer> found = new ArrayList<Integer>();
+            for (CompetenceProfile c : savedCompetenceProfiles) {
+                if (idsArg.contains(c.getCompetenceProfileId())) {
+                    found.add(c.getCompetenceProfileId());
+                }
+            }
+            return found;
         });
 
         when(availabilityRepository.save(any(Availability.class))).thenAnswer(invocation -> {
@@ -557,18 +728,27 @@ public class ApplicationServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(availabilityRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(availabilityRepository.findAllByPersonAndAvailabilityIdIn(any(Person.class), anyCollection())).thenAnswer(invocation -> {
+            Person personArg = (Person) invocation.getArguments()[0];
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[1];
+            List<Availability> found = new ArrayList<Availability>();
+            for (Availability a : savedAvailabilities) {
+                if (idsArg.contains(a.getAvailabilityId()) && a.getPerson() == personArg) {
+                    found.add(a);
+                }
+            }
+            return found;
+        });
 
-            Integer idArg = (Integer) invocation.getArguments()[0];
-            Optional<Availability> aContainer;
+        when(availabilityRepository.findExistingAvailabilityIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[0];
+            List<Integer> found = new ArrayList<Integer>();
             for (Availability a : savedAvailabilities) {
-                if (a.getAvailabilityId() == idArg) {
-                    aContainer = Optional.of(a);
-                    return aContainer;
+                if (idsArg.contains(a.getAvailabilityId())) {
+                    found.add(a.getAvailabilityId());
                 }
             }
-            aContainer = Optional.empty();
-            return aContainer;
+            return found;
         });
 
         when(applicationRepository.save(any(Application.class))).thenAnswer(invocation -> {
@@ -601,8 +781,14 @@ public class ApplicationServiceTest {
         e2 = assertThrowsExactly(AvailabilityInvalidException.class,() -> applicationService.SubmitApplication(person.getId(),availabilityIds,competenceProfileIds));
         assertEquals("Availability invalid due to : The availability period with id 1 belongs to another user", e2.getMessage());
 
-        //Here we remove the invalid id, since otherwise the above exception will be thrown
-        availabilityIds.remove(1);
+        //Every invalid id should be reported in the same error, with the missing ids first
+        availabilityIds.add(5);
+        availabilityIds.add(6);
+        e2 = assertThrowsExactly(AvailabilityInvalidException.class,() -> applicationService.SubmitApplication(person.getId(),availabilityIds,competenceProfileIds));
+        assertEquals("Availability invalid due to : No availability with ids 5, 6 in the database; The availability period with id 1 belongs to another user", e2.getMessage());
+
+        //Here we remove the invalid ids, since otherwise the above exception will be thrown
+        availabilityIds.retainAll(List.of(0));
 
         //We then test that the CompetenceProfileInvalidException is thrown for the relevant cases
 
@@ -622,8 +808,13 @@ public class ApplicationServiceTest {
         e3 = assertThrowsExactly(CompetenceProfileInvalidException.class,() -> applicationService.SubmitApplication(person.getId(),availabilityIds,competenceProfileIds));
         assertEquals("Competence profile invalid due to : The competence profile with id 1 belongs to another user", e3.getMessage());
 
-        //Here we remove the invalid id, since otherwise the above exception will be thrown
-        competenceProfileIds.remove(1);
+        //Every invalid id should be reported in the same error
+        competenceProfileIds.add(7);
+        e3 = assertThrowsExactly(CompetenceProfileInvalidException.class,() -> applicationService.SubmitApplication(person.getId(),availabilityIds,competenceProfileIds));
+        assertEquals("Competence profile invalid due to : No competence profile with id 7 in the database; The competence profile with id 1 belongs to another user", e3.getMessage());
+
+        //Here we remove the invalid ids, since otherwise the above exception will be thrown
+        competenceProfileIds.retainAll(List.of(0));
 
         //We then test that the correct execution has the correct result
         ApplicationDTO result=applicationService.SubmitApplication(person.getId(),availabilityIds,competenceProfileIds);
@@ -631,8 +822,9 @@ public class ApplicationServiceTest {
         assertEquals(availability, result.getAvailabilityPeriodsForApplication().get(0));
         assertEquals(person, result.getApplicant());
 
-        //We verify that the mock save method was called by the SubmitApplication method
+        //We verify that the mock save method was called by the SubmitApplication method, and that only the successful submission was published
         Mockito.verify(this.applicationRepository, Mockito.times(1)).save(any(Application.class));
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(any(ApplicationSubmittedEvent.class));
 
         //And finally we verify that it saved the correct application
         assertEquals(result.getApplicationId(), savedApplications.get(0).getApplicationId());
@@ -646,4 +838,74 @@ public class ApplicationServiceTest {
         assertEquals("Failed due to database error, please try again",e5.getMessage());
 
     }
+
+    @Test
+    /**
+     * This is a test for the method SubmitApplications
+     */
+    void SubmitApplicationsTest() {
+        // We first create the test objects, where person 0 owns availability 0 and competence profile 0, while person 1 owns availability 1
+        Person person = new Person();
+        person.setId(0);
+        Person person2 = new Person();
+        person2.setId(1);
+
+        Availability availability = new Availability(person, new java.sql.Date(System.currentTimeMillis() - 1), new java.sql.Date(System.currentTimeMillis()));
+        availability.setAvailabilityId(0);
+        Availability availability2 = new Availability(person2, new java.sql.Date(System.currentTimeMillis() - 1), new java.sql.Date(System.currentTimeMillis()));
+        availability2.setAvailabilityId(1);
+
+        Competence competence = new Competence();
+        competence.setName("testCompetence");
+        CompetenceProfile profile = new CompetenceProfile(person, competence, 1.0);
+        profile.setCompetenceProfileId(0);
+
+        List<ApplicationSubmission> submissions = List.of(
+            new ApplicationSubmission("a", 0, List.of(0), List.of(0)),
+            new ApplicationSubmission("b", 0, List.of(1), List.of(0)),
+            new ApplicationSubmission("c", 9, List.of(0), List.of(0)));
+
+        // We then define the implementation for the mock repositories
+        when(personRepository.findAllById(anyCollection())).thenReturn(List.of(person, person2));
+        when(availabilityRepository.findAllByPersonAndAvailabilityIdIn(any(Person.class), anyCollection())).thenAnswer(invocation -> {
+            Collection<?> idsArg = (Collection<?>) invocation.getArguments()[1];
+            List<Availability> found = new ArrayList<Availability>();
+            for (Availability a : List.of(availability, availability2)) {
+                if (idsArg.contains(a.getAvailabilityId()) && a.getPerson() == invocation.getArguments()[0]) {
+                    found.add(a);
+                }
+            }
+            return found;
+        });
+        when(availabilityRepository.findExistingAvailabilityIds(anyCollection())).thenReturn(List.of(1));
+        when(competenceProfileRepository.findAllByPersonAndCompetenceProfileIdIn(any(Person.class), anyCollection())).thenReturn(List.of(profile));
+        when(applicationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<?> applications = (List<?>) invocation.getArguments()[0];
+            for (int i = 0; i < applications.size(); i++) {
+                ((Application) applications.get(i)).setApplicationId(100+i);
+            }
+            return applications;
+        });
+
+        // We then test that only the valid submission is created, while the others are rejected with the same messages as SubmitApplication
+        List<ApplicationSubmissionStatus> results = applicationService.SubmitApplications(submissions);
+        assertEquals(3, results.size());
+        assertEquals("a", results.get(0).getSubmissionId());
+        assertEquals(ApplicationSubmissionState.submitted, results.get(0).getState());
+        assertEquals(100, results.get(0).getApplicationId());
+        assertEquals(ApplicationSubmissionState.rejected, results.get(1).getState());
+        assertEquals("Availability invalid due to : The availability period with id 1 belongs to another user", results.get(1).getMessage());
+        assertEquals(ApplicationSubmissionState.rejected, results.get(2).getState());
+        assertEquals("Could not find a person with the following id : 9", results.get(2).getMessage());
+
+        // The people are retrived using a single query, the applications are saved together and only the created application is published
+        Mockito.verify(this.personRepository, Mockito.times(1)).findAllById(anyCollection());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).saveAll(anyList());
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(any(ApplicationSubmittedEvent.class));
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).saveAll(anyList());
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> applicationService.SubmitApplications(submissions));
+        assertEquals("Failed due to database error, please try again", e.getMessage());
+    }
 }
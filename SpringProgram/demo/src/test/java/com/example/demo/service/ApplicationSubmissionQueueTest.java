@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.domain.ApplicationSubmission;
+import com.example.demo.domain.ApplicationSubmissionState;
+import com.example.demo.domain.ApplicationSubmissionStatus;
+import com.example.demo.domain.entity.Application;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.SubmissionQueueFullException;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.AvailabilityInvalidException;
+import com.example.demo.presentation.restException.EntryNotFoundExceptions.SubmissionNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+/**
+ * This class defined the unit tests for the ApplicationSubmissionQueue class
+ */
+public class ApplicationSubmissionQueueTest {
+    @Mock
+    private ApplicationService applicationService;
+
+    /**
+     * This creates a status for every submission in a batch, where every submission is created with an application id based on its position
+     * @param batch the batch of submissions
+     * @return the status of each submission
+     */
+    private static List<ApplicationSubmissionStatus> SubmitAll(List<?> batch) {
+        List<ApplicationSubmissionStatus> results = new ArrayList<ApplicationSubmissionStatus>();
+        for (int i = 0; i < batch.size(); i++) {
+            results.add(new ApplicationSubmissionStatus(((ApplicationSubmission) batch.get(i)).getSubmissionId(), ApplicationSubmissionState.submitted, 100+i, null));
+        }
+        return results;
+    }
+
+    @Test
+    /**
+     * This tests that submissions are queued until processed in batches, that a full queue rejects new submissions and that statuses are only visible to the submitter
+     */
+    void EnqueueTest() {
+        ApplicationSubmissionQueue submissionQueue = new ApplicationSubmissionQueue(applicationService, 3, 2, 0);
+        when(applicationService.SubmitApplications(anyList())).thenAnswer(invocation -> SubmitAll((List<?>) invocation.getArguments()[0]));
+
+        ApplicationSubmissionStatus first = submissionQueue.Enqueue(1, List.of(1), List.of(2));
+        ApplicationSubmissionStatus second = submissionQueue.Enqueue(1, List.of(1), List.of(2));
+        ApplicationSubmissionStatus third = submissionQueue.Enqueue(2, List.of(3), List.of(4));
+        assertEquals(ApplicationSubmissionState.queued, first.getState());
+        assertEquals(3, submissionQueue.GetQueuedCount());
+
+        //The queue is full, so the next submission is rejected
+        var e = assertThrowsExactly(SubmissionQueueFullException.class, () -> submissionQueue.Enqueue(1, List.of(1), List.of(2)));
+        assertEquals("Could not queue application submission due to : too many applications are being submitted, please try again later", e.getMessage());
+
+        //A status can only be retrived by the person who submitted it
+        assertEquals(ApplicationSubmissionState.queued, submissionQueue.GetStatus(1, first.getSubmissionId()).getState());
+        var e2 = assertThrowsExactly(SubmissionNotFoundException.class, () -> submissionQueue.GetStatus(2, first.getSubmissionId()));
+        assertEquals("Could not find any application submission with id : "+first.getSubmissionId(), e2.getMessage());
+        assertThrowsExactly(SubmissionNotFoundException.class, () -> submissionQueue.GetStatus(1, "unknown"));
+
+        //The queue is processed in batches of at most 2 submissions
+        assertEquals(2, submissionQueue.ProcessQueued());
+        assertEquals(ApplicationSubmissionState.submitted, submissionQueue.GetStatus(1, first.getSubmissionId()).getState());
+        assertEquals(101, submissionQueue.GetStatus(1, second.getSubmissionId()).getApplicationId());
+        assertEquals(ApplicationSubmissionState.queued, submissionQueue.GetStatus(2, third.getSubmissionId()).getState());
+
+        assertEquals(1, submissionQueue.ProcessQueued());
+        assertEquals(0, submissionQueue.ProcessQueued());
+        assertEquals(ApplicationSubmissionState.submitted, submissionQueue.GetStatus(2, third.getSubmissionId()).getState());
+        Mockito.verify(applicationService, Mockito.times(2)).SubmitApplications(anyList());
+    }
+
+    @Test
+    /**
+     * This tests that if a batch fails each submission is retried on its own, so only the invalid submission is rejected
+     */
+    void BatchFailureTest() {
+        ApplicationSubmissionQueue submissionQueue = new ApplicationSubmissionQueue(applicationService, 10, 10, 0);
+        Application application = new Application();
+        application.setApplicationId(5);
+        when(applicationService.SubmitApplications(anyList())).thenThrow(new CustomDatabaseException());
+        when(applicationService.SubmitApplication(1, List.of(1), List.of(2))).thenReturn(application);
+        when(applicationService.SubmitApplication(2, List.of(3), List.of(4))).thenThrow(new AvailabilityInvalidException("The availability period with id 3 belongs to another user"));
+
+        ApplicationSubmissionStatus first = submissionQueue.Enqueue(1, List.of(1), List.of(2));
+        ApplicationSubmissionStatus second = submissionQueue.Enqueue(2, List.of(3), List.of(4));
+        assertEquals(2, submissionQueue.ProcessQueued());
+
+        assertEquals(ApplicationSubmissionState.submitted, submissionQueue.GetStatus(1, first.getSubmissionId()).getState());
+        assertEquals(5, submissionQueue.GetStatus(1, first.getSubmissionId()).getApplicationId());
+        assertEquals(ApplicationSubmissionState.rejected, submissionQueue.GetStatus(2, second.getSubmissionId()).getState());
+        assertEquals("Availability invalid due to : The availability period with id 3 belongs to another user", submissionQueue.GetStatus(2, second.getSubmissionId()).getMessage());
+    }
+
+    @Test
+    /**
+     * This tests that the worker threads process submissions as soon as they are queued
+     */
+    void WorkerTest() throws InterruptedException {
+        ApplicationSubmissionQueue submissionQueue = new ApplicationSubmissionQueue(applicationService, 10, 10, 1);
+        when(applicationService.SubmitApplications(anyList())).thenAnswer(invocation -> SubmitAll((List<?>) invocation.getArguments()[0]));
+
+        try {
+            ApplicationSubmissionStatus status = submissionQueue.Enqueue(1, List.of(1), List.of(2));
+            long deadline = System.currentTimeMillis()+10000;
+            while (submissionQueue.GetStatus(1, status.getSubmissionId()).getState()==ApplicationSubmissionState.queued && System.currentTimeMillis()<deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(ApplicationSubmissionState.submitted, submissionQueue.GetStatus(1, status.getSubmissionId()).getState());
+            assertTrue(submissionQueue.GetQueuedCount()==0);
+        } finally {
+            submissionQueue.Shutdown();
+        }
+    }
+
+    @Test
+    /**
+     * This tests that a worker thread rejects a batch which fails with an error, and keeps processing the following submissions
+     */
+    void WorkerErrorTest() throws InterruptedException {
+        ApplicationSubmissionQueue submissionQueue = new ApplicationSubmissionQueue(applicationService, 10, 10, 1);
+        when(applicationService.SubmitApplications(anyList()))
+            .thenThrow(new StackOverflowError())
+            .thenAnswer(invocation -> SubmitAll((List<?>) invocation.getArguments()[0]));
+
+        try {
+            ApplicationSubmissionStatus failed = submissionQueue.Enqueue(1, List.of(1), List.of(2));
+            long deadline = System.currentTimeMillis()+10000;
+            while (submissionQueue.GetStatus(1, failed.getSubmissionId()).getState()==ApplicationSubmissionState.queued && System.currentTimeMillis()<deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(ApplicationSubmissionState.rejected, submissionQueue.GetStatus(1, failed.getSubmissionId()).getState());
+            assertEquals("the application could not be processed, please try again", submissionQueue.GetStatus(1, failed.getSubmissionId()).getMessage());
+
+            ApplicationSubmissionStatus status = submissionQueue.Enqueue(1, List.of(1), List.of(2));
+            while (submissionQueue.GetStatus(1, status.getSubmissionId()).getState()==ApplicationSubmissionState.queued && System.currentTimeMillis()<deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(ApplicationSubmissionState.submitted, submissionQueue.GetStatus(1, status.getSubmissionId()).getState());
+        } finally {
+            submissionQueue.Shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.presentation.restException.PasswordHashingBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * This class defined the unit tests for the BoundedPasswordEncoder class
+ */
+public class BoundedPasswordEncoderTest {
+
+    @Test
+    /**
+     * This tests that passwords are hashed and verified by the wrapped encoder, and that the time spent doing so is recorded
+     */
+    void HashTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry, 1, 1);
+        try {
+            String hash = passwordEncoder.encode("password");
+            assertTrue(passwordEncoder.matches("password", hash));
+            assertFalse(passwordEncoder.matches("wrong password", hash));
+            assertFalse(passwordEncoder.upgradeEncoding(hash));
+
+            assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+            assertEquals(2, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+            assertEquals(3, meterRegistry.get("password.hashing.wait").timer().count());
+
+            //Errors from the wrapped encoder are thrown to the caller
+            assertThrowsExactly(IllegalArgumentException.class, () -> passwordEncoder.encode(null));
+        } finally {
+            passwordEncoder.Shutdown();
+        }
+    }
+
+    @Test
+    /**
+     * This tests that a password is rejected immediately once every hashing thread is busy and the queue is full
+     */
+    void SaturatedTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash of "+rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals(encode(rawPassword));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return true;
+            }
+        };
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(blockingEncoder, meterRegistry, 1, 1);
+        try {
+            CompletableFuture<String> hashing = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("second", "hash of second"));
+            long deadline = System.currentTimeMillis()+5000;
+            while (passwordEncoder.GetQueueSize()<1 && System.currentTimeMillis()<deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, meterRegistry.get("password.hashing.queue.size").gauge().value());
+            assertEquals(1, meterRegistry.get("password.hashing.active").gauge().value());
+
+            //The thread and the queue are full, so the next password is rejected without waiting
+            assertThrowsExactly(PasswordHashingBusyException.class, () -> passwordEncoder.encode("third"));
+            assertEquals(1, passwordEncoder.GetRejectedCount());
+
+            //Hashing a password again after a login is postponed while passwords are waiting
+            assertFalse(passwordEncoder.upgradeEncoding("hash of first"));
+
+            release.countDown();
+            assertEquals("hash of first", hashing.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+            assertEquals("hash of fourth", passwordEncoder.encode("fourth"));
+            assertTrue(passwordEncoder.upgradeEncoding("hash of first"));
+        } finally {
+            release.countDown();
+            passwordEncoder.Shutdown();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.IdempotencyKeyReusedException;
+
+/**
+ * This class defined the unit tests for the IdempotencyService class
+ */
+public class IdempotencyServiceTest {
+    //The clock used by the service, which the tests move forward manually
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    /**
+     * This tests that a request is only executed once per key, and that keys are scoped to the person and operation
+     */
+    void ExecuteTest() {
+        IdempotencyService idempotencyService = new IdempotencyService(10, Duration.ofMinutes(1), clock::get);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, (int)idempotencyService.Execute(1, "create", "key", "a", executions::incrementAndGet));
+        assertEquals(1, (int)idempotencyService.Execute(1, "create", "key", "a", executions::incrementAndGet));
+        assertEquals(1, executions.get());
+
+        //The same key for another person or operation is a different request
+        assertEquals(2, (int)idempotencyService.Execute(2, "create", "key", "a", executions::incrementAndGet));
+        assertEquals(3, (int)idempotencyService.Execute(1, "submit", "key", "a", executions::incrementAndGet));
+
+        //While requests without a key are always executed
+        assertEquals(4, (int)idempotencyService.Execute(1, "create", null, "a", executions::incrementAndGet));
+        assertEquals(5, (int)idempotencyService.Execute(1, "create", null, "a", executions::incrementAndGet));
+        assertEquals(3, idempotencyService.GetKeyCount());
+
+        //And a key can not be reused for a request with other parameters
+        var e = assertThrowsExactly(IdempotencyKeyReusedException.class, () -> idempotencyService.Execute(1, "create", "key", "b", executions::incrementAndGet));
+        assertEquals("Could not process request due to : the idempotency key was already used for a different request", e.getMessage());
+        assertEquals(5, executions.get());
+    }
+
+    @Test
+    /**
+     * This tests that keys are forgotten once they expire, or once the maximum number of keys is reached, and that failed requests are not remembered
+     */
+    void ExpiryAndEvictionTest() {
+        IdempotencyService idempotencyService = new IdempotencyService(2, Duration.ofMinutes(1), clock::get);
+        AtomicInteger executions = new AtomicInteger();
+
+        idempotencyService.Execute(1, "create", "key1", "a", executions::incrementAndGet);
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        idempotencyService.Execute(1, "create", "key1", "a", executions::incrementAndGet);
+        assertEquals(1, executions.get());
+
+        //The key expires a minute after the first request
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, idempotencyService.GetKeyCount());
+        assertEquals(2, (int)idempotencyService.Execute(1, "create", "key1", "a", executions::incrementAndGet));
+
+        //Adding a third key forgets the oldest one
+        idempotencyService.Execute(1, "create", "key2", "a", executions::incrementAndGet);
+        idempotencyService.Execute(1, "create", "key3", "a", executions::incrementAndGet);
+        assertEquals(2, idempotencyService.GetKeyCount());
+        assertEquals(5, (int)idempotencyService.Execute(1, "create", "key1", "a", executions::incrementAndGet));
+
+        //A failed request is forgotten, so retrying it with the same key executes it again
+        assertThrowsExactly(CustomDatabaseException.class, () -> idempotencyService.Execute(1, "create", "key4", "a", () -> { throw new CustomDatabaseException(); }));
+        assertEquals(6, (int)idempotencyService.Execute(1, "create", "key4", "a", executions::incrementAndGet));
+    }
+
+    @Test
+    /**
+     * This tests that a retry which arrives while the first request is still executing waits for it and receives the same response
+     */
+    void ConcurrentRetryTest() throws Exception {
+        IdempotencyService idempotencyService = new IdempotencyService(10, Duration.ofMinutes(1), clock::get);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> idempotencyService.Execute(1, "create", "key", "a", () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return executions.incrementAndGet();
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> retry = CompletableFuture.supplyAsync(() -> idempotencyService.Execute(1, "create", "key", "a", executions::incrementAndGet));
+        release.countDown();
+
+        assertEquals(1, (int)first.get(10, TimeUnit.SECONDS));
+        assertEquals(1, (int)retry.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    /**
+     * This tests that a request failing with an error is forgotten, and that a retry waiting for it fails with the same error instead of waiting until the key expires
+     */
+    void ConcurrentErrorTest() throws Exception {
+        IdempotencyService idempotencyService = new IdempotencyService(10, Duration.ofMinutes(1), clock::get);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> idempotencyService.Execute(1, "create", "key", "a", () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new OutOfMemoryError("test");
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        //The retry is only released once it is waiting for the first request
+        AtomicReference<Throwable> retryError = new AtomicReference<Throwable>();
+        Thread retry = new Thread(() -> {
+            try {
+                idempotencyService.Execute(1, "create", "key", "a", executions::incrementAndGet);
+            } catch (Throwable e) {
+                retryError.set(e);
+            }
+        });
+        retry.setDaemon(true);
+        retry.start();
+        while (retry.getState()!=Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        var e = assertThrowsExactly(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, e.getCause());
+        retry.join(10000);
+        assertInstanceOf(OutOfMemoryError.class, retryError.get());
+        assertEquals(0, executions.get());
+
+        //The failed request is forgotten, so retrying it executes it again
+        assertEquals(0, idempotencyService.GetKeyCount());
+        assertEquals(1, (int)idempotencyService.Execute(1, "create", "key", "a", executions::incrementAndGet));
+    }
+}
\ No newline at end of file
@@ -2,15 +2,27 @@ package com.example.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
 import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedRefreshToken;
+import com.example.demo.domain.VerifiedToken;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
 
@@ -57,4 +69,83 @@ public class JwtServiceTest {
         assertEquals(Long.class, jwtService.extractRandomNumber(resetToken).getClass()); //This tests that the random number is a long 
         assertTrue(jwtService.validateResetToken(resetToken)); //This tests that the token generated is valid
     }
+
+    @Test
+    /**
+     * This tests the VerifyToken method, which should only parse a token the first time it is verified, until the token expires or is forgotten
+     */
+    void VerifyTokenTest()
+    {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        JwtService cachingJwtService = new JwtService(2, clock::get);
+        String token = cachingJwtService.generateToken("test");
+
+        VerifiedToken verified = cachingJwtService.VerifyToken(token);
+        assertEquals("test", verified.getSubject());
+        assertNull(verified.getRandomNumber());
+        assertSame(verified, cachingJwtService.VerifyToken(token)); //The second verification returns the remembered claims
+        assertEquals(1, cachingJwtService.getVerifiedTokenCount());
+
+        //A token with another signature is rejected, and is not remembered
+        String tamperedToken = token.substring(0, token.lastIndexOf('.')+1)+"invalidsignatureinvalidsignatureinvalidsig";
+        assertThrowsExactly(SignatureException.class, () -> cachingJwtService.VerifyToken(tamperedToken));
+        assertEquals(1, cachingJwtService.getVerifiedTokenCount());
+
+        //Once the token has expired according to the clock of the service it is parsed again
+        clock.set(verified.getExpiration().getTime());
+        VerifiedToken reverified = cachingJwtService.VerifyToken(token);
+        assertNotSame(verified, reverified);
+        assertEquals("test", reverified.getSubject());
+        clock.set(System.currentTimeMillis());
+
+        //Verifying a third token forgets the least recently used one
+        String resetToken = cachingJwtService.generateResetToken("email");
+        assertEquals(cachingJwtService.extractRandomNumber(resetToken), cachingJwtService.VerifyToken(resetToken).getRandomNumber());
+        cachingJwtService.VerifyToken(cachingJwtService.generateResetToken("another email"));
+        assertEquals(2, cachingJwtService.getVerifiedTokenCount());
+        assertNotSame(reverified, cachingJwtService.VerifyToken(token));
+    }
+
+    @Test
+    /**
+     * This tests the generateToken method for self-contained tokens, which should contain the id, role and token version of the user
+     */
+    void generateSelfContainedTokenTest()
+    {
+        Role role = new Role();
+        role.setName("testRole");
+        Person person = new Person();
+        person.setRole(role);
+        person.setId(5);
+        person.setUsername("test");
+        person.setTokenVersion(2);
+        PersonDetails details=new PersonDetails(person);
+
+        VerifiedToken verified = jwtService.VerifyToken(jwtService.generateToken(details));
+        assertTrue(verified.isSelfContained());
+        assertEquals("test", verified.getSubject());
+        assertEquals(5, verified.getPersonId());
+        assertEquals("testRole", verified.getRole());
+        assertEquals(2, verified.getTokenVersion());
+        assertTrue(jwtService.validateToken(verified, details));
+
+        //A token generated using only the username is not self-contained
+        assertFalse(jwtService.VerifyToken(jwtService.generateToken("test")).isSelfContained());
+    }
+
+    @Test
+    /**
+     * This tests the generateRefreshToken and VerifyRefreshToken methods, and that refresh tokens and normal tokens can not be used in place of each other
+     */
+    void refreshTokenTest()
+    {
+        String refreshToken = jwtService.generateRefreshToken("test", "family", 3, new Date(System.currentTimeMillis()+JwtService.REFRESH_TOKEN_VALIDITY.toMillis()));
+        VerifiedRefreshToken verified = jwtService.VerifyRefreshToken(refreshToken);
+        assertEquals("test", verified.getSubject());
+        assertEquals("family", verified.getFamilyId());
+        assertEquals(3, verified.getGeneration());
+
+        assertThrowsExactly(UnsupportedJwtException.class, () -> jwtService.VerifyToken(refreshToken));
+        assertThrowsExactly(UnsupportedJwtException.class, () -> jwtService.VerifyRefreshToken(jwtService.generateToken("test")));
+    }
 }
@@ -26,10 +26,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedToken;
 import com.example.demo.domain.dto.PersonDTO;
 import com.example.demo.domain.entity.ApplicantReset;
 import com.example.demo.domain.entity.Person;
 import com.example.demo.domain.entity.Role;
+import com.example.demo.domain.event.PersonChangedEvent;
+import com.example.demo.domain.event.TokensRevokedEvent;
 import com.example.demo.presentation.restException.CustomDatabaseException;
 import com.example.demo.presentation.restException.InvalidJWTException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.InvalidPersonException;
@@ -39,11 +43,15 @@ import com.example.demo.repository.PersonRepository;
 import com.example.demo.repository.RoleRepository;
 
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.TransientDataAccessException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 /**
  * This is the class for tests for the PersonService class
@@ -70,6 +78,13 @@ public class PersonServiceTest {
 
     @Mock
     private JwtService jwtService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    //This records the number of passwords hashed again, without publishing them anywhere
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     //This ensures above is used in place of a real instance in the constructor
     
     @InjectMocks
@@ -171,6 +186,9 @@ public class PersonServiceTest {
         //This is used to verify that personRepository save was called once, with any person as the parameter, which should be done in the PersonService RegisterPerson method
         Mockito.verify(this.personRepository, Mockito.times(1)).save(Mockito.any(Person.class));
 
+        //And that an event was published, so the new username is removed from the user details cache
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(PersonChangedEvent.class));
+
         //We then call the repository to test if it added the desired person
         List<Person> returnFromRepository=personRepository.findByName(name);
 
@@ -542,6 +560,7 @@ public class PersonServiceTest {
 
         String returnFromService=personService.UpdateRecruiter(0,"test","test");
         assertEquals("Updated pnr and email for a reviwer "+person.getName()+" to pnr test and email test" ,returnFromService);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(PersonChangedEvent.class));
 
         //We then test that it handles database exceptions correctly
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findById(anyInt());
@@ -646,32 +665,22 @@ public class PersonServiceTest {
 
         //We then create the mocked function's implementations
 
-        when(jwtService.validateResetToken(anyString())).thenAnswer(invocation -> {
-            String arg=(String)invocation.getArguments()[0];
-            if (arg.equals(fakeToken)) {
-                return true;
-            }
-            return false;
-        });
+        VerifiedToken verifiedFakeToken=new VerifiedToken(email, new java.util.Date(1234), 0L);
 
-        when(jwtService.extractSubject(anyString())).thenAnswer(invocation -> {
+        when(jwtService.VerifyToken(anyString())).thenAnswer(invocation -> {
             String arg=(String)invocation.getArguments()[0];
             if (arg.equals(fakeToken)) {
-                return email;
+                return verifiedFakeToken;
             }
-            return "fake";
-        });
-
-        when(jwtService.extractExpiration(anyString())).thenAnswer(invocation -> {
-            return null;
+            return new VerifiedToken("fake", new java.util.Date(1234), 0L);
         });
 
-        when(jwtService.extractExpiration(anyString())).thenAnswer(invocation -> {
-            String arg=(String)invocation.getArguments()[0];
-            if (arg.equals(fakeToken)) {
-                return new java.util.Date(1234);
+        when(jwtService.validateResetToken(any(VerifiedToken.class))).thenAnswer(invocation -> {
+            VerifiedToken arg=(VerifiedToken)invocation.getArguments()[0];
+            if (arg==verifiedFakeToken) {
+                return true;
             }
-            return null;
+            return false;
         });
 
         when(personRepository.findByEmail(anyString())).thenAnswer(invocation -> {
@@ -718,15 +727,14 @@ public class PersonServiceTest {
         assertEquals("The provided token is invalid due to : You gave an invalid but potentially real token, no current request for that person exists in the system. The link may have already been used, in which case you must request a new one.",e.getMessage());
 
 
-        when(jwtService.extractExpiration(anyString())).thenAnswer(invocation -> {
-            String arg=(String)invocation.getArguments()[0];
-            if (arg.equals(fakeToken)) {
-                return new java.util.Date(100);
-            }
-            return null;
-        });
+        when(jwtService.VerifyToken(fakeToken)).thenReturn(new VerifiedToken(email, new java.util.Date(100), 0L));
+        when(jwtService.validateResetToken(any(VerifiedToken.class))).thenReturn(true);
         //We then finally test that a real execution works correctly
         assertEquals("User updated, it now has the username username",personService.ApplicantUseResetLink(fakeToken,username,password));
+        //Both the old and new username are removed from the user details cache, and every self-contained token issued before the reset is revoked
+        Mockito.verify(this.eventPublisher, Mockito.times(2)).publishEvent(Mockito.any(PersonChangedEvent.class));
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(TokensRevokedEvent.class));
+        assertEquals(1, person.getTokenVersion());
         
         //We then test that it handles database exceptions correctly
         doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findByEmail(anyString());
@@ -785,4 +793,88 @@ public class PersonServiceTest {
 
     }
 
+    @Test
+    /**
+     * This tests the updatePassword method, which stores a password that was hashed again after a login
+     */
+    void updatePasswordTest()
+    {
+        //We first create the mock data
+        Person person=new Person();
+        person.setUsername("username");
+        person.setPassword("$2a$10$oldHash");
+        PersonDetails details=new PersonDetails(person);
+
+        //We then define the mock implementations, where the conditional update changes the password of the person if it is still the old hash
+        when(personRepository.updatePasswordIfUnchanged(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            if (!invocation.getArgument(0).equals("username") || !invocation.getArgument(1).equals(person.getPassword())) {
+                return 0;
+            }
+            person.setPassword(invocation.getArgument(2));
+            return 1;
+        });
+        when(personRepository.findByUsername("username")).thenReturn(Optional.of(person));
+        when(personRepository.existsByUsername("missing")).thenReturn(false);
+
+        //We then test that a stronger hash is stored and counted as an upgrade
+        UserDetails updated=personService.updatePassword(new PersonDetails(Copy(person)), "$2a$12$newHash");
+        assertEquals("$2a$12$newHash", updated.getPassword());
+        assertEquals("$2a$12$newHash", person.getPassword());
+        Mockito.verify(personRepository, Mockito.times(1)).updatePasswordIfUnchanged("username", "$2a$10$oldHash", "$2a$12$newHash");
+        assertEquals(1, meterRegistry.get("password.rehash").tag("direction", "upgrade").counter().count());
+
+        //We then test that a weaker hash is counted as a downgrade
+        personService.updatePassword(new PersonDetails(Copy(person)), "$2a$11$weakerHash");
+        assertEquals(1, meterRegistry.get("password.rehash").tag("direction", "downgrade").counter().count());
+
+        //The password itself did not change, so the cached user is not forgotten
+        Mockito.verifyNoInteractions(eventPublisher);
+
+        //We then test that a missing user is handled correctly
+        Person missing=new Person();
+        missing.setUsername("missing");
+        missing.setPassword("$2a$10$oldHash");
+        assertThrowsExactly(UsernameNotFoundException.class, () -> personService.updatePassword(new PersonDetails(missing), "$2a$12$newHash"));
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).updatePasswordIfUnchanged(anyString(), anyString(), anyString());
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> personService.updatePassword(details, "$2a$12$newHash"));
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
+
+    @Test
+    /**
+     * This tests that the updatePassword method does not store a password which was hashed again after a login, if the password was reset during the login
+     */
+    void updatePasswordAfterResetTest()
+    {
+        //The user logged in with the old password, which was then reset before the hash was stored, so the stored hash is no longer the old hash
+        Person loggedIn=new Person();
+        loggedIn.setUsername("username");
+        loggedIn.setPassword("$2a$10$oldHash");
+
+        when(personRepository.updatePasswordIfUnchanged("username", "$2a$10$oldHash", "$2a$12$newHash")).thenReturn(0);
+        when(personRepository.existsByUsername("username")).thenReturn(true);
+
+        //We then confirm the reset password is not replaced, and the user is returned as it is
+        PersonDetails details=new PersonDetails(loggedIn);
+        assertEquals(details, personService.updatePassword(details, "$2a$12$newHash"));
+        Mockito.verify(personRepository, Mockito.times(0)).findByUsername(anyString());
+        Mockito.verify(personRepository, Mockito.times(0)).save(any(Person.class));
+        assertEquals(0, meterRegistry.get("password.rehash").tag("direction", "upgrade").counter().count());
+    }
+
+    /**
+     * This creates a copy of a person containing its username and password, which is used as the person the user logged in as
+     * @param person the person to copy
+     * @return the copy
+     */
+    private Person Copy(Person person)
+    {
+        Person copy=new Person();
+        copy.setUsername(person.getUsername());
+        copy.setPassword(person.getPassword());
+        return copy;
+    }
+
 }
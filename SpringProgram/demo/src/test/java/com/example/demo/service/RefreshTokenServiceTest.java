@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.RefreshTokenRotation;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.RefreshTokenFamily;
+import com.example.demo.domain.entity.Role;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.InvalidRefreshTokenException;
+import com.example.demo.repository.PersonRepository;
+import com.example.demo.repository.RefreshTokenFamilyRepository;
+
+@ExtendWith(MockitoExtension.class)
+/**
+ * This class defined the unit tests for the RefreshTokenService class
+ */
+public class RefreshTokenServiceTest {
+    @Mock
+    private RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    private final JwtService jwtService = new JwtService();
+
+    private RefreshTokenService refreshTokenService;
+
+    private Person person;
+
+    /**
+     * This creates the service and the person the refresh tokens are issued for
+     */
+    @BeforeEach
+    void beforeEach() {
+        refreshTokenService = new RefreshTokenService(refreshTokenFamilyRepository, personRepository, jwtService);
+        Role role = new Role();
+        role.setName("applicant");
+        person = new Person();
+        person.setId(1);
+        person.setUsername("test");
+        person.setRole(role);
+    }
+
+    /**
+     * This issues a refresh token for the person, and makes the repository return the family it started
+     * @return the refresh token
+     */
+    private String Issue() {
+        when(personRepository.getReferenceById(1)).thenReturn(person);
+        String refreshToken = refreshTokenService.IssueRefreshToken(new PersonDetails(person));
+
+        ArgumentCaptor<RefreshTokenFamily> savedFamily = ArgumentCaptor.forClass(RefreshTokenFamily.class);
+        Mockito.verify(refreshTokenFamilyRepository).save(savedFamily.capture());
+        Mockito.verify(refreshTokenFamilyRepository).deleteExpiredByPerson(any(Person.class), anyLong());
+        RefreshTokenFamily family = savedFamily.getValue();
+        when(refreshTokenFamilyRepository.findAndLockByFamilyId(family.getFamilyId())).thenReturn(Optional.of(family));
+        return refreshToken;
+    }
+
+    @Test
+    /**
+     * This tests that a refresh token can be used once, and that it is replaced by the next generation of its family
+     */
+    void RefreshTest() {
+        String refreshToken = Issue();
+        RefreshTokenRotation rotation = refreshTokenService.Refresh(refreshToken);
+        assertEquals("test", rotation.getUser().getUsername());
+        assertEquals(1, rotation.getUser().getPersonId());
+        assertEquals("applicant", rotation.getUser().getAuthorities().iterator().next().toString());
+        assertEquals(1, jwtService.VerifyRefreshToken(rotation.getRefreshToken()).getGeneration());
+
+        RefreshTokenRotation nextRotation = refreshTokenService.Refresh(rotation.getRefreshToken());
+        assertEquals(2, jwtService.VerifyRefreshToken(nextRotation.getRefreshToken()).getGeneration());
+    }
+
+    @Test
+    /**
+     * This tests that using a refresh token twice revokes the whole family, so the newest refresh token can not be used either
+     */
+    void ReuseTest() {
+        String refreshToken = Issue();
+        RefreshTokenRotation rotation = refreshTokenService.Refresh(refreshToken);
+
+        assertThrowsExactly(InvalidRefreshTokenException.class, () -> refreshTokenService.Refresh(refreshToken));
+        assertThrowsExactly(InvalidRefreshTokenException.class, () -> refreshTokenService.Refresh(rotation.getRefreshToken()));
+
+        ArgumentCaptor<RefreshTokenFamily> savedFamily = ArgumentCaptor.forClass(RefreshTokenFamily.class);
+        Mockito.verify(refreshTokenFamilyRepository, Mockito.atLeastOnce()).save(savedFamily.capture());
+        assertTrue(savedFamily.getValue().isRevoked());
+    }
+
+    @Test
+    /**
+     * This tests that resetting the password revokes the refresh tokens issued before it
+     */
+    void PasswordResetTest() {
+        String refreshToken = Issue();
+        person.setTokenVersion(1);
+
+        assertThrowsExactly(InvalidRefreshTokenException.class, () -> refreshTokenService.Refresh(refreshToken));
+        assertTrue(refreshTokenFamilyRepository.findAndLockByFamilyId(jwtService.VerifyRefreshToken(refreshToken).getFamilyId()).get().isRevoked());
+    }
+
+    @Test
+    /**
+     * This tests that tokens which are not refresh tokens, and refresh tokens whose family does not exist, are rejected without changing anything
+     */
+    void InvalidRefreshTokenTest() {
+        assertThrowsExactly(InvalidRefreshTokenException.class, () -> refreshTokenService.Refresh(jwtService.generateToken("test")));
+        assertThrowsExactly(InvalidRefreshTokenException.class, () -> refreshTokenService.Refresh("notAToken"));
+
+        String refreshToken = Issue();
+        RefreshTokenFamily family = refreshTokenFamilyRepository.findAndLockByFamilyId(jwtService.VerifyRefreshToken(refreshToken).getFamilyId()).get();
+        when(refreshTokenFamilyRepository.findAndLockByFamilyId(family.getFamilyId())).thenReturn(Optional.empty());
+        assertThrowsExactly(InvalidRefreshTokenException.class, () -> refreshTokenService.Refresh(refreshToken));
+        assertFalse(family.isRevoked());
+        assertEquals(0, family.getGeneration());
+
+        //Database errors are handled
+        Mockito.doThrow(new QueryTimeoutException("Database timed out")).when(refreshTokenFamilyRepository).findAndLockByFamilyId(family.getFamilyId());
+        assertThrowsExactly(CustomDatabaseException.class, () -> refreshTokenService.Refresh(refreshToken));
+    }
+}
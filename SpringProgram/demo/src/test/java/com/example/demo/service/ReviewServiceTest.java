@@ -1,16 +1,30 @@
 package com.example.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -21,16 +35,42 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.TransientDataAccessException;
-
+import org.springframework.data.domain.Limit;
+
+import com.example.demo.domain.ApplicationLease;
+import com.example.demo.domain.ApplicationPage;
+import com.example.demo.domain.ApplicationRankingQuery;
+import com.example.demo.domain.ApplicationScore;
+import com.example.demo.domain.ApplicationSearchQuery;
+import com.example.demo.domain.ApplicationSearchSort;
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusChange;
+import com.example.demo.domain.ApplicationStatusCounts;
+import com.example.demo.domain.ApplicationStatusUpdateOutcome;
+import com.example.demo.domain.ApplicationStatusUpdateResult;
+import com.example.demo.domain.AvailableDayCount;
+import com.example.demo.domain.CompetenceRequirement;
+import com.example.demo.domain.LeasedApplication;
+import com.example.demo.domain.RankedApplication;
 import com.example.demo.domain.dto.ApplicationDTO;
+import com.example.demo.domain.dto.ApplicationSummaryDTO;
 import com.example.demo.domain.entity.Application;
 import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.event.ApplicationStatusChangedEvent;
+import com.example.demo.presentation.restException.ApplicationLeaseNotHeldException;
 import com.example.demo.presentation.restException.ApplicationNotUpdatedException;
+import com.example.demo.presentation.restException.AvailabilityIndexNotReadyException;
 import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.presentation.restException.InvalidParameterException;
+import com.example.demo.presentation.restException.SearchIndexNotReadyException;
 import com.example.demo.presentation.restException.EntryNotFoundExceptions.ApplicationNotFoundException;
 import com.example.demo.repository.ApplicationRepository;
+import com.example.demo.service.index.ApplicationSearchIndex;
+import com.example.demo.service.index.AvailabilityIntervalIndex;
+
+import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
 /**
@@ -41,6 +81,18 @@ public class ReviewServiceTest {
     @Mock
     private ApplicationRepository applicationRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ApplicationSearchIndex applicationSearchIndex;
+
+    @Mock
+    private AvailabilityIntervalIndex availabilityIntervalIndex;
+
     // We also define the service we will test, along with ensuring the mocked
     // repository is used instead of the real repository
     @InjectMocks
@@ -80,13 +132,13 @@ public class ReviewServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(applicationRepository.findAll()).thenAnswer(invocation -> {
+        when(applicationRepository.findWithApplicantByOrderByApplicationIdAsc()).thenAnswer(invocation -> {
             return savedApplications;
         });
 
         // We then call the method we are testing, and confirm that is calls the correct mock method
         List<? extends ApplicationDTO> results = reviewService.GetApplications();
-        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAll();
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithApplicantByOrderByApplicationIdAsc();
 
         // We then test that the results are as expected, aka empty
         assertNotNull(results);
@@ -97,7 +149,7 @@ public class ReviewServiceTest {
 
         // We then call the method we are testing again, and confirm that is calls the correct mock method
         results = reviewService.GetApplications();
-        Mockito.verify(this.applicationRepository, Mockito.times(2)).findAll();
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findWithApplicantByOrderByApplicationIdAsc();
         
         //We then test the results are as expected, aka only 1 application
         assertNotNull(results);
@@ -105,12 +157,152 @@ public class ReviewServiceTest {
         assertEquals(application, results.get(0));
 
         //We then test that it handles database exceptions correctly
-        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findAll();
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findWithApplicantByOrderByApplicationIdAsc();
 
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplications());
         assertEquals("Failed due to database error, please try again",e5.getMessage());
     }
 
+    @Test
+    /**
+     * This test is for the GetApplicationsPage method
+     */
+    public void GetApplicationsPageTest() {
+        // We define the test objects, with ids 1 to 3
+        for (int i = 1; i <= 3; i++) {
+            Application application = new Application();
+            application.setApplicationId(i);
+            application.setApplicationStatus(ApplicationStatus.unchecked);
+            savedApplications.add(application);
+        }
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.findByApplicationIdGreaterThanOrderByApplicationIdAsc(anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            Integer after=(Integer)invocation.getArguments()[0];
+            Limit limit=(Limit)invocation.getArguments()[1];
+            List<Application> applications=new ArrayList<Application>();
+            for (Application a : savedApplications) {
+                if (a.getApplicationId()>after && applications.size()<limit.max()) {
+                    applications.add(a);
+                }
+            }
+            return applications;
+        });
+
+        // The first page should contain 2 applications and have a cursor to the next page
+        ApplicationPage<ApplicationDTO> page = reviewService.GetApplicationsPage(null, 2);
+        assertEquals(2, page.getContent().size());
+        assertEquals(1, page.getContent().get(0).getApplicationId());
+        assertEquals(2, page.getContent().get(1).getApplicationId());
+        assertNotNull(page.getNextCursor());
+        assertTrue(page.isHasNext());
+
+        // The second page should contain the last application and no cursor
+        page = reviewService.GetApplicationsPage(page.getNextCursor(), 2);
+        assertEquals(1, page.getContent().size());
+        assertEquals(3, page.getContent().get(0).getApplicationId());
+        assertNull(page.getNextCursor());
+        assertFalse(page.isHasNext());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findByApplicationIdGreaterThanOrderByApplicationIdAsc(anyInt(), any(Limit.class));
+
+        // We then test that invalid cursors are rejected without accessing the database
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewService.GetApplicationsPage("notACursor", 2));
+        assertEquals("Invalid parameter : Provided cursor (notACursor) is not valid, please use the nextCursor value from the previous page", e.getMessage());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findByApplicationIdGreaterThanOrderByApplicationIdAsc(anyInt(), any(Limit.class));
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findByApplicationIdGreaterThanOrderByApplicationIdAsc(anyInt(), any(Limit.class));
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationsPage(null, 2));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the GetApplicationSummariesPage method
+     */
+    public void GetApplicationSummariesPageTest() {
+        // We define the test summaries, with ids 1 to 3
+        List<ApplicationSummaryDTO> summaries = new ArrayList<ApplicationSummaryDTO>();
+        for (int i = 1; i <= 3; i++) {
+            ApplicationSummaryDTO summary = Mockito.mock(ApplicationSummaryDTO.class);
+            when(summary.getApplicationId()).thenReturn(i);
+            summaries.add(summary);
+        }
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.findSummariesByApplicationIdGreaterThan(anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            Integer after=(Integer)invocation.getArguments()[0];
+            Limit limit=(Limit)invocation.getArguments()[1];
+            List<ApplicationSummaryDTO> result=new ArrayList<ApplicationSummaryDTO>();
+            for (ApplicationSummaryDTO s : summaries) {
+                if (s.getApplicationId()>after && result.size()<limit.max()) {
+                    result.add(s);
+                }
+            }
+            return result;
+        });
+
+        // The first page should contain 2 summaries and have a cursor to the next page
+        ApplicationPage<ApplicationSummaryDTO> page = reviewService.GetApplicationSummariesPage(null, null, 2);
+        assertEquals(2, page.getContent().size());
+        assertEquals(1, page.getContent().get(0).getApplicationId());
+        assertEquals(2, page.getContent().get(1).getApplicationId());
+        assertTrue(page.isHasNext());
+
+        // The second page should contain the last summary and no cursor
+        page = reviewService.GetApplicationSummariesPage(null, page.getNextCursor(), 2);
+        assertEquals(1, page.getContent().size());
+        assertEquals(3, page.getContent().get(0).getApplicationId());
+        assertFalse(page.isHasNext());
+
+        // We then test that the status is used to select the query
+        when(applicationRepository.findSummariesByApplicationStatusAndApplicationIdGreaterThan(eq(ApplicationStatus.accepted), anyInt(), any(Limit.class))).thenReturn(summaries.subList(0, 1));
+        page = reviewService.GetApplicationSummariesPage(ApplicationStatus.accepted, null, 2);
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findSummariesByApplicationIdGreaterThan(anyInt(), any(Limit.class));
+
+        // We then test that invalid cursors are rejected
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewService.GetApplicationSummariesPage(null, "notACursor", 2));
+        assertEquals("Invalid parameter : Provided cursor (notACursor) is not valid, please use the nextCursor value from the previous page", e.getMessage());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findSummariesByApplicationIdGreaterThan(anyInt(), any(Limit.class));
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationSummariesPage(null, null, 2));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the ForEachApplication method
+     */
+    public void ForEachApplicationTest() {
+        // We define the test objects
+        for (int i = 1; i <= ApplicationRepository.STREAM_FETCH_SIZE+1; i++) {
+            Application application = new Application();
+            application.setApplicationId(i);
+            savedApplications.add(application);
+        }
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.streamAllByOrderByApplicationIdAsc()).thenAnswer(invocation -> {
+            return savedApplications.stream();
+        });
+
+        // We then confirm every application is passed to the consumer in order, and that the persistence context is cleared once per fetched batch
+        List<ApplicationDTO> consumed = new ArrayList<ApplicationDTO>();
+        reviewService.ForEachApplication(consumed::add);
+        assertEquals(savedApplications, consumed);
+        Mockito.verify(this.entityManager, Mockito.times(1)).clear();
+
+        //We then test that it handles database exceptions correctly
+        when(applicationRepository.streamAllByOrderByApplicationIdAsc()).thenAnswer(invocation -> {
+            return Stream.of(savedApplications.get(0)).peek(a -> {throw new TransientDataAccessException("Oops! Something went wrong.") {};});
+        });
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.ForEachApplication(consumed::add));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
     @Test
     /**
      * This test is for the GetApplicationsByStatus method
@@ -129,7 +321,7 @@ public class ReviewServiceTest {
             return invocation.getArguments()[0];
         });
 
-        when(applicationRepository.findAllByApplicationStatus(any(ApplicationStatus.class))).thenAnswer(invocation -> {
+        when(applicationRepository.findWithApplicantByApplicationStatusOrderByApplicationIdAsc(any(ApplicationStatus.class))).thenAnswer(invocation -> {
             ApplicationStatus status=(ApplicationStatus)invocation.getArguments()[0];
             List<Application> applications=new ArrayList<Application>();
             for (Application a : savedApplications) {
@@ -142,7 +334,7 @@ public class ReviewServiceTest {
 
         // We then call the method we are testing, and confirm that is calls the correct mock method
         List<? extends ApplicationDTO> results =reviewService.GetApplicationsByStatus(ApplicationStatus.unchecked);
-        Mockito.verify(this.applicationRepository, Mockito.times(1)).findAllByApplicationStatus(any(ApplicationStatus.class));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithApplicantByApplicationStatusOrderByApplicationIdAsc(any(ApplicationStatus.class));
 
         // We then test that the results are as expected, aka empty
         assertNotNull(results);
@@ -152,7 +344,7 @@ public class ReviewServiceTest {
         applicationRepository.save(application);
 
         results = reviewService.GetApplicationsByStatus(ApplicationStatus.unchecked);
-        Mockito.verify(this.applicationRepository, Mockito.times(2)).findAllByApplicationStatus(any(ApplicationStatus.class));
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findWithApplicantByApplicationStatusOrderByApplicationIdAsc(any(ApplicationStatus.class));
 
         //We then test the results are as expected, aka only 1 application
         assertNotNull(results);
@@ -161,14 +353,14 @@ public class ReviewServiceTest {
 
         // We then call the method we are testing again, and confirm that is calls the correct mock method
         results = reviewService.GetApplicationsByStatus(ApplicationStatus.accepted);
-        Mockito.verify(this.applicationRepository, Mockito.times(3)).findAllByApplicationStatus(any(ApplicationStatus.class));
+        Mockito.verify(this.applicationRepository, Mockito.times(3)).findWithApplicantByApplicationStatusOrderByApplicationIdAsc(any(ApplicationStatus.class));
         
         //We then test the results are as expected, aka only 0 applications
         assertNotNull(results);
         assertEquals(0, results.size());
 
         //We then test that it handles database exceptions correctly
-        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findAllByApplicationStatus(any(ApplicationStatus.class));
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findWithApplicantByApplicationStatusOrderByApplicationIdAsc(any(ApplicationStatus.class));
 
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationsByStatus(ApplicationStatus.unchecked));
         assertEquals("Failed due to database error, please try again",e5.getMessage());
@@ -188,7 +380,7 @@ public class ReviewServiceTest {
         application.setApplicant(applicant);
 
         // We define the implementation for the mock repository
-        when(applicationRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(applicationRepository.findWithApplicantByApplicationId(anyInt())).thenAnswer(invocation -> {
             Integer id=(Integer)invocation.getArguments()[0];
             Optional<Application> tContainer;
             for (Application a : savedApplications) {
@@ -211,21 +403,260 @@ public class ReviewServiceTest {
         var e = assertThrowsExactly(ApplicationNotFoundException.class, () -> reviewService.GetApplicationsById(0));
         assertEquals("Could not find any matching application due to : No such application",e.getMessage());
         // We then manually create an application
-        Mockito.verify(this.applicationRepository, Mockito.times(1)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithApplicantByApplicationId(anyInt());
 
 
         application.setApplicationId(0);
         applicationRepository.save(application);
 
         reviewService.GetApplicationsById(application.getApplicationId());
-        Mockito.verify(this.applicationRepository, Mockito.times(2)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findWithApplicantByApplicationId(anyInt());
+
+        //We then confirm that the collections of the application are loaded using one query each
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithAvailabilityPeriodsByApplicationIdIn(List.of(0));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithCompetenceProfilesByApplicationIdIn(List.of(0));
 
-        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findById(anyInt());
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findWithApplicantByApplicationId(anyInt());
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationsById(0));
         assertEquals("Failed due to database error, please try again",e5.getMessage());
 
     }
 
+    @Test
+    /**
+     * This tests the GetApplicationVersion method
+     */
+    void GetApplicationVersionTest()
+    {
+        // We define the implementation for the mock repository, where only an application with id 1 and version number 4 exists
+        when(applicationRepository.findStatusByApplicationId(anyInt())).thenAnswer(invocation -> {
+            Integer id=(Integer)invocation.getArguments()[0];
+            if (id==1) {
+                return Optional.of(new ApplicationStatusChange(1, ApplicationStatus.unchecked, 4));
+            }
+            return Optional.empty();
+        });
+
+        //We then confirm that the version number is returned without the application being loaded
+        assertEquals(4, reviewService.GetApplicationVersion(1));
+        Mockito.verify(this.applicationRepository, Mockito.times(0)).findWithApplicantByApplicationId(anyInt());
+
+        var e = assertThrowsExactly(ApplicationNotFoundException.class, () -> reviewService.GetApplicationVersion(0));
+        assertEquals("Could not find any matching application due to : No such application",e.getMessage());
+
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findStatusByApplicationId(anyInt());
+        var e2 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.GetApplicationVersion(1));
+        assertEquals("Failed due to database error, please try again",e2.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the SearchApplications method
+     */
+    public void SearchApplicationsTest() {
+        // We define the test summaries, with ids 1 to 3
+        List<ApplicationSummaryDTO> summaries = new ArrayList<ApplicationSummaryDTO>();
+        for (int i = 1; i <= 3; i++) {
+            ApplicationSummaryDTO summary = Mockito.mock(ApplicationSummaryDTO.class);
+            when(summary.getApplicationId()).thenReturn(i);
+            summaries.add(summary);
+        }
+        ApplicationSearchQuery query = new ApplicationSearchQuery(ApplicationStatus.unchecked, List.of(), null, null, ApplicationSearchSort.applicationDate);
+
+        // We define the implementation for the mock index, where the matching applications for the query are ordered 3, 1, 2, and other searches have no matches
+        List<Integer> matches = List.of(3, 1, 2);
+        when(applicationSearchIndex.Search(any(ApplicationSearchQuery.class), anyInt(), anyInt())).thenAnswer(invocation -> {
+            if (invocation.getArguments()[0]!=query) {
+                return new ArrayList<Integer>();
+            }
+            int offset=(Integer)invocation.getArguments()[1];
+            int limit=(Integer)invocation.getArguments()[2];
+            return new ArrayList<Integer>(matches.subList(Math.min(offset, matches.size()), Math.min(offset+limit, matches.size())));
+        });
+
+        // We define the implementation for the mock repository, which returns the summaries in id order
+        when(applicationRepository.findSummariesByApplicationIdIn(anyList())).thenAnswer(invocation -> {
+            List<?> ids=(List<?>)invocation.getArguments()[0];
+            List<ApplicationSummaryDTO> result=new ArrayList<ApplicationSummaryDTO>();
+            for (ApplicationSummaryDTO s : summaries) {
+                if (ids.contains(s.getApplicationId())) {
+                    result.add(s);
+                }
+            }
+            return result;
+        });
+
+        // The first page should contain 2 summaries in the order found by the search, and have a cursor to the next page
+        ApplicationPage<ApplicationSummaryDTO> page = reviewService.SearchApplications(query, null, 2);
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, page.getContent().get(0).getApplicationId());
+        assertEquals(1, page.getContent().get(1).getApplicationId());
+        assertTrue(page.isHasNext());
+        Mockito.verify(this.applicationSearchIndex, Mockito.times(1)).Search(query, 0, 3);
+
+        // The second page should contain the last summary and no cursor
+        page = reviewService.SearchApplications(query, page.getNextCursor(), 2);
+        assertEquals(1, page.getContent().size());
+        assertEquals(2, page.getContent().get(0).getApplicationId());
+        assertFalse(page.isHasNext());
+        Mockito.verify(this.applicationSearchIndex, Mockito.times(1)).Search(query, 2, 3);
+
+        // A search without any matches should return an empty page, without querying the database
+        page = reviewService.SearchApplications(new ApplicationSearchQuery(ApplicationStatus.denied, List.of(), null, null, ApplicationSearchSort.applicationId), null, 2);
+        assertEquals(0, page.getContent().size());
+        assertFalse(page.isHasNext());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findSummariesByApplicationIdIn(anyList());
+
+        // We then test that invalid cursors, including cursors from the paginated endpoints, are rejected
+        var e = assertThrowsExactly(InvalidParameterException.class, () -> reviewService.SearchApplications(query, "notACursor", 2));
+        assertEquals("Invalid parameter : Provided cursor (notACursor) is not valid, please use the nextCursor value from the previous page", e.getMessage());
+        String pageCursor = Base64.getUrlEncoder().withoutPadding().encodeToString("application-id:1".getBytes(StandardCharsets.UTF_8));
+        assertThrowsExactly(InvalidParameterException.class, () -> reviewService.SearchApplications(query, pageCursor, 2));
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findSummariesByApplicationIdIn(anyList());
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.SearchApplications(query, null, 2));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the RankApplications method
+     */
+    public void RankApplicationsTest() {
+        // We define the test summaries, with ids 1 to 3
+        List<ApplicationSummaryDTO> summaries = new ArrayList<ApplicationSummaryDTO>();
+        for (int i = 1; i <= 3; i++) {
+            ApplicationSummaryDTO summary = Mockito.mock(ApplicationSummaryDTO.class);
+            when(summary.getApplicationId()).thenReturn(i);
+            summaries.add(summary);
+        }
+        ApplicationRankingQuery query = new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(1, 0.0)), LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31"));
+
+        // We define the implementation for the mock index, which ranks the applications 3, 1 for the query, and other positions have no matches
+        List<ApplicationScore> scores = List.of(new ApplicationScore(3, 4.0, 4.0, 1.0), new ApplicationScore(1, 2.0, 4.0, 0.5));
+        when(applicationSearchIndex.Rank(any(ApplicationRankingQuery.class), anyInt())).thenAnswer(invocation -> invocation.getArguments()[0]==query ? scores : new ArrayList<ApplicationScore>());
+        when(applicationRepository.findSummariesByApplicationIdIn(anyList())).thenReturn(summaries);
+
+        // The applications should be returned in the order of the ranking, along with their scores
+        List<RankedApplication> ranked = reviewService.RankApplications(query, 10);
+        assertEquals(2, ranked.size());
+        assertEquals(3, ranked.get(0).getApplication().getApplicationId());
+        assertEquals(scores.get(0), ranked.get(0).getScore());
+        assertEquals(1, ranked.get(1).getApplication().getApplicationId());
+        assertEquals(0.5, ranked.get(1).getScore().getCoverage());
+        Mockito.verify(this.applicationSearchIndex, Mockito.times(1)).Rank(query, 10);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findSummariesByApplicationIdIn(List.of(3, 1));
+
+        // A position without any matches should return an empty list, without querying the database
+        assertEquals(0, reviewService.RankApplications(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(2, 0.0)), LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31")), 10).size());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findSummariesByApplicationIdIn(anyList());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findSummariesByApplicationIdIn(anyList());
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.RankApplications(query, 10));
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the ClaimApplications method
+     */
+    public void ClaimApplicationsTest() {
+        // We define the test summaries, with ids 1 and 2
+        List<ApplicationSummaryDTO> summaries = new ArrayList<ApplicationSummaryDTO>();
+        for (int i = 1; i <= 2; i++) {
+            ApplicationSummaryDTO summary = Mockito.mock(ApplicationSummaryDTO.class);
+            when(summary.getApplicationId()).thenReturn(i);
+            summaries.add(summary);
+        }
+
+        // We define the implementation for the mock repository, where reviewer 5 claims the applications 1 and 2, and every other reviewer claims nothing
+        when(applicationRepository.claimUncheckedApplications(any(), anyInt(), any(Timestamp.class), any(Timestamp.class))).thenAnswer(invocation -> Integer.valueOf(5).equals(invocation.getArguments()[0]) ? List.of(1, 2) : new ArrayList<Integer>());
+        when(applicationRepository.findSummariesByApplicationIdIn(anyList())).thenReturn(List.of(summaries.get(1), summaries.get(0)));
+
+        // The claimed applications should be returned in application id order, with leases expiring after the lease duration
+        Instant before = Instant.now();
+        List<LeasedApplication> claimed = reviewService.ClaimApplications(5, 10);
+        Instant after = Instant.now();
+        assertEquals(2, claimed.size());
+        assertEquals(summaries.get(0), claimed.get(0).getApplication());
+        assertEquals(1, claimed.get(0).getLease().getApplicationId());
+        assertEquals(summaries.get(1), claimed.get(1).getApplication());
+        assertEquals(2, claimed.get(1).getLease().getApplicationId());
+        assertEquals(5, claimed.get(1).getLease().getLeaseHolderId());
+        assertFalse(claimed.get(0).getLease().getLeaseExpiresAt().isBefore(before.plus(ReviewService.LEASE_DURATION)));
+        assertFalse(claimed.get(0).getLease().getLeaseExpiresAt().isAfter(after.plus(ReviewService.LEASE_DURATION)));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).claimUncheckedApplications(eq(5), eq(10), any(Timestamp.class), any(Timestamp.class));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findSummariesByApplicationIdIn(List.of(1, 2));
+
+        // If nothing can be claimed an empty list should be returned, without retriving any summaries
+        assertEquals(0, reviewService.ClaimApplications(6, 10).size());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findSummariesByApplicationIdIn(anyList());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).claimUncheckedApplications(any(), anyInt(), any(Timestamp.class), any(Timestamp.class));
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.ClaimApplications(5, 10));
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the RenewApplicationLease and ReleaseApplicationLease methods
+     */
+    public void RenewAndReleaseApplicationLeaseTest() {
+        // We define the implementation for the mock repository, where reviewer 5 holds a lease on application 1
+        when(applicationRepository.renewApplicationLease(any(), any(), any(Timestamp.class), any(Timestamp.class))).thenAnswer(invocation ->
+            Integer.valueOf(1).equals(invocation.getArguments()[0]) && Integer.valueOf(5).equals(invocation.getArguments()[1]) ? 1 : 0);
+        when(applicationRepository.releaseApplicationLease(any(), any())).thenAnswer(invocation ->
+            Integer.valueOf(1).equals(invocation.getArguments()[0]) && Integer.valueOf(5).equals(invocation.getArguments()[1]) ? 1 : 0);
+
+        // The lease holder should be able to renew and release the lease
+        Instant before = Instant.now();
+        ApplicationLease lease = reviewService.RenewApplicationLease(1, 5);
+        assertEquals(1, lease.getApplicationId());
+        assertEquals(5, lease.getLeaseHolderId());
+        assertFalse(lease.getLeaseExpiresAt().isBefore(before.plus(ReviewService.LEASE_DURATION)));
+        reviewService.ReleaseApplicationLease(1, 5);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).releaseApplicationLease(1, 5);
+
+        // While anyone else should not
+        var e = assertThrowsExactly(ApplicationLeaseNotHeldException.class, () -> reviewService.RenewApplicationLease(1, 6));
+        assertEquals("Could not update application lease due to : you do not hold a lease on an unchecked application with id : \"1\", it may have expired or been claimed by someone else", e.getMessage());
+        e = assertThrowsExactly(ApplicationLeaseNotHeldException.class, () -> reviewService.ReleaseApplicationLease(2, 5));
+        assertEquals("Could not update application lease due to : you do not hold a lease on an application with id : \"2\", it may have been claimed by someone else", e.getMessage());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).renewApplicationLease(any(), any(), any(Timestamp.class), any(Timestamp.class));
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).releaseApplicationLease(any(), any());
+        assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.RenewApplicationLease(1, 5));
+        assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.ReleaseApplicationLease(1, 5));
+    }
+
+    @Test
+    /**
+     * This test is for the ForEachApplicationInPeriod method
+     */
+    public void ForEachApplicationInPeriodTest() {
+        // We define the test objects
+        Application application = new Application();
+        application.setApplicationId(1);
+
+        // We define the implementation for the mock repository
+        when(applicationRepository.streamByApplicationDateBetween(any(java.sql.Date.class), any(java.sql.Date.class))).thenAnswer(invocation -> Stream.of(application));
+
+        // We then confirm the period is passed on, and the applications are passed to the consumer
+        List<ApplicationDTO> consumed = new ArrayList<ApplicationDTO>();
+        reviewService.ForEachApplicationInPeriod(LocalDate.parse("2026-01-01"), LocalDate.parse("2026-03-31"), consumed::add);
+        assertEquals(List.of(application), consumed);
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).streamByApplicationDateBetween(java.sql.Date.valueOf("2026-01-01"), java.sql.Date.valueOf("2026-03-31"));
+
+        //We then test that it handles database exceptions when opening the stream correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).streamByApplicationDateBetween(any(java.sql.Date.class), any(java.sql.Date.class));
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.ForEachApplicationInPeriod(LocalDate.parse("2026-01-01"), LocalDate.parse("2026-03-31"), consumed::add));
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
+
     @Test
     /**
      * This is a test for the SetApplicationStatus method
@@ -236,62 +667,200 @@ public class ReviewServiceTest {
         Application application = new Application();
         application.setApplicationStatus(ApplicationStatus.unchecked);
         application.setApplicationId(0);
-        Person applicant = new Person();
-        applicant.setName("testsson");
-        application.setApplicant(applicant);
 
-        // We define the implementation for the mock repository
-        when(applicationRepository.save(any(Application.class))).thenAnswer(invocation -> {
-            savedApplications.add((Application) invocation.getArguments()[0]);
-            return invocation.getArguments()[0];
+        // We define the implementation for the mock repository, which performs the same check as the update statement
+        when(applicationRepository.updateApplicationStatusByApplicationIdAndVersionNumber(anyInt(), any(ApplicationStatus.class), anyLong())).thenAnswer(invocation -> {
+            Integer id=(Integer)invocation.getArguments()[0];
+            ApplicationStatus status=(ApplicationStatus)invocation.getArguments()[1];
+            long versionNumber=(Long)invocation.getArguments()[2];
+            for (Application a : savedApplications) {
+                if (a.getApplicationId()==id && a.getVersionNumber()==versionNumber && a.getApplicationStatus()!=status) {
+                    a.setApplicationStatus(status);
+                    return 1;
+                }
+            }
+            return 0;
         });
 
-        when(applicationRepository.findById(anyInt())).thenAnswer(invocation -> {
+        when(applicationRepository.findStatusByApplicationId(anyInt())).thenAnswer(invocation -> {
             Integer id=(Integer)invocation.getArguments()[0];
-            Optional<Application> tContainer;
             for (Application a : savedApplications) {
                 if (a.getApplicationId()==id) {
-                    tContainer=Optional.of(a);
-                    return tContainer;
+                    return Optional.of(new ApplicationStatusChange(a.getApplicationId(), a.getApplicationStatus(), a.getVersionNumber()));
                 }
             }
-            tContainer=Optional.empty();
-            return tContainer;
+            return Optional.empty();
         });
 
         // We then call the method we are testing, and confirm that is calls the correct mock method, along with throwing the correct exception
         var e=assertThrowsExactly(ApplicationNotFoundException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.unchecked,0));
         assertEquals("Could not find any matching application due to : No application with id : \"0\" found", e.getMessage());
-
-        Mockito.verify(this.applicationRepository, Mockito.times(1)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).updateApplicationStatusByApplicationIdAndVersionNumber(anyInt(), any(ApplicationStatus.class), anyLong());
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findStatusByApplicationId(anyInt());
 
         // We then manually create an application
-        applicationRepository.save(application);
+        savedApplications.add(application);
 
         //We then test the different exception
-        e=assertThrowsExactly(ApplicationNotFoundException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.unchecked,-1));
+        e=assertThrowsExactly(ApplicationNotFoundException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.accepted,-1));
         assertEquals("Could not find any matching application due to : Unable to update application since someone else updated it since you last retrived it", e.getMessage());
-        Mockito.verify(this.applicationRepository, Mockito.times(2)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(2)).findStatusByApplicationId(anyInt());
 
         var e2=assertThrowsExactly(ApplicationNotUpdatedException.class, ()->reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.unchecked,0));
-        Mockito.verify(this.applicationRepository, Mockito.times(3)).findById(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(3)).findStatusByApplicationId(anyInt());
         assertEquals("Could not update application due to : application status is already unchecked", e2.getMessage());
 
-        ApplicationDTO result=reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.accepted,0);
-        Mockito.verify(this.applicationRepository, Mockito.times(4)).findById(anyInt());
+        //We then test that a successful update does not read the application, and returns the new version number
+        ApplicationStatusChange result=reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.accepted,0);
+        Mockito.verify(this.applicationRepository, Mockito.times(4)).updateApplicationStatusByApplicationIdAndVersionNumber(anyInt(), any(ApplicationStatus.class), anyLong());
+        Mockito.verify(this.applicationRepository, Mockito.times(3)).findStatusByApplicationId(anyInt());
+        Mockito.verify(this.applicationRepository, Mockito.times(0)).findById(anyInt());
 
+        //Only the successful update should have been published
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(any(ApplicationStatusChangedEvent.class));
 
-        //We then test the results are as expected, aka that the returned application is correct and updated
         assertNotNull(result);
-        assertEquals(applicant, result.getApplicant());
         assertEquals(application.getApplicationId(), result.getApplicationId());
         assertEquals(ApplicationStatus.accepted, result.getApplicationStatus());
+        assertEquals(1, result.getVersionNumber());
+        assertEquals(ApplicationStatus.accepted, application.getApplicationStatus());
+
+        //We then test that it handles database exceptions correctly
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).updateApplicationStatusByApplicationIdAndVersionNumber(anyInt(), any(ApplicationStatus.class), anyLong());
+
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.denied,0));
+        assertEquals("Failed due to database error, please try again",e5.getMessage());
+
+    }
+
+    @Test
+    /**
+     * This is a test for the SetApplicationStatuses method
+     */
+    void SetApplicationStatusesTest()
+    {
+        // We define the test objects, with ids 0 and 1, along with their version numbers since these can not be set on the application
+        Map<Integer,Long> versionNumbers=new HashMap<Integer,Long>();
+        for (int i = 0; i <= 1; i++) {
+            Application application = new Application();
+            application.setApplicationStatus(ApplicationStatus.unchecked);
+            application.setApplicationId(i);
+            savedApplications.add(application);
+            versionNumbers.put(i, 0L);
+        }
+
+        // We define the implementation for the mock repository, which performs the same checks as the update statements in order
+        when(applicationRepository.updateApplicationStatusesByApplicationIdAndVersionNumber(anyList())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<ApplicationStatusChange> changes=(List<ApplicationStatusChange>)invocation.getArguments()[0];
+            int[] counts=new int[changes.size()];
+            for (int i = 0; i < changes.size(); i++) {
+                ApplicationStatusChange change=changes.get(i);
+                for (Application a : savedApplications) {
+                    if (a.getApplicationId()==change.getApplicationId() && versionNumbers.get(a.getApplicationId())==change.getVersionNumber() && a.getApplicationStatus()!=change.getApplicationStatus()) {
+                        a.setApplicationStatus(change.getApplicationStatus());
+                        versionNumbers.put(a.getApplicationId(), change.getVersionNumber()+1);
+                        counts[i]=1;
+                    }
+                }
+            }
+            return counts;
+        });
+
+        when(applicationRepository.findStatusByApplicationIdIn(anyList())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            List<Integer> ids=(List<Integer>)invocation.getArguments()[0];
+            List<ApplicationStatusChange> states=new ArrayList<ApplicationStatusChange>();
+            for (Application a : savedApplications) {
+                if (ids.contains(a.getApplicationId())) {
+                    states.add(new ApplicationStatusChange(a.getApplicationId(), a.getApplicationStatus(), versionNumbers.get(a.getApplicationId())));
+                }
+            }
+            return states;
+        });
+
+        // We then test that a batch where every update is applied does not read any application
+        List<ApplicationStatusUpdateResult> results=reviewService.SetApplicationStatuses(List.of(new ApplicationStatusChange(0, ApplicationStatus.accepted, 0)));
+        assertEquals(1, results.size());
+        assertEquals(ApplicationStatusUpdateOutcome.applied, results.get(0).getOutcome());
+        assertEquals(1, results.get(0).getVersionNumber());
+        assertNull(results.get(0).getMessage());
+        Mockito.verify(this.applicationRepository, Mockito.times(0)).findStatusByApplicationIdIn(anyList());
+
+        // We then test every outcome in a single batch, which should only read the failed applications once
+        results=reviewService.SetApplicationStatuses(List.of(
+            new ApplicationStatusChange(1, ApplicationStatus.denied, 0),
+            new ApplicationStatusChange(0, ApplicationStatus.denied, 0),
+            new ApplicationStatusChange(0, ApplicationStatus.accepted, 1),
+            new ApplicationStatusChange(2, ApplicationStatus.accepted, 0)
+        ));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findStatusByApplicationIdIn(List.of(0, 0, 2));
+        assertEquals(4, results.size());
+
+        assertEquals(ApplicationStatusUpdateOutcome.applied, results.get(0).getOutcome());
+        assertEquals(ApplicationStatus.denied, results.get(0).getApplicationStatus());
+        assertEquals(1, results.get(0).getVersionNumber());
+
+        assertEquals(ApplicationStatusUpdateOutcome.version_conflict, results.get(1).getOutcome());
+        assertEquals(1, results.get(1).getVersionNumber());
+        assertEquals("Unable to update application since someone else updated it since you last retrived it", results.get(1).getMessage());
+
+        assertEquals(ApplicationStatusUpdateOutcome.unchanged, results.get(2).getOutcome());
+        assertEquals("application status is already accepted", results.get(2).getMessage());
+
+        assertEquals(ApplicationStatusUpdateOutcome.not_found, results.get(3).getOutcome());
+        assertNull(results.get(3).getVersionNumber());
+        assertEquals("No application with id : \"2\" found", results.get(3).getMessage());
+
+        //Only the 2 applied updates should have been published
+        Mockito.verify(this.eventPublisher, Mockito.times(2)).publishEvent(any(ApplicationStatusChangedEvent.class));
 
         //We then test that it handles database exceptions correctly
-        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).findById(anyInt());
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(applicationRepository).updateApplicationStatusesByApplicationIdAndVersionNumber(anyList());
 
-        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.SetApplicationStatus(application.getApplicationId(),ApplicationStatus.accepted,0));
+        var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> reviewService.SetApplicationStatuses(List.of(new ApplicationStatusChange(0, ApplicationStatus.denied, 1))));
         assertEquals("Failed due to database error, please try again",e5.getMessage());
+    }
+
+    @Test
+    /**
+     * This test is for the GetAvailablePersons and GetDailyAvailability methods, which should pass the result of the availability index on unchanged
+     */
+    public void GetAvailabilityTest() {
+        LocalDate fromDate=LocalDate.parse("2026-06-01");
+        LocalDate toDate=LocalDate.parse("2026-06-02");
+        List<AvailableDayCount> counts=List.of(new AvailableDayCount(fromDate, 2), new AvailableDayCount(toDate, 1));
+        when(availabilityIntervalIndex.GetAvailablePersons(fromDate, toDate, true)).thenReturn(List.of(1, 3));
+        when(availabilityIntervalIndex.GetDailyAvailability(fromDate, toDate)).thenReturn(counts);
+
+        assertEquals(List.of(1, 3), reviewService.GetAvailablePersons(fromDate, toDate, true));
+        assertEquals(counts, reviewService.GetDailyAvailability(fromDate, toDate));
+
+        //We then test that the exception from the index is not caught
+        doThrow(new AvailabilityIndexNotReadyException("the availability index is still being built, please try again shortly")).when(availabilityIntervalIndex).GetAvailablePersons(fromDate, toDate, false);
+        var e = assertThrowsExactly(AvailabilityIndexNotReadyException.class, () -> reviewService.GetAvailablePersons(fromDate, toDate, false));
+        assertEquals("Could not retrive availability due to : the availability index is still being built, please try again shortly", e.getMessage());
+    }
 
+    @Test
+    /**
+     * This test is for the GetApplicationStatusCounts and GetDailyApplicationStatusCounts methods, which should pass the counts of the search index on unchanged
+     */
+    public void GetApplicationStatusCountsTest() {
+        LocalDate fromDate=LocalDate.parse("2026-06-01");
+        ApplicationStatusCounts counts=new ApplicationStatusCounts(null, Map.of(ApplicationStatus.unchecked, 3L, ApplicationStatus.accepted, 1L, ApplicationStatus.denied, 0L));
+        List<ApplicationStatusCounts> days=List.of(new ApplicationStatusCounts(fromDate, Map.of(ApplicationStatus.unchecked, 1L, ApplicationStatus.accepted, 0L, ApplicationStatus.denied, 0L)));
+        when(applicationSearchIndex.GetStatusCounts()).thenReturn(counts);
+        when(applicationSearchIndex.GetDailyStatusCounts(fromDate, fromDate)).thenReturn(days);
+
+        assertEquals(counts, reviewService.GetApplicationStatusCounts());
+        assertEquals(4, reviewService.GetApplicationStatusCounts().getTotal());
+        assertEquals(days, reviewService.GetDailyApplicationStatusCounts(fromDate, fromDate));
+        Mockito.verifyNoInteractions(this.applicationRepository);
+
+        //We then test that the exception from the index is not caught
+        doThrow(new SearchIndexNotReadyException("the search index is still being built, please try again shortly")).when(applicationSearchIndex).GetStatusCounts();
+        var e = assertThrowsExactly(SearchIndexNotReadyException.class, () -> reviewService.GetApplicationStatusCounts());
+        assertEquals("Could not search applications due to : the search index is still being built, please try again shortly", e.getMessage());
     }
 }
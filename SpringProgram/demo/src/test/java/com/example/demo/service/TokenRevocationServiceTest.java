@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.VerifiedToken;
+import com.example.demo.domain.event.TokensRevokedEvent;
+
+@ExtendWith(MockitoExtension.class)
+/**
+ * This class defined the unit tests for the TokenRevocationService class
+ */
+public class TokenRevocationServiceTest {
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    //The clock used by the service, which the tests move forward manually
+    private final AtomicLong clock = new AtomicLong(1000000);
+
+    /**
+     * This creates the claims of a self-contained token issued at the current time of the clock
+     * @param personId the id of the person
+     * @param tokenVersion the token version of the person when the token was issued
+     * @return the claims of the token
+     */
+    private VerifiedToken Token(Integer personId, int tokenVersion) {
+        return new VerifiedToken("user"+personId, new Date(clock.get()), new Date(clock.get()+JwtService.TOKEN_VALIDITY.toMillis()), null, personId, "applicant", tokenVersion);
+    }
+
+    @Test
+    /**
+     * This tests that only tokens with an older token version are revoked, and that the revocation is forgotten once every such token has expired
+     */
+    void IsRevokedTest() {
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(userDetailsCache, 10, clock::get);
+        VerifiedToken oldToken = Token(1, 0);
+        VerifiedToken otherToken = Token(2, 0);
+        assertFalse(tokenRevocationService.IsRevoked(oldToken));
+
+        tokenRevocationService.OnTokensRevoked(new TokensRevokedEvent(1, 1));
+        assertTrue(tokenRevocationService.IsRevoked(oldToken));
+        assertFalse(tokenRevocationService.IsRevoked(Token(1, 1)));
+        assertFalse(tokenRevocationService.IsRevoked(otherToken));
+
+        //The revocation is forgotten once every token issued before it has expired
+        clock.addAndGet(JwtService.TOKEN_VALIDITY.toMillis());
+        assertFalse(tokenRevocationService.IsRevoked(Token(1, 1)));
+        assertEquals(0, tokenRevocationService.GetRevocationCount());
+
+        //None of the above required the database
+        Mockito.verifyNoInteractions(userDetailsCache);
+    }
+
+    @Test
+    /**
+     * This tests that tokens issued before revocations were tracked are compared to the current token version of the person
+     */
+    void UntrackedTokenTest() {
+        VerifiedToken tokenFromBeforeStart = Token(1, 0);
+        clock.addAndGet(1000);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(userDetailsCache, 1, clock::get);
+
+        when(userDetailsCache.LoadUser("user1")).thenReturn(new PersonDetails(1, "user1", "applicant", 0));
+        assertFalse(tokenRevocationService.IsRevoked(tokenFromBeforeStart));
+        when(userDetailsCache.LoadUser("user1")).thenReturn(new PersonDetails(1, "user1", "applicant", 1));
+        assertTrue(tokenRevocationService.IsRevoked(tokenFromBeforeStart));
+
+        //A token whose username no longer exists is revoked, since the username is only changed when the password is reset
+        Mockito.doThrow(new UsernameNotFoundException("Could not find username: user1")).when(userDetailsCache).LoadUser("user1");
+        assertTrue(tokenRevocationService.IsRevoked(tokenFromBeforeStart));
+
+        //Forgetting a revocation before it expired means every older token must be compared as well
+        VerifiedToken tokenFromAfterStart = Token(2, 0);
+        clock.addAndGet(1000);
+        tokenRevocationService.OnTokensRevoked(new TokensRevokedEvent(3, 1));
+        tokenRevocationService.OnTokensRevoked(new TokensRevokedEvent(4, 1));
+        assertEquals(1, tokenRevocationService.GetRevocationCount());
+        when(userDetailsCache.LoadUser("user2")).thenReturn(new PersonDetails(2, "user2", "applicant", 0));
+        assertFalse(tokenRevocationService.IsRevoked(tokenFromAfterStart));
+        Mockito.verify(userDetailsCache, Mockito.times(1)).LoadUser("user2");
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +26,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.TransientDataAccessException;
 
 import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.TranslationCatalogRevision;
 import com.example.demo.domain.dto.CompetenceDTO;
 import com.example.demo.domain.dto.CompetenceTranslationDTO;
 import com.example.demo.domain.dto.LanguageDTO;
@@ -331,4 +333,39 @@ public class TranslationServiceTest {
         var e5 = assertThrowsExactly(CustomDatabaseException.class, () -> translationService.GetLanguages());
         assertEquals("Failed due to database error, please try again",e5.getMessage());
     }
+
+    @Test
+    /**
+     * This is a test for the GetCatalogRevision method
+     */
+    void GetCatalogRevisionTest()
+    {
+        //We define the implementation for the mock repositories, where the catalog contains one translation and one language
+        when(competenceTranslationRepository.findCatalogTranslationRows()).thenReturn(List.of("1:1:1:translation"));
+        when(languageRepository.findCatalogLanguageRows()).thenReturn(List.of("1:english"));
+
+        //We then confirm that the revision is only retrived once, and then reused
+        String revision = translationService.GetCatalogRevision();
+        assertNotNull(revision);
+        assertEquals(revision, translationService.GetCatalogRevision());
+        Mockito.verify(this.competenceTranslationRepository, Mockito.times(1)).findCatalogTranslationRows();
+        Mockito.verify(this.languageRepository, Mockito.times(1)).findCatalogLanguageRows();
+
+        //We then confirm that the revision is a hash of the rows, so any change to a translation or language, or moving text between rows, results in a different revision
+        assertEquals(revision, new TranslationCatalogRevision(List.of("1:1:1:translation"), List.of("1:english")).getTag());
+        assertNotEquals(revision, new TranslationCatalogRevision(List.of("1:1:1:translatiom"), List.of("1:english")).getTag());
+        assertNotEquals(revision, new TranslationCatalogRevision(List.of("1:1:1:translation"), List.of("1:engliss")).getTag());
+        assertNotEquals(revision, new TranslationCatalogRevision(List.of("1:1:1:translation", "1:english"), List.of()).getTag());
+    }
+
+    @Test
+    /**
+     * This is a test for the GetCatalogRevision method when the database fails
+     */
+    void GetCatalogRevisionDatabaseErrorTest()
+    {
+        doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(competenceTranslationRepository).findCatalogTranslationRows();
+        var e = assertThrowsExactly(CustomDatabaseException.class, () -> translationService.GetCatalogRevision());
+        assertEquals("Failed due to database error, please try again",e.getMessage());
+    }
 }
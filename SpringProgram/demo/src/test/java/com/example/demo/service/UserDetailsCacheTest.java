@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.domain.PersonDetails;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.entity.Role;
+import com.example.demo.domain.event.PersonChangedEvent;
+import com.example.demo.presentation.restException.CustomDatabaseException;
+import com.example.demo.repository.PersonRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+/**
+ * This class defined the unit tests for the UserDetailsCache class
+ */
+public class UserDetailsCacheTest {
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    //The registry the cache publishes its metrics to
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    //The clock used by the cache, which the tests move forward manually
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * This makes the mock repository return a person with the id 1 and the role "applicant" for any username
+     */
+    @BeforeEach
+    public void setUp() {
+        when(personRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            Role role = new Role();
+            role.setName("applicant");
+            Person person = new Person();
+            person.setId(1);
+            person.setUsername((String)invocation.getArguments()[0]);
+            person.setRole(role);
+            return Optional.of(person);
+        });
+    }
+
+    @Test
+    /**
+     * This tests that a user is only retrived from the database the first time it is loaded, and that the hits and misses are counted
+     */
+    void LoadUserTest() {
+        UserDetailsCache userDetailsCache = new UserDetailsCache(personRepository, transactionManager, meterRegistry, 10, Duration.ofMinutes(1), clock::get);
+
+        PersonDetails details = userDetailsCache.LoadUser("test");
+        assertEquals(1, details.getPersonId());
+        assertEquals("test", details.getUsername());
+        assertEquals("applicant", details.getAuthorities().iterator().next().getAuthority());
+        assertNull(details.getPassword()); //The password is never cached
+
+        //The second request is answered from the cache
+        assertEquals(details, userDetailsCache.LoadUser("test"));
+        Mockito.verify(personRepository, Mockito.times(1)).findByUsername("test");
+        assertEquals(1, userDetailsCache.GetHitCount());
+        assertEquals(1, userDetailsCache.GetMissCount());
+        assertEquals(1.0, meterRegistry.get("auth.user.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.user.cache.size").gauge().value());
+
+        //An unknown username is not cached, and a database error is reported as such
+        when(personRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+        var e = assertThrowsExactly(UsernameNotFoundException.class, () -> userDetailsCache.LoadUser("unknown"));
+        assertEquals("Could not find username: unknown", e.getMessage());
+        Mockito.doThrow(new TransientDataAccessException("Oops! Something went wrong.") {}).when(personRepository).findByUsername("broken");
+        assertThrowsExactly(CustomDatabaseException.class, () -> userDetailsCache.LoadUser("broken"));
+        assertEquals(1, userDetailsCache.GetUserCount());
+        assertEquals(3, userDetailsCache.GetMissCount());
+    }
+
+    @Test
+    /**
+     * This tests that users are forgotten once they expire, once the maximum number of users is reached, or once they are changed
+     */
+    void ExpiryAndInvalidationTest() {
+        UserDetailsCache userDetailsCache = new UserDetailsCache(personRepository, transactionManager, meterRegistry, 2, Duration.ofMinutes(1), clock::get);
+
+        userDetailsCache.LoadUser("user1");
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        userDetailsCache.LoadUser("user1");
+        assertEquals(1, userDetailsCache.GetMissCount());
+
+        //The user expires a minute after it was loaded
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        userDetailsCache.LoadUser("user1");
+        assertEquals(2, userDetailsCache.GetMissCount());
+
+        //Adding a third user forgets the least recently used one
+        userDetailsCache.LoadUser("user2");
+        userDetailsCache.LoadUser("user1");
+        userDetailsCache.LoadUser("user3");
+        assertEquals(2, userDetailsCache.GetUserCount());
+        userDetailsCache.LoadUser("user1");
+        assertEquals(4, userDetailsCache.GetMissCount());
+        userDetailsCache.LoadUser("user2");
+        assertEquals(5, userDetailsCache.GetMissCount());
+
+        //A changed user is retrived from the database again
+        userDetailsCache.OnPersonChanged(new PersonChangedEvent("user2"));
+        userDetailsCache.LoadUser("user2");
+        assertEquals(6, userDetailsCache.GetMissCount());
+        Mockito.verify(personRepository, Mockito.times(3)).findByUsername("user2");
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.demo.service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.domain.ApplicationRankingQuery;
+import com.example.demo.domain.ApplicationScore;
+import com.example.demo.domain.ApplicationSearchQuery;
+import com.example.demo.domain.ApplicationSearchSort;
+import com.example.demo.domain.ApplicationStatus;
+import com.example.demo.domain.ApplicationStatusCounts;
+import com.example.demo.domain.CompetenceRequirement;
+import com.example.demo.domain.dto.ApplicationIndexDTO;
+import com.example.demo.domain.dto.AvailabilityIndexDTO;
+import com.example.demo.domain.dto.CompetenceIndexDTO;
+import com.example.demo.domain.entity.Application;
+import com.example.demo.domain.entity.Availability;
+import com.example.demo.domain.entity.Competence;
+import com.example.demo.domain.entity.CompetenceProfile;
+import com.example.demo.domain.entity.Person;
+import com.example.demo.domain.event.ApplicationStatusChangedEvent;
+import com.example.demo.domain.event.ApplicationSubmittedEvent;
+import com.example.demo.presentation.restException.SearchIndexNotReadyException;
+import com.example.demo.repository.ApplicationRepository;
+
+/**
+ * This class defined the unit tests for the ApplicationSearchIndex class
+ */
+@ExtendWith(MockitoExtension.class)
+public class ApplicationSearchIndexTest {
+    // We define the repository to mock, along with the transaction manager which is only used to start transactions
+    @Mock
+    private ApplicationRepository applicationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // We then define the index we will test, and that it should use the above mocks
+    @InjectMocks
+    private ApplicationSearchIndex applicationSearchIndex;
+
+    /**
+     * This defines the mock repository to contain 5 applications, and then builds the index.
+     * Application 1 is available for the whole summer using two adjacent periods, while application 2 is only available for part of the summer
+     */
+    private void BuildIndex()
+    {
+        when(applicationRepository.streamIndexRows()).thenAnswer(invocation -> Stream.of(
+            ApplicationRow(1, ApplicationStatus.unchecked, "2026-01-05"),
+            ApplicationRow(2, ApplicationStatus.unchecked, "2026-01-03"),
+            ApplicationRow(3, ApplicationStatus.accepted, "2026-01-04"),
+            ApplicationRow(4, ApplicationStatus.unchecked, "2026-01-02"),
+            ApplicationRow(5, ApplicationStatus.unchecked, "2026-01-01")));
+        when(applicationRepository.streamCompetenceIndexRows()).thenAnswer(invocation -> Stream.of(
+            CompetenceRow(1, 1, 3.0),
+            CompetenceRow(1, 2, 1.0),
+            CompetenceRow(2, 1, 2.0),
+            CompetenceRow(3, 1, 5.0),
+            CompetenceRow(4, 1, 1.5),
+            CompetenceRow(5, 2, 4.0)));
+        when(applicationRepository.streamAvailabilityIndexRows()).thenAnswer(invocation -> Stream.of(
+            AvailabilityRow(1, "2026-05-01", "2026-06-15"),
+            AvailabilityRow(1, "2026-06-16", "2026-09-30"),
+            AvailabilityRow(2, "2026-06-01", "2026-07-31"),
+            AvailabilityRow(3, "2026-01-01", "2026-12-31"),
+            AvailabilityRow(4, "2026-01-01", "2026-12-31"),
+            AvailabilityRow(5, "2026-01-01", "2026-12-31")));
+
+        applicationSearchIndex.Rebuild();
+        assertTrue(applicationSearchIndex.IsReady());
+        assertEquals(5, applicationSearchIndex.GetIndexedApplicationCount());
+    }
+
+    @Test
+    /**
+     * This tests that searching before the index has been built, or after building it failed, is rejected
+     */
+    void SearchBeforeRebuildTest()
+    {
+        ApplicationSearchQuery query = new ApplicationSearchQuery(null, List.of(), null, null, ApplicationSearchSort.applicationId);
+        var e = assertThrowsExactly(SearchIndexNotReadyException.class, () -> applicationSearchIndex.Search(query, 0, 10));
+        assertEquals("Could not search applications due to : the search index is still being built, please try again shortly", e.getMessage());
+
+        //A failed rebuild should be logged, not thrown, and leave the index unsearchable
+        when(applicationRepository.streamIndexRows()).thenThrow(new TransientDataAccessException("Oops! Something went wrong.") {});
+        applicationSearchIndex.Rebuild();
+        assertFalse(applicationSearchIndex.IsReady());
+        assertThrowsExactly(SearchIndexNotReadyException.class, () -> applicationSearchIndex.Search(query, 0, 10));
+    }
+
+    @Test
+    /**
+     * This tests searches combining status, competence and availability predicates
+     */
+    void CombinedSearchTest()
+    {
+        BuildIndex();
+
+        //Only application 1 is unchecked, has at least 2 years in competence 1 and is available for the whole summer
+        assertEquals(List.of(1), applicationSearchIndex.Search(new ApplicationSearchQuery(ApplicationStatus.unchecked,
+            List.of(new CompetenceRequirement(1, 2.0)), LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31"), ApplicationSearchSort.applicationId), 0, 10));
+
+        //Without the availability period application 2 also matches
+        assertEquals(List.of(1, 2), applicationSearchIndex.Search(new ApplicationSearchQuery(ApplicationStatus.unchecked,
+            List.of(new CompetenceRequirement(1, 2.0)), null, null, ApplicationSearchSort.applicationId), 0, 10));
+
+        //Only application 1 includes both competences, application 5 only includes competence 2
+        assertEquals(List.of(1), applicationSearchIndex.Search(new ApplicationSearchQuery(null,
+            List.of(new CompetenceRequirement(1, 0.0), new CompetenceRequirement(2, 0.0)), null, null, ApplicationSearchSort.applicationId), 0, 10));
+
+        //No application includes competence 3
+        assertEquals(List.of(), applicationSearchIndex.Search(new ApplicationSearchQuery(null,
+            List.of(new CompetenceRequirement(3, 0.0)), null, null, ApplicationSearchSort.applicationId), 0, 10));
+
+        //A period no application covers should have no matches
+        assertEquals(List.of(), applicationSearchIndex.Search(new ApplicationSearchQuery(null,
+            List.of(), LocalDate.parse("2025-12-01"), LocalDate.parse("2026-01-31"), ApplicationSearchSort.applicationId), 0, 10));
+    }
+
+    @Test
+    /**
+     * This tests the different sort orders, along with the offset and limit
+     */
+    void SortAndPaginationTest()
+    {
+        BuildIndex();
+
+        //Without any predicates every application matches, in application id order
+        ApplicationSearchQuery all = new ApplicationSearchQuery(null, List.of(), null, null, ApplicationSearchSort.applicationId);
+        assertEquals(List.of(1, 2, 3, 4, 5), applicationSearchIndex.Search(all, 0, 10));
+        assertEquals(List.of(2, 3), applicationSearchIndex.Search(all, 1, 2));
+        assertEquals(List.of(), applicationSearchIndex.Search(all, 5, 2));
+
+        //The newest application should be first when sorting by application date
+        ApplicationSearchQuery byDate = new ApplicationSearchQuery(null, List.of(), null, null, ApplicationSearchSort.applicationDate);
+        assertEquals(List.of(1, 3, 2, 4, 5), applicationSearchIndex.Search(byDate, 0, 10));
+        assertEquals(List.of(2, 4), applicationSearchIndex.Search(byDate, 2, 2));
+
+        //The most experienced applicant should be first when sorting by experience
+        ApplicationSearchQuery byExperience = new ApplicationSearchQuery(null, List.of(new CompetenceRequirement(1, 1.5)), null, null, ApplicationSearchSort.experience);
+        assertEquals(List.of(3, 1, 2, 4), applicationSearchIndex.Search(byExperience, 0, 10));
+        assertEquals(List.of(1, 2), applicationSearchIndex.Search(byExperience, 1, 2));
+
+        //While the same predicates sorted by date should use the date order
+        ApplicationSearchQuery byExperienceDate = new ApplicationSearchQuery(null, List.of(new CompetenceRequirement(1, 1.5)), null, null, ApplicationSearchSort.applicationDate);
+        assertEquals(List.of(1, 3, 2, 4), applicationSearchIndex.Search(byExperienceDate, 0, 10));
+    }
+
+    @Test
+    /**
+     * This tests that the index is kept in sync by the status changed and submitted events
+     */
+    void EventSyncTest()
+    {
+        BuildIndex();
+        ApplicationSearchQuery unchecked = new ApplicationSearchQuery(ApplicationStatus.unchecked, List.of(new CompetenceRequirement(1, 0.0)), null, null, ApplicationSearchSort.applicationId);
+        assertEquals(List.of(1, 2, 4), applicationSearchIndex.Search(unchecked, 0, 10));
+
+        //A status change should be applied, while an older change arriving later should be ignored
+        applicationSearchIndex.OnApplicationStatusChanged(new ApplicationStatusChangedEvent(2, ApplicationStatus.accepted, 2));
+        applicationSearchIndex.OnApplicationStatusChanged(new ApplicationStatusChangedEvent(2, ApplicationStatus.unchecked, 1));
+        assertEquals(List.of(1, 4), applicationSearchIndex.Search(unchecked, 0, 10));
+
+        //We then define a newly submitted application, which the mock repository returns
+        Person person = new Person();
+        Competence competence = new Competence();
+        competence.setId(1);
+        List<CompetenceProfile> profiles = new ArrayList<CompetenceProfile>();
+        profiles.add(new CompetenceProfile(person, competence, 7.0));
+        List<Availability> periods = new ArrayList<Availability>();
+        periods.add(new Availability(person, Date.valueOf("2026-06-01"), Date.valueOf("2026-08-31")));
+        Application application = new Application(person, periods, profiles);
+        application.setApplicationId(6);
+        when(applicationRepository.findWithCompetenceProfilesByApplicationIdIn(anyList())).thenReturn(List.of(application));
+
+        applicationSearchIndex.OnApplicationSubmitted(new ApplicationSubmittedEvent(6, ApplicationStatus.unchecked, 0));
+        assertEquals(6, applicationSearchIndex.GetIndexedApplicationCount());
+        assertEquals(List.of(6, 1, 4), applicationSearchIndex.Search(new ApplicationSearchQuery(ApplicationStatus.unchecked,
+            List.of(new CompetenceRequirement(1, 0.0)), null, null, ApplicationSearchSort.experience), 0, 10));
+        assertEquals(List.of(1, 3, 4, 6), applicationSearchIndex.Search(new ApplicationSearchQuery(null,
+            List.of(new CompetenceRequirement(1, 0.0)), LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31"), ApplicationSearchSort.applicationId), 0, 10));
+        Mockito.verify(this.applicationRepository, Mockito.times(1)).findWithAvailabilityPeriodsByApplicationIdIn(List.of(6));
+
+        //A database error when loading a submitted application should be logged, not thrown
+        when(applicationRepository.findWithCompetenceProfilesByApplicationIdIn(anyList())).thenThrow(new TransientDataAccessException("Oops! Something went wrong.") {});
+        applicationSearchIndex.OnApplicationSubmitted(new ApplicationSubmittedEvent(7, ApplicationStatus.unchecked, 0));
+        assertEquals(6, applicationSearchIndex.GetIndexedApplicationCount());
+    }
+
+    @Test
+    /**
+     * This tests that a submitted application loaded before a later version was stored, by a rebuild or a status change, does not replace that later version
+     */
+    void StaleSubmittedApplicationTest()
+    {
+        BuildIndex();
+        applicationSearchIndex.OnApplicationStatusChanged(new ApplicationStatusChangedEvent(2, ApplicationStatus.accepted, 2));
+
+        //The mock repository returns application 2 as it was before the status change
+        Person person = new Person();
+        Competence competence = new Competence();
+        competence.setId(1);
+        List<CompetenceProfile> profiles = new ArrayList<CompetenceProfile>();
+        profiles.add(new CompetenceProfile(person, competence, 2.0));
+        Application application = new Application(person, new ArrayList<Availability>(), profiles);
+        application.setApplicationId(2);
+        application.setApplicationDate(Date.valueOf("2026-01-03"));
+        when(applicationRepository.findWithCompetenceProfilesByApplicationIdIn(anyList())).thenReturn(List.of(application));
+
+        applicationSearchIndex.OnApplicationSubmitted(new ApplicationSubmittedEvent(2, ApplicationStatus.unchecked, 0));
+        assertEquals(Map.of(ApplicationStatus.unchecked, 3L, ApplicationStatus.accepted, 2L, ApplicationStatus.denied, 0L), applicationSearchIndex.GetStatusCounts().getCounts());
+        assertEquals(List.of(2, 3), applicationSearchIndex.Search(new ApplicationSearchQuery(ApplicationStatus.accepted, List.of(), null, null, ApplicationSearchSort.applicationId), 0, 10));
+        //The availability periods of the stored version are also kept, while the loaded version has none
+        assertEquals(List.of(2, 3), applicationSearchIndex.Search(new ApplicationSearchQuery(ApplicationStatus.accepted,
+            List.of(), LocalDate.parse("2026-06-01"), LocalDate.parse("2026-07-31"), ApplicationSearchSort.applicationId), 0, 10));
+    }
+
+    @Test
+    /**
+     * This tests that the status counters are built with the index, and kept in sync by the status changed and submitted events
+     */
+    void StatusCountsTest()
+    {
+        assertThrowsExactly(SearchIndexNotReadyException.class, () -> applicationSearchIndex.GetStatusCounts());
+        assertThrowsExactly(SearchIndexNotReadyException.class, () -> applicationSearchIndex.GetDailyStatusCounts(LocalDate.parse("2026-01-01"), LocalDate.parse("2026-01-05")));
+        BuildIndex();
+
+        //Every application is counted in total, and on the day it was submitted
+        ApplicationStatusCounts counts = applicationSearchIndex.GetStatusCounts();
+        assertNull(counts.getDate());
+        assertEquals(Map.of(ApplicationStatus.unchecked, 4L, ApplicationStatus.accepted, 1L, ApplicationStatus.denied, 0L), counts.getCounts());
+        assertEquals(5, counts.getTotal());
+        List<ApplicationStatusCounts> days = applicationSearchIndex.GetDailyStatusCounts(LocalDate.parse("2025-12-31"), LocalDate.parse("2026-01-05"));
+        assertEquals(6, days.size());
+        assertEquals(LocalDate.parse("2025-12-31"), days.get(0).getDate());
+        assertEquals(0, days.get(0).getTotal());
+        assertEquals(1, days.get(4).getCounts().get(ApplicationStatus.accepted)); //2026-01-04
+        assertEquals(1, days.get(3).getCounts().get(ApplicationStatus.unchecked)); //2026-01-03
+
+        //A status change should move the application between statuses, while an older change arriving later should be ignored
+        applicationSearchIndex.OnApplicationStatusChanged(new ApplicationStatusChangedEvent(2, ApplicationStatus.denied, 2));
+        applicationSearchIndex.OnApplicationStatusChanged(new ApplicationStatusChangedEvent(2, ApplicationStatus.accepted, 1));
+        assertEquals(Map.of(ApplicationStatus.unchecked, 3L, ApplicationStatus.accepted, 1L, ApplicationStatus.denied, 1L), applicationSearchIndex.GetStatusCounts().getCounts());
+        days = applicationSearchIndex.GetDailyStatusCounts(LocalDate.parse("2026-01-03"), LocalDate.parse("2026-01-03"));
+        assertEquals(Map.of(ApplicationStatus.unchecked, 0L, ApplicationStatus.accepted, 0L, ApplicationStatus.denied, 1L), days.get(0).getCounts());
+
+        //A submitted application should be counted once, even if the event is received twice
+        Person person = new Person();
+        Competence competence = new Competence();
+        competence.setId(1);
+        List<CompetenceProfile> profiles = new ArrayList<CompetenceProfile>();
+        profiles.add(new CompetenceProfile(person, competence, 7.0));
+        List<Availability> periods = new ArrayList<Availability>();
+        periods.add(new Availability(person, Date.valueOf("2026-06-01"), Date.valueOf("2026-08-31")));
+        Application application = new Application(person, periods, profiles);
+        application.setApplicationId(6);
+        application.setApplicationDate(Date.valueOf("2026-01-05"));
+        when(applicationRepository.findWithCompetenceProfilesByApplicationIdIn(anyList())).thenReturn(List.of(application));
+
+        applicationSearchIndex.OnApplicationSubmitted(new ApplicationSubmittedEvent(6, ApplicationStatus.unchecked, 0));
+        applicationSearchIndex.OnApplicationSubmitted(new ApplicationSubmittedEvent(6, ApplicationStatus.unchecked, 0));
+        assertEquals(4, applicationSearchIndex.GetStatusCounts().getCounts().get(ApplicationStatus.unchecked));
+        assertEquals(6, applicationSearchIndex.GetStatusCounts().getTotal());
+        assertEquals(2, applicationSearchIndex.GetDailyStatusCounts(LocalDate.parse("2026-01-05"), LocalDate.parse("2026-01-05")).get(0).getCounts().get(ApplicationStatus.unchecked));
+    }
+
+    @Test
+    /**
+     * This tests ranking applications against a position, where the score is the weighted experience multiplied by the availability coverage
+     */
+    void RankTest()
+    {
+        BuildIndex();
+        LocalDate summerStart=LocalDate.parse("2026-06-01");
+        LocalDate summerEnd=LocalDate.parse("2026-08-31");
+
+        //Application 2 is only available for 61 of the 92 days, so it is ranked below application 4 despite having more experience
+        List<ApplicationScore> scores=applicationSearchIndex.Rank(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(1, 1.5)), summerStart, summerEnd), 10);
+        assertEquals(List.of(3, 1, 4, 2), scores.stream().map(ApplicationScore::getApplicationId).toList());
+        assertEquals(5.0, scores.get(0).getScore());
+        assertEquals(2.0, scores.get(3).getExperience());
+        assertEquals(61.0/92, scores.get(3).getCoverage());
+        assertEquals(2.0*61/92, scores.get(3).getScore());
+
+        //Only the best applications should be returned, and the status should be used as a filter
+        assertEquals(List.of(3, 1), applicationSearchIndex.Rank(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(1, 1.5)), summerStart, summerEnd), 2)
+            .stream().map(ApplicationScore::getApplicationId).toList());
+        assertEquals(List.of(1, 4, 2), applicationSearchIndex.Rank(new ApplicationRankingQuery(ApplicationStatus.unchecked, List.of(new CompetenceRequirement(1, 0.0)), summerStart, summerEnd), 10)
+            .stream().map(ApplicationScore::getApplicationId).toList());
+
+        //The experience is the weighted mean over every required competence, which only application 1 includes
+        scores=applicationSearchIndex.Rank(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(1, 0.0, 1.0), new CompetenceRequirement(2, 0.0, 3.0)), summerStart, summerEnd), 10);
+        assertEquals(1, scores.size());
+        assertEquals(1, scores.get(0).getApplicationId());
+        assertEquals(1.5, scores.get(0).getExperience());
+
+        //Applications which are not available for any part of the position should not be ranked
+        assertEquals(List.of(), applicationSearchIndex.Rank(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(1, 0.0)), LocalDate.parse("2025-01-01"), LocalDate.parse("2025-01-31")), 10));
+        assertEquals(List.of(), applicationSearchIndex.Rank(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(3, 0.0)), summerStart, summerEnd), 10));
+    }
+
+    @Test
+    /**
+     * This tests ranking enough applications for the candidates to be scored in parallel, by comparing the result to scoring every application one at a time
+     */
+    void ParallelRankTest()
+    {
+        int applicationCount=30000;
+        when(applicationRepository.streamIndexRows()).thenAnswer(invocation -> IntStream.rangeClosed(1, applicationCount)
+            .mapToObj(i -> ApplicationRow(i, ApplicationStatus.unchecked, "2026-01-01")));
+        when(applicationRepository.streamCompetenceIndexRows()).thenAnswer(invocation -> IntStream.rangeClosed(1, applicationCount)
+            .mapToObj(i -> CompetenceRow(i, 1, (i*7919%1000)/10.0)));
+        when(applicationRepository.streamAvailabilityIndexRows()).thenAnswer(invocation -> IntStream.rangeClosed(1, applicationCount)
+            .mapToObj(i -> AvailabilityRow(i, "2026-06-01", LocalDate.parse("2026-06-01").plusDays(i%92).toString())));
+        applicationSearchIndex.Rebuild();
+
+        List<ApplicationScore> expected=new ArrayList<ApplicationScore>();
+        for (int i = 1; i <= applicationCount; i++) {
+            double coverage=(i%92+1)/92.0;
+            expected.add(new ApplicationScore(i, (i*7919%1000)/10.0*coverage, 0, 0));
+        }
+        expected.sort(Comparator.comparingDouble(ApplicationScore::getScore).reversed().thenComparing(ApplicationScore::getApplicationId));
+
+        List<ApplicationScore> scores=applicationSearchIndex.Rank(new ApplicationRankingQuery(null, List.of(new CompetenceRequirement(1, 0.0)),
+            LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31")), 25);
+        assertEquals(expected.subList(0, 25).stream().map(ApplicationScore::getApplicationId).toList(), scores.stream().map(ApplicationScore::getApplicationId).toList());
+    }
+
+    /**
+     * This creates an application row as returned by streamIndexRows
+     * @param applicationId the application id
+     * @param status the application status
+     * @param applicationDate the application date, formated as yyyy-mm-dd
+     * @return the application row
+     */
+    private static ApplicationIndexDTO ApplicationRow(Integer applicationId, ApplicationStatus status, String applicationDate)
+    {
+        return new ApplicationIndexDTO() {
+            public Integer getApplicationId() { return applicationId; }
+            public ApplicationStatus getApplicationStatus() { return status; }
+            public long getVersionNumber() { return 0; }
+            public Date getApplicationDate() { return Date.valueOf(applicationDate); }
+        };
+    }
+
+    /**
+     * This creates a competence row as returned by streamCompetenceIndexRows
+     * @param applicationId the application id
+     * @param competenceId the competence id
+     * @param yearsOfExperience the years of experience
+     * @return the competence row
+     */
+    private static CompetenceIndexDTO CompetenceRow(Integer applicationId, Integer competenceId, Double yearsOfExperience)
+    {
+        return new CompetenceIndexDTO() {
+            public Integer getApplicationId() { return applicationId; }
+            public Integer getCompetenceId() { return competenceId; }
+            public Double getYearsOfExperience() { return yearsOfExperience; }
+        };
+    }
+
+    /**
+     * This creates an availability row as returned by streamAvailabilityIndexRows
+     * @param applicationId the application id
+     * @param fromDate the first day of the period, formated as yyyy-mm-dd
+     * @param toDate the last day of the period, formated as yyyy-mm-dd
+     * @return the availability row
+     */
+    private static AvailabilityIndexDTO AvailabilityRow(Integer applicationId, String fromDate, String toDate)
+    {
+        return new AvailabilityIndexDTO() {
+            public Integer getApplicationId() { return applicationId; }
+            public Date getFromDate() { return Date.valueOf(fromDate); }
+            public Date getToDate() { return Date.valueOf(toDate); }
+        };
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.demo.domain.AvailableDayCount;
+import com.example.demo.domain.dto.AvailabilityIntervalDTO;
+import com.example.demo.domain.event.AvailabilityCreatedEvent;
+import com.example.demo.presentation.restException.AvailabilityIndexNotReadyException;
+import com.example.demo.repository.AvailabilityRepository;
+
+/**
+ * This class defined the unit tests for the AvailabilityIntervalIndex class
+ */
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityIntervalIndexTest {
+    // We define the repository to mock, along with the transaction manager which is only used to start transactions
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // We then define the index we will test, and that it should use the above mocks
+    @InjectMocks
+    private AvailabilityIntervalIndex availabilityIntervalIndex;
+
+    /**
+     * This defines the mock repository to contain 5 availability periods for 4 people, and then builds the index.
+     * Person 1 is available for the whole of june using two adjacent periods, person 2 has two overlapping periods in june,
+     * person 3 is available for the first half of june and person 4 is only available in august
+     */
+    private void BuildIndex()
+    {
+        when(availabilityRepository.streamIntervalRows()).thenAnswer(invocation -> Stream.of(
+            IntervalRow(1, 1, "2026-06-01", "2026-06-15"),
+            IntervalRow(3, 2, "2026-06-01", "2026-06-20"),
+            IntervalRow(5, 3, "2026-06-01", "2026-06-15"),
+            IntervalRow(4, 2, "2026-06-10", "2026-06-25"),
+            IntervalRow(2, 1, "2026-06-16", "2026-06-30"),
+            IntervalRow(6, 4, "2026-08-01", "2026-08-31")));
+
+        availabilityIntervalIndex.Rebuild();
+        assertTrue(availabilityIntervalIndex.IsReady());
+        assertEquals(6, availabilityIntervalIndex.GetIndexedPeriodCount());
+    }
+
+    @Test
+    /**
+     * This tests that querying before the index has been built, or after building it failed, is rejected
+     */
+    void QueryBeforeRebuildTest()
+    {
+        var e = assertThrowsExactly(AvailabilityIndexNotReadyException.class, () -> availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-06-01"), false));
+        assertEquals("Could not retrive availability due to : the availability index is still being built, please try again shortly", e.getMessage());
+
+        //A failed rebuild should be logged, not thrown, and leave the index unqueryable
+        when(availabilityRepository.streamIntervalRows()).thenThrow(new TransientDataAccessException("Oops! Something went wrong.") {});
+        availabilityIntervalIndex.Rebuild();
+        assertFalse(availabilityIntervalIndex.IsReady());
+        assertThrowsExactly(AvailabilityIndexNotReadyException.class, () -> availabilityIntervalIndex.GetDailyAvailability(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-06-01")));
+    }
+
+    @Test
+    /**
+     * This tests the stabbing, overlap and covering queries
+     */
+    void GetAvailablePersonsTest()
+    {
+        BuildIndex();
+
+        //A single day should return everyone available that day
+        assertEquals(List.of(1, 2, 3), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-15"), LocalDate.parse("2026-06-15"), false));
+        assertEquals(List.of(1, 2), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-16"), LocalDate.parse("2026-06-16"), false));
+        assertEquals(List.of(), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-07-15"), LocalDate.parse("2026-07-15"), false));
+
+        //Overlapping any part of a period is enough when covering is false
+        assertEquals(List.of(1, 2, 4), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-21"), LocalDate.parse("2026-08-01"), false));
+
+        //While covering requires the periods of a person to cover every day, where adjacent and overlapping periods are combined
+        assertEquals(List.of(1, 2), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-05"), LocalDate.parse("2026-06-25"), true));
+        assertEquals(List.of(1), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-06-30"), true));
+        assertEquals(List.of(), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-08-31"), true));
+    }
+
+    @Test
+    /**
+     * This tests the daily counts, where a person with overlapping periods should only be counted once
+     */
+    void GetDailyAvailabilityTest()
+    {
+        BuildIndex();
+
+        List<AvailableDayCount> counts=availabilityIntervalIndex.GetDailyAvailability(LocalDate.parse("2026-05-31"), LocalDate.parse("2026-06-26"));
+        assertEquals(27, counts.size());
+        assertEquals(LocalDate.parse("2026-05-31"), counts.get(0).getDate());
+        assertEquals(0, counts.get(0).getAvailablePersons());
+        assertEquals(3, counts.get(1).getAvailablePersons());  //2026-06-01
+        assertEquals(3, counts.get(15).getAvailablePersons()); //2026-06-15
+        assertEquals(2, counts.get(16).getAvailablePersons()); //2026-06-16
+        assertEquals(2, counts.get(25).getAvailablePersons()); //2026-06-25
+        assertEquals(1, counts.get(26).getAvailablePersons()); //2026-06-26
+        assertEquals(LocalDate.parse("2026-06-26"), counts.get(26).getDate());
+    }
+
+    @Test
+    /**
+     * This tests that new periods are added by the created event, and that a period which is already indexed is ignored
+     */
+    void OnAvailabilityCreatedTest()
+    {
+        BuildIndex();
+
+        availabilityIntervalIndex.OnAvailabilityCreated(new AvailabilityCreatedEvent(7, 3, Date.valueOf("2026-06-16"), Date.valueOf("2026-07-31")));
+        availabilityIntervalIndex.OnAvailabilityCreated(new AvailabilityCreatedEvent(6, 4, Date.valueOf("2026-08-01"), Date.valueOf("2026-08-31")));
+        assertEquals(7, availabilityIntervalIndex.GetIndexedPeriodCount());
+        assertEquals(List.of(3), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-07-15"), LocalDate.parse("2026-07-15"), false));
+        assertEquals(List.of(1, 3), availabilityIntervalIndex.GetAvailablePersons(LocalDate.parse("2026-06-01"), LocalDate.parse("2026-06-30"), true));
+        assertEquals(1, availabilityIntervalIndex.GetDailyAvailability(LocalDate.parse("2026-08-01"), LocalDate.parse("2026-08-01")).get(0).getAvailablePersons());
+    }
+
+    @Test
+    /**
+     * This tests that the index returns the same results as checking every period, after many periods have been added one at a time,
+     * which requires the tree to be rebalanced many times
+     */
+    void RandomizedComparisonTest()
+    {
+        when(availabilityRepository.streamIntervalRows()).thenAnswer(invocation -> Stream.empty());
+        availabilityIntervalIndex.Rebuild();
+
+        Random random=new Random(1201);
+        List<long[]> periods=new ArrayList<long[]>();
+        long firstDay=LocalDate.parse("2026-01-01").toEpochDay();
+        for (int i = 0; i < 2000; i++) {
+            long fromDay=firstDay+random.nextInt(365);
+            long toDay=fromDay+random.nextInt(30);
+            int personId=random.nextInt(200);
+            periods.add(new long[] {fromDay, toDay, personId});
+            availabilityIntervalIndex.OnAvailabilityCreated(new AvailabilityCreatedEvent(i, personId,
+                Date.valueOf(LocalDate.ofEpochDay(fromDay)), Date.valueOf(LocalDate.ofEpochDay(toDay))));
+        }
+        assertEquals(2000, availabilityIntervalIndex.GetIndexedPeriodCount());
+
+        for (int i = 0; i < 50; i++) {
+            long fromDay=firstDay+random.nextInt(400);
+            long toDay=fromDay+random.nextInt(10);
+            TreeSet<Integer> expected=new TreeSet<Integer>();
+            for (long[] period : periods) {
+                if (period[0]<=toDay && period[1]>=fromDay) {
+                    expected.add((int)period[2]);
+                }
+            }
+            assertEquals(new ArrayList<Integer>(expected), availabilityIntervalIndex.GetAvailablePersons(LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay), false));
+
+            int expectedCount=0;
+            for (int personId : expected) {
+                boolean availableFirstDay=false;
+                for (long[] period : periods) {
+                    availableFirstDay|=period[2]==personId && period[0]<=fromDay && period[1]>=fromDay;
+                }
+                expectedCount+=availableFirstDay ? 1 : 0;
+            }
+            assertEquals(expectedCount, availabilityIntervalIndex.GetDailyAvailability(LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay)).get(0).getAvailablePersons());
+        }
+    }
+
+    /**
+     * This creates a row as returned by streamIntervalRows
+     * @param availabilityId the availability id
+     * @param personId the person id
+     * @param fromDate the start date, formated as yyyy-mm-dd
+     * @param toDate the end date, formated as yyyy-mm-dd
+     * @return the availability row
+     */
+    private static AvailabilityIntervalDTO IntervalRow(Integer availabilityId, Integer personId, String fromDate, String toDate)
+    {
+        return new AvailabilityIntervalDTO() {
+            public Integer getAvailabilityId() { return availabilityId; }
+            public Integer getPersonId() { return personId; }
+            public Date getFromDate() { return Date.valueOf(fromDate); }
+            public Date getToDate() { return Date.valueOf(toDate); }
+        };
+    }
+}
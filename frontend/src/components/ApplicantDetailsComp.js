@@ -106,10 +106,10 @@ export default function ApplicationDetailsComp() {
         })
         .then((response) => { 
             if (response.ok) {
-                //If it was ok we send an alert and update the application based on the response
+                //If it was ok we send an alert and update the status and version number of the application based on the response
                 alert("Application updated to " + status)
-                return response.json().then((text) => { 
-                    setApplication(text);
+                return response.json().then((statusChange) => { 
+                    setApplication((current) => ({...current, applicationStatus: statusChange.applicationStatus, versionNumber: statusChange.versionNumber}));
                 });
             } 
             else {
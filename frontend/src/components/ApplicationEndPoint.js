@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useContext } from "react";
+import React, { useState, useEffect, useContext, useRef } from "react";
 import {
   Container,
   TextField,
@@ -15,7 +15,7 @@ import {
   InputLabel,
   CircularProgress
 } from "@mui/material";
-import { isTokenExpired } from "./utils/TokenChecker";
+import { isSessionExpired, fetchWithRefresh } from "./utils/TokenChecker";
 import { useNavigate } from "react-router-dom";
 
 import { AuthContext } from '../App';
@@ -47,13 +47,40 @@ export default function ApplicationEndPoint() {
 
     // Get API URL from .env file
     const API_URL = process.env.REACT_APP_API_URL;
+
+    /**
+     * This sends a request with the users token, and refreshes the token and sends the request again if the token is rejected
+     * @param {string} url the url of the request
+     * @param {object} options the options of the request
+     * @returns a promise resolving to the response
+     */
+    const authorizedFetch = (url, options) => fetchWithRefresh(API_URL, url, options, (refreshed) => setAuth((current) => ({...current, ...refreshed})));
+
+    //The idempotency key last used for each action, along with the request it was used for
+    const idempotencyKeys = useRef({});
+
+    /**
+     * This returns the idempotency key for a request, where sending the same request again reuses the key so the server returns the original response instead of creating a duplicate
+     * @param {*} action The name of the action
+     * @param {*} request A description of the request, a new key is created whenever this changes
+     * @returns The idempotency key
+     */
+    const idempotencyKeyFor = (action, request) => {
+        const previous = idempotencyKeys.current[action];
+        if (previous && previous.request === request) {
+            return previous.key;
+        }
+        const key = crypto.randomUUID();
+        idempotencyKeys.current[action] = { request, key };
+        return key;
+    };
     
     /**
      * This fetches the users competence profiles
      */
     const getCompetenceProfiles = async () => {
 
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
             setAuth({});
             sessionStorage.clear();
             alert("Your session has expired. Please log in again.");
@@ -61,11 +88,10 @@ export default function ApplicationEndPoint() {
         }
         const url = `${API_URL}/application/getAllCompetenceProfiles`;
 
-        fetch(url, {
+        authorizedFetch(url, {
             method: "GET",
             headers: {
                 "Content-Type": "application/json",
-                "Authorization": `Bearer ${auth.token}`, 
             },
         })
         .then((response) => { 
@@ -87,55 +113,6 @@ export default function ApplicationEndPoint() {
         });
     };
 
-    /**
-     * This fetches the competences, to allow creation of new competence profiles
-     */
-    const fetchCompetences = () => {
-
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
-            setAuth({});
-            sessionStorage.clear();
-            alert("Your session has expired. Please log in again.");
-            navigate("/login"); // Redirect to login page
-        }
-        const url = `${API_URL}/translation/getStandardCompetences`;
-
-        console.log("Fetching competences from:", url);
-
-        fetch(url, {
-            method: "GET",
-            headers: {
-                "Content-Type": "application/json",
-                "Authorization": `Bearer ${auth.token}`, 
-            },
-        })
-        .then((response) => { 
-            if (response.ok) {
-                return response.json(); // Parse JSON if response is OK
-            } else {
-                return response.text().then((errorText) => { 
-                    throw new Error(`Failed to fetch: ${errorText}`); 
-                });
-            }
-        }) // Parsar svaret som JSON
-        .then((data) => {
-            console.log("Received competences:", data);
-            setCompetences(data); // Uppdaterar state med kompetenslistan
-            setCompetenceId(competences[0]?.competenceId || ""); 
-        })
-        .catch((error) => {
-            console.error("Error fetching competences:", error);
-            alert(error);
-        });
-    };
-
-    /**
-     * This automatically fetches the competences
-     */
-    useEffect(() => {
-        fetchCompetences();
-    },[]);
-
     /**
      * This automatically specifies the initial competence to use in the competence profile selection
      */    
@@ -151,16 +128,16 @@ export default function ApplicationEndPoint() {
      */
     const createCompetenceProfile = async () => {
         
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
             setAuth({});
             sessionStorage.clear();
             alert("Your session has expired. Please log in again.");
             navigate("/login"); // Redirect to login page
         }
-        const response = await fetch(`${API_URL}/application/createCompetenceProfile?competenceId=${competenceId}&yearsOfExperience=${yearsOfExperience}`, {
+        const response = await authorizedFetch(`${API_URL}/application/createCompetenceProfile?competenceId=${competenceId}&yearsOfExperience=${yearsOfExperience}`, {
         method: "POST",
         headers: {
-            "Authorization": `Bearer ${auth.token}`, 
+            "Idempotency-Key": idempotencyKeyFor("createCompetenceProfile", `${competenceId}:${yearsOfExperience}`),
         },
         });
         if (response.ok) {
@@ -178,18 +155,15 @@ export default function ApplicationEndPoint() {
      * This function is responsible for fetching all of the users availability periods
      */
     const getAvailability = async () => {
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
             setAuth({});
             sessionStorage.clear();
             alert("Your session has expired. Please log in again.");
             navigate("/login"); // Redirect to login page
         }
-        const response = await fetch(`${API_URL}/application/getAllAvailability`,
+        const response = await authorizedFetch(`${API_URL}/application/getAllAvailability`,
             {
                 method: "GET",
-                headers: {
-                    "Authorization": `Bearer ${auth.token}`, 
-                },
             }
         );
         if (response.ok) {
@@ -200,25 +174,19 @@ export default function ApplicationEndPoint() {
         }
     };
 
-    //This automatically calls the getAvailability function when the component is loaded
-    useEffect(() => {getAvailability();}, [])
-
-    //This automatically calls the getAvailability function when the component is loaded
-    useEffect(() => {getCompetenceProfiles();}, [])
-
     // This create a new availability period
     const createAvailability = async () => {
 
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
             setAuth({});
             sessionStorage.clear();
             alert("Your session has expired. Please log in again.");
             navigate("/login"); // Redirect to login page
         }
-        const response = await fetch(`${API_URL}/application/createAvailability?fromDate=${fromDate}&toDate=${toDate}`, {
+        const response = await authorizedFetch(`${API_URL}/application/createAvailability?fromDate=${fromDate}&toDate=${toDate}`, {
         method: "POST",
         headers: {
-            "Authorization": `Bearer ${auth.token}`, 
+            "Idempotency-Key": idempotencyKeyFor("createAvailability", `${fromDate}:${toDate}`),
         },
         });
         if (response.ok) {
@@ -237,19 +205,37 @@ export default function ApplicationEndPoint() {
     const [translations, setTranslations] = useState([]);
     const [languages, setLanguages] = useState([]);
     
+    //The language the current translations were fetched for, so they are not fetched again when the workspace sets the initial language
+    const translationsLanguage = useRef("");
+
     /**
-     * This fetches the list of languages for which competence translations are available
+     * This fetches everything the page needs when it is loaded in a single request, which is the users competence profiles and availability periods,
+     * along with the competences, the languages and the competence translations for the initial language
      */
-    const fetchLanguages = async () => {
-        try {
-        const response = await fetch(`${API_URL}/translation/getLanguages`);
-        if (!response.ok) throw new Error("Failed to fetch languages");
-        const data = await response.json();
-        setLanguages(data);
-        setLanguage("english")
-        } catch (error) {
-        console.error(error);
-        alert(error);
+    const fetchWorkspace = async () => {
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
+            setAuth({});
+            sessionStorage.clear();
+            alert("Your session has expired. Please log in again.");
+            navigate("/login"); // Redirect to login page
+        }
+        const response = await authorizedFetch(`${API_URL}/application/workspace?language=english`,
+            {
+                method: "GET",
+            }
+        );
+        if (response.ok) {
+            const data = await response.json();
+            setCompetenceProfiles(data.competenceProfiles);
+            setAvailability(data.availabilityPeriods);
+            setCompetences(data.competences);
+            setLanguages(data.languages);
+            translationsLanguage.current = "english";
+            setTranslations(data.competenceTranslations);
+            setLanguage("english");
+        } 
+        else {
+            alert("Failed to fetch your application data due to : "  + await response.text());
         }
     };
     
@@ -257,8 +243,9 @@ export default function ApplicationEndPoint() {
      * This fetches the competence translations for the currently selected language
      */
     const fetchCompetenceTranslations = async () => {
-        if (!language) return;
+        if (!language || language === translationsLanguage.current) return;
         console.log("language is set");
+        translationsLanguage.current = language;
         try {
             const url = `${API_URL}/translation/getCompetenceTranslation?language=${language}`;
             fetch(url, {
@@ -292,9 +279,9 @@ export default function ApplicationEndPoint() {
         }
     };
 
-    //This automatically calls the fetchLanguages function when the component is loaded
+    //This automatically calls the fetchWorkspace function when the component is loaded
     useEffect(() => {
-        fetchLanguages();
+        fetchWorkspace();
     }, [])
 
     //This automatically calls the fetchCompetenceTranslations function when the language stateful variable is updated
@@ -307,7 +294,7 @@ export default function ApplicationEndPoint() {
      * This handles submitting an application, performing some validation before sending, and handling the result (good or bad) and notifying the user
      */
     const submitApplication = async () => {
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
             setAuth({});
             sessionStorage.clear();
             alert("Your session has expired. Please log in again.");
@@ -327,11 +314,11 @@ export default function ApplicationEndPoint() {
         };
     
         try {
-            const response = await fetch(`${API_URL}/application/submitApplication`, {
+            const response = await authorizedFetch(`${API_URL}/application/submitApplication`, {
                 method: "POST",
                 headers: {
                     "Content-Type": "application/json",
-                    "Authorization": `Bearer ${auth.token}`, 
+                    "Idempotency-Key": idempotencyKeyFor("submitApplication", JSON.stringify(requestBody)),
                 },
                 body: JSON.stringify(requestBody),
             });
@@ -101,6 +101,12 @@ export default function LoginComp() {
             //We the store the data in session storage
             sessionStorage.setItem("token", dataParsed.token);
             sessionStorage.setItem("role", dataParsed.role);
+            //A refresh token is only sent for users who can refresh their token
+            if (dataParsed.refreshToken) {
+                sessionStorage.setItem("refreshToken", dataParsed.refreshToken);
+            } else {
+                sessionStorage.removeItem("refreshToken");
+            }
             sessionStorage.setItem("id", dataParsed.id);
             setIsSubmited(true);
             alert("Login Successful");
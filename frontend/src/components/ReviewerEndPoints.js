@@ -1,4 +1,4 @@
-import React, { useState, useContext } from "react";
+import React, { useState, useContext, useEffect } from "react";
 import {
   Container,
   TextField,
@@ -16,7 +16,8 @@ import {
   CircularProgress
 } from "@mui/material";
 import { Link } from "react-router-dom";
-import { isTokenExpired } from "./utils/TokenChecker";
+import { isSessionExpired, fetchWithRefresh } from "./utils/TokenChecker";
+import { subscribeToApplicationEvents } from "./utils/ApplicationEvents";
 import { useNavigate } from "react-router-dom";
 
 import { AuthContext } from '../App';
@@ -29,6 +30,7 @@ export default function ReviewerDashboard() {
     const [applications, setApplications] = useState([]);
     const [status, setStatus] = useState("unchecked");
     const [applicationsByStatus, setApplicationsByStatus] = useState([]);
+    const [outdated, setOutdated] = useState(false);
 
     const navigate = useNavigate();
 
@@ -37,23 +39,48 @@ export default function ReviewerDashboard() {
 
     //Here we import the auth information from the context
     const { auth, setAuth } = useContext(AuthContext);
-    
-    // Function to fetch all applications
-    const fetchApplicants = () => {
 
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
-            setAuth({});
-            sessionStorage.clear();
-            alert("Your session has expired. Please log in again.");
-            navigate("/login"); // Redirect to login page
+    /**
+     * This sends a request with the users token, and refreshes the token and sends the request again if the token is rejected
+     * @param {string} url the url of the request
+     * @param {object} options the options of the request
+     * @returns a promise resolving to the response
+     */
+    const authorizedFetch = (url, options) => fetchWithRefresh(API_URL, url, options, (refreshed) => setAuth((current) => ({...current, ...refreshed})));
+
+    //This subscribes to application changes, so the shown statuses are updated without having to fetch the applications again
+    useEffect(() => {
+        if (!auth.token) {
+            return;
         }
-        const url = `${API_URL}/review/getApplications`
-        console.log(auth.token);
-        fetch(url, {
+        const updateStatus = (event) => (applications) => applications.map((application) =>
+            application.applicationId === event.applicationId ? {...application, applicationStatus: event.applicationStatus, versionNumber: event.versionNumber} : application
+        );
+        return subscribeToApplicationEvents(API_URL, auth.token, (name, event) => {
+            if (name === "statusChanged") {
+                setApplications(updateStatus(event));
+                setApplicationsByStatus(updateStatus(event));
+            } else {
+                //A new application was submitted, or some events were missed, so the shown lists may be incomplete
+                setOutdated(true);
+            }
+        });
+    }, [auth.token, API_URL]);
+    
+    /**
+     * Fetches every page of application summaries from the specified endpoint, following the nextCursor of each page
+     * @param {string} baseUrl the summary endpoint to fetch pages from
+     * @param {string} unauthorizedMessage the message shown if the user is not authorized
+     * @param {Array} collected the summaries retrived from previous pages
+     * @param {string} cursor the cursor of the page to retrive, or null for the first page
+     * @returns a promise resolving to the list of all summaries
+     */
+    const fetchAllSummaries = (baseUrl, unauthorizedMessage, collected = [], cursor = null) => {
+        const url = `${baseUrl}?size=500` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : "")
+        return authorizedFetch(url, {
             method: "GET",
             headers: {
-                "Content-type": "application/json",
-                "Authorization": "Bearer "+auth.token
+                "Content-type": "application/json"
             }
         })
         .then((response) => { 
@@ -62,7 +89,7 @@ export default function ReviewerDashboard() {
             } else {
                 if(response.status==401) //This checks if the user was not authorized
                     {
-                        alert("You are not authorized to requests applications");
+                        alert(unauthorizedMessage);
                         throw new Error(`Unauthorized fetch`); 
                     }
                     else
@@ -73,8 +100,25 @@ export default function ReviewerDashboard() {
                     }
             }
         })
+        .then((page) => {
+            const summaries = collected.concat(page.content);
+            return page.hasNext ? fetchAllSummaries(baseUrl, unauthorizedMessage, summaries, page.nextCursor) : summaries;
+        })
+    }
+
+    // Function to fetch all applications
+    const fetchApplicants = () => {
+
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
+            setAuth({});
+            sessionStorage.clear();
+            alert("Your session has expired. Please log in again.");
+            navigate("/login"); // Redirect to login page
+        }
+        fetchAllSummaries(`${API_URL}/review/getApplicationSummaries`, "You are not authorized to requests applications")
         .then((data) => {
             setApplications(data);
+            setOutdated(false);
         })
         .catch((error) => {
             console.error("Failed to fetch applications: " + error);
@@ -84,40 +128,16 @@ export default function ReviewerDashboard() {
     // Function to fetch applications filtered by status
     const fetchApplicantsByStatus = () => {
         
-        if(isTokenExpired(sessionStorage.getItem("token"))){ //if token has expired 
+        if(isSessionExpired()){ //if token has expired and can not be refreshed
             setAuth({});
             sessionStorage.clear();
             alert("Your session has expired. Please log in again.");
             navigate("/login"); // Redirect to login page
         }
-        const url = `${API_URL}/review/getApplicationsByStatus/${status}`
-        fetch(url, {
-            method: "GET",
-            headers: {
-                "Content-type": "application/json",
-                "Authorization": "Bearer "+auth.token
-            }
-        })
-        .then((response) => { 
-            if (response.ok) {
-                return response.json(); // Parse JSON if response is OK
-            } else {
-                if(response.status==401) //This checks if the user was not authorized
-                {
-                    alert("You are not authorized to requests applications by status");
-                    throw new Error(`Unauthorized fetch`); 
-                }
-                else
-                {
-                    return response.text().then((errorText) => { 
-                    throw new Error(`Failed to fetch: ${errorText}`); 
-                });
-                }
-                
-            }
-        })
+        fetchAllSummaries(`${API_URL}/review/getApplicationSummariesByStatus/${status}`, "You are not authorized to requests applications by status")
         .then((data) => {
             setApplicationsByStatus(data);
+            setOutdated(false);
         })
         .catch((error) => {
             console.error("Failed to fetch applications by status, please use values unchecked, accepted, denied: " + error);
@@ -150,6 +170,9 @@ export default function ReviewerDashboard() {
 
             }}>
                 <Button variant="contained" onClick={fetchApplicants} sx={{top: 2}}>Get all applications</Button>
+                {outdated && (
+                    <Typography variant="body2">New applications have been submitted, press the button to update the list</Typography>
+                )}
                 <List>
                     {applications.length > 0 ? (
                         applications.map((Applicants) => {
@@ -174,7 +197,7 @@ export default function ReviewerDashboard() {
                                                     alignItems: "center",
                                                     
                                                     }}>
-                                                    Applicant: {Applicants.applicant.name + " " + Applicants.applicant.surname}
+                                                    Applicant: {Applicants.applicantName + " " + Applicants.applicantSurname}
                                                 </Typography>
                                                 <Typography variant="h8" sx={{
                                                     color: "secondary.main",
@@ -248,7 +271,7 @@ export default function ReviewerDashboard() {
                                                     alignItems: "center",
                                                     
                                                     }}>
-                                                    Applicant: {statusApplicants.applicant.name + " " + statusApplicants.applicant.surname}
+                                                    Applicant: {statusApplicants.applicantName + " " + statusApplicants.applicantSurname}
                                                 </Typography>
                                                 <Typography variant="h8" sx={{
                                                     color: "secondary.main",
@@ -0,0 +1,69 @@
+/**
+ * Subscribes to the application change events sent by the /review/applicationEvents endpoint.
+ * EventSource can not send the authorization header, so the event stream is instead read using fetch.
+ * If the stream is closed by the server, for example when the subscription times out, a new subscription is created.
+ * @param {string} apiUrl the url of the api
+ * @param {string} token the token of the logged in reviewer
+ * @param {function} onEvent called with the event name and the parsed event data for each received event
+ * @returns a function which closes the subscription
+ */
+export const subscribeToApplicationEvents = (apiUrl, token, onEvent) => {
+    const controller = new AbortController();
+
+    const connect = () => {
+        fetch(`${apiUrl}/review/applicationEvents`, {
+            method: "GET",
+            headers: {
+                "Accept": "text/event-stream",
+                "Authorization": "Bearer "+token
+            },
+            signal: controller.signal
+        })
+        .then(async (response) => {
+            if (!response.ok) {
+                throw new Error(`Failed to subscribe: ${response.status}`);
+            }
+            const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+            let buffer = "";
+            while (true) {
+                const { value, done } = await reader.read();
+                if (done) {
+                    break;
+                }
+                buffer += value;
+
+                //Each event ends with an empty line
+                let end;
+                while ((end = buffer.indexOf("\n\n")) >= 0) {
+                    const block = buffer.slice(0, end);
+                    buffer = buffer.slice(end + 2);
+
+                    let name = "message";
+                    let data = "";
+                    block.split("\n").forEach((line) => {
+                        if (line.startsWith("event:")) {
+                            name = line.slice(6).trim();
+                        } else if (line.startsWith("data:")) {
+                            data += line.slice(5);
+                        }
+                    });
+                    if (data) {
+                        onEvent(name, name === "resync" ? data : JSON.parse(data));
+                    }
+                }
+            }
+            //The server closed the stream, so we subscribe again
+            if (!controller.signal.aborted) {
+                setTimeout(connect, 1000);
+            }
+        })
+        .catch((error) => {
+            if (error.name !== "AbortError") {
+                console.error("Application event subscription closed: " + error);
+            }
+        });
+    };
+
+    connect();
+    return () => controller.abort();
+}
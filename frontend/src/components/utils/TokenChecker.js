@@ -10,4 +10,85 @@ export const isTokenExpired = (token) => {
     } catch (error) {
         return true; // If there's an error treat as expired
     }
-}
\ No newline at end of file
+}
+
+//The refresh currently in progress, since a refresh token can only be used once, and using it again logs out the session
+let pendingRefresh = null;
+
+/**
+ * Uses the stored refresh token to get a new token and refresh token, which are stored in session storage.
+ * Simultaneous calls share a single refresh request.
+ * @param {string} apiUrl the url of the api
+ * @returns a promise resolving to the new authentication information, or null if the token could not be refreshed
+ */
+export const refreshToken = (apiUrl) => {
+    const storedRefreshToken = sessionStorage.getItem("refreshToken");
+    if (!storedRefreshToken) {
+        return Promise.resolve(null);
+    }
+    if (!pendingRefresh) {
+        pendingRefresh = fetch(`${apiUrl}/auth/refresh?refreshToken=${encodeURIComponent(storedRefreshToken)}`, {
+            method: "POST"
+        })
+        .then((response) => {
+            if (!response.ok) {
+                throw new Error(`Failed to refresh token: ${response.status}`);
+            }
+            return response.json();
+        })
+        .then((data) => {
+            //Data is in the same format as the login response {"token":<token>,"refreshToken":<refreshToken>,"role":<role>}
+            sessionStorage.setItem("token", data.token);
+            sessionStorage.setItem("refreshToken", data.refreshToken);
+            sessionStorage.setItem("role", data.role);
+            return data;
+        })
+        .catch((error) => {
+            //The refresh token is invalid, so the user has to log in again
+            console.error(error);
+            sessionStorage.removeItem("refreshToken");
+            return null;
+        })
+        .finally(() => {
+            pendingRefresh = null;
+        });
+    }
+    return pendingRefresh;
+}
+
+/**
+ * Sends a request using the stored token, and if the token is rejected, refreshes it using the stored refresh token and sends the request once more.
+ * @param {string} apiUrl the url of the api
+ * @param {string} url the url of the request
+ * @param {object} options the options of the request, the authorization header is added to its headers
+ * @param {function} onRefresh called with the new authentication information if the token was refreshed
+ * @returns a promise resolving to the response
+ */
+export const fetchWithRefresh = async (apiUrl, url, options, onRefresh) => {
+    const send = () => fetch(url, {
+        ...options,
+        headers: {
+            ...options.headers,
+            "Authorization": "Bearer "+sessionStorage.getItem("token")
+        }
+    });
+
+    const response = await send();
+    if (response.status !== 401) {
+        return response;
+    }
+    const refreshed = await refreshToken(apiUrl);
+    if (!refreshed) {
+        return response;
+    }
+    onRefresh(refreshed);
+    return send();
+}
+
+/**
+ * Checks if the user has to log in again, which is the case if the token has expired and there is no refresh token to get a new one with
+ * @returns true if the user has to log in again, false otherwise
+ */
+export const isSessionExpired = () => {
+    return isTokenExpired(sessionStorage.getItem("token")) && !sessionStorage.getItem("refreshToken");
+}